@@ -0,0 +1,161 @@
+package com.boit_droid.wallet.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free rate limiter implementing the generic cell rate algorithm (GCRA).
+ * The whole state of a key is its theoretical arrival time, kept in one AtomicLong and advanced
+ * with a compare-and-set, so a decision never blocks and never pins a virtual thread.
+ * A limit of N requests per period admits a configurable burst (N by default) and then one request
+ * every period / N, which removes the double burst a fixed window allows at its edges.
+ * A key whose theoretical arrival time has passed is indistinguishable from a new key, so idle
+ * keys are dropped without changing any decision. Once the store holds maxKeys active keys, a
+ * request from an unknown key is limited through the overflow key the caller supplies (the TCP
+ * peer, which a client cannot forge) so a flood of new keys cannot exhaust anyone else's budget.
+ * Overflow buckets are bounded by maxKeys as well; only beyond that do new keys share one bucket
+ * per limit.
+ */
+@Slf4j
+public class GcraRateLimiter {
+
+    private static final long MIN_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxKeys;
+    private final long origin = System.nanoTime();
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong lastSweep = new AtomicLong(-MIN_SWEEP_INTERVAL_NANOS);
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+
+    public GcraRateLimiter(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Try to admit one request for a key limited to limit requests per period
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire(String key, int limit, long periodMillis) {
+        return tryAcquire(key, limit, periodMillis, limit);
+    }
+
+    /**
+     * Try to admit one request for a key limited to limit requests per period, allowing at
+     * most burst requests back to back
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire(String key, int limit, long periodMillis, int burst) {
+        return tryAcquire(key, null, limit, periodMillis, burst);
+    }
+
+    /**
+     * Try to admit one request for a key limited to limit requests per period, allowing at
+     * most burst requests back to back. When the key store is full and the key is unknown,
+     * the request is limited under overflowKey instead; a null overflowKey shares one bucket
+     * per limit.
+     *
+     * @return true if the request is admitted
+     */
+    public boolean tryAcquire(String key, String overflowKey, int limit, long periodMillis, int burst) {
+        long interval = TimeUnit.MILLISECONDS.toNanos(periodMillis) / limit;
+        long tolerance = interval * burst;
+        AtomicLong state = bucketFor(key, overflowKey, interval);
+
+        while (true) {
+            long now = now();
+            long tat = state.get();
+            long newTat = Math.max(tat, now) + interval;
+            // Admitting would push the arrival time more than one full burst ahead
+            if (newTat - now > tolerance) {
+                rejectedCount.increment();
+                return false;
+            }
+            if (state.compareAndSet(tat, newTat)) {
+                allowedCount.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop every key whose theoretical arrival time has passed
+     *
+     * @return number of keys removed
+     */
+    public int evictIdle() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long now = now();
+            lastSweep.set(now);
+            int before = buckets.size();
+            // A request racing with the removal of an idle key is admitted either way; its bucket
+            // is simply recreated empty on the next request
+            buckets.values().removeIf(state -> state.get() <= now);
+            overflowBuckets.values().removeIf(state -> state.get() <= now);
+            return Math.max(0, before - buckets.size());
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long getAllowedCount() {
+        return allowedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    private AtomicLong bucketFor(String key, String overflowKey, long interval) {
+        AtomicLong state = buckets.get(key);
+        if (state != null) {
+            return state;
+        }
+        if (buckets.size() >= maxKeys) {
+            long now = now();
+            if (now - lastSweep.get() >= MIN_SWEEP_INTERVAL_NANOS) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxKeys) {
+                overflowCount.increment();
+                if (overflowBuckets.isEmpty()) {
+                    log.warn("Rate limiter key store full ({} active keys), new clients are limited per peer", maxKeys);
+                }
+                String bucketKey = overflowKey;
+                if (bucketKey == null || (overflowBuckets.size() >= maxKeys && !overflowBuckets.containsKey(bucketKey))) {
+                    bucketKey = "*:" + interval;
+                }
+                return overflowBuckets.computeIfAbsent(bucketKey, ignored -> new AtomicLong());
+            }
+        }
+        return buckets.computeIfAbsent(key, ignored -> new AtomicLong());
+    }
+
+    private long now() {
+        // Relative to construction so a fresh bucket at zero is always idle
+        return System.nanoTime() - origin;
+    }
+}
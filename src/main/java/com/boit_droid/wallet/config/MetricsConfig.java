@@ -0,0 +1,43 @@
+package com.boit_droid.wallet.config;
+
+import com.boit_droid.wallet.service.OtpStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gauges and counters over the in-process state that bounds request handling.
+ * Meters owned by a single service are registered in that service; these cover components that
+ * are built without a registry so they stay usable on their own.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder rateLimiterMetrics(RateLimitingFilter rateLimitingFilter) {
+        GcraRateLimiter rateLimiter = rateLimitingFilter.getRateLimiter();
+        return registry -> {
+            Gauge.builder("wallet.ratelimit.keys", rateLimiter, GcraRateLimiter::size)
+                .description("Clients and routes currently tracked by the rate limiter").register(registry);
+            FunctionCounter.builder("wallet.ratelimit.requests", rateLimiter, GcraRateLimiter::getAllowedCount)
+                .tag("result", "allowed").register(registry);
+            FunctionCounter.builder("wallet.ratelimit.requests", rateLimiter, GcraRateLimiter::getRejectedCount)
+                .tag("result", "rejected").register(registry);
+            FunctionCounter.builder("wallet.ratelimit.overflow", rateLimiter, GcraRateLimiter::getOverflowCount)
+                .description("Requests limited through an overflow bucket because the key table was full")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder otpStoreMetrics(OtpStore otpStore) {
+        return registry -> {
+            Gauge.builder("wallet.otp.store.size", otpStore, OtpStore::size)
+                .description("Outstanding one-time passwords").register(registry);
+            FunctionCounter.builder("wallet.otp.store.expired", otpStore, OtpStore::getExpiredCount)
+                .description("One-time passwords removed because their time to live elapsed").register(registry);
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.boit_droid.wallet.config;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Route to rate limit policy table, compiled once from the configured route policies.
+ * Each pattern is parsed with PathPatternParser and hung in a trie under its literal path
+ * prefix, so classifying a request walks the trie along the request path and only runs the
+ * full pattern match for the few routes found on that walk. The deepest candidate that
+ * matches wins; among routes under the same prefix the configured order decides.
+ */
+public class RateLimitRouteTable {
+
+    private final Node root = new Node();
+    private final Policy defaultPolicy;
+    private final int routeCount;
+
+    public RateLimitRouteTable(List<WalletConfigurationProperties.RateLimitRoute> routes, int defaultLimit, int defaultBurst) {
+        PathPatternParser parser = new PathPatternParser();
+        int index = 0;
+        for (WalletConfigurationProperties.RateLimitRoute route : routes) {
+            if (!StringUtils.hasText(route.getPattern()) || route.getLimit() < 1) {
+                throw new IllegalArgumentException("Rate limit route " + index + " needs a pattern and a positive limit");
+            }
+            if (route.getKeyStrategy() != WalletConfigurationProperties.RateLimitRoute.KeyStrategy.CLIENT_IP
+                && !route.getPattern().contains("{" + route.getKeyVariable() + "}")) {
+                throw new IllegalArgumentException("Rate limit route " + route.getPattern()
+                    + " keys on variable " + route.getKeyVariable() + " which the pattern does not declare");
+            }
+            Policy policy = new Policy("r" + index + ":",
+                StringUtils.hasText(route.getMethod()) ? route.getMethod().toUpperCase(Locale.ROOT) : null,
+                parser.parse(route.getPattern()), route.getLimit(), burstOf(route.getBurst(), route.getLimit()),
+                route.getKeyStrategy(), route.getKeyVariable());
+            nodeFor(route.getPattern()).policies.add(policy);
+            index++;
+        }
+        this.routeCount = index;
+        this.defaultPolicy = new Policy("d:", null, null, defaultLimit, burstOf(defaultBurst, defaultLimit),
+            WalletConfigurationProperties.RateLimitRoute.KeyStrategy.CLIENT_IP, null);
+    }
+
+    /**
+     * Find the policy for a request path relative to the context path
+     */
+    public Policy classify(String method, String path) {
+        Node[] visited = new Node[8];
+        int depth = 0;
+        Node node = root;
+        visited[depth++] = node;
+
+        int start = 1;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            Node child = node.children.get(path.substring(start, end));
+            if (child == null) {
+                break;
+            }
+            node = child;
+            if (depth == visited.length) {
+                Node[] grown = new Node[depth * 2];
+                System.arraycopy(visited, 0, grown, 0, depth);
+                visited = grown;
+            }
+            visited[depth++] = node;
+            start = end + 1;
+        }
+
+        PathContainer pathContainer = null;
+        for (int i = depth - 1; i >= 0; i--) {
+            for (Policy policy : visited[i].policies) {
+                if (policy.method != null && !policy.method.equals(method)) {
+                    continue;
+                }
+                if (pathContainer == null) {
+                    pathContainer = PathContainer.parsePath(path);
+                }
+                if (policy.pattern.matches(pathContainer)) {
+                    return policy;
+                }
+            }
+        }
+        return defaultPolicy;
+    }
+
+    public int getRouteCount() {
+        return routeCount;
+    }
+
+    private Node nodeFor(String pattern) {
+        Node node = root;
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.indexOf('{') >= 0 || segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                break;
+            }
+            node = node.children.computeIfAbsent(segment, ignored -> new Node());
+        }
+        return node;
+    }
+
+    private static int burstOf(int burst, int limit) {
+        return burst > 0 ? burst : limit;
+    }
+
+    /**
+     * Compiled policy of one route
+     */
+    public static final class Policy {
+        private final String bucketPrefix;
+        private final String method;
+        private final PathPattern pattern;
+        private final int limit;
+        private final int burst;
+        private final WalletConfigurationProperties.RateLimitRoute.KeyStrategy keyStrategy;
+        private final String keyVariable;
+
+        Policy(String bucketPrefix, String method, PathPattern pattern, int limit, int burst,
+               WalletConfigurationProperties.RateLimitRoute.KeyStrategy keyStrategy, String keyVariable) {
+            this.bucketPrefix = bucketPrefix;
+            this.method = method;
+            this.pattern = pattern;
+            this.limit = limit;
+            this.burst = burst;
+            this.keyStrategy = keyStrategy;
+            this.keyVariable = keyVariable;
+        }
+
+        /**
+         * Bucket key of a request under this policy; every route has its own buckets
+         */
+        public String bucketKey(String path, String clientId) {
+            if (keyStrategy != WalletConfigurationProperties.RateLimitRoute.KeyStrategy.CLIENT_IP) {
+                PathPattern.PathMatchInfo matchInfo = pattern.matchAndExtract(PathContainer.parsePath(path));
+                String value = matchInfo != null ? matchInfo.getUriVariables().get(keyVariable) : null;
+                if (StringUtils.hasText(value)) {
+                    String resourceKey = bucketPrefix + keyVariable + "=" + value;
+                    return keyStrategy == WalletConfigurationProperties.RateLimitRoute.KeyStrategy.PATH_VARIABLE
+                        ? resourceKey : resourceKey + "@" + clientId;
+                }
+            }
+            return bucketPrefix + clientId;
+        }
+
+        /**
+         * Bucket key of a request under this policy once the key store is full: per route and peer
+         */
+        public String overflowKey(String peerAddress) {
+            return bucketPrefix + "peer=" + peerAddress;
+        }
+
+        public String getPattern() {
+            return pattern != null ? pattern.getPatternString() : "default";
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<Policy> policies = new ArrayList<>();
+    }
+}
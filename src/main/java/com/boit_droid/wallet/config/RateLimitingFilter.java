@@ -9,39 +9,51 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
 
 /**
- * Rate limiting filter to prevent abuse and ensure fair usage of API endpoints
+ * Rate limiting filter to prevent abuse and ensure fair usage of API endpoints.
+ * Clients are identified by the TCP peer address. X-Forwarded-For and X-Real-IP are only read
+ * when the peer is one of wallet.security.rate-limit-trusted-proxies; the client is then the
+ * right-most X-Forwarded-For hop that is not itself a trusted proxy, since hops further left
+ * were written by the client and can be anything.
  */
 @Slf4j
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private static final int DEFAULT_REQUESTS_PER_MINUTE = 60;
-    private static final int SENSITIVE_REQUESTS_PER_MINUTE = 10;
-    private static final int OTP_REQUESTS_PER_MINUTE = 5; // Very restrictive for OTP operations
     private static final long WINDOW_SIZE_MILLIS = 60_000; // 1 minute
     
-    private final ConcurrentHashMap<String, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GcraRateLimiter rateLimiter;
+    private final RateLimitRouteTable routeTable;
+    private final ObjectMapper objectMapper;
+    private final Set<String> trustedProxies;
+
+    public RateLimitingFilter(WalletConfigurationProperties walletProperties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        WalletConfigurationProperties.Security security = walletProperties.getSecurity();
+        this.rateLimiter = new GcraRateLimiter(security.getRateLimitMaxKeys());
+        this.routeTable = new RateLimitRouteTable(security.getRateLimitRoutes(),
+            security.getRateLimitDefaultLimit(), security.getRateLimitDefaultBurst());
+        this.trustedProxies = Set.copyOf(security.getRateLimitTrustedProxies());
+        log.info("Rate limiting {} routes, default limit {} per minute",
+            routeTable.getRouteCount(), security.getRateLimitDefaultLimit());
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         String clientId = getClientIdentifier(request);
-        String endpoint = request.getRequestURI();
-        int requestLimit = getRequestLimit(endpoint);
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RateLimitRouteTable.Policy policy = routeTable.classify(request.getMethod(), path);
         
-        if (isRateLimited(clientId, requestLimit)) {
+        if (isRateLimited(clientId, request.getRemoteAddr(), path, policy)) {
             handleRateLimitExceeded(response, clientId, request.getRequestURI());
             return;
         }
@@ -50,75 +62,64 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Get client identifier for rate limiting (IP address for now)
+     * Get client identifier for rate limiting: the peer address, or the forwarded client address
+     * when the peer is a trusted proxy
      */
-    private String getClientIdentifier(HttpServletRequest request) {
+    String getClientIdentifier(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!trustedProxies.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            String[] hops = xForwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && !trustedProxies.contains(hop)) {
+                    return hop;
+                }
+            }
         }
         
         String xRealIp = request.getHeader("X-Real-IP");
         if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
+            return xRealIp.trim();
         }
         
-        return request.getRemoteAddr();
+        return remoteAddr;
     }
 
     /**
-     * Get request limit based on endpoint sensitivity
+     * Check if client has exceeded the limit of the route policy
      */
-    private int getRequestLimit(String endpoint) {
-        // OTP-related endpoints with very restrictive limits
-        if (endpoint.contains("/otp") || 
-            endpoint.contains("otp") ||
-            (endpoint.contains("/transfer") && endpoint.contains("POST")) ||
-            (endpoint.contains("/pin") && endpoint.contains("PUT"))) {
-            return OTP_REQUESTS_PER_MINUTE;
-        }
-        
-        // Sensitive endpoints with lower limits
-        if (endpoint.contains("/transfer") || 
-            endpoint.contains("/topup") || 
-            endpoint.contains("/pin") ||
-            endpoint.contains("/kyc") ||
-            endpoint.contains("/register") ||
-            endpoint.contains("/status")) {
-            return SENSITIVE_REQUESTS_PER_MINUTE;
+    private boolean isRateLimited(String clientId, String peerAddress, String path, RateLimitRouteTable.Policy policy) {
+        String bucketKey = policy.bucketKey(path, clientId);
+        // Once the key store is full, unknown clients are limited per route and peer rather than all together
+        String overflowKey = policy.overflowKey(peerAddress);
+        if (rateLimiter.tryAcquire(bucketKey, overflowKey, policy.getLimit(), WINDOW_SIZE_MILLIS, policy.getBurst())) {
+            return false;
         }
-        
-        return DEFAULT_REQUESTS_PER_MINUTE;
+        log.warn("Rate limit exceeded for client: {} - Route: {}, Limit: {} per minute",
+                clientId, policy.getPattern(), policy.getLimit());
+        return true;
     }
 
     /**
-     * Check if client has exceeded rate limit
+     * Drop clients that have been idle long enough to have a full burst again
      */
-    private boolean isRateLimited(String clientId, int requestLimit) {
-        long currentTime = System.currentTimeMillis();
-        
-        RateLimitInfo rateLimitInfo = rateLimitMap.computeIfAbsent(clientId, 
-            k -> new RateLimitInfo(currentTime));
-        
-        synchronized (rateLimitInfo) {
-            // Reset window if expired
-            if (currentTime - rateLimitInfo.getWindowStart() >= WINDOW_SIZE_MILLIS) {
-                rateLimitInfo.reset(currentTime);
-            }
-            
-            // Check if limit exceeded
-            if (rateLimitInfo.getRequestCount().get() >= requestLimit) {
-                log.warn("Rate limit exceeded for client: {} - Current count: {}, Limit: {}", 
-                        clientId, rateLimitInfo.getRequestCount().get(), requestLimit);
-                return true;
-            }
-            
-            // Increment request count
-            rateLimitInfo.getRequestCount().incrementAndGet();
-            return false;
+    @Scheduled(fixedDelayString = "${wallet.security.rate-limit-sweep-interval-ms:30000}")
+    public void evictIdleClients() {
+        int removed = rateLimiter.evictIdle();
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit entries, {} remaining", removed, rateLimiter.size());
         }
     }
 
+    public GcraRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
     /**
      * Handle rate limit exceeded response
      */
@@ -138,30 +139,4 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         
         log.warn("Rate limit exceeded response sent to client: {}", clientId);
     }
-
-    /**
-     * Rate limit information holder
-     */
-    private static class RateLimitInfo {
-        private final AtomicInteger requestCount;
-        private final AtomicLong windowStart;
-
-        public RateLimitInfo(long windowStart) {
-            this.requestCount = new AtomicInteger(0);
-            this.windowStart = new AtomicLong(windowStart);
-        }
-
-        public void reset(long newWindowStart) {
-            this.requestCount.set(0);
-            this.windowStart.set(newWindowStart);
-        }
-
-        public AtomicInteger getRequestCount() {
-            return requestCount;
-        }
-
-        public long getWindowStart() {
-            return windowStart.get();
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.boit_droid.wallet.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background maintenance jobs (retention sweeps and similar)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
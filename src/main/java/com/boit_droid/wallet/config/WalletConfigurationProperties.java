@@ -1,9 +1,23 @@
 package com.boit_droid.wallet.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -37,6 +51,16 @@ public class WalletConfigurationProperties {
      */
     private Audit audit = new Audit();
 
+    /**
+     * Transfer risk scoring configuration
+     */
+    private Risk risk = new Risk();
+
+    /**
+     * Wallet QR code rendering and caching configuration
+     */
+    private QrCode qrCode = new QrCode();
+
     // Getters and setters
     public Security getSecurity() {
         return security;
@@ -70,6 +94,22 @@ public class WalletConfigurationProperties {
         this.audit = audit;
     }
 
+    public Risk getRisk() {
+        return risk;
+    }
+
+    public void setRisk(Risk risk) {
+        this.risk = risk;
+    }
+
+    public QrCode getQrCode() {
+        return qrCode;
+    }
+
+    public void setQrCode(QrCode qrCode) {
+        this.qrCode = qrCode;
+    }
+
     /**
      * Security-related configuration
      */
@@ -89,6 +129,80 @@ public class WalletConfigurationProperties {
         @NotBlank
         private String saltAlgorithm = "SHA256";
 
+        @Min(10)
+        private long otpWheelTickMs = 1000; // Expiry resolution of the OTP store
+
+        @Min(16)
+        private int otpWheelSize = 512; // Slots per wheel rotation, rounded up to a power of two
+
+        @NotBlank
+        private String otpStateBackend = "memory"; // memory or jdbc; jdbc shares OTP and rate-limit state across nodes
+
+        @Min(1000)
+        private long otpNearCacheTtlMs = 60000;
+
+        @Min(1)
+        private int otpNearCacheMaxEntries = 10000;
+
+        @Min(1000)
+        private long otpStateCleanupIntervalMs = 60000;
+
+        @Min(100)
+        private int rateLimitMaxKeys = 100000; // Active clients tracked before new ones fall back to per-peer overflow buckets
+
+        @Min(1000)
+        private long rateLimitSweepIntervalMs = 30000;
+
+        @Min(1)
+        private int rateLimitDefaultLimit = 60; // Requests per minute for routes without a policy
+
+        @Min(0)
+        private int rateLimitDefaultBurst = 0; // 0 allows a burst of the full limit
+
+        // Peer addresses whose X-Forwarded-For / X-Real-IP headers are believed; empty ignores both headers
+        private List<String> rateLimitTrustedProxies = new ArrayList<>();
+
+        @Min(60)
+        private long monitoringWindowSeconds = 1800; // Longest window security pattern checks can look back
+
+        @Min(1)
+        private long monitoringSlotSeconds = 15; // Resolution of the failure counters
+
+        @Min(16)
+        private int monitoringDistinctCapacity = 32; // Distinct IPs per user / users per IP remembered
+
+        @Min(100)
+        private int monitoringMaxEntries = 100000; // Per index; new keys are not tracked beyond this
+
+        @Min(1000)
+        private long monitoringSweepIntervalMs = 60000;
+
+        @Min(10)
+        @Max(20)
+        private int pinHashCostLog2 = 14; // scrypt N = 2^cost; memory per hash is 128 * N * block size bytes
+
+        @Min(1)
+        @Max(16)
+        private int pinHashBlockSize = 8;
+
+        @Min(1)
+        @Max(16)
+        private int pinHashParallelism = 1;
+
+        @Min(1)
+        private int pinHashThreads = 2; // Dedicated hashing threads, kept below the core count
+
+        @Min(1)
+        private int pinHashQueueCapacity = 32; // Hashes waiting for a thread before new ones are rejected
+
+        @Min(100)
+        private long pinHashTimeoutMs = 2000;
+
+        // Route policies; the route with the longest literal path prefix wins, ties go to the earlier entry.
+        // The default table is kept only in application.yml
+        @Valid
+        private List<RateLimitRoute> rateLimitRoutes = RateLimitRoute.bundledDefaults();
+
         // Getters and setters
         public int getPinMinLength() {
             return pinMinLength;
@@ -129,6 +243,190 @@ public class WalletConfigurationProperties {
         public void setSaltAlgorithm(String saltAlgorithm) {
             this.saltAlgorithm = saltAlgorithm;
         }
+
+        public long getOtpWheelTickMs() {
+            return otpWheelTickMs;
+        }
+
+        public void setOtpWheelTickMs(long otpWheelTickMs) {
+            this.otpWheelTickMs = otpWheelTickMs;
+        }
+
+        public int getOtpWheelSize() {
+            return otpWheelSize;
+        }
+
+        public void setOtpWheelSize(int otpWheelSize) {
+            this.otpWheelSize = otpWheelSize;
+        }
+
+        public String getOtpStateBackend() {
+            return otpStateBackend;
+        }
+
+        public void setOtpStateBackend(String otpStateBackend) {
+            this.otpStateBackend = otpStateBackend;
+        }
+
+        public long getOtpNearCacheTtlMs() {
+            return otpNearCacheTtlMs;
+        }
+
+        public void setOtpNearCacheTtlMs(long otpNearCacheTtlMs) {
+            this.otpNearCacheTtlMs = otpNearCacheTtlMs;
+        }
+
+        public int getOtpNearCacheMaxEntries() {
+            return otpNearCacheMaxEntries;
+        }
+
+        public void setOtpNearCacheMaxEntries(int otpNearCacheMaxEntries) {
+            this.otpNearCacheMaxEntries = otpNearCacheMaxEntries;
+        }
+
+        public long getOtpStateCleanupIntervalMs() {
+            return otpStateCleanupIntervalMs;
+        }
+
+        public void setOtpStateCleanupIntervalMs(long otpStateCleanupIntervalMs) {
+            this.otpStateCleanupIntervalMs = otpStateCleanupIntervalMs;
+        }
+
+        public int getRateLimitMaxKeys() {
+            return rateLimitMaxKeys;
+        }
+
+        public void setRateLimitMaxKeys(int rateLimitMaxKeys) {
+            this.rateLimitMaxKeys = rateLimitMaxKeys;
+        }
+
+        public long getRateLimitSweepIntervalMs() {
+            return rateLimitSweepIntervalMs;
+        }
+
+        public void setRateLimitSweepIntervalMs(long rateLimitSweepIntervalMs) {
+            this.rateLimitSweepIntervalMs = rateLimitSweepIntervalMs;
+        }
+
+        public int getRateLimitDefaultLimit() {
+            return rateLimitDefaultLimit;
+        }
+
+        public void setRateLimitDefaultLimit(int rateLimitDefaultLimit) {
+            this.rateLimitDefaultLimit = rateLimitDefaultLimit;
+        }
+
+        public int getRateLimitDefaultBurst() {
+            return rateLimitDefaultBurst;
+        }
+
+        public void setRateLimitDefaultBurst(int rateLimitDefaultBurst) {
+            this.rateLimitDefaultBurst = rateLimitDefaultBurst;
+        }
+
+        public List<String> getRateLimitTrustedProxies() {
+            return rateLimitTrustedProxies;
+        }
+
+        public void setRateLimitTrustedProxies(List<String> rateLimitTrustedProxies) {
+            this.rateLimitTrustedProxies = rateLimitTrustedProxies;
+        }
+
+        public long getMonitoringWindowSeconds() {
+            return monitoringWindowSeconds;
+        }
+
+        public void setMonitoringWindowSeconds(long monitoringWindowSeconds) {
+            this.monitoringWindowSeconds = monitoringWindowSeconds;
+        }
+
+        public long getMonitoringSlotSeconds() {
+            return monitoringSlotSeconds;
+        }
+
+        public void setMonitoringSlotSeconds(long monitoringSlotSeconds) {
+            this.monitoringSlotSeconds = monitoringSlotSeconds;
+        }
+
+        public int getMonitoringDistinctCapacity() {
+            return monitoringDistinctCapacity;
+        }
+
+        public void setMonitoringDistinctCapacity(int monitoringDistinctCapacity) {
+            this.monitoringDistinctCapacity = monitoringDistinctCapacity;
+        }
+
+        public int getMonitoringMaxEntries() {
+            return monitoringMaxEntries;
+        }
+
+        public void setMonitoringMaxEntries(int monitoringMaxEntries) {
+            this.monitoringMaxEntries = monitoringMaxEntries;
+        }
+
+        public long getMonitoringSweepIntervalMs() {
+            return monitoringSweepIntervalMs;
+        }
+
+        public void setMonitoringSweepIntervalMs(long monitoringSweepIntervalMs) {
+            this.monitoringSweepIntervalMs = monitoringSweepIntervalMs;
+        }
+
+        public int getPinHashCostLog2() {
+            return pinHashCostLog2;
+        }
+
+        public void setPinHashCostLog2(int pinHashCostLog2) {
+            this.pinHashCostLog2 = pinHashCostLog2;
+        }
+
+        public int getPinHashBlockSize() {
+            return pinHashBlockSize;
+        }
+
+        public void setPinHashBlockSize(int pinHashBlockSize) {
+            this.pinHashBlockSize = pinHashBlockSize;
+        }
+
+        public int getPinHashParallelism() {
+            return pinHashParallelism;
+        }
+
+        public void setPinHashParallelism(int pinHashParallelism) {
+            this.pinHashParallelism = pinHashParallelism;
+        }
+
+        public int getPinHashThreads() {
+            return pinHashThreads;
+        }
+
+        public void setPinHashThreads(int pinHashThreads) {
+            this.pinHashThreads = pinHashThreads;
+        }
+
+        public int getPinHashQueueCapacity() {
+            return pinHashQueueCapacity;
+        }
+
+        public void setPinHashQueueCapacity(int pinHashQueueCapacity) {
+            this.pinHashQueueCapacity = pinHashQueueCapacity;
+        }
+
+        public long getPinHashTimeoutMs() {
+            return pinHashTimeoutMs;
+        }
+
+        public void setPinHashTimeoutMs(long pinHashTimeoutMs) {
+            this.pinHashTimeoutMs = pinHashTimeoutMs;
+        }
+
+        public List<RateLimitRoute> getRateLimitRoutes() {
+            return rateLimitRoutes;
+        }
+
+        public void setRateLimitRoutes(List<RateLimitRoute> rateLimitRoutes) {
+            this.rateLimitRoutes = rateLimitRoutes;
+        }
     }
 
     /**
@@ -153,6 +451,20 @@ public class WalletConfigurationProperties {
         @Min(1)
         private int statementMaxDays = 365;
 
+        private boolean integritySealEnabled = true; // Seal each closed UTC day into a Merkle root per currency
+
+        @Min(60000)
+        private long integritySealIntervalMs = 3600000;
+
+        @Min(0)
+        private long integritySealGraceMinutes = 15; // Wait after midnight UTC before a day counts as closed
+
+        @Min(100)
+        private int integrityPageSize = 5000; // Transactions loaded per query when hashing a day
+
+        @Min(0)
+        private int integrityParallelism = 0; // Fork-join threads for hashing; 0 uses the available processors
+
         // Getters and setters
         public double getMinTransferAmount() {
             return minTransferAmount;
@@ -201,6 +513,46 @@ public class WalletConfigurationProperties {
         public void setStatementMaxDays(int statementMaxDays) {
             this.statementMaxDays = statementMaxDays;
         }
+
+        public boolean isIntegritySealEnabled() {
+            return integritySealEnabled;
+        }
+
+        public void setIntegritySealEnabled(boolean integritySealEnabled) {
+            this.integritySealEnabled = integritySealEnabled;
+        }
+
+        public long getIntegritySealIntervalMs() {
+            return integritySealIntervalMs;
+        }
+
+        public void setIntegritySealIntervalMs(long integritySealIntervalMs) {
+            this.integritySealIntervalMs = integritySealIntervalMs;
+        }
+
+        public long getIntegritySealGraceMinutes() {
+            return integritySealGraceMinutes;
+        }
+
+        public void setIntegritySealGraceMinutes(long integritySealGraceMinutes) {
+            this.integritySealGraceMinutes = integritySealGraceMinutes;
+        }
+
+        public int getIntegrityPageSize() {
+            return integrityPageSize;
+        }
+
+        public void setIntegrityPageSize(int integrityPageSize) {
+            this.integrityPageSize = integrityPageSize;
+        }
+
+        public int getIntegrityParallelism() {
+            return integrityParallelism;
+        }
+
+        public void setIntegrityParallelism(int integrityParallelism) {
+            this.integrityParallelism = integrityParallelism;
+        }
     }
 
     /**
@@ -220,6 +572,78 @@ public class WalletConfigurationProperties {
 
         private boolean enableSmsNotifications = false;
 
+        private boolean emailBatchingEnabled = true;
+
+        @Min(1)
+        private int emailBatchSize = 50; // Messages sent over one SMTP session
+
+        @Min(1)
+        private int emailMaxConcurrentSessions = 4;
+
+        @Min(1)
+        private int emailQueueCapacity = 1000;
+
+        @Min(1)
+        private long emailFlushIntervalMs = 50;
+
+        @Min(1000)
+        private long emailSendTimeoutMs = 30000;
+
+        @Min(1)
+        private long countCacheTtlSeconds = 30;
+
+        @Min(1)
+        private int countCacheMaxEntries = 10000;
+
+        private boolean countReconcileEnabled = true;
+
+        @Min(1)
+        private int countReconcileChunkSize = 200;
+
+        @Min(1)
+        private int countReconcileMaxUsersPerRun = 20000; // Bounds the work of a single pass
+
+        @Min(60000)
+        private long countReconcileIntervalMs = 21600000;
+
+        @Min(1)
+        private int streamMaxConnections = 10000;
+
+        @Min(1)
+        private int streamMaxConnectionsPerUser = 5;
+
+        @Min(1)
+        private int streamBufferSize = 64; // Pending events per connection before it is dropped
+
+        @Min(1)
+        private long streamHeartbeatSeconds = 25;
+
+        @Min(60000)
+        private long streamTimeoutMs = 1800000; // Clients reconnect after this
+
+        @Min(1)
+        private int streamDeliveryThreads = 4;
+
+        private boolean retentionEnabled = true;
+
+        @Min(1)
+        private int readRetentionDays = 30;
+
+        @Min(1)
+        private int unreadRetentionDays = 90;
+
+        @Min(1)
+        private int archiveRetentionDays = 365;
+
+        @Min(1)
+        private int retentionChunkSize = 500;
+
+        @Min(1)
+        private int retentionMaxChunksPerRun = 200; // Bounds the work of a single sweep
+
+        @Min(60000)
+        private long retentionSweepIntervalMs = 3600000;
+
         // Getters and setters
         public int getMaxRetryAttempts() {
             return maxRetryAttempts;
@@ -260,63 +684,956 @@ public class WalletConfigurationProperties {
         public void setEnableSmsNotifications(boolean enableSmsNotifications) {
             this.enableSmsNotifications = enableSmsNotifications;
         }
-    }
 
-    /**
-     * Audit-related configuration
-     */
-    public static class Audit {
-        private boolean enableDetailedLogging = true;
+        public boolean isEmailBatchingEnabled() {
+            return emailBatchingEnabled;
+        }
 
-        private boolean enableTransactionLogging = true;
+        public void setEmailBatchingEnabled(boolean emailBatchingEnabled) {
+            this.emailBatchingEnabled = emailBatchingEnabled;
+        }
 
-        private boolean enableSecurityLogging = true;
+        public int getEmailBatchSize() {
+            return emailBatchSize;
+        }
 
-        @Min(1)
-        private int auditRetentionDays = 2555; // 7 years
+        public void setEmailBatchSize(int emailBatchSize) {
+            this.emailBatchSize = emailBatchSize;
+        }
 
-        @Min(1)
-        private int logRotationDays = 30;
+        public int getEmailMaxConcurrentSessions() {
+            return emailMaxConcurrentSessions;
+        }
 
-        // Getters and setters
-        public boolean isEnableDetailedLogging() {
-            return enableDetailedLogging;
+        public void setEmailMaxConcurrentSessions(int emailMaxConcurrentSessions) {
+            this.emailMaxConcurrentSessions = emailMaxConcurrentSessions;
         }
 
-        public void setEnableDetailedLogging(boolean enableDetailedLogging) {
-            this.enableDetailedLogging = enableDetailedLogging;
+        public int getEmailQueueCapacity() {
+            return emailQueueCapacity;
         }
 
-        public boolean isEnableTransactionLogging() {
-            return enableTransactionLogging;
+        public void setEmailQueueCapacity(int emailQueueCapacity) {
+            this.emailQueueCapacity = emailQueueCapacity;
         }
 
-        public void setEnableTransactionLogging(boolean enableTransactionLogging) {
-            this.enableTransactionLogging = enableTransactionLogging;
+        public long getEmailFlushIntervalMs() {
+            return emailFlushIntervalMs;
         }
 
-        public boolean isEnableSecurityLogging() {
-            return enableSecurityLogging;
+        public void setEmailFlushIntervalMs(long emailFlushIntervalMs) {
+            this.emailFlushIntervalMs = emailFlushIntervalMs;
         }
 
-        public void setEnableSecurityLogging(boolean enableSecurityLogging) {
-            this.enableSecurityLogging = enableSecurityLogging;
+        public long getEmailSendTimeoutMs() {
+            return emailSendTimeoutMs;
         }
 
-        public int getAuditRetentionDays() {
-            return auditRetentionDays;
+        public void setEmailSendTimeoutMs(long emailSendTimeoutMs) {
+            this.emailSendTimeoutMs = emailSendTimeoutMs;
         }
 
-        public void setAuditRetentionDays(int auditRetentionDays) {
-            this.auditRetentionDays = auditRetentionDays;
+        public long getCountCacheTtlSeconds() {
+            return countCacheTtlSeconds;
         }
 
-        public int getLogRotationDays() {
-            return logRotationDays;
+        public void setCountCacheTtlSeconds(long countCacheTtlSeconds) {
+            this.countCacheTtlSeconds = countCacheTtlSeconds;
         }
 
-        public void setLogRotationDays(int logRotationDays) {
-            this.logRotationDays = logRotationDays;
+        public int getCountCacheMaxEntries() {
+            return countCacheMaxEntries;
+        }
+
+        public void setCountCacheMaxEntries(int countCacheMaxEntries) {
+            this.countCacheMaxEntries = countCacheMaxEntries;
+        }
+
+        public boolean isCountReconcileEnabled() {
+            return countReconcileEnabled;
+        }
+
+        public void setCountReconcileEnabled(boolean countReconcileEnabled) {
+            this.countReconcileEnabled = countReconcileEnabled;
+        }
+
+        public int getCountReconcileChunkSize() {
+            return countReconcileChunkSize;
+        }
+
+        public void setCountReconcileChunkSize(int countReconcileChunkSize) {
+            this.countReconcileChunkSize = countReconcileChunkSize;
+        }
+
+        public int getCountReconcileMaxUsersPerRun() {
+            return countReconcileMaxUsersPerRun;
+        }
+
+        public void setCountReconcileMaxUsersPerRun(int countReconcileMaxUsersPerRun) {
+            this.countReconcileMaxUsersPerRun = countReconcileMaxUsersPerRun;
+        }
+
+        public long getCountReconcileIntervalMs() {
+            return countReconcileIntervalMs;
+        }
+
+        public void setCountReconcileIntervalMs(long countReconcileIntervalMs) {
+            this.countReconcileIntervalMs = countReconcileIntervalMs;
+        }
+
+        public int getStreamMaxConnections() {
+            return streamMaxConnections;
+        }
+
+        public void setStreamMaxConnections(int streamMaxConnections) {
+            this.streamMaxConnections = streamMaxConnections;
+        }
+
+        public int getStreamMaxConnectionsPerUser() {
+            return streamMaxConnectionsPerUser;
+        }
+
+        public void setStreamMaxConnectionsPerUser(int streamMaxConnectionsPerUser) {
+            this.streamMaxConnectionsPerUser = streamMaxConnectionsPerUser;
+        }
+
+        public int getStreamBufferSize() {
+            return streamBufferSize;
+        }
+
+        public void setStreamBufferSize(int streamBufferSize) {
+            this.streamBufferSize = streamBufferSize;
+        }
+
+        public long getStreamHeartbeatSeconds() {
+            return streamHeartbeatSeconds;
+        }
+
+        public void setStreamHeartbeatSeconds(long streamHeartbeatSeconds) {
+            this.streamHeartbeatSeconds = streamHeartbeatSeconds;
+        }
+
+        public long getStreamTimeoutMs() {
+            return streamTimeoutMs;
+        }
+
+        public void setStreamTimeoutMs(long streamTimeoutMs) {
+            this.streamTimeoutMs = streamTimeoutMs;
+        }
+
+        public int getStreamDeliveryThreads() {
+            return streamDeliveryThreads;
+        }
+
+        public void setStreamDeliveryThreads(int streamDeliveryThreads) {
+            this.streamDeliveryThreads = streamDeliveryThreads;
+        }
+
+        public boolean isRetentionEnabled() {
+            return retentionEnabled;
+        }
+
+        public void setRetentionEnabled(boolean retentionEnabled) {
+            this.retentionEnabled = retentionEnabled;
+        }
+
+        public int getReadRetentionDays() {
+            return readRetentionDays;
+        }
+
+        public void setReadRetentionDays(int readRetentionDays) {
+            this.readRetentionDays = readRetentionDays;
+        }
+
+        public int getUnreadRetentionDays() {
+            return unreadRetentionDays;
+        }
+
+        public void setUnreadRetentionDays(int unreadRetentionDays) {
+            this.unreadRetentionDays = unreadRetentionDays;
+        }
+
+        public int getArchiveRetentionDays() {
+            return archiveRetentionDays;
+        }
+
+        public void setArchiveRetentionDays(int archiveRetentionDays) {
+            this.archiveRetentionDays = archiveRetentionDays;
+        }
+
+        public int getRetentionChunkSize() {
+            return retentionChunkSize;
+        }
+
+        public void setRetentionChunkSize(int retentionChunkSize) {
+            this.retentionChunkSize = retentionChunkSize;
+        }
+
+        public int getRetentionMaxChunksPerRun() {
+            return retentionMaxChunksPerRun;
+        }
+
+        public void setRetentionMaxChunksPerRun(int retentionMaxChunksPerRun) {
+            this.retentionMaxChunksPerRun = retentionMaxChunksPerRun;
+        }
+
+        public long getRetentionSweepIntervalMs() {
+            return retentionSweepIntervalMs;
+        }
+
+        public void setRetentionSweepIntervalMs(long retentionSweepIntervalMs) {
+            this.retentionSweepIntervalMs = retentionSweepIntervalMs;
+        }
+    }
+
+    /**
+     * Audit-related configuration
+     */
+    public static class Audit {
+        private boolean enableDetailedLogging = true;
+
+        private boolean enableTransactionLogging = true;
+
+        private boolean enableSecurityLogging = true;
+
+        @Min(1)
+        private int auditRetentionDays = 2555; // 7 years
+
+        @Min(1)
+        private int logRotationDays = 30;
+
+        /**
+         * When the audit writer considers a transaction's audit rows stored
+         */
+        public enum WriterMode {
+            ASYNC, // Commit returns once the events are queued
+            SYNC_ON_COMMIT // Commit waits until the writer has inserted the events
+        }
+
+        private WriterMode writerMode = WriterMode.ASYNC;
+
+        @Min(64)
+        private int writerBufferSize = 16384;
+
+        @Min(1)
+        private int writerBatchSize = 500;
+
+        @Min(1)
+        private long writerFlushIntervalMs = 10;
+
+        @Min(100)
+        private long writerSyncTimeoutMs = 5000;
+
+        @Min(1)
+        private int writerPoolSize = 2; // Connections of the writer's own pool, apart from the request pool
+
+        // Chunked purge of audit_trail rows past retentionExpiryDate; see AuditRetentionServiceImpl
+        private boolean retentionEnabled = true;
+
+        @Min(10)
+        private int retentionChunkSize = 1000;
+
+        @Min(1)
+        private int retentionMaxChunksPerRun = 500; // Bounds the work of a single sweep
+
+        @Min(60000)
+        private long retentionSweepIntervalMs = 3600000;
+
+        @Min(0)
+        private long retentionChunkPauseMs = 50;
+
+        @Min(1)
+        private long retentionMaxChunkMillis = 500; // Slower chunks shrink the next chunk and pause as long as they took
+
+        private String retentionLagQuery = ""; // Returns replication lag in seconds; blank disables the lag check
+
+        @Min(0)
+        private long retentionMaxLagSeconds = 5;
+
+        @Min(1000)
+        private long retentionLagTimeoutMs = 60000; // The sweep stops when lag stays high this long
+
+        private boolean retentionArchiveEnabled = false;
+
+        private String retentionArchiveDirectory = "audit-archive";
+
+        // Asynchronous OTP and security audit rows; see OtpAuditBatchWriter
+        @Min(64)
+        private int otpBufferSize = 8192;
+
+        @Min(1)
+        private int otpBatchSize = 200;
+
+        @Min(1)
+        private long otpFlushIntervalMs = 50;
+
+        @Min(1000)
+        private long otpAggregationWindowMs = 60000;
+
+        @Min(100)
+        private int otpMaxAggregates = 10000;
+
+        // Local hash-chained journal holding every audit event; see AuditJournal
+        private boolean journalEnabled = false;
+
+        private String journalDirectory = "audit-journal";
+
+        @Min(65536)
+        private int journalSegmentSizeBytes = 64 * 1024 * 1024;
+
+        private String journalKey = ""; // HMAC key of the record chain, required when the journal is enabled
+
+        @Min(60000)
+        private long journalCompactionIntervalMs = 3600000;
+
+        // With the journal enabled, share of non-financial events also written to audit_trail;
+        // those rows omit the old and new values, which stay in the journal
+        @Min(0)
+        @Max(100)
+        private int databaseSamplePercent = 100;
+
+        // Fields never written to audit rows, for every entity
+        private List<String> excludedFields = new ArrayList<>(List.of(
+            "auditTrailId", "operationType", "updatedAt", "version", "previousValues"));
+
+        // Per-entity field lists, keyed by entity name
+        @Valid
+        private Map<String, AuditFieldFilter> entityFields = defaultEntityFields();
+
+        private static Map<String, AuditFieldFilter> defaultEntityFields() {
+            Map<String, AuditFieldFilter> fields = new LinkedHashMap<>();
+            fields.put("Wallet", AuditFieldFilter.excluding("pinHash", "pinSalt", "salt", "signature"));
+            fields.put("User", AuditFieldFilter.excluding("password"));
+            return fields;
+        }
+
+        // Getters and setters
+        public boolean isEnableDetailedLogging() {
+            return enableDetailedLogging;
+        }
+
+        public void setEnableDetailedLogging(boolean enableDetailedLogging) {
+            this.enableDetailedLogging = enableDetailedLogging;
+        }
+
+        public boolean isEnableTransactionLogging() {
+            return enableTransactionLogging;
+        }
+
+        public void setEnableTransactionLogging(boolean enableTransactionLogging) {
+            this.enableTransactionLogging = enableTransactionLogging;
+        }
+
+        public boolean isEnableSecurityLogging() {
+            return enableSecurityLogging;
+        }
+
+        public void setEnableSecurityLogging(boolean enableSecurityLogging) {
+            this.enableSecurityLogging = enableSecurityLogging;
+        }
+
+        public int getAuditRetentionDays() {
+            return auditRetentionDays;
+        }
+
+        public void setAuditRetentionDays(int auditRetentionDays) {
+            this.auditRetentionDays = auditRetentionDays;
+        }
+
+        public int getLogRotationDays() {
+            return logRotationDays;
+        }
+
+        public void setLogRotationDays(int logRotationDays) {
+            this.logRotationDays = logRotationDays;
+        }
+
+        public WriterMode getWriterMode() {
+            return writerMode;
+        }
+
+        public void setWriterMode(WriterMode writerMode) {
+            this.writerMode = writerMode;
+        }
+
+        public int getWriterBufferSize() {
+            return writerBufferSize;
+        }
+
+        public void setWriterBufferSize(int writerBufferSize) {
+            this.writerBufferSize = writerBufferSize;
+        }
+
+        public int getWriterBatchSize() {
+            return writerBatchSize;
+        }
+
+        public void setWriterBatchSize(int writerBatchSize) {
+            this.writerBatchSize = writerBatchSize;
+        }
+
+        public long getWriterFlushIntervalMs() {
+            return writerFlushIntervalMs;
+        }
+
+        public void setWriterFlushIntervalMs(long writerFlushIntervalMs) {
+            this.writerFlushIntervalMs = writerFlushIntervalMs;
+        }
+
+        public long getWriterSyncTimeoutMs() {
+            return writerSyncTimeoutMs;
+        }
+
+        public void setWriterSyncTimeoutMs(long writerSyncTimeoutMs) {
+            this.writerSyncTimeoutMs = writerSyncTimeoutMs;
+        }
+
+        public int getWriterPoolSize() {
+            return writerPoolSize;
+        }
+
+        public void setWriterPoolSize(int writerPoolSize) {
+            this.writerPoolSize = writerPoolSize;
+        }
+
+        public boolean isRetentionEnabled() {
+            return retentionEnabled;
+        }
+
+        public void setRetentionEnabled(boolean retentionEnabled) {
+            this.retentionEnabled = retentionEnabled;
+        }
+
+        public int getRetentionChunkSize() {
+            return retentionChunkSize;
+        }
+
+        public void setRetentionChunkSize(int retentionChunkSize) {
+            this.retentionChunkSize = retentionChunkSize;
+        }
+
+        public int getRetentionMaxChunksPerRun() {
+            return retentionMaxChunksPerRun;
+        }
+
+        public void setRetentionMaxChunksPerRun(int retentionMaxChunksPerRun) {
+            this.retentionMaxChunksPerRun = retentionMaxChunksPerRun;
+        }
+
+        public long getRetentionSweepIntervalMs() {
+            return retentionSweepIntervalMs;
+        }
+
+        public void setRetentionSweepIntervalMs(long retentionSweepIntervalMs) {
+            this.retentionSweepIntervalMs = retentionSweepIntervalMs;
+        }
+
+        public long getRetentionChunkPauseMs() {
+            return retentionChunkPauseMs;
+        }
+
+        public void setRetentionChunkPauseMs(long retentionChunkPauseMs) {
+            this.retentionChunkPauseMs = retentionChunkPauseMs;
+        }
+
+        public long getRetentionMaxChunkMillis() {
+            return retentionMaxChunkMillis;
+        }
+
+        public void setRetentionMaxChunkMillis(long retentionMaxChunkMillis) {
+            this.retentionMaxChunkMillis = retentionMaxChunkMillis;
+        }
+
+        public String getRetentionLagQuery() {
+            return retentionLagQuery;
+        }
+
+        public void setRetentionLagQuery(String retentionLagQuery) {
+            this.retentionLagQuery = retentionLagQuery;
+        }
+
+        public long getRetentionMaxLagSeconds() {
+            return retentionMaxLagSeconds;
+        }
+
+        public void setRetentionMaxLagSeconds(long retentionMaxLagSeconds) {
+            this.retentionMaxLagSeconds = retentionMaxLagSeconds;
+        }
+
+        public long getRetentionLagTimeoutMs() {
+            return retentionLagTimeoutMs;
+        }
+
+        public void setRetentionLagTimeoutMs(long retentionLagTimeoutMs) {
+            this.retentionLagTimeoutMs = retentionLagTimeoutMs;
+        }
+
+        public boolean isRetentionArchiveEnabled() {
+            return retentionArchiveEnabled;
+        }
+
+        public void setRetentionArchiveEnabled(boolean retentionArchiveEnabled) {
+            this.retentionArchiveEnabled = retentionArchiveEnabled;
+        }
+
+        public String getRetentionArchiveDirectory() {
+            return retentionArchiveDirectory;
+        }
+
+        public void setRetentionArchiveDirectory(String retentionArchiveDirectory) {
+            this.retentionArchiveDirectory = retentionArchiveDirectory;
+        }
+
+        public int getOtpBufferSize() {
+            return otpBufferSize;
+        }
+
+        public void setOtpBufferSize(int otpBufferSize) {
+            this.otpBufferSize = otpBufferSize;
+        }
+
+        public int getOtpBatchSize() {
+            return otpBatchSize;
+        }
+
+        public void setOtpBatchSize(int otpBatchSize) {
+            this.otpBatchSize = otpBatchSize;
+        }
+
+        public long getOtpFlushIntervalMs() {
+            return otpFlushIntervalMs;
+        }
+
+        public void setOtpFlushIntervalMs(long otpFlushIntervalMs) {
+            this.otpFlushIntervalMs = otpFlushIntervalMs;
+        }
+
+        public long getOtpAggregationWindowMs() {
+            return otpAggregationWindowMs;
+        }
+
+        public void setOtpAggregationWindowMs(long otpAggregationWindowMs) {
+            this.otpAggregationWindowMs = otpAggregationWindowMs;
+        }
+
+        public int getOtpMaxAggregates() {
+            return otpMaxAggregates;
+        }
+
+        public void setOtpMaxAggregates(int otpMaxAggregates) {
+            this.otpMaxAggregates = otpMaxAggregates;
+        }
+
+        public boolean isJournalEnabled() {
+            return journalEnabled;
+        }
+
+        public void setJournalEnabled(boolean journalEnabled) {
+            this.journalEnabled = journalEnabled;
+        }
+
+        public String getJournalDirectory() {
+            return journalDirectory;
+        }
+
+        public void setJournalDirectory(String journalDirectory) {
+            this.journalDirectory = journalDirectory;
+        }
+
+        public int getJournalSegmentSizeBytes() {
+            return journalSegmentSizeBytes;
+        }
+
+        public void setJournalSegmentSizeBytes(int journalSegmentSizeBytes) {
+            this.journalSegmentSizeBytes = journalSegmentSizeBytes;
+        }
+
+        public String getJournalKey() {
+            return journalKey;
+        }
+
+        public void setJournalKey(String journalKey) {
+            this.journalKey = journalKey;
+        }
+
+        public long getJournalCompactionIntervalMs() {
+            return journalCompactionIntervalMs;
+        }
+
+        public void setJournalCompactionIntervalMs(long journalCompactionIntervalMs) {
+            this.journalCompactionIntervalMs = journalCompactionIntervalMs;
+        }
+
+        public int getDatabaseSamplePercent() {
+            return databaseSamplePercent;
+        }
+
+        public void setDatabaseSamplePercent(int databaseSamplePercent) {
+            this.databaseSamplePercent = databaseSamplePercent;
+        }
+
+        public List<String> getExcludedFields() {
+            return excludedFields;
+        }
+
+        public void setExcludedFields(List<String> excludedFields) {
+            this.excludedFields = excludedFields;
+        }
+
+        public Map<String, AuditFieldFilter> getEntityFields() {
+            return entityFields;
+        }
+
+        public void setEntityFields(Map<String, AuditFieldFilter> entityFields) {
+            this.entityFields = entityFields;
+        }
+    }
+
+    /**
+     * Fields of one entity that are written to audit rows
+     */
+    public static class AuditFieldFilter {
+
+        private List<String> include = new ArrayList<>(); // Empty includes every field
+
+        private List<String> exclude = new ArrayList<>();
+
+        static AuditFieldFilter excluding(String... fields) {
+            AuditFieldFilter filter = new AuditFieldFilter();
+            filter.setExclude(new ArrayList<>(List.of(fields)));
+            return filter;
+        }
+
+        /**
+         * Whether a field of this entity may be written to audit rows
+         */
+        public boolean allows(String field) {
+            return (include.isEmpty() || include.contains(field)) && !exclude.contains(field);
+        }
+
+        public List<String> getInclude() {
+            return include;
+        }
+
+        public void setInclude(List<String> include) {
+            this.include = include;
+        }
+
+        public List<String> getExclude() {
+            return exclude;
+        }
+
+        public void setExclude(List<String> exclude) {
+            this.exclude = exclude;
+        }
+    }
+
+    /**
+     * Rate limit policy for one route
+     */
+    public static class RateLimitRoute {
+
+        /**
+         * How the bucket of a request is chosen
+         */
+        public enum KeyStrategy {
+            CLIENT_IP,
+            PATH_VARIABLE, // Falls back to the client IP when the variable is absent; anyone can spend the budget of a resource
+            CLIENT_AND_PATH_VARIABLE // One budget per client and resource; falls back to the client IP
+        }
+
+        private String method; // Blank matches every method
+
+        @NotBlank
+        private String pattern;
+
+        @Min(1)
+        private int limit; // Requests per minute
+
+        @Min(0)
+        private int burst = 0; // 0 allows a burst of the full limit
+
+        @NotNull
+        private KeyStrategy keyStrategy = KeyStrategy.CLIENT_IP;
+
+        private String keyVariable;
+
+        public RateLimitRoute() {
+        }
+
+        public RateLimitRoute(String method, String pattern, int limit, KeyStrategy keyStrategy, String keyVariable) {
+            this.method = method;
+            this.pattern = pattern;
+            this.limit = limit;
+            this.keyStrategy = keyStrategy;
+            this.keyVariable = keyVariable;
+        }
+
+        /**
+         * The route table of the bundled application.yml, so properties built outside Spring get the same routes
+         */
+        static List<RateLimitRoute> bundledDefaults() {
+            try {
+                Binder binder = new Binder(ConfigurationPropertySources.from(
+                    new YamlPropertySourceLoader().load("application.yml", new ClassPathResource("application.yml"))));
+                return binder.bind("wallet.security.rate-limit-routes", Bindable.listOf(RateLimitRoute.class))
+                    .<List<RateLimitRoute>>map(ArrayList::new)
+                    .orElseGet(ArrayList::new);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the default rate limit routes from application.yml", e);
+            }
+        }
+
+        // Getters and setters
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public KeyStrategy getKeyStrategy() {
+            return keyStrategy;
+        }
+
+        public void setKeyStrategy(KeyStrategy keyStrategy) {
+            this.keyStrategy = keyStrategy;
+        }
+
+        public String getKeyVariable() {
+            return keyVariable;
+        }
+
+        public void setKeyVariable(String keyVariable) {
+            this.keyVariable = keyVariable;
+        }
+    }
+
+    /**
+     * Transfer risk scoring configuration
+     */
+    public static class Risk {
+        private boolean enabled = true; // When disabled every transfer steps up to OTP
+
+        @Min(100)
+        private int maxTrackedKeys = 100000; // Wallets and devices with feature state, each
+
+        @Min(8)
+        private int recipientMemory = 32; // Recent recipients remembered per wallet
+
+        @Min(1000)
+        private long sweepIntervalMs = 600000;
+
+        // Any matching DENY rule declines the transfer, any matching STEP_UP_OTP rule requires an OTP
+        @Valid
+        private List<RiskRule> rules = new ArrayList<>(List.of(
+            new RiskRule(RiskRule.Feature.WALLET_COUNT_1M, RiskRule.Operator.GT, 10, RiskRule.Action.DENY),
+            new RiskRule(RiskRule.Feature.DEVICE_COUNT_1M, RiskRule.Operator.GT, 20, RiskRule.Action.DENY),
+            new RiskRule(RiskRule.Feature.WALLET_HISTORY, RiskRule.Operator.LT, 3, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.AMOUNT, RiskRule.Operator.GT, 10000, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.AMOUNT_ZSCORE, RiskRule.Operator.GT, 3, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.NEW_RECIPIENT, RiskRule.Operator.GT, 0, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.NEW_RECIPIENT_RATIO, RiskRule.Operator.GT, 0.5, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.WALLET_COUNT_1H, RiskRule.Operator.GT, 10, RiskRule.Action.STEP_UP_OTP),
+            new RiskRule(RiskRule.Feature.WALLET_AMOUNT_24H, RiskRule.Operator.GT, 50000, RiskRule.Action.STEP_UP_OTP)
+        ));
+
+        // Getters and setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public int getRecipientMemory() {
+            return recipientMemory;
+        }
+
+        public void setRecipientMemory(int recipientMemory) {
+            this.recipientMemory = recipientMemory;
+        }
+
+        public long getSweepIntervalMs() {
+            return sweepIntervalMs;
+        }
+
+        public void setSweepIntervalMs(long sweepIntervalMs) {
+            this.sweepIntervalMs = sweepIntervalMs;
+        }
+
+        public List<RiskRule> getRules() {
+            return rules;
+        }
+
+        public void setRules(List<RiskRule> rules) {
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * Wallet QR code configuration
+     */
+    public static class QrCode {
+        @Min(0)
+        private int cacheMaxEntries = 10000; // 0 disables the rendered image cache
+
+        @Min(0)
+        private long cacheMaxBytes = 64L * 1024 * 1024;
+
+        @Min(0)
+        private long maxAgeSeconds = 86400; // Cache-Control max-age on the image endpoint
+
+        // Getters and setters
+        public int getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(int cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+
+        public long getCacheMaxBytes() {
+            return cacheMaxBytes;
+        }
+
+        public void setCacheMaxBytes(long cacheMaxBytes) {
+            this.cacheMaxBytes = cacheMaxBytes;
+        }
+
+        public long getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(long maxAgeSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+    }
+
+    /**
+     * One transfer risk rule: feature operator threshold gives action
+     */
+    public static class RiskRule {
+
+        /**
+         * Streaming features; counts and amounts include the transfer being assessed
+         */
+        public enum Feature {
+            AMOUNT,
+            AMOUNT_ZSCORE, // Against the wallet's running mean and deviation of past transfers
+            NEW_RECIPIENT, // 1 when the recipient is not among the wallet's recent recipients
+            NEW_RECIPIENT_RATIO, // Share of the last 24 hours' transfers that went to new recipients
+            WALLET_HISTORY, // Transfers observed for the wallet, excluding this one
+            WALLET_COUNT_1M,
+            WALLET_COUNT_1H,
+            WALLET_COUNT_24H,
+            WALLET_AMOUNT_1M,
+            WALLET_AMOUNT_1H,
+            WALLET_AMOUNT_24H,
+            DEVICE_COUNT_1M,
+            DEVICE_COUNT_1H,
+            DEVICE_COUNT_24H,
+            DEVICE_AMOUNT_1M,
+            DEVICE_AMOUNT_1H,
+            DEVICE_AMOUNT_24H
+        }
+
+        public enum Operator {
+            GT,
+            LT
+        }
+
+        public enum Action {
+            STEP_UP_OTP,
+            DENY
+        }
+
+        @NotNull
+        private Feature feature;
+
+        @NotNull
+        private Operator operator = Operator.GT;
+
+        private double threshold;
+
+        @NotNull
+        private Action action = Action.STEP_UP_OTP;
+
+        public RiskRule() {
+        }
+
+        public RiskRule(Feature feature, Operator operator, double threshold, Action action) {
+            this.feature = feature;
+            this.operator = operator;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        // Getters and setters
+        public Feature getFeature() {
+            return feature;
+        }
+
+        public void setFeature(Feature feature) {
+            this.feature = feature;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        public void setOperator(Operator operator) {
+            this.operator = operator;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(double threshold) {
+            this.threshold = threshold;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public void setAction(Action action) {
+            this.action = action;
         }
     }
-}
\ No newline at end of file
+}
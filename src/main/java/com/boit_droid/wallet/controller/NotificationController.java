@@ -1,10 +1,12 @@
 package com.boit_droid.wallet.controller;
 
+import com.boit_droid.wallet.dto.request.BulkNotificationRequest;
 import com.boit_droid.wallet.dto.request.NotificationRequest;
 import com.boit_droid.wallet.dto.response.CustomApiResponse;
 import com.boit_droid.wallet.dto.response.NotificationResponse;
 import com.boit_droid.wallet.dto.response.PagedResponse;
 import com.boit_droid.wallet.service.NotificationService;
+import com.boit_droid.wallet.service.NotificationStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,8 +20,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -31,6 +35,7 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
 
     @Operation(
         summary = "Send notification to user",
@@ -439,6 +444,59 @@ public class NotificationController {
         return ResponseEntity.status(status).body(response);
     }
 
+    @Operation(
+        summary = "Mark selected notifications as read",
+        description = "Marks the listed notifications of a user as read with a single set-based update. Notifications that belong to other users or are already read are left untouched.",
+        tags = {"Notifications"}
+    )
+   @ApiResponses(value = {
+       @ApiResponse(
+           responseCode = "200",
+           description = "Notifications marked as read successfully",
+           content = @Content(
+               mediaType = "application/json",
+               schema = @Schema(implementation = CustomApiResponse.class),
+               examples = @ExampleObject(
+                   name = "Success Response",
+                   value = """
+                   {
+                       "success": true,
+                       "message": "Notifications marked as read",
+                       "requestId": "req_123456789",
+                       "data": "3 notifications marked as read for user user123",
+                       "timestamp": "2024-01-15T12:30:00Z"
+                   }
+                   """
+               )
+           )
+       ),
+       @ApiResponse(
+           responseCode = "400",
+           description = "Invalid user ID, missing notification IDs or operation failed",
+           content = @Content(
+               mediaType = "application/json",
+               schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+           )
+       )
+   })
+    @PutMapping("/users/{userId}/read")
+    public ResponseEntity<CustomApiResponse<String>> markNotificationsAsRead(
+            @Parameter(
+                description = "Unique identifier of the user whose notifications to mark as read",
+                required = true,
+                example = "user123"
+            )
+            @PathVariable String userId,
+            
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkNotificationRequest request) {
+        
+        log.info("Bulk marking notifications as read for user: {}", userId);
+        CustomApiResponse<String> response = notificationService.markNotificationsAsRead(userId, request);
+        
+        HttpStatus status = response.getSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @Operation(
         summary = "Get notification counts",
         description = "Retrieves notification counts for a specific user, including total, unread, and counts by type. Useful for displaying notification badges and dashboard statistics.",
@@ -507,6 +565,65 @@ public class NotificationController {
         return ResponseEntity.status(status).body(response);
     }
 
+    @Operation(
+        summary = "Stream notifications",
+        description = "Opens a Server-Sent Events stream that pushes new notifications and notification count changes to the client as they happen. Replaces polling of the unread and counts endpoints. The first event carries the current counts; comment heartbeats keep the connection alive. Slow clients are disconnected and should reconnect and reload their inbox.",
+        tags = {"Notifications"}
+    )
+   @ApiResponses(value = {
+       @ApiResponse(
+           responseCode = "200",
+           description = "Stream opened",
+           content = @Content(
+               mediaType = "text/event-stream",
+               examples = @ExampleObject(
+                   name = "Event Stream",
+                   value = """
+                   event:counts
+                   data:{"total":25,"unread":5,"read":20,"TRANSACTION":10,"SECURITY":3}
+
+                   id:101
+                   event:notification
+                   data:{"id":101,"title":"Transaction Alert","type":"TRANSACTION","isRead":false}
+
+                   :heartbeat
+                   """
+               )
+           )
+       ),
+       @ApiResponse(
+           responseCode = "404",
+           description = "User not found"
+       ),
+       @ApiResponse(
+           responseCode = "429",
+           description = "Too many open streams for this user or for the server"
+       )
+   })
+    @GetMapping(value = "/users/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @Parameter(
+                description = "Unique identifier of the user whose notifications to stream",
+                required = true,
+                example = "user123"
+            )
+            @PathVariable String userId) {
+        
+        log.info("Opening notification stream for user: {}", userId);
+        CustomApiResponse<Map<String, Long>> counts = notificationService.getNotificationCounts(userId);
+        if (!counts.getSuccess()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        
+        try {
+            SseEmitter emitter = notificationStreamService.subscribe(Long.valueOf(userId), counts.getData());
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected notification stream for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
     @Operation(
         summary = "Delete notification",
         description = "Permanently deletes a specific notification. This action cannot be undone and the notification will be removed from the user's notification history.",
@@ -577,4 +694,57 @@ public class NotificationController {
         HttpStatus status = response.getSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
         return ResponseEntity.status(status).body(response);
     }
-}
+
+    @Operation(
+        summary = "Bulk delete notifications",
+        description = "Permanently deletes a user's notifications selected either by ID list or by creation cut-off (optionally only those already read) with a single set-based delete. One summary audit record is written per call.",
+        tags = {"Notifications"}
+    )
+   @ApiResponses(value = {
+       @ApiResponse(
+           responseCode = "200",
+           description = "Notifications deleted successfully",
+           content = @Content(
+               mediaType = "application/json",
+               schema = @Schema(implementation = CustomApiResponse.class),
+               examples = @ExampleObject(
+                   name = "Success Response",
+                   value = """
+                   {
+                       "success": true,
+                       "message": "Notifications deleted successfully",
+                       "requestId": "req_123456789",
+                       "data": "120 notifications deleted for user user123",
+                       "timestamp": "2024-01-15T14:00:00Z"
+                   }
+                   """
+               )
+           )
+       ),
+       @ApiResponse(
+           responseCode = "400",
+           description = "Invalid user ID, missing selection or deletion failed",
+           content = @Content(
+               mediaType = "application/json",
+               schema = @Schema(ref = "#/components/schemas/ErrorResponse")
+           )
+       )
+   })
+    @PostMapping("/users/{userId}/bulk-delete")
+    public ResponseEntity<CustomApiResponse<String>> deleteNotifications(
+            @Parameter(
+                description = "Unique identifier of the user whose notifications to delete",
+                required = true,
+                example = "user123"
+            )
+            @PathVariable String userId,
+            
+            @Valid @org.springframework.web.bind.annotation.RequestBody BulkNotificationRequest request) {
+        
+        log.info("Bulk deleting notifications for user: {}", userId);
+        CustomApiResponse<String> response = notificationService.deleteNotifications(userId, request);
+        
+        HttpStatus status = response.getSuccess() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+}
\ No newline at end of file
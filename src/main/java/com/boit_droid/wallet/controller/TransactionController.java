@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -241,6 +242,40 @@ public class TransactionController {
         }
     }
 
+    /**
+     * Verify the signatures of a wallet's whole transaction history
+     */
+    @PostMapping("/wallets/{walletId}/signatures/verify")
+    public ResponseEntity<CustomApiResponse> verifyWalletSignatures(@PathVariable String walletId) {
+        log.info("Verifying transaction signatures for wallet: {}", walletId);
+        
+        CustomApiResponse response = transactionService.verifyWalletSignatures(walletId);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Verify a sealed day's transactions against its Merkle root
+     */
+    @PostMapping("/integrity/days/{businessDate}/verify")
+    public ResponseEntity<CustomApiResponse> verifyDailyIntegrity(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate,
+            @RequestParam String currency) {
+        log.info("Verifying daily integrity for {} {}", businessDate, currency);
+        
+        CustomApiResponse response = transactionService.verifyDailyIntegrity(businessDate, currency);
+        
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Get pending transactions for a wallet
      */
@@ -3,7 +3,10 @@ package com.boit_droid.wallet.controller;
 import com.boit_droid.wallet.dto.request.*;
 import com.boit_droid.wallet.dto.response.CustomApiResponse;
 import com.boit_droid.wallet.dto.response.OtpRequiredResponse;
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.QRCodeService;
 import com.boit_droid.wallet.service.WalletService;
+import com.boit_droid.wallet.util.QRCodeFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,9 +17,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -26,6 +34,7 @@ import org.springframework.web.bind.annotation.*;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletConfigurationProperties walletProperties;
 
     @Operation(
         summary = "Create a new wallet",
@@ -586,15 +595,53 @@ public class WalletController {
                 required = true,
                 example = "WLT_987654321"
             )
-            @PathVariable String walletId) {
+            @PathVariable String walletId,
+            @Parameter(description = "Image format encoded in qrCode: png or svg", example = "png")
+            @RequestParam(defaultValue = "png") String format) {
         log.info("Received QR code generation request for wallet: {}", walletId);
         
-        CustomApiResponse response = walletService.generateQRCode(walletId);
+        CustomApiResponse response = walletService.generateQRCode(walletId, QRCodeFormat.fromName(format));
         
         HttpStatus status = response.getSuccess() ? HttpStatus.OK : HttpStatus.NOT_FOUND;
         return ResponseEntity.status(status).body(response);
     }
 
+    @Operation(
+        summary = "Get wallet QR code image",
+        description = "Returns the wallet QR code as a PNG (qrcode.png) or SVG (qrcode.svg) image. The response carries a strong ETag derived from the QR content, format and size; send it back in If-None-Match to receive 304 Not Modified while the content is unchanged."
+    )
+    @ApiResponse(responseCode = "200", description = "PNG or SVG image", content = {
+        @Content(mediaType = MediaType.IMAGE_PNG_VALUE), @Content(mediaType = "image/svg+xml")})
+    @ApiResponse(responseCode = "304", description = "Image unchanged since the given ETag")
+    @ApiResponse(responseCode = "404", description = "Wallet not found")
+    @GetMapping("/{walletId}/qrcode.{format}")
+    public ResponseEntity<byte[]> getQRCodeImage(
+            @Parameter(
+                description = "Unique identifier of the wallet",
+                required = true,
+                example = "WLT_987654321"
+            )
+            @PathVariable String walletId,
+            @Parameter(description = "Image format: png or svg", example = "png")
+            @PathVariable String format,
+            @Parameter(description = "Width and height in pixels, 100 to 1000", example = "300")
+            @RequestParam(defaultValue = "300") int size,
+            WebRequest webRequest) {
+        log.debug("Received QR code image request for wallet: {} as {}", walletId, format);
+        
+        QRCodeService.QRCodeImage image = walletService.getWalletQRCodeImage(walletId, size, QRCodeFormat.fromName(format));
+        CacheControl cacheControl = CacheControl.maxAge(walletProperties.getQrCode().getMaxAgeSeconds(), TimeUnit.SECONDS).cachePrivate();
+        
+        if (webRequest.checkNotModified(image.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(image.getEtag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(image.getEtag())
+            .cacheControl(cacheControl)
+            .contentType(MediaType.parseMediaType(image.getFormat().getMediaType()))
+            .body(image.getContent());
+    }
+
     @Operation(
         summary = "Update wallet PIN",
         description = "Updates the PIN for a wallet. Requires the current PIN for verification, OTP verification, and ensures the new PIN is different from the current one. If OTP is not provided, the system will send an OTP and return 202 Accepted status requiring resubmission with OTP."
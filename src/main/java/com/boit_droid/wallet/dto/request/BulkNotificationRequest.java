@@ -0,0 +1,49 @@
+package com.boit_droid.wallet.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Schema(
+    description = "Request object for bulk notification operations. Select notifications either by ID list or by creation cut-off.",
+    example = """
+    {
+        "notificationIds": [101, 102, 103],
+        "createdBefore": null,
+        "readOnly": false
+    }
+    """
+)
+public class BulkNotificationRequest {
+
+    @Schema(
+        description = "Notification IDs to act on. Only notifications belonging to the user are affected.",
+        example = "[101, 102, 103]"
+    )
+    @Size(max = 1000, message = "At most 1000 notification IDs can be processed per request")
+    private List<Long> notificationIds;
+
+    @Schema(
+        description = "Act on all notifications created before this instant (bulk delete only)",
+        example = "2024-01-01T00:00:00Z"
+    )
+    private Instant createdBefore;
+
+    @Schema(
+        description = "When deleting by cut-off, only remove notifications that have already been read",
+        example = "false",
+        defaultValue = "false"
+    )
+    private Boolean readOnly = false;
+
+    @Schema(hidden = true)
+    @AssertTrue(message = "Either notificationIds or createdBefore must be provided")
+    public boolean isSelectionProvided() {
+        return (notificationIds != null && !notificationIds.isEmpty()) || createdBefore != null;
+    }
+}
@@ -82,4 +82,13 @@ public class TransferRequest {
         requiredMode = Schema.RequiredMode.NOT_REQUIRED
     )
     private String otp;
-}
\ No newline at end of file
+
+    @Size(max = 100, message = "Device ID must not exceed 100 characters")
+    @Schema(
+        description = "Optional stable identifier of the device initiating the transfer. Used for per-device velocity checks; transfers without it are scored on wallet features only.",
+        example = "a3f1c2d4-device",
+        maxLength = 100,
+        requiredMode = Schema.RequiredMode.NOT_REQUIRED
+    )
+    private String deviceId;
+}
@@ -38,7 +38,7 @@ public class ErrorResponse {
             "INVALID_PIN", "KYC_VERIFICATION_FAILED", "TRANSACTION_FAILED", "WALLET_STATUS_ERROR",
             "CONSTRAINT_VIOLATION", "BINDING_ERROR", "MISSING_PARAMETER", "TYPE_MISMATCH",
             "MALFORMED_REQUEST", "METHOD_NOT_SUPPORTED", "SECURITY_ERROR", "INVALID_ARGUMENT",
-            "SECURITY_OPERATION_FAILED", "INTERNAL_SERVER_ERROR"
+            "SECURITY_OPERATION_FAILED", "CONCURRENT_UPDATE", "INTERNAL_SERVER_ERROR"
         }
     )
     private String error;
@@ -0,0 +1,91 @@
+package com.boit_droid.wallet.entity;
+
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import com.boit_droid.wallet.entity.enums.Priority;
+import com.boit_droid.wallet.entity.enums.Status;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Compact copy of a notification that has left the hot notifications table.
+ * Only the fields needed to show history are kept; delivery, retry and template
+ * details are dropped. Rows are written in bulk by the retention job and,
+ * like NotificationCounter, stay outside DateAudit so archiving does not
+ * generate audit rows of its own.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_archive",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_notification_archive_original_id", columnNames = {"originalId"})
+       },
+       indexes = {
+           @Index(name = "idx_notification_archive_user", columnList = "userId, originalCreatedAt"),
+           @Index(name = "idx_notification_archive_archived_at", columnList = "archivedAt"),
+           @Index(name = "idx_notification_archive_batch", columnList = "archiveBatchId")
+       })
+public class NotificationArchive implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long originalId; // Primary key the row had in the notifications table
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 36)
+    private String requestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private NotificationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Priority priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    @Column(length = 36)
+    private String relatedTransactionId;
+
+    @Column(length = 36)
+    private String relatedWalletId;
+
+    @Column(nullable = false)
+    private Boolean isRead;
+
+    private Instant readAt;
+
+    private Instant expiredAt;
+
+    @Column(nullable = false)
+    private Instant originalCreatedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    @Column(nullable = false, length = 20)
+    private String archiveReason; // EXPIRED, READ_RETENTION, UNREAD_RETENTION
+
+    @Column(nullable = false, length = 36)
+    private String archiveBatchId; // Retention run that moved the row
+}
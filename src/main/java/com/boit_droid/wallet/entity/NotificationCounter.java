@@ -0,0 +1,49 @@
+package com.boit_droid.wallet.entity;
+
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Running notification totals for one user and notification type.
+ * Kept outside DateAudit on purpose: counters change on every notification write
+ * and must not generate audit rows of their own.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_counters",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_notification_counter_user_type", columnNames = {"userId", "type"})
+       })
+public class NotificationCounter implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private Long totalCount = 0L;
+
+    @Column(nullable = false)
+    private Long unreadCount = 0L;
+
+    public NotificationCounter(Long userId, NotificationType type, long totalCount, long unreadCount) {
+        this.userId = userId;
+        this.type = type;
+        this.totalCount = totalCount;
+        this.unreadCount = unreadCount;
+    }
+}
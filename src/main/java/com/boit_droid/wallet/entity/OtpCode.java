@@ -0,0 +1,69 @@
+package com.boit_droid.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Outstanding one-time password shared by all nodes when the jdbc OTP state backend is active.
+ * Only a hash of the code is stored. The nonce changes every time a code is issued for the key
+ * and, together with the attempt count, is what verification compares and sets.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "otp_codes",
+       indexes = {
+           @Index(name = "idx_otp_code_expires_at", columnList = "expiresAt")
+       })
+public class OtpCode implements Persistable<String>, Serializable {
+
+    @Id
+    @Column(length = 191)
+    private String storeKey;
+
+    @Column(nullable = false, length = 64)
+    private String codeHash;
+
+    @Column(nullable = false, length = 36)
+    private String nonce;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Keys are assigned, so tell Spring Data to persist rather than merge new rows
+    @Transient
+    private boolean isNew = true;
+
+    public OtpCode(String storeKey, String codeHash, String nonce, Instant expiresAt) {
+        this.storeKey = storeKey;
+        this.codeHash = codeHash;
+        this.nonce = nonce;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return storeKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.boit_droid.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Fixed-window request counter for OTP rate limiting and suspicious activity tracking,
+ * shared by all nodes when the jdbc OTP state backend is active.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "otp_rate_counters",
+       indexes = {
+           @Index(name = "idx_otp_rate_counter_expires_at", columnList = "expiresAt")
+       })
+public class OtpRateCounter implements Persistable<String>, Serializable {
+
+    @Id
+    @Column(length = 191)
+    private String counterKey;
+
+    @Column(nullable = false)
+    private Long windowStart; // Epoch millis of the window the hit count belongs to
+
+    @Column(nullable = false)
+    private Integer hitCount;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Keys are assigned, so tell Spring Data to persist rather than merge new rows
+    @Transient
+    private boolean isNew = true;
+
+    public OtpRateCounter(String counterKey, long windowStart, int hitCount, Instant expiresAt) {
+        this.counterKey = counterKey;
+        this.windowStart = windowStart;
+        this.hitCount = hitCount;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return counterKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
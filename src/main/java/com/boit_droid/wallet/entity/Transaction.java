@@ -1,6 +1,7 @@
 package com.boit_droid.wallet.entity;
 
 import com.boit_droid.wallet.entity.audit.DateAudit;
+import com.boit_droid.wallet.entity.audit.TransactionHashListener;
 import com.boit_droid.wallet.entity.enums.Status;
 import com.boit_droid.wallet.entity.enums.TransactionType;
 import jakarta.persistence.*;
@@ -51,8 +52,10 @@ import java.time.LocalDateTime;
            @Index(name = "idx_transaction_approval", columnList = "requiresApproval, approvedAt"),
            @Index(name = "idx_transaction_wallet_date", columnList = "receiver_wallet_id, createdAt"),
            @Index(name = "idx_transaction_sender_date", columnList = "sender_wallet_id, createdAt"),
-           @Index(name = "idx_transaction_amount_range", columnList = "amount, currency, type")
+           @Index(name = "idx_transaction_amount_range", columnList = "amount, currency, type"),
+           @Index(name = "idx_transaction_currency_created", columnList = "currency, createdAt, id")
        })
+@EntityListeners(TransactionHashListener.class)
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Transaction extends DateAudit implements Serializable {
 
@@ -163,7 +166,7 @@ public class Transaction extends DateAudit implements Serializable {
     private String transactionSignature; // Cryptographic signature for verification
 
     @Column(length = 255)
-    private String transactionHash; // Hash of transaction data for integrity
+    private String transactionHash; // Canonical SHA-256 of the financial fields, a leaf of the daily Merkle tree
 
     @Column(nullable = false)
     private Boolean verified = false; // Whether transaction has been verified
@@ -0,0 +1,47 @@
+package com.boit_droid.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One node of a sealed daily Merkle tree, leaves at level 0. Leaf rows carry the transaction id so a
+ * transaction's position is found through an index, and a proof then reads one sibling per level.
+ * Rows are written and read through {@link com.boit_droid.wallet.repository.TransactionMerkleNodeStore};
+ * column names are explicit so the JDBC statements match under every naming strategy.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "transaction_merkle_nodes",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_merkle_node_position", columnNames = {"root_id", "tree_level", "node_index"})
+       },
+       indexes = {
+           @Index(name = "idx_merkle_node_transaction", columnList = "transaction_id")
+       })
+public class TransactionMerkleNode implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "root_id", nullable = false)
+    private Long rootId;
+
+    @Column(name = "tree_level", nullable = false)
+    private Integer treeLevel;
+
+    @Column(name = "node_index", nullable = false)
+    private Integer nodeIndex;
+
+    @Column(name = "node_hash", nullable = false, length = 32)
+    private byte[] nodeHash;
+
+    @Column(name = "transaction_id")
+    private Long transactionId; // Set on leaves only
+}
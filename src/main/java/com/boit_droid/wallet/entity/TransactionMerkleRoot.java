@@ -0,0 +1,55 @@
+package com.boit_droid.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Merkle root over the transactions of one currency created on one UTC day, in (createdAt, id) order.
+ * Written once when the day is sealed; the nodes of the tree are kept in {@link TransactionMerkleNode}.
+ * Kept outside DateAudit on purpose: a sealed root is immutable and must not carry mutable audit state.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "transaction_merkle_roots",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_merkle_root_day_currency", columnNames = {"businessDate", "currency"})
+       })
+public class TransactionMerkleRoot implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate businessDate;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(nullable = false)
+    private Integer leafCount;
+
+    @Column(nullable = false, length = 64)
+    private String rootHash; // Hex SHA-256
+
+    @Column(nullable = false)
+    private Long firstTransactionId;
+
+    @Column(nullable = false)
+    private Long lastTransactionId;
+
+    @Column(nullable = false)
+    private Instant sealedAt;
+
+    private Instant lastVerifiedAt;
+
+    private Boolean lastVerificationValid;
+}
@@ -0,0 +1,113 @@
+package com.boit_droid.wallet.entity.audit;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact, immutable capture of one entity change, taken on the persistence hot path and
+ * written to the audit_trail table later by the audit writer
+ */
+@Getter
+@Builder
+public class AuditEvent {
+    private final String auditId;
+    private final String entityType;
+    private final String entityId;
+    private final String operation;
+    private final String userId;
+    private final String username;
+    private final String requestId;
+    private final String transactionId;
+    private final String transactionType;
+    private final BigDecimal transactionAmount;
+    private final String currency;
+    private final boolean sensitiveOperation;
+    private final boolean financialData;
+    private final Instant timestamp;
+    private final String oldValues;
+    private final String newValues;
+    private final String changedFields;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Binary form used by the audit journal
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(timestamp.getEpochSecond());
+            out.writeInt(timestamp.getNano());
+            out.writeBoolean(sensitiveOperation);
+            out.writeBoolean(financialData);
+            for (String value : new String[]{auditId, entityType, entityId, operation, userId, username, requestId,
+                    transactionId, transactionType, transactionAmount != null ? transactionAmount.toPlainString() : null,
+                    currency, oldValues, newValues, changedFields}) {
+                writeString(out, value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read an event written by {@link #encode()}
+     */
+    public static AuditEvent decode(ByteBuffer in) {
+        if (in.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported audit event format");
+        }
+        AuditEventBuilder builder = builder()
+            .timestamp(Instant.ofEpochSecond(in.getLong(), in.getInt()))
+            .sensitiveOperation(in.get() != 0)
+            .financialData(in.get() != 0)
+            .auditId(readString(in))
+            .entityType(readString(in))
+            .entityId(readString(in))
+            .operation(readString(in))
+            .userId(readString(in))
+            .username(readString(in))
+            .requestId(readString(in))
+            .transactionId(readString(in))
+            .transactionType(readString(in));
+        String amount = readString(in);
+        return builder
+            .transactionAmount(amount != null ? new BigDecimal(amount) : null)
+            .currency(readString(in))
+            .oldValues(readString(in))
+            .newValues(readString(in))
+            .changedFields(readString(in))
+            .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -26,7 +26,8 @@ import java.time.Instant;
            @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
            @Index(name = "idx_audit_session", columnList = "sessionId"),
            @Index(name = "idx_audit_composite", columnList = "entityType, entityId, timestamp"),
-           @Index(name = "idx_audit_transaction", columnList = "transactionId")
+           @Index(name = "idx_audit_transaction", columnList = "transactionId"),
+           @Index(name = "idx_audit_retention_expiry", columnList = "retentionExpiryDate, id")
        })
 public class AuditTrail implements Serializable {
 
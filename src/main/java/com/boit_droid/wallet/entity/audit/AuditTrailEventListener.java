@@ -0,0 +1,249 @@
+package com.boit_droid.wallet.entity.audit;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.Notification;
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.service.AuditTrailWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures audit events from Hibernate's post-insert, post-update and post-delete events.
+ * Updates record only the dirty fields, with their old and new values, instead of the whole
+ * entity; inserts and deletes record the non-null field values. Fields denied by the audit
+ * configuration, such as PIN hashes and salts, are never written, and collections are skipped.
+ */
+@Slf4j
+@Component
+public class AuditTrailEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String UNASSIGNED_ENTITY_ID = "UNASSIGNED";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditTrailWriter auditTrailWriter;
+    private final ObjectMapper objectMapper;
+    private final WalletConfigurationProperties.Audit config;
+
+    // Audited property flags per entity, in the persister's property order
+    private final Map<String, boolean[]> auditedProperties = new ConcurrentHashMap<>();
+
+    public AuditTrailEventListener(EntityManagerFactory entityManagerFactory, AuditTrailWriter auditTrailWriter,
+                                   ObjectMapper objectMapper, WalletConfigurationProperties walletProperties) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditTrailWriter = auditTrailWriter;
+        this.objectMapper = objectMapper;
+        this.config = walletProperties.getAudit();
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof DateAudit entity)) {
+            return;
+        }
+        try {
+            Map<String, Object> values = snapshot(event.getPersister(), event.getState(), event.getSession());
+            capture(entity, "CREATE", null, values, null);
+        } catch (Exception e) {
+            log.error("Failed to capture audit trail for CREATE operation on {}", entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof DateAudit entity)) {
+            return;
+        }
+        try {
+            EntityPersister persister = event.getPersister();
+            Object[] oldState = event.getOldState();
+            Object[] state = event.getState();
+            boolean[] audited = auditedProperties(persister);
+            String[] names = persister.getPropertyNames();
+            Type[] types = persister.getPropertyTypes();
+
+            Map<String, Object> oldValues = new LinkedHashMap<>();
+            Map<String, Object> newValues = new LinkedHashMap<>();
+            List<String> changedFields = new ArrayList<>();
+            SharedSessionContractImplementor session = event.getSession();
+            int[] dirty = event.getDirtyProperties();
+            if (dirty != null) {
+                for (int i : dirty) {
+                    if (audited[i]) {
+                        addChange(names[i], types[i], oldState != null ? oldState[i] : null, state[i],
+                            oldValues, newValues, changedFields, session);
+                    }
+                }
+            } else if (oldState != null) {
+                // No dirty check ran for this update, so compare the loaded state directly
+                for (int i = 0; i < names.length; i++) {
+                    if (audited[i] && !types[i].isEqual(oldState[i], state[i])) {
+                        addChange(names[i], types[i], oldState[i], state[i], oldValues, newValues, changedFields, session);
+                    }
+                }
+            } else {
+                // Detached update without a loaded state: only the new values are known
+                newValues = snapshot(persister, state, session);
+                changedFields.addAll(newValues.keySet());
+            }
+            capture(entity, "UPDATE", oldState != null ? oldValues : null, newValues, changedFields);
+        } catch (Exception e) {
+            log.error("Failed to capture audit trail for UPDATE operation on {}", entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof DateAudit entity)) {
+            return;
+        }
+        try {
+            Map<String, Object> values = snapshot(event.getPersister(), event.getDeletedState(), event.getSession());
+            capture(entity, "DELETE", values, null, null);
+        } catch (Exception e) {
+            log.error("Failed to capture audit trail for DELETE operation on {}", entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void addChange(String name, Type type, Object oldValue, Object newValue, Map<String, Object> oldValues,
+                           Map<String, Object> newValues, List<String> changedFields, SharedSessionContractImplementor session) {
+        oldValues.put(name, auditValue(type, oldValue, session));
+        newValues.put(name, auditValue(type, newValue, session));
+        changedFields.add(name);
+    }
+
+    private Map<String, Object> snapshot(EntityPersister persister, Object[] state, SharedSessionContractImplementor session) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (state == null) {
+            return values;
+        }
+        boolean[] audited = auditedProperties(persister);
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for (int i = 0; i < names.length; i++) {
+            if (audited[i] && state[i] != null) {
+                values.put(names[i], auditValue(types[i], state[i], session));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Value as written to the audit row; associations are recorded by identifier
+     */
+    private Object auditValue(Type type, Object value, SharedSessionContractImplementor session) {
+        if (value == null || !(type instanceof EntityType entityType)) {
+            return value;
+        }
+        LazyInitializer lazyInitializer = HibernateProxy.extractLazyInitializer(value);
+        if (lazyInitializer != null) {
+            return lazyInitializer.getInternalIdentifier();
+        }
+        return session.getFactory().getMappingMetamodel()
+            .getEntityDescriptor(entityType.getAssociatedEntityName())
+            .getIdentifier(value, session);
+    }
+
+    private boolean[] auditedProperties(EntityPersister persister) {
+        return auditedProperties.computeIfAbsent(persister.getEntityName(), entityName -> {
+            String[] names = persister.getPropertyNames();
+            Type[] types = persister.getPropertyTypes();
+            WalletConfigurationProperties.AuditFieldFilter filter =
+                config.getEntityFields().get(persister.getMappedClass().getSimpleName());
+            boolean[] audited = new boolean[names.length];
+            for (int i = 0; i < names.length; i++) {
+                audited[i] = !types[i].isCollectionType()
+                    && !config.getExcludedFields().contains(names[i])
+                    && (filter == null || filter.allows(names[i]));
+            }
+            return audited;
+        });
+    }
+
+    private void capture(DateAudit entity, String operation, Map<String, Object> oldValues,
+                         Map<String, Object> newValues, List<String> changedFields) throws Exception {
+        AuditEvent.AuditEventBuilder event = AuditEvent.builder()
+            .auditId(entity.getAuditTrailId() != null ? entity.getAuditTrailId() : UUID.randomUUID().toString())
+            .operation(operation)
+            .requestId(MDC.get("requestId"))
+            .timestamp(Instant.now())
+            .oldValues(oldValues != null ? objectMapper.writeValueAsString(oldValues) : null)
+            .newValues(newValues != null ? objectMapper.writeValueAsString(newValues) : null)
+            .changedFields(changedFields != null ? objectMapper.writeValueAsString(changedFields) : null);
+
+        // Set entity type and ID based on entity type
+        String entityId = null;
+        if (entity instanceof User user) {
+            entityId = user.getRequestId();
+            event.entityType("User")
+                .userId(user.getRequestId())
+                .username(user.getFirstName() + " " + user.getLastName());
+        } else if (entity instanceof Wallet wallet) {
+            entityId = wallet.getRequestId();
+            event.entityType("Wallet")
+                .userId(wallet.getUser() != null ? wallet.getUser().getRequestId() : null);
+        } else if (entity instanceof Transaction transaction) {
+            entityId = transaction.getRequestId();
+            event.entityType("Transaction")
+                .transactionId(transaction.getRequestId())
+                .transactionType(transaction.getType() != null ? transaction.getType().name() : null)
+                .transactionAmount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .financialData(true)
+                .sensitiveOperation(true);
+        } else if (entity instanceof Notification notification) {
+            entityId = notification.getRequestId();
+            event.entityType("Notification")
+                .userId(notification.getUser() != null ? notification.getUser().getRequestId() : null);
+        } else {
+            event.entityType(entity.getClass().getSimpleName());
+        }
+        event.entityId(entityId != null ? entityId : UNASSIGNED_ENTITY_ID);
+
+        // Rows are written by the audit writer after the surrounding transaction commits
+        auditTrailWriter.capture(event.build());
+    }
+}
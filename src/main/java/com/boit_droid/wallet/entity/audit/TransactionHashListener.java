@@ -0,0 +1,29 @@
+package com.boit_droid.wallet.entity.audit;
+
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.util.TransactionHasher;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Stamps each transaction write with its canonical hash. Runs after the auditing listener of
+ * {@link DateAudit}, so the creation timestamp is already set; it is cut to milliseconds first so
+ * that the stored value, whatever the column precision, hashes the same as the one hashed here.
+ */
+public class TransactionHashListener {
+
+    @PrePersist
+    public void prePersist(Transaction transaction) {
+        if (transaction.getCreatedAt() != null) {
+            transaction.setCreatedAt(transaction.getCreatedAt().truncatedTo(ChronoUnit.MILLIS));
+        }
+        transaction.setTransactionHash(TransactionHasher.hashHex(transaction));
+    }
+
+    @PreUpdate
+    public void preUpdate(Transaction transaction) {
+        transaction.setTransactionHash(TransactionHasher.hashHex(transaction));
+    }
+}
@@ -2,8 +2,11 @@ package com.boit_droid.wallet.exception;
 
 import com.boit_droid.wallet.dto.response.ErrorResponse;
 import com.boit_droid.wallet.util.RequestIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -32,6 +35,14 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    private final Counter concurrentUpdates;
+    
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.concurrentUpdates = Counter.builder("wallet.transaction.conflicts")
+            .description("Requests rolled back because another request updated the same wallet first")
+            .register(meterRegistry);
+    }
+    
     /**
      * Handle wallet-specific exceptions
      */
@@ -277,6 +288,30 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
     
+    /**
+     * Handle optimistic locking conflicts, usually two requests moving money on the same wallet at once.
+     * These surface at commit, after the service already built its response, so they are counted here.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        
+        String requestId = RequestIdGenerator.getCurrentRequestId();
+        concurrentUpdates.increment();
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "CONCURRENT_UPDATE",
+            "The wallet was updated by another request, please retry",
+            requestId,
+            getPath(request),
+            HttpStatus.CONFLICT.value()
+        );
+        
+        logger.warn("Concurrent update - Request ID: {} - Error: {}", requestId, ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+    
     /**
      * Handle runtime exceptions related to cryptographic operations
      */
@@ -347,6 +382,7 @@ public class GlobalExceptionHandler {
             case "INSUFFICIENT_FUNDS", "INVALID_PIN", "KYC_VERIFICATION_FAILED", 
                  "WALLET_STATUS_ERROR", "VALIDATION_ERROR" -> HttpStatus.BAD_REQUEST;
             case "TRANSACTION_FAILED" -> HttpStatus.UNPROCESSABLE_ENTITY;
+            case "SERVICE_BUSY" -> HttpStatus.SERVICE_UNAVAILABLE;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
     }
@@ -0,0 +1,11 @@
+package com.boit_droid.wallet.exception;
+
+/**
+ * Exception thrown when PIN hashing capacity is exhausted and the request should be retried later
+ */
+public class PinHashingBusyException extends WalletException {
+    
+    public PinHashingBusyException() {
+        super("PIN verification is temporarily unavailable, please retry shortly", "SERVICE_BUSY");
+    }
+}
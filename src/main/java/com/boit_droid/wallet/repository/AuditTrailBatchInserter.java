@@ -0,0 +1,102 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.Type;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Inserts AuditTrail rows with JDBC batches. The identity id of AuditTrail disables Hibernate's
+ * insert batching, so bulk audit writers go through here instead of saveAll. Table and column
+ * names come from the Hibernate mapping, so the insert follows whichever naming strategy the
+ * profile uses; rows are not attached to any persistence context.
+ */
+@Repository
+public class AuditTrailBatchInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private volatile Mapping mapping;
+
+    public AuditTrailBatchInserter(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Insert the rows in one JDBC batch; runs in the caller's transaction
+     */
+    public void insert(List<AuditTrail> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Mapping current = mapping();
+        jdbcTemplate.batchUpdate(current.sql(), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                Object[] values = current.persister().getValues(rows.get(index));
+                for (int i = 0; i < values.length; i++) {
+                    Object value = values[i];
+                    if (value == null) {
+                        statement.setNull(i + 1, current.sqlTypes()[i]);
+                    } else if (value instanceof Instant instant) {
+                        statement.setTimestamp(i + 1, Timestamp.from(instant));
+                    } else {
+                        statement.setObject(i + 1, value);
+                    }
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private Mapping mapping() {
+        Mapping current = mapping;
+        if (current == null) {
+            AbstractEntityPersister persister = (AbstractEntityPersister) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(AuditTrail.class);
+            String[] properties = persister.getPropertyNames();
+            Type[] types = persister.getPropertyTypes();
+            int[] sqlTypes = new int[properties.length];
+            StringBuilder columns = new StringBuilder();
+            StringBuilder placeholders = new StringBuilder();
+            for (int i = 0; i < properties.length; i++) {
+                if (i > 0) {
+                    columns.append(", ");
+                    placeholders.append(", ");
+                }
+                columns.append(persister.getPropertyColumnNames(i)[0]);
+                placeholders.append('?');
+                sqlTypes[i] = types[i] instanceof BasicType<?> basicType
+                    ? basicType.getJdbcType().getJdbcTypeCode()
+                    : Types.OTHER;
+            }
+            String sql = "INSERT INTO " + persister.getTableName() + " (" + columns + ") VALUES (" + placeholders + ")";
+            current = new Mapping(persister, sql, sqlTypes);
+            mapping = current;
+        }
+        return current;
+    }
+
+    private record Mapping(AbstractEntityPersister persister, String sql, int[] sqlTypes) {
+    }
+}
@@ -4,6 +4,7 @@ import com.boit_droid.wallet.entity.audit.AuditTrail;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -92,7 +93,30 @@ public interface AuditTrailRepository extends JpaRepository<AuditTrail, Long> {
     // Find audit records by jurisdiction for regulatory compliance
     List<AuditTrail> findByJurisdictionOrderByTimestampDesc(String jurisdiction);
 
-    // Find expired audit records for cleanup
-    @Query("SELECT a FROM AuditTrail a WHERE a.retentionExpiryDate IS NOT NULL AND a.retentionExpiryDate <= :currentDate")
-    List<AuditTrail> findExpiredAuditRecords(@Param("currentDate") Instant currentDate);
+    // Next keyset chunk of expired audit records as (id, retentionExpiryDate), in expiry order
+    @Query("SELECT a.id, a.retentionExpiryDate FROM AuditTrail a WHERE a.retentionExpiryDate <= :currentDate AND " +
+           "(a.retentionExpiryDate > :afterExpiry OR (a.retentionExpiryDate = :afterExpiry AND a.id > :afterId)) " +
+           "ORDER BY a.retentionExpiryDate, a.id")
+    List<Object[]> findExpiredAuditKeys(@Param("currentDate") Instant currentDate,
+                                        @Param("afterExpiry") Instant afterExpiry,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AuditTrail a WHERE a.id IN :ids AND a.retentionExpiryDate <= :currentDate")
+    int deleteExpiredByIds(@Param("ids") List<Long> ids, @Param("currentDate") Instant currentDate);
+
+    // Next keyset chunk of rows written without a retention expiry date whose timestamp is past the cutoff,
+    // as (id, timestamp), in timestamp order
+    @Query("SELECT a.id, a.timestamp FROM AuditTrail a WHERE a.retentionExpiryDate IS NULL AND a.timestamp <= :cutoff AND " +
+           "(a.timestamp > :afterTimestamp OR (a.timestamp = :afterTimestamp AND a.id > :afterId)) " +
+           "ORDER BY a.timestamp, a.id")
+    List<Object[]> findExpiredUndatedAuditKeys(@Param("cutoff") Instant cutoff,
+                                               @Param("afterTimestamp") Instant afterTimestamp,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AuditTrail a WHERE a.id IN :ids AND a.retentionExpiryDate IS NULL AND a.timestamp <= :cutoff")
+    int deleteExpiredUndatedByIds(@Param("ids") List<Long> ids, @Param("cutoff") Instant cutoff);
 }
\ No newline at end of file
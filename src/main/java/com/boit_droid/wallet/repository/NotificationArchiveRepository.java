@@ -0,0 +1,36 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.NotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+
+    // Per user and type totals of the rows archived by one chunk: [userId, type, count, unreadCount]
+    @Query("SELECT a.userId, a.type, COUNT(a), SUM(CASE WHEN a.isRead = false THEN 1 ELSE 0 END) " +
+           "FROM NotificationArchive a WHERE a.archiveBatchId = :batchId " +
+           "AND a.originalId BETWEEN :firstId AND :lastId GROUP BY a.userId, a.type")
+    List<Object[]> countArchivedByUserAndType(@Param("batchId") String batchId,
+                                              @Param("firstId") Long firstId,
+                                              @Param("lastId") Long lastId);
+
+    // Next keyset chunk of archive rows past their retention window
+    @Query("SELECT a.id FROM NotificationArchive a WHERE a.id > :afterId AND a.archivedAt < :cutoff ORDER BY a.id")
+    List<Long> findPurgeableIds(@Param("afterId") Long afterId,
+                                @Param("cutoff") Instant cutoff,
+                                Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM NotificationArchive a WHERE a.id BETWEEN :firstId AND :lastId AND a.archivedAt < :cutoff")
+    int deleteArchivedBetween(@Param("firstId") Long firstId,
+                              @Param("lastId") Long lastId,
+                              @Param("cutoff") Instant cutoff);
+}
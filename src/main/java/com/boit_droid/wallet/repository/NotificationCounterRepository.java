@@ -0,0 +1,46 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.NotificationCounter;
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    // All counters for a user, one row per notification type
+    List<NotificationCounter> findByUserId(Long userId);
+
+    // Counters of a user locked against concurrent deltas until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM NotificationCounter c WHERE c.userId = :userId")
+    List<NotificationCounter> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    boolean existsByUserId(Long userId);
+
+    // Keyset page of users that have materialized counters
+    @Query("SELECT DISTINCT c.userId FROM NotificationCounter c WHERE c.userId > :afterUserId ORDER BY c.userId")
+    List<Long> findUserIdsAfter(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    // Apply a delta to one counter row; returns 0 when the user's counters have not been materialized yet
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.totalCount = c.totalCount + :totalDelta, " +
+           "c.unreadCount = c.unreadCount + :unreadDelta WHERE c.userId = :userId AND c.type = :type")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("type") NotificationType type,
+                   @Param("totalDelta") long totalDelta,
+                   @Param("unreadDelta") long unreadDelta);
+
+    // Clear unread counts for every type of a user
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = 0 WHERE c.userId = :userId")
+    int resetUnread(@Param("userId") Long userId);
+}
@@ -6,12 +6,14 @@ import com.boit_droid.wallet.entity.enums.Status;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -103,6 +105,53 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user = :user AND n.isRead = false")
     Long countUnreadNotificationsByUser(@Param("user") User user);
 
+    // Total and unread counts per type for a user, used to materialize notification counters
+    @Query("SELECT n.type, COUNT(n), SUM(CASE WHEN n.isRead = false THEN 1 ELSE 0 END) " +
+           "FROM Notification n WHERE n.user.id = :userId GROUP BY n.type")
+    List<Object[]> countByTypeForUser(@Param("userId") Long userId);
+
+    // Unread counts per type among the given notifications of a user
+    @Query("SELECT n.type, COUNT(n) FROM Notification n " +
+           "WHERE n.user.id = :userId AND n.isRead = false AND n.id IN :ids GROUP BY n.type")
+    List<Object[]> countUnreadByTypeForIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Total and unread counts per type among the given notifications of a user
+    @Query("SELECT n.type, COUNT(n), SUM(CASE WHEN n.isRead = false THEN 1 ELSE 0 END) " +
+           "FROM Notification n WHERE n.user.id = :userId AND n.id IN :ids GROUP BY n.type")
+    List<Object[]> countByTypeForIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Total and unread counts per type of a user's notifications created before a cut-off
+    @Query("SELECT n.type, COUNT(n), SUM(CASE WHEN n.isRead = false THEN 1 ELSE 0 END) " +
+           "FROM Notification n WHERE n.user.id = :userId AND n.createdAt < :createdBefore " +
+           "AND (:readOnly = false OR n.isRead = true) GROUP BY n.type")
+    List<Object[]> countByTypeCreatedBefore(@Param("userId") Long userId,
+                                            @Param("createdBefore") Instant createdBefore,
+                                            @Param("readOnly") boolean readOnly);
+
+    // Set-based read updates; bypass entity listeners, so callers write one summary audit record
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt, n.updatedAt = :readAt, " +
+           "n.version = n.version + 1 WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsReadByUser(@Param("userId") Long userId, @Param("readAt") Instant readAt);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt, n.updatedAt = :readAt, " +
+           "n.version = n.version + 1 WHERE n.user.id = :userId AND n.isRead = false AND n.id IN :ids")
+    int markAsReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                        @Param("readAt") Instant readAt);
+
+    // Set-based deletes scoped to a user
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId AND n.id IN :ids")
+    int deleteByUserAndIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.user.id = :userId AND n.createdAt < :createdBefore " +
+           "AND (:readOnly = false OR n.isRead = true)")
+    int deleteByUserCreatedBefore(@Param("userId") Long userId,
+                                  @Param("createdBefore") Instant createdBefore,
+                                  @Param("readOnly") boolean readOnly);
+
     // Count notifications by status
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.status = :status")
     Long countByStatus(@Param("status") Status status);
@@ -161,4 +210,42 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
                                           @Param("startDate") Instant startDate,
                                           @Param("endDate") Instant endDate,
                                           Pageable pageable);
+
+    // Retention: a notification leaves the hot table once it expired or outlived the window for its read state
+    String RETENTION_CRITERIA = "(n.isExpired = true OR n.expiredAt <= :now " +
+           "OR (n.isRead = true AND n.createdAt < :readCutoff) OR n.createdAt < :unreadCutoff)";
+
+    // Next keyset chunk of notifications due for archival
+    @Query("SELECT n.id FROM Notification n WHERE n.id > :afterId AND " + RETENTION_CRITERIA + " ORDER BY n.id")
+    List<Long> findRetentionCandidateIds(@Param("afterId") Long afterId,
+                                         @Param("now") Instant now,
+                                         @Param("readCutoff") Instant readCutoff,
+                                         @Param("unreadCutoff") Instant unreadCutoff,
+                                         Pageable pageable);
+
+    // Copy the due notifications of an id range into the archive table
+    @Modifying
+    @Query("INSERT INTO NotificationArchive (originalId, userId, requestId, type, priority, status, title, message, " +
+           "relatedTransactionId, relatedWalletId, isRead, readAt, expiredAt, originalCreatedAt, archivedAt, " +
+           "archiveReason, archiveBatchId) " +
+           "SELECT n.id, n.user.id, n.requestId, n.type, n.priority, n.status, n.title, n.message, " +
+           "n.relatedTransactionId, n.relatedWalletId, n.isRead, n.readAt, n.expiredAt, n.createdAt, :now, " +
+           "CASE WHEN n.isExpired = true OR n.expiredAt <= :now THEN 'EXPIRED' " +
+           "WHEN n.isRead = true THEN 'READ_RETENTION' ELSE 'UNREAD_RETENTION' END, :batchId " +
+           "FROM Notification n WHERE n.id BETWEEN :firstId AND :lastId AND " + RETENTION_CRITERIA)
+    int archiveRetentionRange(@Param("firstId") Long firstId,
+                              @Param("lastId") Long lastId,
+                              @Param("now") Instant now,
+                              @Param("readCutoff") Instant readCutoff,
+                              @Param("unreadCutoff") Instant unreadCutoff,
+                              @Param("batchId") String batchId);
+
+    // Remove the rows of an id range that the given retention run archived
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id BETWEEN :firstId AND :lastId AND n.id IN " +
+           "(SELECT a.originalId FROM NotificationArchive a WHERE a.archiveBatchId = :batchId " +
+           "AND a.originalId BETWEEN :firstId AND :lastId)")
+    int deleteArchivedRange(@Param("firstId") Long firstId,
+                            @Param("lastId") Long lastId,
+                            @Param("batchId") String batchId);
 }
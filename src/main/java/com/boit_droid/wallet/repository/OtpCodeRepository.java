@@ -0,0 +1,46 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.OtpCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface OtpCodeRepository extends JpaRepository<OtpCode, String> {
+
+    // Issue a new code for an existing key; returns 0 when the key has no row yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.codeHash = :codeHash, o.nonce = :nonce, o.attempts = 0, " +
+           "o.expiresAt = :expiresAt WHERE o.storeKey = :storeKey")
+    int replaceCode(@Param("storeKey") String storeKey,
+                    @Param("codeHash") String codeHash,
+                    @Param("nonce") String nonce,
+                    @Param("expiresAt") Instant expiresAt);
+
+    // Compare-and-set of the attempt counter; fails when the code was reissued or another attempt won
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtpCode o SET o.attempts = :next " +
+           "WHERE o.storeKey = :storeKey AND o.nonce = :nonce AND o.attempts = :expected")
+    int compareAndSetAttempts(@Param("storeKey") String storeKey,
+                              @Param("nonce") String nonce,
+                              @Param("expected") int expected,
+                              @Param("next") int next);
+
+    // Remove a code only if it is still the one identified by the nonce
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.storeKey = :storeKey AND o.nonce = :nonce")
+    int deleteIfCurrent(@Param("storeKey") String storeKey, @Param("nonce") String nonce);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,32 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.OtpRateCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface OtpRateCounterRepository extends JpaRepository<OtpRateCounter, String> {
+
+    // Count a hit, restarting the count when the window moved on. Windows only roll forward, so this
+    // returns 0 when the key has no row yet or the row is already in a later window than the caller's
+    @Transactional
+    @Modifying
+    @Query("UPDATE OtpRateCounter c SET " +
+           "c.hitCount = CASE WHEN c.windowStart = :windowStart THEN c.hitCount + 1 ELSE 1 END, " +
+           "c.windowStart = :windowStart, c.expiresAt = :expiresAt " +
+           "WHERE c.counterKey = :counterKey AND c.windowStart <= :windowStart")
+    int incrementWindow(@Param("counterKey") String counterKey,
+                        @Param("windowStart") long windowStart,
+                        @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OtpRateCounter c WHERE c.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
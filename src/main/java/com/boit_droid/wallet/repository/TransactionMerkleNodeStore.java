@@ -0,0 +1,115 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.TransactionMerkleNode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JDBC access to {@link TransactionMerkleNode} rows. A sealed day writes two rows per transaction,
+ * which is too many for identity-keyed JPA inserts, and a proof reads one node per tree level in a
+ * single statement.
+ */
+@Repository
+public class TransactionMerkleNodeStore {
+
+    private static final String INSERT_SQL = "INSERT INTO transaction_merkle_nodes "
+        + "(root_id, tree_level, node_index, node_hash, transaction_id) VALUES (?, ?, ?, ?, ?)";
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionMerkleNodeStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Position of a transaction's leaf in a sealed tree
+     */
+    public record Leaf(long rootId, int index, byte[] hash) {
+    }
+
+    /**
+     * Write every level of a tree; runs in the caller's transaction
+     * @param levels Tree levels, leaves first
+     * @param transactionIds Transaction id of each leaf
+     */
+    public void insertTree(long rootId, List<byte[][]> levels, long[] transactionIds) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int level = 0; level < levels.size(); level++) {
+            byte[][] nodes = levels.get(level);
+            for (int index = 0; index < nodes.length; index++) {
+                batch.add(new Object[]{rootId, level, index, nodes[index], level == 0 ? transactionIds[index] : null});
+                if (batch.size() == INSERT_BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+    }
+
+    public Optional<Leaf> findLeaf(long transactionId) {
+        List<Leaf> leaves = jdbcTemplate.query(
+            "SELECT root_id, node_index, node_hash FROM transaction_merkle_nodes WHERE transaction_id = ? AND tree_level = 0",
+            (rs, rowNum) -> new Leaf(rs.getLong(1), rs.getInt(2), rs.getBytes(3)),
+            transactionId);
+        return leaves.isEmpty() ? Optional.empty() : Optional.of(leaves.get(0));
+    }
+
+    /**
+     * Hashes of the nodes at the given positions, in the order given
+     * @param positions {level, index} pairs
+     * @return hashes, or an empty list if any node is missing
+     */
+    public List<byte[]> findNodes(long rootId, List<int[]> positions) {
+        if (positions.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT tree_level, node_index, node_hash FROM transaction_merkle_nodes WHERE root_id = ? AND (");
+        List<Object> args = new ArrayList<>(1 + positions.size() * 2);
+        args.add(rootId);
+        for (int i = 0; i < positions.size(); i++) {
+            sql.append(i == 0 ? "" : " OR ").append("(tree_level = ? AND node_index = ?)");
+            args.add(positions.get(i)[0]);
+            args.add(positions.get(i)[1]);
+        }
+        sql.append(')');
+        Map<Long, byte[]> found = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            found.put(key(rs.getInt(1), rs.getInt(2)), rs.getBytes(3));
+        }, args.toArray());
+        List<byte[]> hashes = new ArrayList<>(positions.size());
+        for (int[] position : positions) {
+            byte[] hash = found.get(key(position[0], position[1]));
+            if (hash == null) {
+                return List.of();
+            }
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+
+    /**
+     * Transaction id and stored hash of every leaf of a tree, by leaf index
+     */
+    public List<Object[]> findLeaves(long rootId) {
+        return jdbcTemplate.query(
+            "SELECT node_index, transaction_id, node_hash FROM transaction_merkle_nodes "
+                + "WHERE root_id = ? AND tree_level = 0 ORDER BY node_index",
+            (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getLong(2), rs.getBytes(3)},
+            rootId);
+    }
+
+    private static long key(int level, int index) {
+        return ((long) level << 32) | (index & 0xffffffffL);
+    }
+}
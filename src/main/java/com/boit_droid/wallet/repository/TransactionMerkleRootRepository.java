@@ -0,0 +1,19 @@
+package com.boit_droid.wallet.repository;
+
+import com.boit_droid.wallet.entity.TransactionMerkleRoot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface TransactionMerkleRootRepository extends JpaRepository<TransactionMerkleRoot, Long> {
+
+    Optional<TransactionMerkleRoot> findByBusinessDateAndCurrency(LocalDate businessDate, String currency);
+
+    boolean existsByBusinessDateAndCurrency(LocalDate businessDate, String currency);
+
+    // Most recently sealed day; sealing resumes from there
+    Optional<TransactionMerkleRoot> findTopByOrderByBusinessDateDesc();
+}
@@ -258,5 +258,32 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
            "t.senderBalanceBefore - t.amount != t.senderBalanceAfter")
     List<Transaction> findTransactionsWithInconsistentBalanceTracking();
 
+    // Keyset page of one currency's transactions in a time range, in Merkle leaf order (createdAt, id)
+    @Query("SELECT t FROM Transaction t WHERE t.currency = :currency " +
+           "AND t.createdAt >= :startDate AND t.createdAt < :endDate " +
+           "AND (t.createdAt > :afterCreatedAt OR (t.createdAt = :afterCreatedAt AND t.id > :afterId)) " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<Transaction> findIntegrityPage(@Param("currency") String currency,
+                                        @Param("startDate") Instant startDate,
+                                        @Param("endDate") Instant endDate,
+                                        @Param("afterCreatedAt") Instant afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Query("SELECT DISTINCT t.currency FROM Transaction t WHERE t.createdAt >= :startDate AND t.createdAt < :endDate")
+    List<String> findCurrenciesBetween(@Param("startDate") Instant startDate, @Param("endDate") Instant endDate);
+
+    @Query("SELECT MIN(t.createdAt) FROM Transaction t")
+    Instant findEarliestCreatedAt();
+
+    // Keyset page of a wallet's transactions with both wallets and their users, for signature checks
+    @Query("SELECT t FROM Transaction t " +
+           "LEFT JOIN FETCH t.senderWallet sw LEFT JOIN FETCH sw.user " +
+           "JOIN FETCH t.receiverWallet rw JOIN FETCH rw.user " +
+           "WHERE (sw = :wallet OR rw = :wallet) AND t.id > :afterId ORDER BY t.id ASC")
+    List<Transaction> findSignaturePage(@Param("wallet") Wallet wallet,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
     boolean existsByExternalReference(@NotBlank(message = "M-Pesa transaction ID is required") @Size(min = 10, max = 50, message = "M-Pesa transaction ID must be between 10 and 50 characters") String mpesaTransactionId);
 }
\ No newline at end of file
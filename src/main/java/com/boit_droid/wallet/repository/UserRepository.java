@@ -2,9 +2,11 @@ package com.boit_droid.wallet.repository;
 
 import com.boit_droid.wallet.entity.User;
 import com.boit_droid.wallet.entity.enums.Status;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,6 +25,11 @@ public interface  UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByIdNumber(String idNumber);
 
+    // Lock a user row; serializes per-user maintenance that has no rows of its own to lock yet
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
     // Check existence by unique fields
     boolean existsByMobile(String mobile);
     boolean existsByEmail(String email);
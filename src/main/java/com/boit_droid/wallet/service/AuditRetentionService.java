@@ -0,0 +1,15 @@
+package com.boit_droid.wallet.service;
+
+import java.util.Map;
+
+/**
+ * Removes audit trail rows whose retention period has expired
+ */
+public interface AuditRetentionService {
+
+    /**
+     * Run one purge sweep over rows past their retention expiry date, archiving them first when enabled.
+     * Returns the number of purged and archived rows and chunks processed.
+     */
+    Map<String, Long> runRetention();
+}
@@ -0,0 +1,30 @@
+package com.boit_droid.wallet.service;
+
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+
+/**
+ * Pipeline that persists captured audit events off the entity write path
+ */
+public interface AuditTrailWriter {
+
+    /**
+     * Queue an audit event. Inside a transaction the event is only published once the
+     * transaction commits and is discarded on rollback.
+     */
+    void capture(AuditEvent event);
+
+    /**
+     * Number of events waiting to be written
+     */
+    int getQueueDepth();
+
+    /**
+     * Number of events written since startup
+     */
+    long getWrittenCount();
+
+    /**
+     * Number of events that could not be written
+     */
+    long getFailedCount();
+}
@@ -0,0 +1,62 @@
+package com.boit_droid.wallet.service;
+
+import com.boit_droid.wallet.entity.enums.NotificationType;
+
+import java.util.Map;
+
+/**
+ * Maintains per-user notification totals so badge counts never scan the notifications table
+ */
+public interface NotificationCounterService {
+
+    /**
+     * Take the locks a first notification needs; call in the same transaction, before the notification is inserted
+     */
+    void prepareCreate(Long userId);
+
+    /**
+     * Record a newly persisted notification
+     */
+    void recordCreated(Long userId, NotificationType type, boolean unread);
+
+    /**
+     * Record a single notification moving from unread to read
+     */
+    void recordRead(Long userId, NotificationType type);
+
+    /**
+     * Record several notifications of one type moving from unread to read
+     */
+    void recordRead(Long userId, NotificationType type, long count);
+
+    /**
+     * Record that every notification of a user is now read
+     */
+    void recordAllRead(Long userId);
+
+    /**
+     * Record a deleted notification
+     */
+    void recordDeleted(Long userId, NotificationType type, boolean wasUnread);
+
+    /**
+     * Record several deleted notifications of one type, of which unreadCount were unread
+     */
+    void recordDeleted(Long userId, NotificationType type, long count, long unreadCount);
+
+    /**
+     * Get total, unread, read and per-type counts for a user
+     */
+    Map<String, Long> getCounts(Long userId);
+
+    /**
+     * Recompute a user's counters from the notifications table
+     */
+    Map<String, Long> rebuildCounts(Long userId);
+
+    /**
+     * Rebuild every materialized user whose counters drifted from the notifications table
+     * @return the number of users checked and repaired
+     */
+    Map<String, Long> reconcileCounts();
+}
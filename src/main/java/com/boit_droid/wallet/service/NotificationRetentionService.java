@@ -0,0 +1,15 @@
+package com.boit_droid.wallet.service;
+
+import java.util.Map;
+
+/**
+ * Moves expired and aged notifications out of the hot notifications table
+ */
+public interface NotificationRetentionService {
+
+    /**
+     * Run one retention sweep: archive due notifications and purge archive rows past their retention window.
+     * Returns the number of archived and purged rows.
+     */
+    Map<String, Long> runRetention();
+}
@@ -1,5 +1,6 @@
 package com.boit_droid.wallet.service;
 
+import com.boit_droid.wallet.dto.request.BulkNotificationRequest;
 import com.boit_droid.wallet.dto.request.NotificationRequest;
 import com.boit_droid.wallet.dto.response.CustomApiResponse;
 import com.boit_droid.wallet.dto.response.NotificationResponse;
@@ -44,6 +45,11 @@ public interface NotificationService {
      */
     CustomApiResponse<String> markAllNotificationsAsRead(String userId);
     
+    /**
+     * Mark the selected notifications of a user as read in one statement
+     */
+    CustomApiResponse<String> markNotificationsAsRead(String userId, BulkNotificationRequest request);
+    
     /**
      * Get notification count for a user
      */
@@ -54,6 +60,11 @@ public interface NotificationService {
      */
     CustomApiResponse<String> deleteNotification(String notificationId);
     
+    /**
+     * Delete the selected notifications of a user, by ID list or creation cut-off, in one statement
+     */
+    CustomApiResponse<String> deleteNotifications(String userId, BulkNotificationRequest request);
+    
     /**
      * Send transaction notification
      */
@@ -0,0 +1,39 @@
+package com.boit_droid.wallet.service;
+
+import com.boit_droid.wallet.dto.response.NotificationResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pushes new notifications and count changes to users connected over Server-Sent Events
+ */
+public interface NotificationStreamService {
+
+    /**
+     * Open a stream for a user; the initial counts are sent as the first event
+     */
+    SseEmitter subscribe(Long userId, Map<String, Long> initialCounts);
+
+    /**
+     * Push a newly created notification to the user's open streams once the current transaction commits
+     */
+    void publishNotification(Long userId, NotificationResponse notification);
+
+    /**
+     * Push fresh counts to the user's open streams. Calls are coalesced per user and the
+     * supplier is only invoked when the user has at least one open stream.
+     */
+    void publishCounts(Long userId, Supplier<Map<String, Long>> counts);
+
+    /**
+     * Whether the user has at least one open stream
+     */
+    boolean hasSubscribers(Long userId);
+
+    /**
+     * Number of open streams across all users
+     */
+    int getConnectionCount();
+}
@@ -0,0 +1,66 @@
+package com.boit_droid.wallet.service;
+
+/**
+ * Storage for outstanding one-time passwords.
+ * Implementations must make insert, verify and expiry constant-time operations
+ * and must guarantee that a code verifies successfully at most once.
+ */
+public interface OtpStore {
+
+	enum VerifyOutcome {
+		VERIFIED,
+		INVALID,
+		EXPIRED,
+		NOT_FOUND,
+		MAX_ATTEMPTS_EXCEEDED
+	}
+
+	/**
+	 * Store a code under the given key, replacing any code issued before
+	 */
+	void put(String key, String code, long ttlMillis);
+
+	/**
+	 * Count one attempt against the key and check the code.
+	 * A verified, expired or exhausted code is removed.
+	 * @param maxAttempts attempts allowed before the code is invalidated
+	 */
+	VerifyResult verify(String key, String code, int maxAttempts);
+
+	/**
+	 * Drop the code stored under the key, if any
+	 */
+	boolean remove(String key);
+
+	/**
+	 * Number of outstanding codes; a shared store may report the count from its last cleanup pass
+	 */
+	int size();
+
+	/**
+	 * Codes removed because their time to live elapsed
+	 */
+	long getExpiredCount();
+
+	final class VerifyResult {
+		private final VerifyOutcome outcome;
+		private final int attempts;
+
+		public VerifyResult(VerifyOutcome outcome, int attempts) {
+			this.outcome = outcome;
+			this.attempts = attempts;
+		}
+
+		public VerifyOutcome getOutcome() {
+			return outcome;
+		}
+
+		public int getAttempts() {
+			return attempts;
+		}
+
+		public boolean isVerified() {
+			return outcome == VerifyOutcome.VERIFIED;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.boit_droid.wallet.service;
+
+/**
+ * PIN hashing with versioned hash formats, run on a dedicated bounded pool so that slow,
+ * memory-hard hashing never occupies request threads' CPU and a surge of PIN checks is
+ * rejected instead of starving other work
+ */
+public interface PinHashingService {
+
+    /**
+     * Hash a PIN in the current format
+     * @param pin The PIN to hash
+     * @param salt The wallet's PIN salt
+     * @return Encoded hash, including the format and its parameters
+     * @throws com.boit_droid.wallet.exception.PinHashingBusyException if the hashing pool is saturated
+     */
+    String hashPin(String pin, String salt);
+
+    /**
+     * Verify a PIN against a stored hash in any supported format
+     * @param pin The PIN to verify
+     * @param storedHash The stored hash
+     * @param salt The salt the hash was made with
+     * @return Verification result; carries a new hash when the PIN is valid but the stored
+     *         hash uses an outdated format or weaker parameters
+     * @throws com.boit_droid.wallet.exception.PinHashingBusyException if the hashing pool is saturated
+     */
+    PinVerification verifyPin(String pin, String storedHash, String salt);
+
+    /**
+     * PIN verification result
+     */
+    class PinVerification {
+        private final boolean valid;
+        private final String upgradedHash;
+
+        public PinVerification(boolean valid, String upgradedHash) {
+            this.valid = valid;
+            this.upgradedHash = upgradedHash;
+        }
+
+        public boolean isValid() { return valid; }
+        public String getUpgradedHash() { return upgradedHash; }
+    }
+}
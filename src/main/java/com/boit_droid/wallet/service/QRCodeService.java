@@ -0,0 +1,41 @@
+package com.boit_droid.wallet.service;
+
+import com.boit_droid.wallet.util.QRCodeFormat;
+
+/**
+ * Wallet QR code images, cached by content. A wallet's QR content rarely changes, so an image is
+ * rendered once per distinct content and size and then served from memory; its ETag is the
+ * content hash, which lets clients revalidate without the image being rendered or sent again.
+ */
+public interface QRCodeService {
+
+    /**
+     * PNG image of a wallet's QR code
+     * @param walletId The wallet ID
+     * @param accountNumber The account number
+     * @param accountName The account name
+     * @param size Width and height in pixels
+     * @param format Image format
+     * @return Image bytes and their strong ETag
+     */
+    QRCodeImage walletQRCode(String walletId, String accountNumber, String accountName, int size, QRCodeFormat format);
+
+    /**
+     * Rendered QR code image
+     */
+    class QRCodeImage {
+        private final byte[] content;
+        private final QRCodeFormat format;
+        private final String etag;
+
+        public QRCodeImage(byte[] content, QRCodeFormat format, String etag) {
+            this.content = content;
+            this.format = format;
+            this.etag = etag;
+        }
+
+        public byte[] getContent() { return content; }
+        public QRCodeFormat getFormat() { return format; }
+        public String getEtag() { return etag; }
+    }
+}
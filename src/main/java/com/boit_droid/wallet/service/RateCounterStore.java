@@ -0,0 +1,23 @@
+package com.boit_droid.wallet.service;
+
+/**
+ * Fixed-window hit counters used for OTP rate limiting and suspicious activity detection.
+ * Windows are aligned to multiples of their length, so every node agrees on the current window.
+ */
+public interface RateCounterStore {
+
+	/**
+	 * Hits counted for the key in the current window
+	 */
+	int getCount(String key, long windowMillis);
+
+	/**
+	 * Count one hit for the key in the current window and return the new count
+	 */
+	int increment(String key, long windowMillis);
+
+	/**
+	 * Number of tracked keys
+	 */
+	int size();
+}
@@ -0,0 +1,32 @@
+package com.boit_droid.wallet.service;
+
+import com.boit_droid.wallet.entity.Transaction;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Daily Merkle trees over transaction hashes. Each closed UTC day is sealed into one root per
+ * currency; a sealed day can be re-verified in bulk, and a single transaction proven against its
+ * day's root with one sibling hash per tree level.
+ */
+public interface TransactionIntegrityService {
+
+    /**
+     * Seal every closed day that has no root yet
+     * @return number of roots written
+     */
+    int sealClosedDays();
+
+    /**
+     * Re-hash a sealed day's transactions in parallel and compare the tree with the stored root.
+     * Reports the transactions whose content no longer matches the sealed leaves.
+     */
+    Map<String, Object> verifyDay(LocalDate businessDate, String currency);
+
+    /**
+     * Check a transaction against its stored hash and, once its day is sealed, against the day's root
+     * using the Merkle proof of its leaf
+     */
+    Map<String, Object> proveTransaction(Transaction transaction);
+}
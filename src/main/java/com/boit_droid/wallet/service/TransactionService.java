@@ -10,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -86,6 +87,16 @@ public interface TransactionService {
      */
     CustomApiResponse verifyTransactionIntegrity(String transactionId);
     
+    /**
+     * Re-check the signatures of every transaction a wallet sent or received
+     */
+    CustomApiResponse verifyWalletSignatures(String walletId);
+    
+    /**
+     * Re-hash a sealed day's transactions in one currency and compare against its Merkle root
+     */
+    CustomApiResponse verifyDailyIntegrity(LocalDate businessDate, String currency);
+    
     /**
      * Get pending transactions for a wallet
      * Requirements: 6.1, 6.2
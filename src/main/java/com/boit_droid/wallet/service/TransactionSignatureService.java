@@ -3,6 +3,8 @@ package com.boit_droid.wallet.service;
 import com.boit_droid.wallet.entity.Transaction;
 import com.boit_droid.wallet.entity.Wallet;
 
+import java.util.Map;
+
 /**
  * Service interface for transaction signature verification and security
  */
@@ -26,6 +28,13 @@ public interface TransactionSignatureService {
      */
     boolean verifyTransactionSignature(Transaction transaction, String expectedSignature);
     
+    /**
+     * Re-check the signature of every transaction a wallet sent or received, in parallel
+     * @param wallet The wallet
+     * @return Counts of checked, invalid, unsigned and legacy signatures, and the invalid transaction IDs
+     */
+    Map<String, Object> verifyWalletHistory(Wallet wallet);
+    
     /**
      * Generate wallet operation signature for sensitive operations
      * @param wallet The wallet
@@ -0,0 +1,53 @@
+package com.boit_droid.wallet.service;
+
+import java.util.List;
+
+/**
+ * In-process risk scoring for transfers, evaluated before any balance is touched
+ */
+public interface TransferRiskService {
+
+    /**
+     * Score a transfer against the streaming features of the sender wallet and device
+     * @param walletId The sender wallet ID
+     * @param deviceId The device the transfer was initiated from, may be null
+     * @param recipientWalletId The recipient wallet ID
+     * @param amount The transfer amount
+     * @return Risk assessment with the decision and the rules that fired
+     */
+    RiskAssessment assess(String walletId, String deviceId, String recipientWalletId, double amount);
+
+    /**
+     * Feed a completed transfer into the features; deferred until commit when a transaction is active
+     * @param walletId The sender wallet ID
+     * @param deviceId The device the transfer was initiated from, may be null
+     * @param recipientWalletId The recipient wallet ID
+     * @param amount The transfer amount
+     */
+    void recordTransfer(String walletId, String deviceId, String recipientWalletId, double amount);
+
+    /**
+     * Outcome of a risk assessment
+     */
+    enum RiskDecision {
+        ALLOW,
+        STEP_UP_OTP,
+        DENY
+    }
+
+    /**
+     * Risk assessment result
+     */
+    class RiskAssessment {
+        private final RiskDecision decision;
+        private final List<String> reasons;
+
+        public RiskAssessment(RiskDecision decision, List<String> reasons) {
+            this.decision = decision;
+            this.reasons = reasons;
+        }
+
+        public RiskDecision getDecision() { return decision; }
+        public List<String> getReasons() { return reasons; }
+    }
+}
@@ -2,6 +2,7 @@ package com.boit_droid.wallet.service;
 
 import com.boit_droid.wallet.dto.request.*;
 import com.boit_droid.wallet.dto.response.CustomApiResponse;
+import com.boit_droid.wallet.util.QRCodeFormat;
 
 public interface WalletService {
     
@@ -20,7 +21,10 @@ public interface WalletService {
     CustomApiResponse transferFunds(String fromWalletId, TransferRequest request);
     
     // Additional wallet operations
-    CustomApiResponse generateQRCode(String walletId);
+    CustomApiResponse generateQRCode(String walletId, QRCodeFormat format);
+    
+    // Raw QR code image for the binary endpoint; throws WalletException when the wallet is missing or inactive
+    QRCodeService.QRCodeImage getWalletQRCodeImage(String walletId, int size, QRCodeFormat format);
     CustomApiResponse updateWalletPIN(String walletId, PINUpdateRequest request);
     CustomApiResponse generateAccountStatement(String walletId, StatementRequest request);
 }
@@ -0,0 +1,313 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.repository.AuditTrailRepository;
+import com.boit_droid.wallet.service.AuditRetentionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Purges audit trail rows past their retention expiry date without loading them all.
+ * Chunks come from a keyset query on (retentionExpiryDate, id), backed by idx_audit_retention_expiry,
+ * and each chunk is deleted in its own short transaction. Rows without an expiry date, written before
+ * every audit writer set one, expire audit-retention-days after their timestamp and are swept next
+ * through idx_audit_timestamp. The sweep throttles itself: a chunk slower than
+ * retention-max-chunk-millis halves the next chunk and pauses as long as it took, and when a
+ * replication lag query is configured the sweep waits for lag to drop before each chunk.
+ * With archiving enabled a chunk is written to a gzipped JSON lines file, synced to disk, before
+ * it is deleted; rows are never deleted unless their archive file is complete.
+ */
+@Slf4j
+@Service
+public class AuditRetentionServiceImpl implements AuditRetentionService {
+
+    private static final DateTimeFormatter ARCHIVE_STAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+    private static final long LAG_CHECK_INTERVAL_MS = 1000;
+
+    private final AuditTrailRepository auditTrailRepository;
+    private final WalletConfigurationProperties.Audit config;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter purgedRows;
+    private final Counter archivedRows;
+    private final Counter loadThrottles;
+    private final Counter lagThrottles;
+    private final Timer chunkTimer;
+    private final AtomicLong runPurged = new AtomicLong();
+    private final AtomicLong lastRunRowsPerSecond = new AtomicLong();
+    private final AtomicLong replicationLagSeconds = new AtomicLong();
+
+    public AuditRetentionServiceImpl(AuditTrailRepository auditTrailRepository,
+                                     WalletConfigurationProperties walletProperties,
+                                     PlatformTransactionManager transactionManager,
+                                     JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
+        this.auditTrailRepository = auditTrailRepository;
+        this.config = walletProperties.getAudit();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+
+        this.purgedRows = Counter.builder("wallet.audit.retention.purged")
+            .description("Audit trail rows deleted by retention").register(meterRegistry);
+        this.archivedRows = Counter.builder("wallet.audit.retention.archived")
+            .description("Audit trail rows exported to archive files before deletion").register(meterRegistry);
+        this.loadThrottles = Counter.builder("wallet.audit.retention.throttled")
+            .tag("reason", "load").register(meterRegistry);
+        this.lagThrottles = Counter.builder("wallet.audit.retention.throttled")
+            .tag("reason", "replication_lag").register(meterRegistry);
+        this.chunkTimer = Timer.builder("wallet.audit.retention.chunk")
+            .description("Time to archive and delete one retention chunk").register(meterRegistry);
+        meterRegistry.gauge("wallet.audit.retention.run.purged", runPurged);
+        meterRegistry.gauge("wallet.audit.retention.last.run.rows.per.second", lastRunRowsPerSecond);
+        meterRegistry.gauge("wallet.audit.retention.replication.lag.seconds", replicationLagSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.audit.retention-sweep-interval-ms:3600000}",
+               initialDelayString = "${wallet.audit.retention-sweep-interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (!config.isRetentionEnabled()) {
+            return;
+        }
+        try {
+            runRetention();
+        } catch (Exception e) {
+            log.error("Audit retention sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> runRetention() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Audit retention sweep already running, skipping");
+            return Map.of("purged", 0L, "archived", 0L, "chunks", 0L);
+        }
+        try {
+            Instant now = Instant.now();
+            long startNanos = System.nanoTime();
+            Sweep sweep = new Sweep(ARCHIVE_STAMP.format(now), config.getRetentionChunkSize());
+            runPurged.set(0);
+
+            if (purge(sweep, (after, afterId, size) -> auditTrailRepository.findExpiredAuditKeys(now, after, afterId, size),
+                    ids -> auditTrailRepository.deleteExpiredByIds(ids, now))) {
+                // Rows written before retention dates were set expire retention days after their timestamp
+                Instant cutoff = now.minus(Duration.ofDays(config.getAuditRetentionDays()));
+                purge(sweep, (after, afterId, size) -> auditTrailRepository.findExpiredUndatedAuditKeys(cutoff, after, afterId, size),
+                    ids -> auditTrailRepository.deleteExpiredUndatedByIds(ids, cutoff));
+            }
+
+            long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+            lastRunRowsPerSecond.set(sweep.purged * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+            if (sweep.purged > 0) {
+                log.info("Audit retention sweep purged {} rows ({} archived) in {} chunks, {} rows/s",
+                    sweep.purged, sweep.archived, sweep.chunks, lastRunRowsPerSecond.get());
+            }
+
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("purged", sweep.purged);
+            result.put("archived", sweep.archived);
+            result.put("chunks", sweep.chunks);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Archive and delete the rows returned by one keyset query, chunk by chunk
+     *
+     * @return true if the query ran out of rows, false if the sweep stopped early
+     */
+    private boolean purge(Sweep sweep, ExpiredKeys expiredKeys, Function<List<Long>, Integer> deleteChunk) {
+        int configuredChunkSize = config.getRetentionChunkSize();
+        int minChunkSize = Math.max(10, configuredChunkSize / 10);
+        Instant afterKey = Instant.EPOCH;
+        long afterId = 0;
+        while (sweep.attempted < config.getRetentionMaxChunksPerRun()) {
+            if (!awaitReplicationLag()) {
+                log.warn("Audit retention sweep stopped: replication lag stayed above {}s", config.getRetentionMaxLagSeconds());
+                return false;
+            }
+            int chunk = sweep.attempted++;
+            long chunkStart = System.nanoTime();
+            List<Object[]> keys = expiredKeys.find(afterKey, afterId, PageRequest.of(0, sweep.chunkSize));
+            if (keys.isEmpty()) {
+                return true;
+            }
+            List<Long> ids = new ArrayList<>(keys.size());
+            for (Object[] key : keys) {
+                ids.add((Long) key[0]);
+            }
+            Object[] last = keys.get(keys.size() - 1);
+            afterId = (Long) last[0];
+            afterKey = (Instant) last[1];
+
+            if (config.isRetentionArchiveEnabled()) {
+                try {
+                    sweep.archived += archiveChunk(ids, sweep.runStamp, chunk);
+                } catch (IOException e) {
+                    log.error("Audit retention sweep stopped: failed to archive chunk {}: {}", chunk, e.getMessage());
+                    return false;
+                }
+            }
+            Integer deleted = transactionTemplate.execute(status -> deleteChunk.apply(ids));
+            long chunkPurged = deleted == null ? 0 : deleted;
+            sweep.purged += chunkPurged;
+            sweep.chunks++;
+            purgedRows.increment(chunkPurged);
+            runPurged.set(sweep.purged);
+
+            long elapsedNanos = System.nanoTime() - chunkStart;
+            chunkTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (keys.size() < sweep.chunkSize) {
+                return true;
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            long pauseMillis = config.getRetentionChunkPauseMs();
+            if (elapsedMillis > config.getRetentionMaxChunkMillis()) {
+                // The database is struggling: back off and give it as much idle time as the chunk took
+                sweep.chunkSize = Math.max(minChunkSize, sweep.chunkSize / 2);
+                pauseMillis = Math.max(pauseMillis, elapsedMillis);
+                loadThrottles.increment();
+            } else if (sweep.chunkSize < configuredChunkSize) {
+                sweep.chunkSize = Math.min(configuredChunkSize, sweep.chunkSize + minChunkSize);
+            }
+            if (!pause(pauseMillis)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wait until the configured lag query reports acceptable replication lag
+     *
+     * @return false if lag stayed too high for the whole lag timeout
+     */
+    private boolean awaitReplicationLag() {
+        String lagQuery = config.getRetentionLagQuery();
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getRetentionLagTimeoutMs());
+        while (true) {
+            Double lag = null;
+            try {
+                lag = jdbcTemplate.queryForObject(lagQuery, Double.class);
+            } catch (Exception e) {
+                log.warn("Replication lag query failed: {}", e.getMessage());
+            }
+            // An unknown lag, such as a stopped replica, counts as too high
+            replicationLagSeconds.set(lag == null ? -1 : lag.longValue());
+            if (lag != null && lag <= config.getRetentionMaxLagSeconds()) {
+                return true;
+            }
+            lagThrottles.increment();
+            if (System.nanoTime() - deadline > 0 || !pause(LAG_CHECK_INTERVAL_MS)) {
+                return false;
+            }
+        }
+    }
+
+    private long archiveChunk(List<Long> ids, String runStamp, int chunk) throws IOException {
+        Path directory = Paths.get(config.getRetentionArchiveDirectory());
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("audit-trail-%s-%05d.jsonl.gz", runStamp, chunk));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        List<AuditTrail> rows = auditTrailRepository.findAllById(ids);
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            GZIPOutputStream gzip = new GZIPOutputStream(file, 64 * 1024);
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            for (AuditTrail row : rows) {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.newLine();
+            }
+            writer.flush();
+            gzip.finish();
+            file.getFD().sync();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        archivedRows.increment(rows.size());
+        return rows.size();
+    }
+
+    private boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Keyset query returning the next chunk of expired rows as (id, sort key)
+     */
+    @FunctionalInterface
+    private interface ExpiredKeys {
+        List<Object[]> find(Instant afterKey, long afterId, Pageable page);
+    }
+
+    /**
+     * Progress of one sweep across its keyset queries
+     */
+    private static final class Sweep {
+        private final String runStamp;
+        private int chunkSize;
+        private int attempted;
+        private long purged;
+        private long archived;
+        private long chunks;
+
+        private Sweep(String runStamp, int chunkSize) {
+            this.runStamp = runStamp;
+            this.chunkSize = chunkSize;
+        }
+    }
+}
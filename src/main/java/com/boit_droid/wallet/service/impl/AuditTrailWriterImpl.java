@@ -0,0 +1,385 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.repository.AuditTrailBatchInserter;
+import com.boit_droid.wallet.service.AuditTrailWriter;
+import com.boit_droid.wallet.util.AuditJournal;
+import com.boit_droid.wallet.util.MpscRingBuffer;
+import com.boit_droid.wallet.util.SignatureUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit pipeline: events captured during a flush are held per transaction and published to a
+ * bounded lock-free ring buffer after commit. A single writer thread drains the buffer and inserts
+ * the rows with JDBC batches, one short transaction per batch.
+ * In SYNC_ON_COMMIT mode the committing thread waits until the writer has stored its events; when
+ * the buffer is full the events are written on the calling thread instead of being dropped.
+ * With the audit journal enabled every event is appended to the local journal first, and the table
+ * only receives financial and sensitive events plus a sample of the rest, without their values.
+ * If the journal cannot be written, the full rows go to the table instead.
+ * Rows are written through a small connection pool of the writer's own. A committing thread still
+ * holds its request connection while it waits or writes an overflow, so taking the writer's
+ * connection from the same pool could leave every request connection waiting on the writer.
+ */
+@Slf4j
+@Service
+public class AuditTrailWriterImpl implements AuditTrailWriter {
+
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long SYNC_WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final WalletConfigurationProperties.Audit config;
+    private final AuditTrailBatchInserter batchInserter;
+    private final SignatureUtil signatureUtil;
+    private final TransactionTemplate writeTransaction;
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final boolean syncOnCommit;
+
+    private final AtomicLong flushedSequence = new AtomicLong();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+    private final LongAdder journaledCount = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writerThread;
+    private AuditJournal journal;
+    private HikariDataSource writerDataSource;
+
+    @Autowired
+    public AuditTrailWriterImpl(WalletConfigurationProperties walletProperties, DataSourceProperties dataSourceProperties,
+                                EntityManagerFactory entityManagerFactory, SignatureUtil signatureUtil) {
+        this(walletProperties, writerDataSource(dataSourceProperties, walletProperties.getAudit()),
+            entityManagerFactory, signatureUtil);
+    }
+
+    private AuditTrailWriterImpl(WalletConfigurationProperties walletProperties, HikariDataSource writerDataSource,
+                                 EntityManagerFactory entityManagerFactory, SignatureUtil signatureUtil) {
+        this(walletProperties, new AuditTrailBatchInserter(new JdbcTemplate(writerDataSource), entityManagerFactory),
+            new DataSourceTransactionManager(writerDataSource), signatureUtil);
+        this.writerDataSource = writerDataSource;
+    }
+
+    AuditTrailWriterImpl(WalletConfigurationProperties walletProperties, AuditTrailBatchInserter batchInserter,
+                         PlatformTransactionManager transactionManager, SignatureUtil signatureUtil) {
+        this.config = walletProperties.getAudit();
+        this.batchInserter = batchInserter;
+        this.signatureUtil = signatureUtil;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.buffer = new MpscRingBuffer<>(config.getWriterBufferSize());
+        this.syncOnCommit = config.getWriterMode() == WalletConfigurationProperties.Audit.WriterMode.SYNC_ON_COMMIT;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (config.isJournalEnabled()) {
+            if (config.getJournalKey() == null || config.getJournalKey().isBlank()) {
+                throw new IllegalStateException("wallet.audit.journal-key must be set when the audit journal is enabled");
+            }
+            journal = new AuditJournal(Paths.get(config.getJournalDirectory()), config.getJournalSegmentSizeBytes(),
+                config.getJournalKey().getBytes(StandardCharsets.UTF_8), signatureUtil);
+            log.info("Audit journal opened in {} at sequence {}", journal.getDirectory().toAbsolutePath(),
+                journal.getNextSequence());
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-trail-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit trail writer started in {} mode with a buffer of {} events",
+            config.getWriterMode(), buffer.capacity());
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(config.getWriterSyncTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (buffer.size() > 0) {
+            log.warn("Audit trail writer stopped with {} events still queued", buffer.size());
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.error("Failed to close audit journal: {}", e.getMessage());
+            }
+        }
+        if (writerDataSource != null) {
+            writerDataSource.close();
+        }
+    }
+
+    private static HikariDataSource writerDataSource(DataSourceProperties dataSourceProperties,
+                                                     WalletConfigurationProperties.Audit config) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName("AuditWriterPool");
+        dataSource.setMaximumPoolSize(config.getWriterPoolSize());
+        dataSource.setMinimumIdle(1);
+        return dataSource;
+    }
+
+    /**
+     * Delete journal segments older than the audit retention period
+     */
+    @Scheduled(fixedDelayString = "${wallet.audit.journal-compaction-interval-ms:3600000}")
+    public void compactJournal() {
+        if (journal == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getAuditRetentionDays());
+        try {
+            int deleted = journal.compact(cutoff);
+            if (deleted > 0) {
+                log.info("Compacted audit journal: deleted {} segments past retention", deleted);
+            }
+        } catch (IOException e) {
+            log.error("Audit journal compaction failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void capture(AuditEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(event));
+            return;
+        }
+        // Registered synchronizations belong to the current transaction only, so events of a
+        // REQUIRES_NEW transaction are published with that transaction and not its outer one
+        PendingEvents pending = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEvents events && events.owner() == this) {
+                pending = events;
+                break;
+            }
+        }
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    public long getJournaledCount() {
+        return journaledCount.sum();
+    }
+
+    private void publish(List<AuditEvent> events) {
+        long lastSequence = -1;
+        List<AuditEvent> overflow = null;
+        for (AuditEvent event : events) {
+            long sequence = buffer.offer(event);
+            if (sequence < 0) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(event);
+            } else {
+                lastSequence = sequence;
+            }
+        }
+        if (overflow != null) {
+            // Never drop audit rows: a full buffer pushes the write back onto the caller
+            overflowCount.add(overflow.size());
+            persist(overflow);
+        }
+        if (syncOnCommit && lastSequence >= 0) {
+            awaitFlushed(lastSequence);
+        }
+    }
+
+    private void awaitFlushed(long sequence) {
+        LockSupport.unpark(writerThread);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getWriterSyncTimeoutMs());
+        while (flushedSequence.get() <= sequence) {
+            if (System.nanoTime() - deadline > 0) {
+                log.warn("Timed out waiting for audit events up to sequence {} to be written", sequence);
+                return;
+            }
+            LockSupport.parkNanos(SYNC_WAIT_PARK_NANOS);
+        }
+    }
+
+    private void runWriter() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(config.getWriterFlushIntervalMs());
+        List<AuditEvent> batch = new ArrayList<>(config.getWriterBatchSize());
+        while (running || buffer.size() > 0) {
+            try {
+                buffer.drainTo(batch, config.getWriterBatchSize());
+                if (batch.isEmpty()) {
+                    if (!running) {
+                        // A producer claimed a slot but has not published it yet
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    if (journal != null) {
+                        journal.force();
+                    }
+                    LockSupport.parkNanos(this, idleNanos);
+                    continue;
+                }
+                persist(batch);
+                flushedSequence.set(buffer.consumedSequence());
+            } catch (Exception e) {
+                log.error("Audit trail writer loop failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<AuditEvent> events) {
+        if (journal == null) {
+            writeWithRetry(events, false);
+            return;
+        }
+        try {
+            for (AuditEvent event : events) {
+                journal.append(event.encode(), event.getTimestamp().toEpochMilli());
+            }
+            if (syncOnCommit) {
+                journal.force();
+            }
+            journaledCount.add(events.size());
+        } catch (IOException | RuntimeException e) {
+            // Events appended before the failure are written to both; nothing is lost
+            log.error("Failed to append {} audit events to the journal, writing full rows: {}", events.size(), e.getMessage());
+            writeWithRetry(events, false);
+            return;
+        }
+        List<AuditEvent> indexed = new ArrayList<>();
+        for (AuditEvent event : events) {
+            if (event.isFinancialData() || event.isSensitiveOperation()
+                || Math.floorMod(event.getAuditId().hashCode(), 100) < config.getDatabaseSamplePercent()) {
+                indexed.add(event);
+            }
+        }
+        if (!indexed.isEmpty()) {
+            writeWithRetry(indexed, true);
+        }
+    }
+
+    private void writeWithRetry(List<AuditEvent> events, boolean indexOnly) {
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                writeTransaction.executeWithoutResult(status -> insertBatch(events, indexOnly));
+                writtenCount.add(events.size());
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    failedCount.add(events.size());
+                    log.error("Failed to write {} audit events after {} attempts: {}", events.size(), attempt, e.getMessage());
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L * attempt));
+            }
+        }
+    }
+
+    private void insertBatch(List<AuditEvent> events, boolean indexOnly) {
+        Instant createdAt = Instant.now();
+        Duration retention = Duration.ofDays(config.getAuditRetentionDays());
+        List<AuditTrail> rows = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            AuditTrail row = new AuditTrail();
+            row.setAuditId(event.getAuditId());
+            row.setEntityType(event.getEntityType());
+            row.setEntityId(event.getEntityId());
+            row.setOperation(event.getOperation());
+            row.setUserId(event.getUserId());
+            row.setUsername(event.getUsername());
+            row.setRequestId(event.getRequestId());
+            row.setTransactionId(event.getTransactionId());
+            row.setTransactionType(event.getTransactionType());
+            row.setTransactionAmount(event.getTransactionAmount());
+            row.setCurrency(event.getCurrency());
+            row.setIsSensitiveOperation(event.isSensitiveOperation());
+            row.setContainsFinancialData(event.isFinancialData());
+            row.setTimestamp(event.getTimestamp());
+            row.setCreatedAt(createdAt);
+            if (!indexOnly) {
+                row.setOldValues(event.getOldValues());
+                row.setNewValues(event.getNewValues());
+            }
+            row.setChangedFields(event.getChangedFields());
+            row.setSourceSystem("SYSTEM");
+            row.setDataClassification("INTERNAL");
+            row.setRiskLevel("LOW");
+            row.setIsSuccessful(true);
+            row.setRetentionExpiryDate(event.getTimestamp().plus(retention));
+            rows.add(row);
+        }
+        batchInserter.insert(rows);
+    }
+
+    /**
+     * Events captured in one transaction; rolled back changes leave no audit rows, as when the
+     * rows were saved inside the transaction
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+        private final List<AuditEvent> events = new ArrayList<>();
+
+        AuditTrailWriterImpl owner() {
+            return AuditTrailWriterImpl.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(events);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.OtpCode;
+import com.boit_droid.wallet.repository.OtpCodeRepository;
+import com.boit_droid.wallet.service.OtpStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OTP store shared by all nodes through the otp_codes table.
+ * Every verification is a compare-and-set on (key, nonce, attempts), so concurrent attempts on
+ * different nodes are counted exactly once and only one of them can consume the code.
+ * A node-local near cache keeps the last known row per key, which saves the read when the code is
+ * verified on the node that issued it; a stale entry simply loses the compare-and-set and is reloaded.
+ * The outstanding count is taken once per cleanup pass rather than on every call to {@link #size()},
+ * so scraping the size gauge never runs a table count.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "wallet.security", name = "otp-state-backend", havingValue = "jdbc")
+public class DatabaseOtpStore implements OtpStore {
+
+	private static final int MAX_CAS_RETRIES = 5;
+
+	private final OtpCodeRepository otpCodeRepository;
+	private final long nearCacheTtlMillis;
+	private final int nearCacheMaxEntries;
+
+	private final Map<String, CachedCode> nearCache = new ConcurrentHashMap<>();
+	private final LongAdder expiredCount = new LongAdder();
+	private volatile int outstandingCount;
+
+	@Autowired
+	public DatabaseOtpStore(OtpCodeRepository otpCodeRepository, WalletConfigurationProperties walletProperties) {
+		this(otpCodeRepository, walletProperties.getSecurity().getOtpNearCacheTtlMs(),
+			walletProperties.getSecurity().getOtpNearCacheMaxEntries());
+	}
+
+	DatabaseOtpStore(OtpCodeRepository otpCodeRepository, long nearCacheTtlMillis, int nearCacheMaxEntries) {
+		this.otpCodeRepository = otpCodeRepository;
+		this.nearCacheTtlMillis = nearCacheTtlMillis;
+		this.nearCacheMaxEntries = nearCacheMaxEntries;
+	}
+
+	@Override
+	public void put(String key, String code, long ttlMillis) {
+		String codeHash = hash(key, code);
+		String nonce = UUID.randomUUID().toString();
+		Instant expiresAt = Instant.now().plusMillis(ttlMillis);
+
+		if (otpCodeRepository.replaceCode(key, codeHash, nonce, expiresAt) == 0) {
+			try {
+				otpCodeRepository.saveAndFlush(new OtpCode(key, codeHash, nonce, expiresAt));
+			} catch (DataIntegrityViolationException e) {
+				// Another node issued a code for the same key first; the latest issue wins
+				otpCodeRepository.replaceCode(key, codeHash, nonce, expiresAt);
+			}
+		}
+		cache(key, new CachedCode(codeHash, nonce, expiresAt.toEpochMilli(), 0, cacheDeadline()));
+	}
+
+	@Override
+	public VerifyResult verify(String key, String code, int maxAttempts) {
+		CachedCode current = cachedOrLoad(key);
+		for (int retry = 0; retry < MAX_CAS_RETRIES; retry++) {
+			if (current == null) {
+				nearCache.remove(key);
+				return new VerifyResult(VerifyOutcome.NOT_FOUND, 0);
+			}
+			if (current.expiresAt <= System.currentTimeMillis()) {
+				nearCache.remove(key);
+				if (otpCodeRepository.deleteIfCurrent(key, current.nonce) == 1) {
+					expiredCount.increment();
+				}
+				return new VerifyResult(VerifyOutcome.EXPIRED, current.attempts);
+			}
+			if (current.attempts >= maxAttempts) {
+				nearCache.remove(key);
+				otpCodeRepository.deleteIfCurrent(key, current.nonce);
+				return new VerifyResult(VerifyOutcome.MAX_ATTEMPTS_EXCEEDED, current.attempts + 1);
+			}
+
+			int attempts = current.attempts + 1;
+			if (otpCodeRepository.compareAndSetAttempts(key, current.nonce, current.attempts, attempts) == 1) {
+				if (!matches(current.codeHash, hash(key, code))) {
+					cache(key, current.withAttempts(attempts));
+					return new VerifyResult(VerifyOutcome.INVALID, attempts);
+				}
+				// Only the node whose delete removes the row consumed the code
+				nearCache.remove(key);
+				return otpCodeRepository.deleteIfCurrent(key, current.nonce) == 1
+					? new VerifyResult(VerifyOutcome.VERIFIED, attempts)
+					: new VerifyResult(VerifyOutcome.NOT_FOUND, attempts);
+			}
+
+			// Another attempt won, the code was reissued or the near cache was stale
+			current = load(key);
+		}
+
+		log.warn("OTP verification for key {} lost {} consecutive compare-and-set races", key, MAX_CAS_RETRIES);
+		return new VerifyResult(VerifyOutcome.INVALID, current != null ? current.attempts : 0);
+	}
+
+	@Override
+	public boolean remove(String key) {
+		nearCache.remove(key);
+		if (!otpCodeRepository.existsById(key)) {
+			return false;
+		}
+		otpCodeRepository.deleteById(key);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return outstandingCount;
+	}
+
+	@Override
+	public long getExpiredCount() {
+		return expiredCount.sum();
+	}
+
+	/**
+	 * Remove expired codes and recount what is left; the expiresAt index keeps the delete a range delete
+	 */
+	@Scheduled(fixedDelayString = "${wallet.security.otp-state-cleanup-interval-ms:60000}")
+	public void cleanExpired() {
+		try {
+			int removed = otpCodeRepository.deleteExpired(Instant.now());
+			expiredCount.add(removed);
+			outstandingCount = (int) otpCodeRepository.count();
+			long now = System.currentTimeMillis();
+			nearCache.values().removeIf(cached -> cached.expiresAt <= now || cached.cachedUntil <= now);
+		} catch (Exception e) {
+			log.error("Failed to clean expired OTP codes: {}", e.getMessage());
+		}
+	}
+
+	private CachedCode cachedOrLoad(String key) {
+		CachedCode cached = nearCache.get(key);
+		if (cached != null && cached.cachedUntil > System.currentTimeMillis()) {
+			return cached;
+		}
+		return load(key);
+	}
+
+	private CachedCode load(String key) {
+		CachedCode loaded = otpCodeRepository.findById(key)
+			.map(row -> new CachedCode(row.getCodeHash(), row.getNonce(), row.getExpiresAt().toEpochMilli(),
+				row.getAttempts(), cacheDeadline()))
+			.orElse(null);
+		if (loaded != null) {
+			cache(key, loaded);
+		}
+		return loaded;
+	}
+
+	private void cache(String key, CachedCode cached) {
+		if (nearCache.size() >= nearCacheMaxEntries) {
+			long now = System.currentTimeMillis();
+			nearCache.values().removeIf(entry -> entry.cachedUntil <= now);
+			if (nearCache.size() >= nearCacheMaxEntries) {
+				nearCache.clear();
+			}
+		}
+		nearCache.put(key, cached);
+	}
+
+	private long cacheDeadline() {
+		return System.currentTimeMillis() + nearCacheTtlMillis;
+	}
+
+	private static String hash(String key, String code) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			// The key salts the hash so equal codes under different keys do not share a digest
+			digest.update(key.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) ':');
+			digest.update(String.valueOf(code).getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	private static boolean matches(String expectedHash, String actualHash) {
+		return MessageDigest.isEqual(expectedHash.getBytes(StandardCharsets.US_ASCII),
+			actualHash.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static final class CachedCode {
+		final String codeHash;
+		final String nonce;
+		final long expiresAt;
+		final int attempts;
+		final long cachedUntil;
+
+		CachedCode(String codeHash, String nonce, long expiresAt, int attempts, long cachedUntil) {
+			this.codeHash = codeHash;
+			this.nonce = nonce;
+			this.expiresAt = expiresAt;
+			this.attempts = attempts;
+			this.cachedUntil = cachedUntil;
+		}
+
+		CachedCode withAttempts(int newAttempts) {
+			return new CachedCode(codeHash, nonce, expiresAt, newAttempts, cachedUntil);
+		}
+	}
+}
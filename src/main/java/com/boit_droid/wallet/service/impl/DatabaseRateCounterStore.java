@@ -0,0 +1,97 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.entity.OtpRateCounter;
+import com.boit_droid.wallet.repository.OtpRateCounterRepository;
+import com.boit_droid.wallet.service.RateCounterStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Rate counters shared by all nodes through the otp_rate_counters table.
+ * Hits are counted with a single conditional UPDATE, so concurrent increments from different
+ * nodes never overwrite each other; the row is only inserted for the first hit on a key.
+ * A row only moves forward to later windows, so a node whose clock lags cannot reset a count;
+ * its hit is counted in the window the row is already in.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "wallet.security", name = "otp-state-backend", havingValue = "jdbc")
+public class DatabaseRateCounterStore implements RateCounterStore {
+
+	private final OtpRateCounterRepository otpRateCounterRepository;
+
+	@Override
+	public int getCount(String key, long windowMillis) {
+		return count(key, windowStart(windowMillis));
+	}
+
+	@Override
+	public int increment(String key, long windowMillis) {
+		long start = windowStart(windowMillis);
+		Instant expiresAt = Instant.ofEpochMilli(start + windowMillis);
+
+		if (otpRateCounterRepository.incrementWindow(key, start, expiresAt) == 0) {
+			try {
+				otpRateCounterRepository.saveAndFlush(new OtpRateCounter(key, start, 1, expiresAt));
+				return 1;
+			} catch (DataIntegrityViolationException e) {
+				// Another node counted the first hit; count ours on top of it
+				if (otpRateCounterRepository.incrementWindow(key, start, expiresAt) == 0) {
+					return countInLaterWindow(key);
+				}
+			}
+		}
+		// Read the window that was counted; the clock may have crossed into the next one by now
+		return count(key, start);
+	}
+
+	@Override
+	public int size() {
+		return (int) otpRateCounterRepository.count();
+	}
+
+	/**
+	 * Remove counters whose window has closed; the expiresAt index keeps this a range delete
+	 */
+	@Scheduled(fixedDelayString = "${wallet.security.otp-state-cleanup-interval-ms:60000}")
+	public void cleanExpired() {
+		try {
+			otpRateCounterRepository.deleteExpired(Instant.now());
+		} catch (Exception e) {
+			log.error("Failed to clean expired OTP rate counters: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * The row is in a window after ours, opened by a node with a faster clock; lose the race and
+	 * count the hit there rather than in a window that has already closed elsewhere
+	 */
+	private int countInLaterWindow(String key) {
+		OtpRateCounter counter = otpRateCounterRepository.findById(key).orElse(null);
+		if (counter == null) {
+			// Removed by cleanup in between; the hit is not counted
+			return 0;
+		}
+		otpRateCounterRepository.incrementWindow(key, counter.getWindowStart(), counter.getExpiresAt());
+		return count(key, counter.getWindowStart());
+	}
+
+	private int count(String key, long start) {
+		return otpRateCounterRepository.findById(key)
+			.filter(counter -> counter.getWindowStart() == start)
+			.map(OtpRateCounter::getHitCount)
+			.orElse(0);
+	}
+
+	private static long windowStart(long windowMillis) {
+		long now = System.currentTimeMillis();
+		return now - now % windowMillis;
+	}
+}
@@ -0,0 +1,192 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups outgoing emails and sends them over shared SMTP sessions.
+ * Each batch is handed to the varargs {@link JavaMailSender#send(SimpleMailMessage...)},
+ * which connects once and sends every message of the batch over that transport.
+ * The number of sessions open at the same time is capped by a semaphore.
+ */
+@Slf4j
+@Component
+public class EmailBatchDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final WalletConfigurationProperties.Notification config;
+
+    private final AtomicInteger sessionThreadCounter = new AtomicInteger();
+
+    private BlockingQueue<PendingEmail> queue;
+    private Semaphore sessionPermits;
+    private ExecutorService sessionExecutor;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+
+    public EmailBatchDispatcher(JavaMailSender mailSender, WalletConfigurationProperties properties) {
+        this.mailSender = mailSender;
+        this.config = properties.getNotification();
+    }
+
+    @PostConstruct
+    void start() {
+        int maxSessions = config.getEmailMaxConcurrentSessions();
+        queue = new ArrayBlockingQueue<>(config.getEmailQueueCapacity());
+        sessionPermits = new Semaphore(maxSessions);
+        sessionExecutor = Executors.newFixedThreadPool(maxSessions, runnable -> {
+            Thread thread = new Thread(runnable, "email-session-" + sessionThreadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcherThread = new Thread(this::dispatchLoop, "email-batch-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        log.info("Email batch dispatcher started - batch size: {}, max sessions: {}, queue capacity: {}",
+                config.getEmailBatchSize(), maxSessions, config.getEmailQueueCapacity());
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            dispatcherThread.join(config.getEmailSendTimeoutMs());
+            sessionExecutor.shutdown();
+            if (!sessionExecutor.awaitTermination(config.getEmailSendTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                sessionExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sessionExecutor.shutdownNow();
+        }
+        // Anything still queued after shutdown will never be sent
+        PendingEmail pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.complete(false);
+        }
+    }
+
+    /**
+     * Queue a message for delivery.
+     * @return future completed with true once the message was accepted by the SMTP server,
+     *         or false if it failed or could not be queued
+     */
+    public CompletableFuture<Boolean> submit(SimpleMailMessage message) {
+        PendingEmail pending = new PendingEmail(message);
+        try {
+            if (!running || !queue.offer(pending, config.getEmailFlushIntervalMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("Email queue full or dispatcher stopped, rejecting message to {}", (Object) message.getTo());
+                pending.result.complete(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.complete(false);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Number of messages waiting for a free SMTP session
+     */
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Number of SMTP sessions currently open
+     */
+    public int getActiveSessions() {
+        return sessionPermits == null ? 0 : config.getEmailMaxConcurrentSessions() - sessionPermits.availablePermits();
+    }
+
+    private void dispatchLoop() {
+        int batchSize = config.getEmailBatchSize();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEmail first = queue.poll(config.getEmailFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Wait for a free session before draining, so messages keep accumulating while all sessions are busy
+                sessionPermits.acquire();
+                List<PendingEmail> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    sessionExecutor.execute(() -> {
+                        try {
+                            sendBatch(batch);
+                        } finally {
+                            sessionPermits.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    sessionPermits.release();
+                    batch.forEach(pending -> pending.result.complete(false));
+                    log.error("Failed to schedule email batch of {} messages: {}", batch.size(), e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingEmail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = batch.get(i).message;
+        }
+
+        try {
+            mailSender.send(messages);
+            batch.forEach(pending -> pending.result.complete(true));
+            log.debug("Sent email batch of {} messages over one SMTP session", messages.length);
+
+        } catch (MailSendException e) {
+            // Per-message failures are keyed by the original message; an empty map means the session itself failed
+            Set<Object> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            failed.addAll(e.getFailedMessages().keySet());
+            boolean sessionFailed = failed.isEmpty();
+            for (PendingEmail pending : batch) {
+                pending.result.complete(!sessionFailed && !failed.contains(pending.message));
+            }
+            log.error("Email batch of {} messages had {} failures: {}", messages.length,
+                    sessionFailed ? messages.length : failed.size(), e.getMessage());
+
+        } catch (Exception e) {
+            batch.forEach(pending -> pending.result.complete(false));
+            log.error("Failed to send email batch of {} messages: {}", messages.length, e.getMessage());
+        }
+    }
+
+    private static class PendingEmail {
+        private final SimpleMailMessage message;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingEmail(SimpleMailMessage message) {
+            this.message = message;
+        }
+    }
+}
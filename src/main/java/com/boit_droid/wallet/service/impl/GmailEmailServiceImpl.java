@@ -1,5 +1,6 @@
 package com.boit_droid.wallet.service.impl;
 
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
 import com.boit_droid.wallet.entity.User;
 import com.boit_droid.wallet.service.EmailService;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,8 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
@@ -17,6 +20,8 @@ import java.util.Map;
 public class GmailEmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailBatchDispatcher emailBatchDispatcher;
+    private final WalletConfigurationProperties walletProperties;
     
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -116,11 +121,31 @@ public class GmailEmailServiceImpl implements EmailService {
             mailMessage.setSubject(subject);
             mailMessage.setText(message);
             
-            mailSender.send(mailMessage);
+            WalletConfigurationProperties.Notification config = walletProperties.getNotification();
+            if (config.isEmailBatchingEnabled()) {
+                // Shares an SMTP session with other queued messages instead of connecting per email
+                boolean sent = emailBatchDispatcher.submit(mailMessage)
+                    .get(config.getEmailSendTimeoutMs(), TimeUnit.MILLISECONDS);
+                if (!sent) {
+                    log.error("Failed to send email to {} for request {}: delivery rejected", toEmail, requestId);
+                    return false;
+                }
+            } else {
+                mailSender.send(mailMessage);
+            }
             
             log.info("Email sent successfully to {} for request {}: {}", toEmail, requestId, subject);
             return true;
             
+        } catch (InterruptedException e) {
+            // The message stays queued and may still go out; the caller decides what the interrupt means
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for email to {} for request {}", toEmail, requestId);
+            return false;
+        } catch (TimeoutException e) {
+            log.error("Timed out after {} ms waiting for email to {} for request {}",
+                walletProperties.getNotification().getEmailSendTimeoutMs(), toEmail, requestId);
+            return false;
         } catch (Exception e) {
             log.error("Failed to send email to {} for request {}: {}", toEmail, requestId, e.getMessage());
             return false;
@@ -0,0 +1,62 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.service.RateCounterStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local rate counters. Each key holds one immutable window that is swapped atomically,
+ * and stale windows are dropped by a periodic sweep rather than on the request path.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.security", name = "otp-state-backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateCounterStore implements RateCounterStore {
+
+	private final Map<String, Window> counters = new ConcurrentHashMap<>();
+
+	@Override
+	public int getCount(String key, long windowMillis) {
+		Window window = counters.get(key);
+		return window != null && window.start == windowStart(windowMillis) ? window.count : 0;
+	}
+
+	@Override
+	public int increment(String key, long windowMillis) {
+		long start = windowStart(windowMillis);
+		return counters.compute(key, (k, window) -> window != null && window.start == start
+			? new Window(start, windowMillis, window.count + 1)
+			: new Window(start, windowMillis, 1)).count;
+	}
+
+	@Override
+	public int size() {
+		return counters.size();
+	}
+
+	@Scheduled(fixedDelayString = "${wallet.security.otp-state-cleanup-interval-ms:60000}")
+	public void cleanExpired() {
+		long now = System.currentTimeMillis();
+		counters.values().removeIf(window -> window.start + window.length <= now);
+	}
+
+	private static long windowStart(long windowMillis) {
+		long now = System.currentTimeMillis();
+		return now - now % windowMillis;
+	}
+
+	private static final class Window {
+		final long start;
+		final long length;
+		final int count;
+
+		Window(long start, long length, int count) {
+			this.start = start;
+			this.length = length;
+			this.count = count;
+		}
+	}
+}
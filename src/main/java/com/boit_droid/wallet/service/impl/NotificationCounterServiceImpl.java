@@ -0,0 +1,349 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.NotificationCounter;
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import com.boit_droid.wallet.repository.NotificationCounterRepository;
+import com.boit_droid.wallet.repository.NotificationRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.NotificationCounterService;
+import com.boit_droid.wallet.service.NotificationStreamService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Counter rows are materialized lazily: the first read or write for a user aggregates the
+ * notifications table once, after which every write applies a delta. Materialization holds the
+ * user row lock, so a writer that finds no counter rows waits for a concurrent materialization and
+ * applies its delta to the rows it produced rather than dropping it. A new notification takes that
+ * lock in {@link #prepareCreate} before its row is inserted, because the insert's foreign key check
+ * holds a shared lock on the user row that two concurrent first notifications could never both
+ * upgrade. Once the rows exist, writers only lock counter rows. A periodic reconciliation
+ * rebuilds any user whose counters still drifted. Reads are served from a short-lived in-memory
+ * cache that is evicted on every local change.
+ */
+@Slf4j
+@Service
+public class NotificationCounterServiceImpl implements NotificationCounterService {
+
+    private final NotificationCounterRepository counterRepository;
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final WalletConfigurationProperties walletProperties;
+    private final NotificationStreamService notificationStreamService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, CachedCounts> countCache = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    public NotificationCounterServiceImpl(NotificationCounterRepository counterRepository,
+                                          NotificationRepository notificationRepository,
+                                          UserRepository userRepository,
+                                          WalletConfigurationProperties walletProperties,
+                                          NotificationStreamService notificationStreamService,
+                                          PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.walletProperties = walletProperties;
+        this.notificationStreamService = notificationStreamService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public void prepareCreate(Long userId) {
+        // Locking after the insert would upgrade its shared foreign key lock and deadlock with a
+        // concurrent first notification; taken first, the insert runs under the exclusive lock we hold
+        if (!counterRepository.existsByUserId(userId)) {
+            lockUser(userId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordCreated(Long userId, NotificationType type, boolean unread) {
+        applyDelta(userId, type, 1, unread ? 1 : 0);
+    }
+
+    @Override
+    @Transactional
+    public void recordRead(Long userId, NotificationType type) {
+        applyDelta(userId, type, 0, -1);
+    }
+
+    @Override
+    @Transactional
+    public void recordRead(Long userId, NotificationType type, long count) {
+        applyDelta(userId, type, 0, -count);
+    }
+
+    @Override
+    @Transactional
+    public void recordAllRead(Long userId) {
+        counterRepository.resetUnread(userId);
+        evict(userId);
+    }
+
+    @Override
+    @Transactional
+    public void recordDeleted(Long userId, NotificationType type, boolean wasUnread) {
+        applyDelta(userId, type, -1, wasUnread ? -1 : 0);
+    }
+
+    @Override
+    @Transactional
+    public void recordDeleted(Long userId, NotificationType type, long count, long unreadCount) {
+        applyDelta(userId, type, -count, -unreadCount);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Long> getCounts(Long userId) {
+        CachedCounts cached = countCache.get(userId);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached.counts;
+        }
+
+        List<NotificationCounter> counters = counterRepository.findByUserId(userId);
+        if (counters.isEmpty()) {
+            counters = transactionTemplate.execute(status -> materialize(userId));
+        }
+
+        Map<String, Long> counts = toCountMap(counters);
+        cache(userId, counts);
+        return counts;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> rebuildCounts(Long userId) {
+        Reconciled reconciled = reconcile(userId);
+        List<NotificationCounter> counters = reconciled == null ? materialize(userId) : reconciled.counters();
+        evict(userId);
+        log.info("Notification counters rebuilt for user {}", userId);
+        return toCountMap(counters);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.notification.count-reconcile-interval-ms:21600000}",
+               initialDelayString = "${wallet.notification.count-reconcile-interval-ms:21600000}")
+    public void scheduledReconcile() {
+        if (!walletProperties.getNotification().isCountReconcileEnabled()) {
+            return;
+        }
+        try {
+            reconcileCounts();
+        } catch (Exception e) {
+            log.error("Notification counter reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> reconcileCounts() {
+        if (!reconciling.compareAndSet(false, true)) {
+            log.info("Notification counter reconciliation already running, skipping");
+            return Map.of("checked", 0L, "repaired", 0L);
+        }
+        try {
+            WalletConfigurationProperties.Notification config = walletProperties.getNotification();
+            PageRequest chunk = PageRequest.of(0, config.getCountReconcileChunkSize());
+
+            long checked = 0;
+            long repaired = 0;
+            long afterUserId = 0;
+            while (checked < config.getCountReconcileMaxUsersPerRun()) {
+                List<Long> userIds = counterRepository.findUserIdsAfter(afterUserId, chunk);
+                for (Long userId : userIds) {
+                    // One short transaction per user keeps the counter row locks brief
+                    Reconciled reconciled = transactionTemplate.execute(status -> reconcile(userId));
+                    checked++;
+                    if (reconciled != null && reconciled.changed()) {
+                        repaired++;
+                        evict(userId);
+                    }
+                }
+                if (userIds.size() < config.getCountReconcileChunkSize()) {
+                    break;
+                }
+                afterUserId = userIds.get(userIds.size() - 1);
+            }
+            if (repaired > 0) {
+                log.warn("Notification counter reconciliation repaired {} of {} users", repaired, checked);
+            }
+
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("checked", checked);
+            result.put("repaired", repaired);
+            return result;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private void applyDelta(Long userId, NotificationType type, long totalDelta, long unreadDelta) {
+        // Without rows, wait for any concurrent materialization before touching the counters, so the
+        // delta either lands on the rows it produced or this transaction materializes them itself and
+        // the aggregate already includes this change
+        boolean materialized = counterRepository.existsByUserId(userId);
+        if (!materialized) {
+            lockUser(userId);
+        }
+        if (counterRepository.applyDelta(userId, type, totalDelta, unreadDelta) == 0) {
+            if (materialized) {
+                log.debug("No {} counter for user {}, left to reconciliation", type, userId);
+            } else {
+                counterRepository.saveAll(aggregate(userId));
+            }
+        }
+        evict(userId);
+    }
+
+    private List<NotificationCounter> materialize(Long userId) {
+        lockUser(userId);
+        List<NotificationCounter> counters = counterRepository.findByUserId(userId);
+        if (!counters.isEmpty()) {
+            // Another request materialized the same user while this one waited for the lock
+            return counters;
+        }
+        return counterRepository.saveAll(aggregate(userId));
+    }
+
+    /**
+     * Overwrite a user's counters with the aggregate. Taking the counter row locks first makes
+     * in-flight deltas commit before the aggregate is read, so none of them is overwritten.
+     * @return the updated counters, or null when the user has none materialized
+     */
+    private Reconciled reconcile(Long userId) {
+        List<NotificationCounter> counters = counterRepository.findByUserIdForUpdate(userId);
+        if (counters.isEmpty()) {
+            return null;
+        }
+        Map<NotificationType, NotificationCounter> existing = new EnumMap<>(NotificationType.class);
+        for (NotificationCounter counter : counters) {
+            existing.put(counter.getType(), counter);
+        }
+        List<NotificationCounter> result = new ArrayList<>();
+        boolean changed = false;
+        for (NotificationCounter fresh : aggregate(userId)) {
+            NotificationCounter counter = existing.get(fresh.getType());
+            if (counter == null) {
+                result.add(counterRepository.save(fresh));
+                changed = true;
+                continue;
+            }
+            if (!counter.getTotalCount().equals(fresh.getTotalCount())
+                    || !counter.getUnreadCount().equals(fresh.getUnreadCount())) {
+                counter.setTotalCount(fresh.getTotalCount());
+                counter.setUnreadCount(fresh.getUnreadCount());
+                changed = true;
+            }
+            result.add(counter);
+        }
+        return new Reconciled(result, changed);
+    }
+
+    private void lockUser(Long userId) {
+        if (userRepository.findByIdForUpdate(userId).isEmpty()) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+    }
+
+    private List<NotificationCounter> aggregate(Long userId) {
+        Map<NotificationType, NotificationCounter> byType = new EnumMap<>(NotificationType.class);
+        for (NotificationType type : NotificationType.values()) {
+            byType.put(type, new NotificationCounter(userId, type, 0, 0));
+        }
+        for (Object[] row : notificationRepository.countByTypeForUser(userId)) {
+            NotificationCounter counter = byType.get((NotificationType) row[0]);
+            counter.setTotalCount(((Number) row[1]).longValue());
+            counter.setUnreadCount(row[2] == null ? 0L : ((Number) row[2]).longValue());
+        }
+        return new ArrayList<>(byType.values());
+    }
+
+    private Map<String, Long> toCountMap(List<NotificationCounter> counters) {
+        long total = 0;
+        long unread = 0;
+        Map<String, Long> byType = new LinkedHashMap<>();
+        for (NotificationType type : NotificationType.values()) {
+            byType.put(type.name(), 0L);
+        }
+        for (NotificationCounter counter : counters) {
+            // A counter can run slightly negative until the next reconciliation; never report that
+            long typeTotal = Math.max(0, counter.getTotalCount());
+            total += typeTotal;
+            unread += Math.max(0, counter.getUnreadCount());
+            byType.put(counter.getType().name(), typeTotal);
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("total", total);
+        counts.put("unread", Math.min(unread, total));
+        counts.put("read", total - Math.min(unread, total));
+        counts.putAll(byType);
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void cache(Long userId, Map<String, Long> counts) {
+        WalletConfigurationProperties.Notification config = walletProperties.getNotification();
+        long now = System.currentTimeMillis();
+        if (countCache.size() >= config.getCountCacheMaxEntries()) {
+            countCache.values().removeIf(entry -> entry.isExpired(now));
+            if (countCache.size() >= config.getCountCacheMaxEntries()) {
+                countCache.clear();
+            }
+        }
+        countCache.put(userId, new CachedCounts(counts, now + config.getCountCacheTtlSeconds() * 1000));
+    }
+
+    private void evict(Long userId) {
+        countCache.remove(userId);
+        // Evict again once the change is visible, so a concurrent read cannot re-cache the old values
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    countCache.remove(userId);
+                    if (status == STATUS_COMMITTED) {
+                        publishCounts(userId);
+                    }
+                }
+            });
+        } else {
+            publishCounts(userId);
+        }
+    }
+
+    private void publishCounts(Long userId) {
+        notificationStreamService.publishCounts(userId, () -> getCounts(userId));
+    }
+
+    private record Reconciled(List<NotificationCounter> counters, boolean changed) {
+    }
+
+    private static class CachedCounts {
+        private final Map<String, Long> counts;
+        private final long expiresAtMillis;
+
+        CachedCounts(Map<String, Long> counts, long expiresAtMillis) {
+            this.counts = counts;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
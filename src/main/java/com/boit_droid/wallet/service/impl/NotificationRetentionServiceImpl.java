@@ -0,0 +1,150 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import com.boit_droid.wallet.repository.NotificationArchiveRepository;
+import com.boit_droid.wallet.repository.NotificationRepository;
+import com.boit_droid.wallet.service.NotificationCounterService;
+import com.boit_droid.wallet.service.NotificationRetentionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retention sweeps walk the notifications table in primary key order. Each chunk is bounded by
+ * an id range taken from a keyset query, so the archive copy and the delete are plain range
+ * statements rather than large IN lists, and each chunk commits in its own short transaction.
+ * Rows are deleted only when the same run copied them into the archive.
+ */
+@Slf4j
+@Service
+public class NotificationRetentionServiceImpl implements NotificationRetentionService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository archiveRepository;
+    private final NotificationCounterService notificationCounterService;
+    private final WalletConfigurationProperties.Notification config;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public NotificationRetentionServiceImpl(NotificationRepository notificationRepository,
+                                            NotificationArchiveRepository archiveRepository,
+                                            NotificationCounterService notificationCounterService,
+                                            WalletConfigurationProperties walletProperties,
+                                            PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.archiveRepository = archiveRepository;
+        this.notificationCounterService = notificationCounterService;
+        this.config = walletProperties.getNotification();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.notification.retention-sweep-interval-ms:3600000}",
+               initialDelayString = "${wallet.notification.retention-sweep-interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (!config.isRetentionEnabled()) {
+            return;
+        }
+        try {
+            runRetention();
+        } catch (Exception e) {
+            log.error("Notification retention sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> runRetention() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Notification retention sweep already running, skipping");
+            return Map.of("archived", 0L, "purged", 0L);
+        }
+        try {
+            Instant now = Instant.now();
+            long archived = archiveDueNotifications(now);
+            long purged = purgeArchive(now.minus(Duration.ofDays(config.getArchiveRetentionDays())));
+            if (archived > 0 || purged > 0) {
+                log.info("Notification retention sweep archived {} and purged {} notifications", archived, purged);
+            }
+
+            Map<String, Long> result = new LinkedHashMap<>();
+            result.put("archived", archived);
+            result.put("purged", purged);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveDueNotifications(Instant now) {
+        Instant readCutoff = now.minus(Duration.ofDays(config.getReadRetentionDays()));
+        Instant unreadCutoff = now.minus(Duration.ofDays(config.getUnreadRetentionDays()));
+        String batchId = UUID.randomUUID().toString();
+        PageRequest chunk = PageRequest.of(0, config.getRetentionChunkSize());
+
+        long total = 0;
+        long afterId = 0;
+        for (int i = 0; i < config.getRetentionMaxChunksPerRun(); i++) {
+            List<Long> ids = notificationRepository.findRetentionCandidateIds(afterId, now, readCutoff, unreadCutoff, chunk);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long firstId = ids.get(0);
+            long lastId = ids.get(ids.size() - 1);
+
+            Integer moved = transactionTemplate.execute(status -> {
+                notificationRepository.archiveRetentionRange(firstId, lastId, now, readCutoff, unreadCutoff, batchId);
+                int deleted = notificationRepository.deleteArchivedRange(firstId, lastId, batchId);
+                // Archived rows leave the hot table, so they also leave the badge counts
+                for (Object[] row : archiveRepository.countArchivedByUserAndType(batchId, firstId, lastId)) {
+                    notificationCounterService.recordDeleted((Long) row[0], (NotificationType) row[1],
+                        ((Number) row[2]).longValue(), row[3] == null ? 0L : ((Number) row[3]).longValue());
+                }
+                return deleted;
+            });
+
+            total += moved == null ? 0 : moved;
+            afterId = lastId;
+            if (ids.size() < config.getRetentionChunkSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private long purgeArchive(Instant cutoff) {
+        PageRequest chunk = PageRequest.of(0, config.getRetentionChunkSize());
+
+        long total = 0;
+        long afterId = 0;
+        for (int i = 0; i < config.getRetentionMaxChunksPerRun(); i++) {
+            List<Long> ids = archiveRepository.findPurgeableIds(afterId, cutoff, chunk);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long firstId = ids.get(0);
+            long lastId = ids.get(ids.size() - 1);
+
+            Integer purged = transactionTemplate.execute(status ->
+                archiveRepository.deleteArchivedBetween(firstId, lastId, cutoff));
+
+            total += purged == null ? 0 : purged;
+            afterId = lastId;
+            if (ids.size() < config.getRetentionChunkSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -1,19 +1,28 @@
 package com.boit_droid.wallet.service.impl;
 
+import com.boit_droid.wallet.dto.request.BulkNotificationRequest;
 import com.boit_droid.wallet.dto.request.NotificationRequest;
 import com.boit_droid.wallet.dto.response.CustomApiResponse;
 import com.boit_droid.wallet.dto.response.NotificationResponse;
 import com.boit_droid.wallet.dto.response.PagedResponse;
 import com.boit_droid.wallet.entity.Notification;
 import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
 import com.boit_droid.wallet.entity.enums.NotificationType;
 import com.boit_droid.wallet.entity.enums.Priority;
 import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.AuditTrailRepository;
 import com.boit_droid.wallet.repository.NotificationRepository;
 import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.NotificationCounterService;
 import com.boit_droid.wallet.service.NotificationService;
+import com.boit_droid.wallet.service.NotificationStreamService;
 import com.boit_droid.wallet.service.EmailService;
 import com.boit_droid.wallet.util.RequestIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,13 +31,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Slf4j
 @Service
@@ -38,6 +49,12 @@ public class NotificationServiceImpl implements NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final NotificationCounterService notificationCounterService;
+    private final NotificationStreamService notificationStreamService;
+    private final AuditTrailRepository auditTrailRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
     
     @Value("${app.notification.sms.enabled:true}")
     private boolean smsEnabled;
@@ -54,8 +71,11 @@ public class NotificationServiceImpl implements NotificationService {
     @Value("${app.notification.retry.delay-seconds:30}")
     private int retryDelaySeconds;
     
+    @Value("${wallet.audit.audit-retention-days:2555}")
+    private int auditRetentionDays;
+    
     // Async executor for notification delivery
-    private final Executor notificationExecutor = Executors.newFixedThreadPool(10);
+    private final ThreadPoolExecutor notificationExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(10);
     
     // In-memory tracking for delivery status (in production, use Redis or database)
     private final Map<String, DeliveryStatus> deliveryStatusMap = new ConcurrentHashMap<>();
@@ -71,6 +91,14 @@ public class NotificationServiceImpl implements NotificationService {
         "DEFAULT", "Your verification code is: {code}. Valid for 5 minutes. Do not share this code."
     );
 
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("wallet.notification.queue.depth", notificationExecutor, executor -> executor.getQueue().size())
+            .description("Notifications waiting for a delivery thread").register(meterRegistry);
+        Gauge.builder("wallet.notification.delivery.active", notificationExecutor, ThreadPoolExecutor::getActiveCount)
+            .description("Notifications being delivered").register(meterRegistry);
+    }
+
     @Override
     public CustomApiResponse<NotificationResponse> sendNotification(String userId, NotificationRequest request) {
         try {
@@ -78,7 +106,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
             
             Notification notification = createNotification(user, request);
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             
             // Send notification asynchronously
             sendNotificationAsync(notification);
@@ -102,7 +130,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
             
             Notification notification = createTemplatedNotification(user, type, priority, templateId, templateData);
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             
             // Send notification asynchronously
             sendNotificationAsync(notification);
@@ -172,9 +200,14 @@ public class NotificationServiceImpl implements NotificationService {
             Notification notification = notificationRepository.findById(Long.valueOf(notificationId))
                 .orElseThrow(() -> new RuntimeException("Notification not found: " + notificationId));
             
+            if (Boolean.TRUE.equals(notification.getIsRead())) {
+                return CustomApiResponse.success("Notification marked as read", "Success");
+            }
+            
             notification.setIsRead(true);
             notification.setReadAt(Instant.now());
             notificationRepository.save(notification);
+            notificationCounterService.recordRead(notification.getUser().getId(), notification.getType());
             
             return CustomApiResponse.success("Notification marked as read", "Success");
             
@@ -192,16 +225,12 @@ public class NotificationServiceImpl implements NotificationService {
             User user = userRepository.findById(Long.valueOf(userId))
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
             
-            List<Notification> unreadNotifications = notificationRepository.findUnreadNotificationsByUser(user);
+            int updated = notificationRepository.markAllAsReadByUser(user.getId(), Instant.now());
+            notificationCounterService.recordAllRead(user.getId());
+            recordBulkAudit(user, "BULK_MARK_READ", updated, Map.of("scope", "ALL_UNREAD"));
             
-            for (Notification notification : unreadNotifications) {
-                notification.setIsRead(true);
-                notification.setReadAt(Instant.now());
-            }
-            
-            notificationRepository.saveAll(unreadNotifications);
-            
-            return CustomApiResponse.success("All notifications marked as read", "Success");
+            return CustomApiResponse.success("All notifications marked as read", 
+                updated + " notifications marked as read for user " + userId);
             
         } catch (Exception e) {
             log.error("Failed to mark all notifications as read for user {}: {}", userId, e.getMessage());
@@ -211,18 +240,40 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    public CustomApiResponse<Map<String, Long>> getNotificationCounts(String userId) {
+    @Transactional
+    public CustomApiResponse<String> markNotificationsAsRead(String userId, BulkNotificationRequest request) {
         try {
             User user = userRepository.findById(Long.valueOf(userId))
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
             
-            Long unreadCount = notificationRepository.countUnreadNotificationsByUser(user);
-            Long totalCount = (long) notificationRepository.findByUserOrderByCreatedAtDesc(user).size();
+            if (request.getNotificationIds() == null || request.getNotificationIds().isEmpty()) {
+                throw new IllegalArgumentException("notificationIds are required to mark notifications as read");
+            }
+            List<Long> ids = request.getNotificationIds();
+            
+            // Capture per-type unread counts before the update so counters can be adjusted by delta
+            List<Object[]> unreadByType = notificationRepository.countUnreadByTypeForIds(user.getId(), ids);
+            int updated = notificationRepository.markAsReadByIds(user.getId(), ids, Instant.now());
+            for (Object[] row : unreadByType) {
+                notificationCounterService.recordRead(user.getId(), (NotificationType) row[0],
+                    ((Number) row[1]).longValue());
+            }
+            recordBulkAudit(user, "BULK_MARK_READ", updated, Map.of("requestedIds", ids.size()));
+            
+            return CustomApiResponse.success("Notifications marked as read", 
+                updated + " notifications marked as read for user " + userId);
             
-            Map<String, Long> counts = Map.of(
-                "unread", unreadCount,
-                "total", totalCount
-            );
+        } catch (Exception e) {
+            log.error("Failed to bulk mark notifications as read for user {}: {}", userId, e.getMessage());
+            return CustomApiResponse.error("Failed to mark notifications as read: " + e.getMessage(), 
+                UUID.randomUUID().toString(), List.of(e.getMessage()));
+        }
+    }
+
+    @Override
+    public CustomApiResponse<Map<String, Long>> getNotificationCounts(String userId) {
+        try {
+            Map<String, Long> counts = notificationCounterService.getCounts(Long.valueOf(userId));
             
             return CustomApiResponse.success("Notification counts retrieved successfully", counts);
             
@@ -241,6 +292,8 @@ public class NotificationServiceImpl implements NotificationService {
                 .orElseThrow(() -> new RuntimeException("Notification not found: " + notificationId));
             
             notificationRepository.delete(notification);
+            notificationCounterService.recordDeleted(notification.getUser().getId(), notification.getType(),
+                !Boolean.TRUE.equals(notification.getIsRead()));
             
             return CustomApiResponse.success("Notification deleted successfully", "Success");
             
@@ -251,6 +304,50 @@ public class NotificationServiceImpl implements NotificationService {
         }
     }
 
+    @Override
+    @Transactional
+    public CustomApiResponse<String> deleteNotifications(String userId, BulkNotificationRequest request) {
+        try {
+            User user = userRepository.findById(Long.valueOf(userId))
+                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
+            
+            boolean byIds = request.getNotificationIds() != null && !request.getNotificationIds().isEmpty();
+            boolean readOnly = Boolean.TRUE.equals(request.getReadOnly());
+            
+            List<Object[]> countsByType;
+            int deleted;
+            Map<String, Object> criteria = new HashMap<>();
+            if (byIds) {
+                List<Long> ids = request.getNotificationIds();
+                countsByType = notificationRepository.countByTypeForIds(user.getId(), ids);
+                deleted = notificationRepository.deleteByUserAndIds(user.getId(), ids);
+                criteria.put("requestedIds", ids.size());
+            } else if (request.getCreatedBefore() != null) {
+                Instant createdBefore = request.getCreatedBefore();
+                countsByType = notificationRepository.countByTypeCreatedBefore(user.getId(), createdBefore, readOnly);
+                deleted = notificationRepository.deleteByUserCreatedBefore(user.getId(), createdBefore, readOnly);
+                criteria.put("createdBefore", createdBefore.toString());
+                criteria.put("readOnly", readOnly);
+            } else {
+                throw new IllegalArgumentException("Either notificationIds or createdBefore must be provided");
+            }
+            
+            for (Object[] row : countsByType) {
+                notificationCounterService.recordDeleted(user.getId(), (NotificationType) row[0],
+                    ((Number) row[1]).longValue(), row[2] == null ? 0L : ((Number) row[2]).longValue());
+            }
+            recordBulkAudit(user, "BULK_DELETE", deleted, criteria);
+            
+            return CustomApiResponse.success("Notifications deleted successfully", 
+                deleted + " notifications deleted for user " + userId);
+            
+        } catch (Exception e) {
+            log.error("Failed to bulk delete notifications for user {}: {}", userId, e.getMessage());
+            return CustomApiResponse.error("Failed to delete notifications: " + e.getMessage(), 
+                UUID.randomUUID().toString(), List.of(e.getMessage()));
+        }
+    }
+
     @Override
     public void sendTransactionNotification(String userId, String transactionId, String walletId, 
                                           String transactionType, double amount, String currency) {
@@ -266,7 +363,7 @@ public class NotificationServiceImpl implements NotificationService {
             notification.setRelatedTransactionId(transactionId);
             notification.setRelatedWalletId(walletId);
             
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             sendNotificationAsync(notification);
             
             log.info("Transaction notification sent to user {} for transaction {}", userId, transactionId);
@@ -287,7 +384,7 @@ public class NotificationServiceImpl implements NotificationService {
             Notification notification = createBasicNotification(user, title, message, 
                 NotificationType.KYC, Priority.HIGH);
             
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             sendNotificationAsync(notification);
             
             log.info("KYC notification sent to user {} with status {}", userId, kycStatus);
@@ -308,7 +405,7 @@ public class NotificationServiceImpl implements NotificationService {
             Notification notification = createBasicNotification(user, title, details, 
                 NotificationType.SECURITY, Priority.HIGH);
             
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             sendNotificationAsync(notification);
             
             log.info("Security notification sent to user {} for event {}", userId, securityEvent);
@@ -331,7 +428,7 @@ public class NotificationServiceImpl implements NotificationService {
                 NotificationType.WALLET_STATUS, Priority.MEDIUM);
             notification.setRelatedWalletId(walletId);
             
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             sendNotificationAsync(notification);
             
             log.info("Wallet status notification sent to user {} for wallet {}", userId, walletId);
@@ -354,7 +451,7 @@ public class NotificationServiceImpl implements NotificationService {
                 NotificationType.BALANCE_ALERT, Priority.MEDIUM);
             notification.setRelatedWalletId(walletId);
             
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             sendNotificationAsync(notification);
             
             log.info("Balance alert notification sent to user {} for wallet {}", userId, walletId);
@@ -393,7 +490,7 @@ public class NotificationServiceImpl implements NotificationService {
             
             // Create notification record for tracking
             Notification notification = createOtpNotification(user, purpose, message, channels);
-            notification = notificationRepository.save(notification);
+            notification = saveNewNotification(notification);
             
             // Send via each requested channel
             for (String channel : channels) {
@@ -591,6 +688,55 @@ public class NotificationServiceImpl implements NotificationService {
         return notification;
     }
 
+    private Notification saveNewNotification(Notification notification) {
+        // The row and its counter delta commit together, so counter materialization never sees one without the other
+        Notification saved = transactionTemplate.execute(status -> {
+            notificationCounterService.prepareCreate(notification.getUser().getId());
+            Notification inserted = notificationRepository.save(notification);
+            notificationCounterService.recordCreated(inserted.getUser().getId(), inserted.getType(),
+                !Boolean.TRUE.equals(inserted.getIsRead()));
+            return inserted;
+        });
+        if (notificationStreamService.hasSubscribers(saved.getUser().getId())) {
+            notificationStreamService.publishNotification(saved.getUser().getId(), mapToResponse(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Bulk statements skip entity listeners, so a single summary record stands in for the per-row audit entries
+     */
+    private void recordBulkAudit(User user, String operation, int affectedRows, Map<String, Object> criteria) {
+        try {
+            AuditTrail audit = new AuditTrail();
+            audit.setAuditId(RequestIdGenerator.generateRequestId());
+            audit.setEntityType("Notification");
+            audit.setEntityId(user.getRequestId());
+            audit.setOperation(operation);
+            audit.setUserId(user.getRequestId());
+            audit.setRequestId(RequestIdGenerator.getCurrentRequestId());
+            audit.setBatchId(RequestIdGenerator.generateRequestId());
+            Instant now = Instant.now();
+            audit.setTimestamp(now);
+            audit.setCreatedAt(now);
+            audit.setRetentionExpiryDate(now.plus(Duration.ofDays(auditRetentionDays)));
+            audit.setChangeDescription(operation + " affected " + affectedRows + " notifications");
+            
+            Map<String, Object> metadata = new HashMap<>(criteria);
+            metadata.put("affectedRows", affectedRows);
+            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
+            
+            audit.setSourceSystem("API");
+            audit.setDataClassification("INTERNAL");
+            audit.setRiskLevel("LOW");
+            audit.setTags("notification,bulk");
+            auditTrailRepository.save(audit);
+            
+        } catch (Exception e) {
+            log.error("Failed to record bulk notification audit for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
     private void sendNotificationAsync(Notification notification) {
         CompletableFuture.runAsync(() -> {
             try {
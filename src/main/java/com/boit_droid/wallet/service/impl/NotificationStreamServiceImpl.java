@@ -0,0 +1,264 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.dto.response.NotificationResponse;
+import com.boit_droid.wallet.service.NotificationStreamService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of notification events to SSE connections.
+ * Publishers only enqueue into a bounded per-connection buffer; a small delivery pool writes
+ * to the sockets, so a slow client never blocks the request that created the notification.
+ * A connection whose buffer overflows is closed and the client is expected to reconnect and
+ * reload its inbox over the REST endpoints.
+ */
+@Slf4j
+@Service
+public class NotificationStreamServiceImpl implements NotificationStreamService {
+
+    static final String EVENT_NOTIFICATION = "notification";
+    static final String EVENT_COUNTS = "counts";
+
+    private final WalletConfigurationProperties.Notification config;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Set<Long> pendingCountPushes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger deliveryThreadCounter = new AtomicInteger();
+
+    private ExecutorService deliveryExecutor;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    public NotificationStreamServiceImpl(WalletConfigurationProperties walletProperties) {
+        this.config = walletProperties.getNotification();
+    }
+
+    @PostConstruct
+    void start() {
+        deliveryExecutor = Executors.newFixedThreadPool(config.getStreamDeliveryThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + deliveryThreadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getStreamHeartbeatSeconds();
+        heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeatScheduler.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(Subscriber::close));
+        deliveryExecutor.shutdown();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId, Map<String, Long> initialCounts) {
+        if (connectionCount.incrementAndGet() > config.getStreamMaxConnections()) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Notification stream connection limit reached");
+        }
+
+        Subscriber subscriber = new Subscriber(userId, new SseEmitter(config.getStreamTimeoutMs()));
+        boolean[] added = new boolean[1];
+        subscribers.compute(userId, (id, existing) -> {
+            Set<Subscriber> userSubscribers = existing != null ? existing : ConcurrentHashMap.newKeySet();
+            if (userSubscribers.size() < config.getStreamMaxConnectionsPerUser()) {
+                added[0] = userSubscribers.add(subscriber);
+            }
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        if (!added[0]) {
+            connectionCount.decrementAndGet();
+            throw new IllegalStateException("Too many open notification streams for user " + userId);
+        }
+
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+
+        subscriber.enqueue(SseEmitter.event().name(EVENT_COUNTS).data(initialCounts, MediaType.APPLICATION_JSON).build());
+        log.debug("Notification stream opened for user {} ({} open streams)", userId, connectionCount.get());
+        return emitter;
+    }
+
+    @Override
+    public void publishNotification(Long userId, NotificationResponse notification) {
+        if (!hasSubscribers(userId)) {
+            return;
+        }
+        // Clients must never see a notification that is later rolled back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(userId, notificationEvent(notification));
+                }
+            });
+        } else {
+            broadcast(userId, notificationEvent(notification));
+        }
+    }
+
+    @Override
+    public void publishCounts(Long userId, Supplier<Map<String, Long>> counts) {
+        if (!hasSubscribers(userId) || !pendingCountPushes.add(userId)) {
+            return;
+        }
+        try {
+            deliveryExecutor.execute(() -> {
+                // Clear the flag before reading so a change made while reading schedules another push
+                pendingCountPushes.remove(userId);
+                try {
+                    broadcast(userId, SseEmitter.event().name(EVENT_COUNTS)
+                        .data(counts.get(), MediaType.APPLICATION_JSON).build());
+                } catch (Exception e) {
+                    log.warn("Failed to push notification counts for user {}: {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingCountPushes.remove(userId);
+        }
+    }
+
+    @Override
+    public boolean hasSubscribers(Long userId) {
+        return subscribers.containsKey(userId);
+    }
+
+    @Override
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> notificationEvent(NotificationResponse notification) {
+        return SseEmitter.event()
+            .name(EVENT_NOTIFICATION)
+            .id(String.valueOf(notification.getId()))
+            .data(notification, MediaType.APPLICATION_JSON)
+            .build();
+    }
+
+    private void broadcast(Long userId, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> subscriber.enqueue(event));
+        }
+    }
+
+    private void sendHeartbeats() {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+            List<Subscriber> all = new ArrayList<>(connectionCount.get());
+            subscribers.values().forEach(all::addAll);
+            all.forEach(subscriber -> subscriber.enqueue(heartbeat));
+        } catch (Exception e) {
+            log.warn("Notification stream heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        connectionCount.decrementAndGet();
+        log.debug("Notification stream closed for user {}", subscriber.userId);
+    }
+
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(config.getStreamBufferSize());
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                log.warn("Notification stream buffer full for user {}, closing slow connection", userId);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (Exception e) {
+                // Client went away; the container reports the error through onError as well
+                log.debug("Notification stream write failed for user {}: {}", userId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            buffer.clear();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // Already completed by the container
+            }
+            unregister(this);
+        }
+    }
+}
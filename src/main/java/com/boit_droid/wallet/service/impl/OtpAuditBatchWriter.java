@@ -0,0 +1,248 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.repository.AuditTrailBatchInserter;
+import com.boit_droid.wallet.util.MpscRingBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes OTP and security audit rows off the request thread.
+ * Rows go through a bounded lock-free ring buffer to a single writer thread that inserts them in
+ * JDBC batches, and metadata is serialised on that thread rather than by the caller. Failure events
+ * are aggregated: repeats of the same key within the aggregation window collapse into one row that
+ * carries the number of occurrences, so a brute-force attack adds at most one row per user, IP and
+ * reason per window. When the buffer is full, rows are dropped and counted rather than blocking
+ * the request path.
+ */
+@Slf4j
+@Component
+public class OtpAuditBatchWriter {
+
+    private static final long AGGREGATE_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long DROP_WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AuditTrailBatchInserter batchInserter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final WalletConfigurationProperties.Audit config;
+    private final MpscRingBuffer<PendingAudit> buffer;
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder collapsedCount = new LongAdder();
+    private final AtomicLong lastDropWarning = new AtomicLong(System.nanoTime() - DROP_WARN_INTERVAL_NANOS);
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public OtpAuditBatchWriter(AuditTrailBatchInserter batchInserter, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, WalletConfigurationProperties walletProperties) {
+        this.batchInserter = batchInserter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.config = walletProperties.getAudit();
+        this.buffer = new MpscRingBuffer<>(config.getOtpBufferSize());
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writerThread = new Thread(this::runWriter, "otp-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue a row for writing
+     */
+    public void submit(AuditTrail audit, Map<String, Object> metadata) {
+        enqueue(new PendingAudit(audit, metadata, 1, audit.getTimestamp()));
+    }
+
+    /**
+     * Queue a row that collapses with other rows of the same key within the aggregation window.
+     * The written row keeps the details of the latest occurrence and the timestamp of the first.
+     */
+    public void submitAggregated(String key, AuditTrail audit, Map<String, Object> metadata) {
+        Aggregate existing = aggregates.get(key);
+        if (existing == null && aggregates.size() >= config.getOtpMaxAggregates()) {
+            // Too many distinct keys to track: write the row on its own
+            submit(audit, metadata);
+            return;
+        }
+        aggregates.compute(key, (k, aggregate) -> {
+            if (aggregate == null) {
+                return new Aggregate(System.nanoTime(), audit, metadata);
+            }
+            aggregate.latest = audit;
+            aggregate.metadata = metadata;
+            aggregate.count++;
+            collapsedCount.increment();
+            return aggregate;
+        });
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public int getAggregateCount() {
+        return aggregates.size();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getCollapsedCount() {
+        return collapsedCount.sum();
+    }
+
+    private void enqueue(PendingAudit pending) {
+        if (buffer.offer(pending) < 0) {
+            droppedCount.increment();
+            long now = System.nanoTime();
+            long last = lastDropWarning.get();
+            if (now - last >= DROP_WARN_INTERVAL_NANOS && lastDropWarning.compareAndSet(last, now)) {
+                log.warn("OTP audit buffer full, {} rows dropped so far", droppedCount.sum());
+            }
+        }
+    }
+
+    private void runWriter() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(config.getOtpFlushIntervalMs());
+        long lastSweep = System.nanoTime();
+        List<PendingAudit> batch = new ArrayList<>(config.getOtpBatchSize());
+        while (true) {
+            try {
+                boolean stopping = !running;
+                long now = System.nanoTime();
+                if (stopping || now - lastSweep >= AGGREGATE_SWEEP_INTERVAL_NANOS) {
+                    collectClosedAggregates(now, stopping, batch);
+                    lastSweep = now;
+                }
+                buffer.drainTo(batch, config.getOtpBatchSize());
+                if (batch.isEmpty()) {
+                    if (stopping) {
+                        return;
+                    }
+                    LockSupport.parkNanos(this, idleNanos);
+                    continue;
+                }
+                write(batch);
+            } catch (Exception e) {
+                log.error("OTP audit writer loop failed: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectClosedAggregates(long now, boolean all, List<PendingAudit> target) {
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getOtpAggregationWindowMs());
+        for (String key : aggregates.keySet()) {
+            // Removing inside computeIfPresent keeps concurrent submissions from updating a closed aggregate
+            aggregates.computeIfPresent(key, (k, aggregate) -> {
+                if (!all && now - aggregate.windowStart < windowNanos) {
+                    return aggregate;
+                }
+                target.add(new PendingAudit(aggregate.latest, aggregate.metadata, aggregate.count, aggregate.firstSeen));
+                return null;
+            });
+        }
+    }
+
+    private void write(List<PendingAudit> batch) {
+        Duration retention = Duration.ofDays(config.getAuditRetentionDays());
+        List<AuditTrail> rows = new ArrayList<>(batch.size());
+        for (PendingAudit pending : batch) {
+            rows.add(toRow(pending, retention));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> batchInserter.insert(rows));
+            writtenCount.add(rows.size());
+        } catch (Exception e) {
+            failedCount.add(rows.size());
+            log.error("Failed to write {} OTP audit rows: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    private AuditTrail toRow(PendingAudit pending, Duration retention) {
+        AuditTrail audit = pending.audit();
+        Map<String, Object> metadata = pending.metadata();
+        if (pending.occurrences() > 1) {
+            metadata.put("occurrences", pending.occurrences());
+            metadata.put("firstSeen", pending.firstSeen().toString());
+            metadata.put("lastSeen", audit.getTimestamp().toString());
+            audit.setChangeDescription(audit.getChangeDescription() + " (" + pending.occurrences() + " occurrences)");
+            audit.setTimestamp(pending.firstSeen());
+        }
+        try {
+            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
+        } catch (Exception e) {
+            log.warn("Failed to serialise OTP audit metadata: {}", e.getMessage());
+        }
+        audit.setRetentionExpiryDate(audit.getTimestamp().plus(retention));
+        return audit;
+    }
+
+    private record PendingAudit(AuditTrail audit, Map<String, Object> metadata, int occurrences, Instant firstSeen) {
+    }
+
+    /**
+     * Failure events of one key within the current window; mutated only inside map compute calls
+     */
+    private static final class Aggregate {
+        private final long windowStart;
+        private final Instant firstSeen;
+        private AuditTrail latest;
+        private Map<String, Object> metadata;
+        private int count = 1;
+
+        private Aggregate(long windowStart, AuditTrail audit, Map<String, Object> metadata) {
+            this.windowStart = windowStart;
+            this.firstSeen = audit.getTimestamp();
+            this.latest = audit;
+            this.metadata = metadata;
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.boit_droid.wallet.service.impl;
 
 import com.boit_droid.wallet.entity.audit.AuditTrail;
-import com.boit_droid.wallet.repository.AuditTrailRepository;
 import com.boit_droid.wallet.service.OtpAuditService;
 import com.boit_droid.wallet.util.RequestIdGenerator;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,13 +11,18 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Builds OTP and security audit rows and hands them to {@link OtpAuditBatchWriter}, so no audit
+ * write happens on the request thread. Failures are submitted for aggregation by user, IP and reason.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OtpAuditServiceImpl implements OtpAuditService {
 
-    private final AuditTrailRepository auditTrailRepository;
-    private final ObjectMapper objectMapper;
+    private final OtpAuditBatchWriter auditWriter;
+
+    private final String serverNode = resolveServerNode();
 
     @Override
     public void logOtpGeneration(String userId, String purpose, String clientIp, String requestId, 
@@ -42,7 +45,6 @@ public class OtpAuditServiceImpl implements OtpAuditService {
                 audit.setErrorMessage(errorMessage);
             }
             
-            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
             audit.setTags("otp,generation,security");
             
             if (!successful) {
@@ -51,7 +53,12 @@ public class OtpAuditServiceImpl implements OtpAuditService {
                 audit.setAlertMessage("OTP generation failed for user: " + userId);
             }
             
-            auditTrailRepository.save(audit);
+            if (successful) {
+                auditWriter.submit(audit, metadata);
+            } else {
+                auditWriter.submitAggregated(aggregationKey("OTP_GENERATION", userId, clientIp, purpose, errorMessage),
+                    audit, metadata);
+            }
             log.debug("OTP generation audit logged for user: {}, purpose: {}, successful: {}", 
                      userId, purpose, successful);
                      
@@ -82,7 +89,6 @@ public class OtpAuditServiceImpl implements OtpAuditService {
                 audit.setErrorMessage(failureReason);
             }
             
-            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
             audit.setTags("otp,verification,security");
             
             // Generate alerts for failed attempts
@@ -97,7 +103,13 @@ public class OtpAuditServiceImpl implements OtpAuditService {
                 }
             }
             
-            auditTrailRepository.save(audit);
+            if (successful) {
+                auditWriter.submit(audit, metadata);
+            } else {
+                // Attempt numbers differ between repeats, so they are not part of the key
+                auditWriter.submitAggregated(aggregationKey("OTP_VERIFICATION", userId, clientIp, purpose, failureReason),
+                    audit, metadata);
+            }
             log.debug("OTP verification audit logged for user: {}, purpose: {}, successful: {}, attempt: {}", 
                      userId, purpose, successful, attemptNumber);
                      
@@ -125,14 +137,14 @@ public class OtpAuditServiceImpl implements OtpAuditService {
             metadata.put("currentCount", currentCount);
             metadata.put("limit", limit);
             
-            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
             audit.setTags("security,rate-limit,abuse");
             
             audit.setAlertGenerated(true);
             audit.setAlertLevel("ERROR");
             audit.setAlertMessage("Rate limit exceeded for " + rateLimitType + " by user: " + userId);
             
-            auditTrailRepository.save(audit);
+            auditWriter.submitAggregated(aggregationKey("RATE_LIMIT_EXCEEDED", userId, clientIp, rateLimitType, null),
+                audit, metadata);
             log.warn("Rate limit exceeded audit logged for user: {}, type: {}, count: {}, limit: {}", 
                     userId, rateLimitType, currentCount, limit);
                     
@@ -160,14 +172,14 @@ public class OtpAuditServiceImpl implements OtpAuditService {
             metadata.put("riskLevel", riskLevel);
             metadata.put("actionTaken", actionTaken);
             
-            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
             audit.setTags("security,suspicious,fraud-detection");
             
             audit.setAlertGenerated(true);
             audit.setAlertLevel("CRITICAL".equals(riskLevel) ? "CRITICAL" : "ERROR");
             audit.setAlertMessage("Suspicious activity detected for user: " + userId + " - " + suspiciousPattern);
             
-            auditTrailRepository.save(audit);
+            auditWriter.submitAggregated(aggregationKey("SUSPICIOUS_ACTIVITY", userId, clientIp, suspiciousPattern, actionTaken),
+                audit, metadata);
             log.warn("Suspicious activity audit logged for user: {}, pattern: {}, risk: {}, action: {}", 
                     userId, suspiciousPattern, riskLevel, actionTaken);
                     
@@ -194,7 +206,6 @@ public class OtpAuditServiceImpl implements OtpAuditService {
             metadata.put("description", description);
             metadata.put("riskLevel", riskLevel);
             
-            audit.setAdditionalMetadata(objectMapper.writeValueAsString(metadata));
             audit.setTags("security,event,monitoring");
             
             if ("HIGH".equals(riskLevel) || "CRITICAL".equals(riskLevel)) {
@@ -203,7 +214,8 @@ public class OtpAuditServiceImpl implements OtpAuditService {
                 audit.setAlertMessage("Security event: " + eventType + " for user: " + userId);
             }
             
-            auditTrailRepository.save(audit);
+            auditWriter.submitAggregated(aggregationKey("SECURITY_EVENT", userId, clientIp, eventType, riskLevel),
+                audit, metadata);
             log.info("Security event audit logged for user: {}, event: {}, risk: {}", 
                     userId, eventType, riskLevel);
                     
@@ -225,7 +237,7 @@ public class OtpAuditServiceImpl implements OtpAuditService {
         audit.setCreatedAt(Instant.now());
         audit.setSourceSystem("API");
         audit.setApplicationVersion("1.0.0");
-        audit.setServerNode(getServerNode());
+        audit.setServerNode(serverNode);
         audit.setDataClassification("CONFIDENTIAL");
         audit.setContainsPII(true);
         audit.setContainsFinancialData(false);
@@ -255,7 +267,11 @@ public class OtpAuditServiceImpl implements OtpAuditService {
         return "LOW";
     }
 
-    private String getServerNode() {
+    private static String aggregationKey(String operation, String userId, String clientIp, String subject, String reason) {
+        return operation + '|' + userId + '|' + clientIp + '|' + subject + '|' + reason;
+    }
+
+    private static String resolveServerNode() {
         try {
             return java.net.InetAddress.getLocalHost().getHostName();
         } catch (Exception e) {
@@ -5,17 +5,15 @@ import com.boit_droid.wallet.dto.response.OtpRequiredResponse;
 import com.boit_droid.wallet.service.OtpService;
 import com.boit_droid.wallet.service.NotificationService;
 import com.boit_droid.wallet.service.OtpAuditService;
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.RateCounterStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -24,27 +22,24 @@ public class OtpServiceImpl implements OtpService {
 
 	private final NotificationService notificationService;
 	private final OtpAuditService otpAuditService;
+	private final OtpStore otpStore;
+	private final RateCounterStore rateCounterStore;
 
 	private static final long OTP_TTL_SECONDS = 300; // 5 minutes
+	private static final long OTP_TTL_MILLIS = OTP_TTL_SECONDS * 1000;
 	private static final int MAX_OTP_ATTEMPTS = 3;
 	private static final int OTP_RATE_LIMIT_PER_HOUR = 10; // Max 10 OTP requests per hour per user
 	private static final int IP_RATE_LIMIT_PER_HOUR = 50; // Max 50 OTP requests per hour per IP
 	private static final long RATE_LIMIT_WINDOW_MILLIS = 3600000; // 1 hour
 	private static final long SUSPICIOUS_ACTIVITY_THRESHOLD = 5; // 5 failed attempts in short time
+	private static final long SUSPICIOUS_ACTIVITY_WINDOW_MILLIS = 300000; // 5 minutes
 	
-	private final Map<String, OtpRecord> otpCache = new ConcurrentHashMap<>();
-	private final Map<String, RateLimitInfo> userRateLimits = new ConcurrentHashMap<>();
-	private final Map<String, RateLimitInfo> ipRateLimits = new ConcurrentHashMap<>();
-	private final Map<String, SuspiciousActivityTracker> suspiciousActivityMap = new ConcurrentHashMap<>();
 	private final SecureRandom secureRandom = new SecureRandom();
 
 	@Override
 	public String requestOtpForWallet(String walletId, String purpose, String userId) {
-		cleanExpired();
 		String code = generateCode(6);
-		String cacheKey = cacheKey(walletId, purpose);
-		OtpRecord record = new OtpRecord(code, Instant.now().plusSeconds(OTP_TTL_SECONDS), 0);
-		otpCache.put(cacheKey, record);
+		otpStore.put(cacheKey(walletId, purpose), code, OTP_TTL_MILLIS);
 		try {
 			notificationService.sendOtpCode(userId, purpose, code);
 			log.info("OTP generated for wallet {} purpose {}", walletId, purpose);
@@ -57,30 +52,13 @@ public class OtpServiceImpl implements OtpService {
 
 	@Override
 	public boolean verifyOtpForWallet(String walletId, String purpose, String otpCode) {
-		cleanExpired();
-		OtpRecord record = otpCache.get(cacheKey(walletId, purpose));
-		if (record == null) {
-			return false;
-		}
-		if (record.expiresAt.isBefore(Instant.now())) {
-			otpCache.remove(cacheKey(walletId, purpose));
-			return false;
-		}
-		if (!record.code.equals(otpCode)) {
-			record.attempts.incrementAndGet();
-			return false;
-		}
-		otpCache.remove(cacheKey(walletId, purpose));
-		return true;
+		return otpStore.verify(cacheKey(walletId, purpose), otpCode, Integer.MAX_VALUE).isVerified();
 	}
 
 	@Override
 	public String requestOtpForUser(String userId, String purpose) {
-		cleanExpired();
 		String code = generateCode(6);
-		String cacheKey = userCacheKey(userId, purpose);
-		OtpRecord record = new OtpRecord(code, Instant.now().plusSeconds(OTP_TTL_SECONDS), 0);
-		otpCache.put(cacheKey, record);
+		otpStore.put(userCacheKey(userId, purpose), code, OTP_TTL_MILLIS);
 		try {
 			notificationService.sendOtpCode(userId, purpose, code);
 			log.info("OTP generated for user {} purpose {} code is {}", userId, purpose, code);
@@ -93,21 +71,7 @@ public class OtpServiceImpl implements OtpService {
 
 	@Override
 	public boolean verifyOtpForUser(String userId, String purpose, String otpCode) {
-		cleanExpired();
-		OtpRecord record = otpCache.get(userCacheKey(userId, purpose));
-		if (record == null) {
-			return false;
-		}
-		if (record.expiresAt.isBefore(Instant.now())) {
-			otpCache.remove(userCacheKey(userId, purpose));
-			return false;
-		}
-		if (!record.code.equals(otpCode)) {
-			record.attempts.incrementAndGet();
-			return false;
-		}
-		otpCache.remove(userCacheKey(userId, purpose));
-		return true;
+		return otpStore.verify(userCacheKey(userId, purpose), otpCode, Integer.MAX_VALUE).isVerified();
 	}
 
 	@Override
@@ -127,9 +91,6 @@ public class OtpServiceImpl implements OtpService {
 
 	@Override
 	public String requestOtpWithSecurity(String userId, String purpose, String clientIp, String requestId) {
-		cleanExpired();
-		cleanExpiredRateLimits();
-		
 		// Check rate limits
 		if (isRateLimited(userId, clientIp)) {
 			String rateLimitType = isUserRateLimited(userId) ? "USER" : "IP";
@@ -150,9 +111,7 @@ public class OtpServiceImpl implements OtpService {
 		try {
 			// Generate secure OTP
 			String code = generateSecureCode(6);
-			String cacheKey = userCacheKey(userId, purpose);
-			OtpRecord record = new OtpRecord(code, Instant.now().plusSeconds(OTP_TTL_SECONDS), 0);
-			otpCache.put(cacheKey, record);
+			otpStore.put(userCacheKey(userId, purpose), code, OTP_TTL_MILLIS);
 			
 			// Update rate limits
 			updateRateLimit(userId, clientIp);
@@ -175,53 +134,39 @@ public class OtpServiceImpl implements OtpService {
 
 	@Override
 	public boolean verifyOtpWithSecurity(String userId, String purpose, String otpCode, String clientIp, String requestId) {
-		cleanExpired();
-		
-		String cacheKey = userCacheKey(userId, purpose);
-		OtpRecord record = otpCache.get(cacheKey);
-		
-		if (record == null) {
-			otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
-				false, "OTP_NOT_FOUND", 0);
-			return false;
-		}
-		
-		if (record.expiresAt.isBefore(Instant.now())) {
-			otpCache.remove(cacheKey);
-			otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
-				false, "OTP_EXPIRED", record.attempts.incrementAndGet());
-			return false;
+		OtpStore.VerifyResult result = otpStore.verify(userCacheKey(userId, purpose), otpCode, MAX_OTP_ATTEMPTS);
+		
+		switch (result.getOutcome()) {
+			case NOT_FOUND:
+				otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
+					false, "OTP_NOT_FOUND", result.getAttempts());
+				return false;
+			case EXPIRED:
+				otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
+					false, "OTP_EXPIRED", result.getAttempts());
+				return false;
+			case MAX_ATTEMPTS_EXCEEDED:
+				otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
+					false, "MAX_ATTEMPTS_EXCEEDED", result.getAttempts());
+				
+				// Track suspicious activity
+				trackSuspiciousActivity(userId, clientIp);
+				return false;
+			case INVALID:
+				// Track failed attempt
+				trackSuspiciousActivity(userId, clientIp);
+				
+				otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
+					false, "INVALID_OTP", result.getAttempts());
+				return false;
+			default:
+				// Successful verification
+				otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
+					true, null, result.getAttempts());
+				
+				log.info("OTP successfully verified for user {} purpose {} from IP {}", userId, purpose, clientIp);
+				return true;
 		}
-		
-		// Check max attempts
-		if (record.attempts.incrementAndGet() >= MAX_OTP_ATTEMPTS) {
-			otpCache.remove(cacheKey);
-			otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
-				false, "MAX_ATTEMPTS_EXCEEDED", record.attempts.incrementAndGet());
-			
-			// Track suspicious activity
-			trackSuspiciousActivity(userId, clientIp);
-			return false;
-		}
-		
-		if (!record.code.equals(otpCode)) {
-			record.attempts.incrementAndGet();
-			
-			// Track failed attempt
-			trackSuspiciousActivity(userId, clientIp);
-			
-			otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
-				false, "INVALID_OTP", record.attempts.incrementAndGet());
-			return false;
-		}
-		
-		// Successful verification
-		otpCache.remove(cacheKey);
-		otpAuditService.logOtpVerification(userId, purpose, clientIp, requestId, 
-			true, null, record.attempts.incrementAndGet());
-		
-		log.info("OTP successfully verified for user {} purpose {} from IP {}", userId, purpose, clientIp);
-		return true;
 	}
 
 	@Override
@@ -231,13 +176,8 @@ public class OtpServiceImpl implements OtpService {
 
 	@Override
 	public boolean isSuspiciousActivity(String userId, String clientIp) {
-		SuspiciousActivityTracker tracker = suspiciousActivityMap.get(userId + ":" + clientIp);
-		if (tracker == null) {
-			return false;
-		}
-		
 		// Check if there are too many failed attempts in a short time
-		long recentFailures = tracker.getRecentFailures(Instant.now().minusSeconds(300)); // Last 5 minutes
+		long recentFailures = rateCounterStore.getCount(suspiciousActivityKey(userId, clientIp), SUSPICIOUS_ACTIVITY_WINDOW_MILLIS);
 		return recentFailures >= SUSPICIOUS_ACTIVITY_THRESHOLD;
 	}
 
@@ -266,133 +206,41 @@ public class OtpServiceImpl implements OtpService {
 	}
 
 	private boolean isUserRateLimited(String userId) {
-		RateLimitInfo rateLimitInfo = userRateLimits.get(userId);
-		if (rateLimitInfo == null) {
-			return false;
-		}
-		
-		long currentTime = System.currentTimeMillis();
-		if (currentTime - rateLimitInfo.windowStart > RATE_LIMIT_WINDOW_MILLIS) {
-			rateLimitInfo.reset(currentTime);
-			return false;
-		}
-		
-		return rateLimitInfo.requestCount.get() >= OTP_RATE_LIMIT_PER_HOUR;
+		return rateCounterStore.getCount(userRateKey(userId), RATE_LIMIT_WINDOW_MILLIS) >= OTP_RATE_LIMIT_PER_HOUR;
 	}
 
 	private boolean isIpRateLimited(String clientIp) {
-		RateLimitInfo rateLimitInfo = ipRateLimits.get(clientIp);
-		if (rateLimitInfo == null) {
-			return false;
-		}
-		
-		long currentTime = System.currentTimeMillis();
-		if (currentTime - rateLimitInfo.windowStart > RATE_LIMIT_WINDOW_MILLIS) {
-			rateLimitInfo.reset(currentTime);
-			return false;
-		}
-		
-		return rateLimitInfo.requestCount.get() >= IP_RATE_LIMIT_PER_HOUR;
+		return rateCounterStore.getCount(ipRateKey(clientIp), RATE_LIMIT_WINDOW_MILLIS) >= IP_RATE_LIMIT_PER_HOUR;
 	}
 
 	private int getCurrentRateLimit(String userId, String clientIp) {
-		RateLimitInfo userLimit = userRateLimits.get(userId);
-		RateLimitInfo ipLimit = ipRateLimits.get(clientIp);
-		
-		int userCount = userLimit != null ? userLimit.requestCount.get() : 0;
-		int ipCount = ipLimit != null ? ipLimit.requestCount.get() : 0;
+		int userCount = rateCounterStore.getCount(userRateKey(userId), RATE_LIMIT_WINDOW_MILLIS);
+		int ipCount = rateCounterStore.getCount(ipRateKey(clientIp), RATE_LIMIT_WINDOW_MILLIS);
 		
 		return Math.max(userCount, ipCount);
 	}
 
 	private void updateRateLimit(String userId, String clientIp) {
-		long currentTime = System.currentTimeMillis();
-		
 		// Update user rate limit
-		userRateLimits.computeIfAbsent(userId, k -> new RateLimitInfo(currentTime))
-			.requestCount.incrementAndGet();
+		rateCounterStore.increment(userRateKey(userId), RATE_LIMIT_WINDOW_MILLIS);
 		
 		// Update IP rate limit
-		ipRateLimits.computeIfAbsent(clientIp, k -> new RateLimitInfo(currentTime))
-			.requestCount.incrementAndGet();
+		rateCounterStore.increment(ipRateKey(clientIp), RATE_LIMIT_WINDOW_MILLIS);
 	}
 
 	private void trackSuspiciousActivity(String userId, String clientIp) {
-		String key = userId + ":" + clientIp;
-		suspiciousActivityMap.computeIfAbsent(key, k -> new SuspiciousActivityTracker())
-			.recordFailure(Instant.now());
-	}
-
-	private void cleanExpiredRateLimits() {
-		long currentTime = System.currentTimeMillis();
-		
-		userRateLimits.entrySet().removeIf(entry -> 
-			currentTime - entry.getValue().windowStart > RATE_LIMIT_WINDOW_MILLIS * 2);
-		
-		ipRateLimits.entrySet().removeIf(entry -> 
-			currentTime - entry.getValue().windowStart > RATE_LIMIT_WINDOW_MILLIS * 2);
-		
-		// Clean old suspicious activity records
-		suspiciousActivityMap.entrySet().removeIf(entry -> 
-			entry.getValue().isExpired(Instant.now().minusSeconds(3600))); // Keep for 1 hour
+		rateCounterStore.increment(suspiciousActivityKey(userId, clientIp), SUSPICIOUS_ACTIVITY_WINDOW_MILLIS);
 	}
 
-	private void cleanExpired() {
-		Instant now = Instant.now();
-		otpCache.entrySet().removeIf(e -> e.getValue().expiresAt.isBefore(now));
+	private String userRateKey(String userId) {
+		return "OTP_USER:" + userId;
 	}
 
-	private static class OtpRecord {
-		final String code;
-		final Instant expiresAt;
-		final AtomicInteger attempts;
-
-		OtpRecord(String code, Instant expiresAt, int attempts) {
-			this.code = code;
-			this.expiresAt = expiresAt;
-			this.attempts = new AtomicInteger(attempts);
-		}
-	}
-
-	private static class RateLimitInfo {
-		final AtomicInteger requestCount;
-		long windowStart;
-
-		RateLimitInfo(long windowStart) {
-			this.requestCount = new AtomicInteger(0);
-			this.windowStart = windowStart;
-		}
-
-		void reset(long newWindowStart) {
-			this.requestCount.set(0);
-			this.windowStart = newWindowStart;
-		}
+	private String ipRateKey(String clientIp) {
+		return "OTP_IP:" + clientIp;
 	}
 
-	private static class SuspiciousActivityTracker {
-		private final List<Instant> failureTimestamps = new java.util.concurrent.CopyOnWriteArrayList<>();
-
-		void recordFailure(Instant timestamp) {
-			failureTimestamps.add(timestamp);
-			// Keep only recent failures (last hour)
-			failureTimestamps.removeIf(ts -> ts.isBefore(timestamp.minusSeconds(3600)));
-		}
-
-		long getRecentFailures(Instant since) {
-			return failureTimestamps.stream()
-				.filter(ts -> ts.isAfter(since))
-				.count();
-		}
-
-		boolean isExpired(Instant cutoff) {
-			return failureTimestamps.isEmpty() || 
-				   failureTimestamps.stream().allMatch(ts -> ts.isBefore(cutoff));
-		}
+	private String suspiciousActivityKey(String userId, String clientIp) {
+		return "OTP_FAIL:" + userId + ":" + clientIp;
 	}
 }
-
-
-
-
-
-
@@ -0,0 +1,224 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.exception.PinHashingBusyException;
+import com.boit_droid.wallet.service.PinHashingService;
+import com.boit_droid.wallet.util.SCrypt;
+import com.boit_droid.wallet.util.SignatureUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Versioned PIN hashing on a dedicated pool.
+ * New hashes use scrypt and are stored as {@code $scrypt$ln=<log2 N>,r=<r>,p=<p>$<base64 hash>};
+ * hashes without a prefix are the original single SHA-256 round over salt and PIN. A successful
+ * verification against an original hash, or against scrypt parameters weaker than the configured
+ * ones, returns a rehash in the current format for the caller to store.
+ *
+ * All hashing runs on pin-hash threads with a bounded queue. When the queue is full, or a hash
+ * does not finish within pin-hash-timeout-ms, the caller gets a {@link PinHashingBusyException}
+ * rather than waiting, so a burst of PIN checks costs at most pin-hash-threads cores.
+ */
+@Slf4j
+@Service
+public class PinHashingServiceImpl implements PinHashingService {
+
+    private static final String SCRYPT_PREFIX = "$scrypt$";
+    private static final int HASH_LENGTH = 32;
+    private static final int MAX_PIN_LENGTH = 64;
+    // Limits on stored parameters; 128 * r * 2^ln bytes at the configurable maximum of ln=20, r=8
+    private static final int MAX_COST_LOG2 = 20;
+    private static final int MAX_BLOCK_SIZE = 16;
+    private static final int MAX_PARALLELISM = 16;
+    private static final long MAX_MEMORY_BYTES = 1L << 30;
+
+    private final SignatureUtil signatureUtil;
+    private final WalletConfigurationProperties.Security config;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+    private final Timer queueWaitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+    private final Counter upgrades;
+
+    public PinHashingServiceImpl(SignatureUtil signatureUtil, WalletConfigurationProperties walletProperties,
+                                 MeterRegistry meterRegistry) {
+        this.signatureUtil = signatureUtil;
+        this.config = walletProperties.getSecurity();
+        if (!withinLimits(config.getPinHashCostLog2(), config.getPinHashBlockSize(), config.getPinHashParallelism())) {
+            // Hashes written with these parameters would be refused on verification
+            throw new IllegalStateException("PIN hash parameters need more than " + (MAX_MEMORY_BYTES >> 20)
+                + " MiB per hash or exceed the stored parameter limits");
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        int threads = config.getPinHashThreads();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getPinHashQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "pin-hash-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("wallet.pin.hash.duration")
+            .description("Time spent hashing or verifying a PIN on the hashing pool").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("wallet.pin.hash.queue.wait")
+            .description("Time a PIN hash waited for a hashing thread").register(meterRegistry);
+        this.queueFullRejections = Counter.builder("wallet.pin.hash.rejected")
+            .tag("reason", "queue_full").register(meterRegistry);
+        this.timeoutRejections = Counter.builder("wallet.pin.hash.rejected")
+            .tag("reason", "timeout").register(meterRegistry);
+        this.upgrades = Counter.builder("wallet.pin.hash.upgraded")
+            .description("Stored PIN hashes rehashed to the current format on verification").register(meterRegistry);
+        Gauge.builder("wallet.pin.hash.queue.depth", executor, pool -> pool.getQueue().size())
+            .description("PIN hashes waiting for a hashing thread").register(meterRegistry);
+        Gauge.builder("wallet.pin.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("PIN hashes currently running").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String hashPin(String pin, String salt) {
+        signatureUtil.validatePin(pin);
+        return execute(() -> encode(pin, salt, config.getPinHashCostLog2(), config.getPinHashBlockSize(),
+            config.getPinHashParallelism()));
+    }
+
+    @Override
+    public PinVerification verifyPin(String pin, String storedHash, String salt) {
+        if (pin == null || storedHash == null || salt == null || pin.length() > MAX_PIN_LENGTH) {
+            return new PinVerification(false, null);
+        }
+        return execute(() -> {
+            boolean valid;
+            boolean outdated;
+            if (storedHash.startsWith(SCRYPT_PREFIX)) {
+                ScryptHash stored = ScryptHash.parse(storedHash);
+                if (stored == null) {
+                    log.warn("Unreadable scrypt PIN hash");
+                    return new PinVerification(false, null);
+                }
+                byte[] computed = SCrypt.derive(pin.getBytes(StandardCharsets.UTF_8), salt.getBytes(StandardCharsets.UTF_8),
+                    1 << stored.costLog2(), stored.blockSize(), stored.parallelism(), stored.hash().length);
+                valid = MessageDigest.isEqual(computed, stored.hash());
+                outdated = stored.costLog2() < config.getPinHashCostLog2()
+                    || stored.blockSize() < config.getPinHashBlockSize()
+                    || stored.parallelism() < config.getPinHashParallelism();
+            } else {
+                valid = signatureUtil.verifyPin(pin, storedHash, salt);
+                outdated = true;
+            }
+            if (!valid || !outdated) {
+                return new PinVerification(valid, null);
+            }
+            upgrades.increment();
+            return new PinVerification(true, encode(pin, salt, config.getPinHashCostLog2(),
+                config.getPinHashBlockSize(), config.getPinHashParallelism()));
+        });
+    }
+
+    /**
+     * Run a hash on the pool and wait for it, bounded by the configured timeout
+     */
+    private <T> T execute(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            log.warn("PIN hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new PinHashingBusyException();
+        }
+        try {
+            return future.get(config.getPinHashTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutRejections.increment();
+            log.warn("PIN hashing did not finish within {} ms", config.getPinHashTimeoutMs());
+            throw new PinHashingBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PinHashingBusyException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("PIN hashing failed", e.getCause());
+        }
+    }
+
+    private static String encode(String pin, String salt, int costLog2, int blockSize, int parallelism) {
+        byte[] hash = SCrypt.derive(pin.getBytes(StandardCharsets.UTF_8), salt.getBytes(StandardCharsets.UTF_8),
+            1 << costLog2, blockSize, parallelism, HASH_LENGTH);
+        return SCRYPT_PREFIX + "ln=" + costLog2 + ",r=" + blockSize + ",p=" + parallelism + "$"
+            + Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static boolean withinLimits(int costLog2, int blockSize, int parallelism) {
+        return costLog2 >= 1 && costLog2 <= MAX_COST_LOG2
+            && blockSize >= 1 && blockSize <= MAX_BLOCK_SIZE
+            && parallelism >= 1 && parallelism <= MAX_PARALLELISM
+            && 128L * blockSize * (1L << costLog2) <= MAX_MEMORY_BYTES;
+    }
+
+    private record ScryptHash(int costLog2, int blockSize, int parallelism, byte[] hash) {
+
+        static ScryptHash parse(String encoded) {
+            String[] parts = encoded.split("\\$");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                int costLog2 = -1;
+                int blockSize = -1;
+                int parallelism = -1;
+                for (String parameter : parts[2].split(",")) {
+                    String[] pair = parameter.split("=", 2);
+                    int value = Integer.parseInt(pair[1]);
+                    switch (pair[0]) {
+                        case "ln" -> costLog2 = value;
+                        case "r" -> blockSize = value;
+                        case "p" -> parallelism = value;
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+                // Stored parameters are bounded so a tampered row cannot make verification allocate more than 1 GiB
+                if (!withinLimits(costLog2, blockSize, parallelism)) {
+                    return null;
+                }
+                return new ScryptHash(costLog2, blockSize, parallelism, Base64.getDecoder().decode(parts[3]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.QRCodeService;
+import com.boit_droid.wallet.util.QRCodeFormat;
+import com.boit_droid.wallet.util.QRCodeUtil;
+import com.boit_droid.wallet.util.SignatureUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of rendered wallet QR codes.
+ * The key is the SHA-256 of the format and renderer version, size and encoded content, so a
+ * wallet whose account name changes gets a new key, and therefore a new ETag, without any
+ * invalidation. Entries are evicted least recently used once either the entry or the byte limit
+ * is reached. Two requests missing on the same key may both render; the result is identical and
+ * the second simply replaces the first.
+ */
+@Slf4j
+@Service
+public class QRCodeServiceImpl implements QRCodeService {
+
+    // Bump when the rendering changes, so clients holding the old ETag fetch the new image
+    private static final int RENDER_VERSION = 2;
+
+    private final QRCodeUtil qrCodeUtil;
+    private final SignatureUtil signatureUtil;
+    private final WalletConfigurationProperties.QrCode config;
+
+    private final LinkedHashMap<String, QRCodeImage> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public QRCodeServiceImpl(QRCodeUtil qrCodeUtil, SignatureUtil signatureUtil,
+                             WalletConfigurationProperties walletProperties, MeterRegistry meterRegistry) {
+        this.qrCodeUtil = qrCodeUtil;
+        this.signatureUtil = signatureUtil;
+        this.config = walletProperties.getQrCode();
+
+        this.hits = Counter.builder("wallet.qrcode.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("wallet.qrcode.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("wallet.qrcode.cache.entries", this, service -> service.cacheSize())
+            .description("Rendered QR code images held in memory").register(meterRegistry);
+        Gauge.builder("wallet.qrcode.cache.bytes", this, service -> service.cacheBytes())
+            .description("Bytes of rendered QR code images held in memory").register(meterRegistry);
+    }
+
+    @Override
+    public QRCodeImage walletQRCode(String walletId, String accountNumber, String accountName, int size,
+                                    QRCodeFormat format) {
+        qrCodeUtil.validateSize(size);
+        String data = qrCodeUtil.walletQRCodeData(walletId, accountNumber, accountName);
+        String key = HexFormat.of().formatHex(signatureUtil.sha256(
+            (format.name() + "-v" + RENDER_VERSION + "|" + size + "|" + data).getBytes(StandardCharsets.UTF_8)));
+
+        QRCodeImage cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        QRCodeImage image = new QRCodeImage(qrCodeUtil.render(data, size, format), format, "\"" + key + "\"");
+        put(key, image);
+        log.debug("Rendered {} QR code for wallet: {} at {} px ({} bytes)", format, walletId, size, image.getContent().length);
+        return image;
+    }
+
+    private synchronized QRCodeImage get(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void put(String key, QRCodeImage image) {
+        if (config.getCacheMaxEntries() == 0 || image.getContent().length > config.getCacheMaxBytes()) {
+            return;
+        }
+        QRCodeImage previous = cache.put(key, image);
+        cachedBytes += image.getContent().length - (previous != null ? previous.getContent().length : 0);
+        Iterator<Map.Entry<String, QRCodeImage>> eldest = cache.entrySet().iterator();
+        while (cache.size() > config.getCacheMaxEntries() || cachedBytes > config.getCacheMaxBytes()) {
+            cachedBytes -= eldest.next().getValue().getContent().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized int cacheSize() {
+        return cache.size();
+    }
+
+    private synchronized long cacheBytes() {
+        return cachedBytes;
+    }
+}
@@ -1,37 +1,69 @@
 package com.boit_droid.wallet.service.impl;
 
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
 import com.boit_droid.wallet.repository.AuditTrailRepository;
 import com.boit_droid.wallet.service.SecurityMonitoringService;
 import com.boit_droid.wallet.service.OtpAuditService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Real-time OTP pattern detection over three bounded indexes, each updated once per recorded event:
+ * per user/IP pair a ring of per-slot failure counts and the latest request times, per user the
+ * IPs that recently failed verification, and per IP the users it recently touched. Every check
+ * reads a single index entry, so its cost does not depend on how many users or IPs are tracked.
+ * Entries idle for longer than the monitoring window are swept; when an index is full, events
+ * for new keys are not tracked until the sweep frees room.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class SecurityMonitoringServiceImpl implements SecurityMonitoringService {
 
     private final AuditTrailRepository auditTrailRepository;
     private final OtpAuditService otpAuditService;
 
-    // In-memory cache for real-time pattern detection
-    private final Map<String, List<SecurityEvent>> securityEventCache = new ConcurrentHashMap<>();
-    
+    private final long slotMillis;
+    private final int slotCount;
+    private final int distinctCapacity;
+    private final int maxEntries;
+
+    // Indexes for real-time pattern detection
+    private final Map<String, PairActivity> pairIndex = new ConcurrentHashMap<>();
+    private final Map<String, DistinctWindow> failingIpsByUser = new ConcurrentHashMap<>();
+    private final Map<String, DistinctWindow> activeUsersByIp = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final LongAdder untrackedEvents = new LongAdder();
+
     // Thresholds for pattern detection
     private static final int BRUTE_FORCE_THRESHOLD = 5; // 5 failed attempts
     private static final int DISTRIBUTED_ATTACK_THRESHOLD = 3; // 3 different IPs
     private static final int ENUMERATION_THRESHOLD = 10; // 10 different users from same IP
     private static final long DEFAULT_TIME_WINDOW = 300; // 5 minutes
+    private static final int RAPID_REQUEST_COUNT = 3;
+    private static final long RAPID_REQUEST_SPAN_MILLIS = 30_000; // 3 requests within 30 seconds
+    private static final long MIN_INLINE_SWEEP_INTERVAL_MILLIS = 1_000;
+
+    public SecurityMonitoringServiceImpl(AuditTrailRepository auditTrailRepository, OtpAuditService otpAuditService,
+                                         WalletConfigurationProperties walletProperties) {
+        this.auditTrailRepository = auditTrailRepository;
+        this.otpAuditService = otpAuditService;
+        WalletConfigurationProperties.Security security = walletProperties.getSecurity();
+        this.slotMillis = security.getMonitoringSlotSeconds() * 1000;
+        this.slotCount = (int) Math.max(1, security.getMonitoringWindowSeconds() / security.getMonitoringSlotSeconds());
+        this.distinctCapacity = security.getMonitoringDistinctCapacity();
+        this.maxEntries = security.getMonitoringMaxEntries();
+    }
 
     @Override
     public SecurityAssessment analyzeOtpPatterns(String userId, String clientIp, long timeWindow) {
-        cleanExpiredEvents();
-        
         List<String> detectedPatterns = new ArrayList<>();
         String riskLevel = "LOW";
         String reason = "Normal activity pattern";
@@ -83,65 +115,30 @@ public class SecurityMonitoringServiceImpl implements SecurityMonitoringService
 
     @Override
     public boolean detectBruteForcePattern(String userId, String clientIp, long timeWindow) {
-        String key = userId + ":" + clientIp;
-        List<SecurityEvent> events = securityEventCache.get(key);
-        
-        if (events == null) {
+        PairActivity activity = pairIndex.get(userId + ":" + clientIp);
+        if (activity == null) {
             return false;
         }
-
-        Instant cutoff = Instant.now().minusSeconds(timeWindow);
-        long failedAttempts = events.stream()
-            .filter(event -> event.getTimestamp().isAfter(cutoff))
-            .filter(event -> !event.isSuccessful())
-            .filter(event -> "OTP_VERIFICATION".equals(event.getEventType()))
-            .count();
-
-        return failedAttempts >= BRUTE_FORCE_THRESHOLD;
+        long now = System.currentTimeMillis();
+        return activity.countFailuresSince(cutoff(now, timeWindow), now) >= BRUTE_FORCE_THRESHOLD;
     }
 
     @Override
     public boolean detectDistributedAttackPattern(String userId, long timeWindow) {
-        Instant cutoff = Instant.now().minusSeconds(timeWindow);
-        
-        Set<String> uniqueIps = new HashSet<>();
-        for (Map.Entry<String, List<SecurityEvent>> entry : securityEventCache.entrySet()) {
-            if (entry.getKey().startsWith(userId + ":")) {
-                String ip = entry.getKey().substring(entry.getKey().indexOf(':') + 1);
-                
-                boolean hasRecentFailures = entry.getValue().stream()
-                    .anyMatch(event -> event.getTimestamp().isAfter(cutoff) && 
-                             !event.isSuccessful() && 
-                             "OTP_VERIFICATION".equals(event.getEventType()));
-                
-                if (hasRecentFailures) {
-                    uniqueIps.add(ip);
-                }
-            }
+        DistinctWindow failingIps = failingIpsByUser.get(userId);
+        if (failingIps == null) {
+            return false;
         }
-
-        return uniqueIps.size() >= DISTRIBUTED_ATTACK_THRESHOLD;
+        return failingIps.countSince(cutoff(System.currentTimeMillis(), timeWindow)) >= DISTRIBUTED_ATTACK_THRESHOLD;
     }
 
     @Override
     public boolean detectAccountEnumerationPattern(String clientIp, long timeWindow) {
-        Instant cutoff = Instant.now().minusSeconds(timeWindow);
-        
-        Set<String> uniqueUsers = new HashSet<>();
-        for (Map.Entry<String, List<SecurityEvent>> entry : securityEventCache.entrySet()) {
-            if (entry.getKey().endsWith(":" + clientIp)) {
-                String userId = entry.getKey().substring(0, entry.getKey().indexOf(':'));
-                
-                boolean hasRecentActivity = entry.getValue().stream()
-                    .anyMatch(event -> event.getTimestamp().isAfter(cutoff));
-                
-                if (hasRecentActivity) {
-                    uniqueUsers.add(userId);
-                }
-            }
+        DistinctWindow activeUsers = activeUsersByIp.get(clientIp);
+        if (activeUsers == null) {
+            return false;
         }
-
-        return uniqueUsers.size() >= ENUMERATION_THRESHOLD;
+        return activeUsers.countSince(cutoff(System.currentTimeMillis(), timeWindow)) >= ENUMERATION_THRESHOLD;
     }
 
     @Override
@@ -191,10 +188,23 @@ public class SecurityMonitoringServiceImpl implements SecurityMonitoringService
 
     @Override
     public void recordSecurityEvent(String userId, String clientIp, String eventType, boolean successful, Instant timestamp) {
-        String key = userId + ":" + clientIp;
-        SecurityEvent event = new SecurityEvent(eventType, successful, timestamp);
-        
-        securityEventCache.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+        long eventMillis = timestamp.toEpochMilli();
+        boolean otpVerificationFailure = !successful && "OTP_VERIFICATION".equals(eventType);
+
+        PairActivity activity = indexEntry(pairIndex, userId + ":" + clientIp, key -> new PairActivity(slotCount));
+        if (activity != null) {
+            activity.record(eventMillis / slotMillis, eventMillis, otpVerificationFailure);
+        }
+        if (otpVerificationFailure) {
+            DistinctWindow failingIps = indexEntry(failingIpsByUser, userId, key -> new DistinctWindow(distinctCapacity));
+            if (failingIps != null) {
+                failingIps.record(clientIp, eventMillis);
+            }
+        }
+        DistinctWindow activeUsers = indexEntry(activeUsersByIp, clientIp, key -> new DistinctWindow(distinctCapacity));
+        if (activeUsers != null) {
+            activeUsers.record(userId, eventMillis);
+        }
         
         // Log to audit service if it's a security-relevant event
         if (!successful && ("OTP_VERIFICATION".equals(eventType) || "OTP_GENERATION".equals(eventType))) {
@@ -204,59 +214,164 @@ public class SecurityMonitoringServiceImpl implements SecurityMonitoringService
         }
     }
 
+    /**
+     * Drop index entries without activity inside the monitoring window
+     */
+    @Scheduled(fixedDelayString = "${wallet.security.monitoring-sweep-interval-ms:60000}")
+    public void evictIdleEntries() {
+        long now = System.currentTimeMillis();
+        lastSweep.set(now);
+        long idleBefore = now - slotMillis * slotCount;
+        pairIndex.values().removeIf(activity -> activity.lastSeen < idleBefore);
+        failingIpsByUser.values().removeIf(window -> window.lastSeen < idleBefore);
+        activeUsersByIp.values().removeIf(window -> window.lastSeen < idleBefore);
+    }
+
+    /**
+     * Number of events that could not be indexed because an index was full
+     */
+    public long getUntrackedEventCount() {
+        return untrackedEvents.sum();
+    }
+
     private boolean detectRapidRequestPattern(String userId, String clientIp, long timeWindow) {
-        String key = userId + ":" + clientIp;
-        List<SecurityEvent> events = securityEventCache.get(key);
-        
-        if (events == null || events.size() < 3) {
-            return false;
+        PairActivity activity = pairIndex.get(userId + ":" + clientIp);
+        return activity != null && activity.hasRapidBurstSince(cutoff(System.currentTimeMillis(), timeWindow));
+    }
+
+    private <T> T indexEntry(Map<String, T> index, String key, Function<String, T> factory) {
+        T entry = index.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (index.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            long previous = lastSweep.get();
+            if (now - previous >= MIN_INLINE_SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(previous, now)) {
+                evictIdleEntries();
+            }
+            if (index.size() >= maxEntries) {
+                untrackedEvents.increment();
+                return null;
+            }
         }
+        return index.computeIfAbsent(key, factory);
+    }
 
-        Instant cutoff = Instant.now().minusSeconds(timeWindow);
-        List<SecurityEvent> recentEvents = events.stream()
-            .filter(event -> event.getTimestamp().isAfter(cutoff))
-            .sorted(Comparator.comparing(SecurityEvent::getTimestamp))
-            .toList();
+    private static long cutoff(long nowMillis, long timeWindowSeconds) {
+        return nowMillis - timeWindowSeconds * 1000;
+    }
 
-        if (recentEvents.size() < 3) {
-            return false;
+    /**
+     * Activity of one user/IP pair: OTP verification failures per time slot in a ring, plus the
+     * start of the latest run of rapid requests
+     */
+    private final class PairActivity {
+        private final int[] failures;
+        private final long[] recentRequests = new long[RAPID_REQUEST_COUNT];
+        private long headSlot = Long.MIN_VALUE;
+        private long rapidBurstStart = Long.MIN_VALUE;
+        private volatile long lastSeen;
+
+        PairActivity(int slots) {
+            this.failures = new int[slots];
         }
 
-        // Check if there are more than 3 requests within 30 seconds
-        for (int i = 0; i <= recentEvents.size() - 3; i++) {
-            Instant firstRequest = recentEvents.get(i).getTimestamp();
-            Instant thirdRequest = recentEvents.get(i + 2).getTimestamp();
-            
-            if (thirdRequest.minusSeconds(30).isBefore(firstRequest)) {
-                return true;
+        synchronized void record(long slot, long eventMillis, boolean failure) {
+            lastSeen = Math.max(lastSeen, eventMillis);
+            if (failure) {
+                if (headSlot == Long.MIN_VALUE) {
+                    headSlot = slot;
+                } else if (slot > headSlot) {
+                    // Clear the slots the ring skipped over since the last failure
+                    long cleared = Math.min(slot - headSlot, failures.length);
+                    for (long s = slot - cleared + 1; s <= slot; s++) {
+                        failures[(int) Math.floorMod(s, (long) failures.length)] = 0;
+                    }
+                    headSlot = slot;
+                }
+                if (headSlot - slot < failures.length) {
+                    failures[(int) Math.floorMod(slot, (long) failures.length)]++;
+                }
+            }
+
+            // Keep the latest request times in ascending order
+            if (eventMillis > recentRequests[0]) {
+                int i = 0;
+                while (i < recentRequests.length - 1 && recentRequests[i + 1] < eventMillis) {
+                    recentRequests[i] = recentRequests[i + 1];
+                    i++;
+                }
+                recentRequests[i] = eventMillis;
+                long first = recentRequests[0];
+                if (first > 0 && recentRequests[recentRequests.length - 1] - first < RAPID_REQUEST_SPAN_MILLIS) {
+                    rapidBurstStart = Math.max(rapidBurstStart, first);
+                }
             }
         }
 
-        return false;
-    }
+        synchronized int countFailuresSince(long cutoffMillis, long nowMillis) {
+            if (headSlot == Long.MIN_VALUE) {
+                return 0;
+            }
+            long from = Math.max(cutoffMillis / slotMillis, headSlot - failures.length + 1);
+            long to = Math.min(nowMillis / slotMillis, headSlot);
+            int total = 0;
+            for (long s = from; s <= to; s++) {
+                total += failures[(int) Math.floorMod(s, (long) failures.length)];
+            }
+            return total;
+        }
 
-    private void cleanExpiredEvents() {
-        Instant cutoff = Instant.now().minusSeconds(3600); // Keep events for 1 hour
-        
-        securityEventCache.entrySet().removeIf(entry -> {
-            entry.getValue().removeIf(event -> event.getTimestamp().isBefore(cutoff));
-            return entry.getValue().isEmpty();
-        });
+        synchronized boolean hasRapidBurstSince(long cutoffMillis) {
+            return rapidBurstStart > cutoffMillis;
+        }
     }
 
-    private static class SecurityEvent {
-        private final String eventType;
-        private final boolean successful;
-        private final Instant timestamp;
+    /**
+     * Bounded set of recently seen values with their last-seen time. Once full, the value seen
+     * longest ago makes room, so distinct counts saturate at the capacity instead of growing.
+     */
+    private static final class DistinctWindow {
+        private final String[] values;
+        private final long[] seenAt;
+        private int size;
+        private volatile long lastSeen;
+
+        DistinctWindow(int capacity) {
+            this.values = new String[capacity];
+            this.seenAt = new long[capacity];
+        }
 
-        public SecurityEvent(String eventType, boolean successful, Instant timestamp) {
-            this.eventType = eventType;
-            this.successful = successful;
-            this.timestamp = timestamp;
+        synchronized void record(String value, long eventMillis) {
+            lastSeen = Math.max(lastSeen, eventMillis);
+            int oldest = 0;
+            for (int i = 0; i < size; i++) {
+                if (values[i].equals(value)) {
+                    seenAt[i] = Math.max(seenAt[i], eventMillis);
+                    return;
+                }
+                if (seenAt[i] < seenAt[oldest]) {
+                    oldest = i;
+                }
+            }
+            if (size < values.length) {
+                values[size] = value;
+                seenAt[size++] = eventMillis;
+            } else if (eventMillis > seenAt[oldest]) {
+                values[oldest] = value;
+                seenAt[oldest] = eventMillis;
+            }
         }
 
-        public String getEventType() { return eventType; }
-        public boolean isSuccessful() { return successful; }
-        public Instant getTimestamp() { return timestamp; }
+        synchronized int countSince(long cutoffMillis) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (seenAt[i] > cutoffMillis) {
+                    count++;
+                }
+            }
+            return count;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.OtpStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory OTP store that expires codes with a hashed timer wheel.
+ * Each code is linked into the wheel slot of its deadline tick, so insert and removal touch one
+ * slot and one map entry, and the ticker only visits the slots that come due instead of scanning
+ * every outstanding code. Codes with a deadline more than one rotation away stay in their slot
+ * until their tick is reached. Lookups also check the deadline, so a code is never accepted after
+ * it expired even if the ticker runs late.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "wallet.security", name = "otp-state-backend", havingValue = "memory", matchIfMissing = true)
+public class TimerWheelOtpStore implements OtpStore {
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Set<Entry>[] wheel;
+	private final int mask;
+	private final long tickMillis;
+	private final long startMillis;
+	private final LongAdder expiredCount = new LongAdder();
+
+	private long lastProcessedTick;
+	private ScheduledExecutorService ticker;
+
+	@Autowired
+	public TimerWheelOtpStore(WalletConfigurationProperties walletProperties) {
+		this(walletProperties.getSecurity().getOtpWheelTickMs(), walletProperties.getSecurity().getOtpWheelSize());
+	}
+
+	@SuppressWarnings("unchecked")
+	TimerWheelOtpStore(long tickMillis, int wheelSize) {
+		int size = Integer.highestOneBit(Math.max(16, wheelSize) - 1) << 1;
+		this.wheel = new Set[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = ConcurrentHashMap.newKeySet();
+		}
+		this.mask = size - 1;
+		this.tickMillis = tickMillis;
+		this.startMillis = System.currentTimeMillis();
+	}
+
+	@PostConstruct
+	void start() {
+		ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "otp-store-wheel");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleAtFixedRate(this::safeAdvance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+		if (ticker != null) {
+			ticker.shutdownNow();
+		}
+	}
+
+	@Override
+	public void put(String key, String code, long ttlMillis) {
+		long expiresAt = System.currentTimeMillis() + ttlMillis;
+		// Round up so a code never expires before its full time to live
+		long deadlineTick = (expiresAt - startMillis + tickMillis - 1) / tickMillis;
+		Entry entry = new Entry(key, code, expiresAt, deadlineTick);
+
+		slotOf(deadlineTick).add(entry);
+		Entry previous = entries.put(key, entry);
+		if (previous != null) {
+			slotOf(previous.deadlineTick).remove(previous);
+		}
+	}
+
+	@Override
+	public VerifyResult verify(String key, String code, int maxAttempts) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return new VerifyResult(VerifyOutcome.NOT_FOUND, 0);
+		}
+		if (entry.expiresAt <= System.currentTimeMillis()) {
+			expire(entry);
+			return new VerifyResult(VerifyOutcome.EXPIRED, entry.attempts);
+		}
+
+		int attempts = Entry.ATTEMPTS.incrementAndGet(entry);
+		if (attempts > maxAttempts) {
+			unlink(entry);
+			return new VerifyResult(VerifyOutcome.MAX_ATTEMPTS_EXCEEDED, attempts);
+		}
+		if (!matches(entry.code, code)) {
+			return new VerifyResult(VerifyOutcome.INVALID, attempts);
+		}
+		// Only the caller that actually removes the entry wins, so a code verifies once
+		return unlink(entry)
+			? new VerifyResult(VerifyOutcome.VERIFIED, attempts)
+			: new VerifyResult(VerifyOutcome.NOT_FOUND, attempts);
+	}
+
+	@Override
+	public boolean remove(String key) {
+		Entry entry = entries.get(key);
+		return entry != null && unlink(entry);
+	}
+
+	@Override
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public long getExpiredCount() {
+		return expiredCount.sum();
+	}
+
+	/**
+	 * Expire every code whose deadline tick has passed, visiting only the slots due since the last run
+	 */
+	synchronized void advance(long nowMillis) {
+		long currentTick = (nowMillis - startMillis) / tickMillis;
+		if (currentTick <= lastProcessedTick) {
+			return;
+		}
+		// After a long pause every slot is due once; visiting more would repeat work
+		long from = Math.max(lastProcessedTick + 1, currentTick - mask);
+		for (long tick = from; tick <= currentTick; tick++) {
+			for (Entry entry : slotOf(tick)) {
+				if (entry.deadlineTick <= currentTick) {
+					expire(entry);
+				}
+			}
+		}
+		lastProcessedTick = currentTick;
+	}
+
+	private void safeAdvance() {
+		try {
+			advance(System.currentTimeMillis());
+		} catch (Exception e) {
+			log.error("OTP store expiry tick failed: {}", e.getMessage(), e);
+		}
+	}
+
+	private void expire(Entry entry) {
+		if (unlink(entry)) {
+			expiredCount.increment();
+		}
+	}
+
+	private boolean unlink(Entry entry) {
+		slotOf(entry.deadlineTick).remove(entry);
+		return entries.remove(entry.key, entry);
+	}
+
+	private Set<Entry> slotOf(long tick) {
+		return wheel[(int) (tick & mask)];
+	}
+
+	private static boolean matches(String expected, String actual) {
+		if (actual == null) {
+			return false;
+		}
+		return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class Entry {
+		static final AtomicIntegerFieldUpdater<Entry> ATTEMPTS =
+			AtomicIntegerFieldUpdater.newUpdater(Entry.class, "attempts");
+
+		final String key;
+		final String code;
+		final long expiresAt;
+		final long deadlineTick;
+		volatile int attempts;
+
+		Entry(String key, String code, long expiresAt, long deadlineTick) {
+			this.key = key;
+			this.code = code;
+			this.expiresAt = expiresAt;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
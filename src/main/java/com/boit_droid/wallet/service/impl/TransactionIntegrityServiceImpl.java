@@ -0,0 +1,346 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.TransactionMerkleRoot;
+import com.boit_droid.wallet.repository.TransactionMerkleNodeStore;
+import com.boit_droid.wallet.repository.TransactionMerkleRootRepository;
+import com.boit_droid.wallet.repository.TransactionRepository;
+import com.boit_droid.wallet.service.TransactionIntegrityService;
+import com.boit_droid.wallet.util.MerkleTree;
+import com.boit_droid.wallet.util.TransactionHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seals closed days into per-currency Merkle trees and verifies them.
+ * A day's transactions are read in keyset pages in (createdAt, id) order, each page in its own
+ * short read-only transaction, and their leaf hashes are recomputed from the row content on a
+ * dedicated fork-join pool. Sealing stores the root and every node; verification rebuilds the
+ * root with fork-join over subtrees and, on a mismatch, compares leaves to name the altered,
+ * added or missing transactions.
+ */
+@Slf4j
+@Service
+public class TransactionIntegrityServiceImpl implements TransactionIntegrityService {
+
+    private static final int MAX_REPORTED = 100;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMerkleRootRepository rootRepository;
+    private final TransactionMerkleNodeStore nodeStore;
+    private final WalletConfigurationProperties.Transaction config;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ForkJoinPool hashingPool;
+
+    private final AtomicBoolean sealing = new AtomicBoolean();
+
+    private final Counter sealedDays;
+    private final Counter failedVerifications;
+    private final Timer verifyTimer;
+
+    public TransactionIntegrityServiceImpl(TransactionRepository transactionRepository,
+                                           TransactionMerkleRootRepository rootRepository,
+                                           TransactionMerkleNodeStore nodeStore,
+                                           WalletConfigurationProperties walletProperties,
+                                           PlatformTransactionManager transactionManager,
+                                           MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.rootRepository = rootRepository;
+        this.nodeStore = nodeStore;
+        this.config = walletProperties.getTransaction();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+
+        int parallelism = config.getIntegrityParallelism() > 0
+            ? config.getIntegrityParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.hashingPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("merkle-hash-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        this.sealedDays = Counter.builder("wallet.transaction.integrity.sealed")
+            .description("Daily per-currency Merkle roots written").register(meterRegistry);
+        this.failedVerifications = Counter.builder("wallet.transaction.integrity.failed")
+            .description("Day verifications whose recomputed root did not match the sealed one").register(meterRegistry);
+        this.verifyTimer = Timer.builder("wallet.transaction.integrity.verify")
+            .description("Time to re-hash and verify one sealed day").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        hashingPool.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.transaction.integrity-seal-interval-ms:3600000}",
+               initialDelayString = "${wallet.transaction.integrity-seal-interval-ms:3600000}")
+    public void scheduledSeal() {
+        if (!config.isIntegritySealEnabled()) {
+            return;
+        }
+        try {
+            sealClosedDays();
+        } catch (Exception e) {
+            log.error("Transaction integrity sealing failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int sealClosedDays() {
+        if (!sealing.compareAndSet(false, true)) {
+            log.info("Transaction integrity sealing already running, skipping");
+            return 0;
+        }
+        try {
+            LocalDate lastClosed = LocalDate.ofInstant(
+                Instant.now().minus(Duration.ofMinutes(config.getIntegritySealGraceMinutes())), ZoneOffset.UTC).minusDays(1);
+            // Resume at the latest sealed day itself: a run may have stopped between two of its currencies
+            LocalDate day = rootRepository.findTopByOrderByBusinessDateDesc()
+                .map(TransactionMerkleRoot::getBusinessDate)
+                .orElseGet(() -> {
+                    Instant earliest = transactionRepository.findEarliestCreatedAt();
+                    return earliest == null ? null : LocalDate.ofInstant(earliest, ZoneOffset.UTC);
+                });
+            int sealed = 0;
+            for (; day != null && !day.isAfter(lastClosed); day = day.plusDays(1)) {
+                for (String currency : transactionRepository.findCurrenciesBetween(startOf(day), startOf(day.plusDays(1)))) {
+                    if (!rootRepository.existsByBusinessDateAndCurrency(day, currency) && sealDay(day, currency)) {
+                        sealed++;
+                    }
+                }
+            }
+            return sealed;
+        } finally {
+            sealing.set(false);
+        }
+    }
+
+    @Override
+    public Map<String, Object> verifyDay(LocalDate businessDate, String currency) {
+        long startNanos = System.nanoTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("businessDate", businessDate.toString());
+        result.put("currency", currency);
+
+        Optional<TransactionMerkleRoot> sealedRoot = rootRepository.findByBusinessDateAndCurrency(businessDate, currency);
+        if (sealedRoot.isEmpty()) {
+            result.put("sealed", false);
+            result.put("valid", false);
+            return result;
+        }
+        TransactionMerkleRoot root = sealedRoot.get();
+        DayLeaves day = loadLeaves(businessDate, currency);
+        String computedRoot = day.count() == 0 ? null : TransactionHasher.toHex(MerkleTree.root(hashingPool, day.leaves()));
+        boolean valid = day.count() == root.getLeafCount() && root.getRootHash().equals(computedRoot);
+
+        result.put("sealed", true);
+        result.put("valid", valid);
+        result.put("leafCount", root.getLeafCount());
+        result.put("recomputedLeafCount", day.count());
+        result.put("rootHash", root.getRootHash());
+        result.put("recomputedRootHash", computedRoot);
+        result.put("staleStoredHashes", day.staleHashIds().size());
+        if (!valid) {
+            failedVerifications.increment();
+            locateDifferences(root, day, result);
+            log.warn("Integrity verification failed for {} {}: sealed root {} over {} transactions, recomputed {} over {}",
+                businessDate, currency, root.getRootHash(), root.getLeafCount(), computedRoot, day.count());
+        }
+
+        root.setLastVerifiedAt(Instant.now());
+        root.setLastVerificationValid(valid);
+        transactionTemplate.executeWithoutResult(status -> rootRepository.save(root));
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        verifyTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> proveTransaction(Transaction transaction) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        byte[] leaf = TransactionHasher.hash(transaction);
+        boolean storedHashValid = transaction.getTransactionHash() == null
+            || transaction.getTransactionHash().equals(TransactionHasher.toHex(leaf));
+        result.put("storedHashValid", storedHashValid);
+
+        Optional<TransactionMerkleNodeStore.Leaf> sealedLeaf = nodeStore.findLeaf(transaction.getId());
+        Optional<TransactionMerkleRoot> root = sealedLeaf.flatMap(found -> rootRepository.findById(found.rootId()));
+        if (root.isEmpty()) {
+            result.put("sealed", false);
+            result.put("valid", storedHashValid);
+            return result;
+        }
+        int index = sealedLeaf.get().index();
+        int leafCount = root.get().getLeafCount();
+        List<int[]> positions = MerkleTree.proofPositions(index, leafCount);
+        List<byte[]> siblings = nodeStore.findNodes(root.get().getId(), positions);
+        byte[] computedRoot = siblings.size() == positions.size()
+            ? MerkleTree.rootFromProof(leaf, index, leafCount, siblings)
+            : null;
+        boolean valid = computedRoot != null && root.get().getRootHash().equals(TransactionHasher.toHex(computedRoot));
+
+        List<String> proof = new ArrayList<>(siblings.size());
+        for (byte[] sibling : siblings) {
+            proof.add(TransactionHasher.toHex(sibling));
+        }
+        result.put("sealed", true);
+        result.put("valid", storedHashValid && valid);
+        result.put("businessDate", root.get().getBusinessDate().toString());
+        result.put("leafIndex", index);
+        result.put("leafCount", leafCount);
+        result.put("leafHash", TransactionHasher.toHex(leaf));
+        result.put("proof", proof);
+        result.put("rootHash", root.get().getRootHash());
+        return result;
+    }
+
+    private boolean sealDay(LocalDate businessDate, String currency) {
+        DayLeaves day = loadLeaves(businessDate, currency);
+        if (day.count() == 0) {
+            return false;
+        }
+        if (!day.staleHashIds().isEmpty()) {
+            // The row content changed without going through the entity listener
+            log.warn("Sealing {} {}: {} transactions no longer match their stored hash, first ids {}",
+                businessDate, currency, day.staleHashIds().size(),
+                day.staleHashIds().subList(0, Math.min(10, day.staleHashIds().size())));
+        }
+        List<byte[][]> levels = MerkleTree.levels(day.leaves());
+        byte[] rootHash = levels.get(levels.size() - 1)[0];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionMerkleRoot root = new TransactionMerkleRoot();
+                root.setBusinessDate(businessDate);
+                root.setCurrency(currency);
+                root.setLeafCount(day.count());
+                root.setRootHash(TransactionHasher.toHex(rootHash));
+                root.setFirstTransactionId(day.transactionIds()[0]);
+                root.setLastTransactionId(day.transactionIds()[day.count() - 1]);
+                root.setSealedAt(Instant.now());
+                rootRepository.saveAndFlush(root);
+                nodeStore.insertTree(root.getId(), levels, day.transactionIds());
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("{} {} was sealed concurrently, skipping", businessDate, currency);
+            return false;
+        }
+        sealedDays.increment();
+        log.info("Sealed {} {}: {} transactions, root {}", businessDate, currency, day.count(), TransactionHasher.toHex(rootHash));
+        return true;
+    }
+
+    /**
+     * Recompute the leaf hashes of one day and currency, in leaf order
+     */
+    private DayLeaves loadLeaves(LocalDate businessDate, String currency) {
+        Instant start = startOf(businessDate);
+        Instant end = startOf(businessDate.plusDays(1));
+        int pageSize = config.getIntegrityPageSize();
+        List<byte[]> leaves = new ArrayList<>();
+        List<Long> transactionIds = new ArrayList<>();
+        List<Long> staleHashIds = new ArrayList<>();
+        Instant afterCreatedAt = start.minusMillis(1);
+        long afterId = 0;
+        while (true) {
+            Instant pageAfterCreatedAt = afterCreatedAt;
+            long pageAfterId = afterId;
+            List<Transaction> page = readOnlyTemplate.execute(status -> transactionRepository.findIntegrityPage(
+                currency, start, end, pageAfterCreatedAt, pageAfterId, PageRequest.of(0, pageSize)));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            // Only scalar fields and wallet ids are read, so the detached rows can be hashed on the pool
+            byte[][] hashes = MerkleTree.computeAll(hashingPool, page.size(), i -> TransactionHasher.hash(page.get(i)));
+            for (int i = 0; i < hashes.length; i++) {
+                Transaction transaction = page.get(i);
+                String stored = transaction.getTransactionHash();
+                if (stored != null && !stored.equals(TransactionHasher.toHex(hashes[i]))) {
+                    staleHashIds.add(transaction.getId());
+                }
+                leaves.add(hashes[i]);
+                transactionIds.add(transaction.getId());
+            }
+            Transaction last = page.get(page.size() - 1);
+            afterCreatedAt = last.getCreatedAt();
+            afterId = last.getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        return new DayLeaves(leaves.toArray(new byte[0][]), transactionIds.stream().mapToLong(Long::longValue).toArray(),
+            staleHashIds);
+    }
+
+    /**
+     * Compare recomputed leaves with the sealed ones and name the transactions that differ
+     */
+    private void locateDifferences(TransactionMerkleRoot root, DayLeaves day, Map<String, Object> result) {
+        Map<Long, byte[]> sealedLeaves = new HashMap<>();
+        for (Object[] row : nodeStore.findLeaves(root.getId())) {
+            sealedLeaves.put((Long) row[1], (byte[]) row[2]);
+        }
+        List<Long> modified = new ArrayList<>();
+        List<Long> added = new ArrayList<>();
+        for (int i = 0; i < day.count(); i++) {
+            byte[] sealed = sealedLeaves.remove(day.transactionIds()[i]);
+            if (sealed == null) {
+                added.add(day.transactionIds()[i]);
+            } else if (!MessageDigest.isEqual(sealed, day.leaves()[i])) {
+                modified.add(day.transactionIds()[i]);
+            }
+        }
+        List<Long> missing = new ArrayList<>(sealedLeaves.keySet());
+        result.put("modifiedTransactions", requestIds(modified));
+        result.put("addedTransactions", requestIds(added));
+        result.put("missingTransactionIds", missing.subList(0, Math.min(MAX_REPORTED, missing.size())));
+    }
+
+    private List<String> requestIds(List<Long> ids) {
+        List<Long> reported = ids.subList(0, Math.min(MAX_REPORTED, ids.size()));
+        List<String> requestIds = new ArrayList<>(reported.size());
+        readOnlyTemplate.executeWithoutResult(status ->
+            transactionRepository.findAllById(reported).forEach(transaction -> requestIds.add(transaction.getRequestId())));
+        return requestIds;
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private record DayLeaves(byte[][] leaves, long[] transactionIds, List<Long> staleHashIds) {
+        int count() {
+            return leaves.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.boit_droid.wallet.service.impl;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase timers and outcomes of the money-moving operations.
+ * A {@link Trace} is started when a transfer or top-up begins and laps at the end of each phase,
+ * so wallet.transaction.phase shows where the time of one request went and
+ * wallet.transaction.request records the whole request by outcome: "success" or the error code
+ * it was rejected with. Both are tagged by operation, channel and currency; SLO buckets are
+ * configured under management.metrics.distribution.
+ * Inside a transaction the request is recorded once it completes, so a success that fails to
+ * commit is counted as {@link #COMMIT_FAILED} rather than as a success.
+ */
+@Component
+public class TransactionMetrics {
+
+    public static final String SUCCESS = "success";
+    public static final String COMMIT_FAILED = "COMMIT_FAILED";
+
+    private final Meter.MeterProvider<Timer> phases;
+    private final Meter.MeterProvider<Timer> requests;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.phases = Timer.builder("wallet.transaction.phase")
+            .description("Time spent in one phase of a transfer or top-up")
+            .withRegistry(meterRegistry);
+        this.requests = Timer.builder("wallet.transaction.request")
+            .description("Transfer and top-up requests by outcome")
+            .withRegistry(meterRegistry);
+    }
+
+    public Trace start(String operation, String channel, String currency) {
+        return new Trace(operation, channel, currency == null ? "unknown" : currency);
+    }
+
+    /**
+     * Timing of one request; not thread-safe, a trace belongs to the request thread
+     */
+    public final class Trace {
+
+        private final String operation;
+        private final String channel;
+        private final String currency;
+        private final long startNanos;
+        private long lapNanos;
+
+        private Trace(String operation, String channel, String currency) {
+            this.operation = operation;
+            this.channel = channel;
+            this.currency = currency;
+            this.startNanos = System.nanoTime();
+            this.lapNanos = startNanos;
+        }
+
+        /**
+         * Record the time since the previous phase ended as the given phase
+         */
+        public void phase(String phase) {
+            long now = System.nanoTime();
+            phases.withTags("operation", operation, "phase", phase, "channel", channel, "currency", currency)
+                .record(now - lapNanos, TimeUnit.NANOSECONDS);
+            lapNanos = now;
+        }
+
+        /**
+         * Record the whole request with its outcome, after commit or rollback when a transaction is active
+         * @return the response, so a return statement can pass through
+         */
+        public <T> T finish(String outcome, T response) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                record(outcome);
+                return response;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Rejections keep their code; only a success depends on the commit going through
+                    record(status != STATUS_COMMITTED && SUCCESS.equals(outcome) ? COMMIT_FAILED : outcome);
+                }
+            });
+            return response;
+        }
+
+        private void record(String outcome) {
+            requests.withTags("operation", operation, "outcome", outcome, "channel", channel, "currency", currency)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -11,16 +11,22 @@ import com.boit_droid.wallet.entity.enums.Status;
 import com.boit_droid.wallet.entity.enums.TransactionType;
 import com.boit_droid.wallet.repository.TransactionRepository;
 import com.boit_droid.wallet.repository.WalletRepository;
+import com.boit_droid.wallet.service.TransactionIntegrityService;
 import com.boit_droid.wallet.service.TransactionService;
+import com.boit_droid.wallet.service.TransactionSignatureService;
+import com.boit_droid.wallet.util.SignatureEnvelope;
+import com.boit_droid.wallet.util.TransactionHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.*;
@@ -37,6 +43,8 @@ public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
+    private final TransactionIntegrityService transactionIntegrityService;
+    private final TransactionSignatureService transactionSignatureService;
 
     @Override
     public CustomApiResponse generateAccountStatement(String walletId, StatementRequest request) {
@@ -130,7 +138,7 @@ public class TransactionServiceImpl implements TransactionService {
                     .findBySenderWalletOrReceiverWalletOrderByCreatedAtDesc(wallet, wallet, pageable);
             
             List<TransactionResponse> responses = transactionPage.getContent().stream()
-                    .map(this::mapToTransactionResponse)
+                    .map(TransactionServiceImpl::mapToTransactionResponse)
                     .collect(Collectors.toList());
             
             return PagedResponse.of(responses, transactionPage);
@@ -159,7 +167,7 @@ public class TransactionServiceImpl implements TransactionService {
                     .findByWalletAndDateRange(wallet, startDate, endDate, pageable);
             
             List<TransactionResponse> responses = transactionPage.getContent().stream()
-                    .map(this::mapToTransactionResponse)
+                    .map(TransactionServiceImpl::mapToTransactionResponse)
                     .collect(Collectors.toList());
             
             return PagedResponse.of(responses, transactionPage);
@@ -219,7 +227,7 @@ public class TransactionServiceImpl implements TransactionService {
                     startDate, endDate, channel, pageable);
             
             List<TransactionResponse> responses = transactionPage.getContent().stream()
-                    .map(this::mapToTransactionResponse)
+                    .map(TransactionServiceImpl::mapToTransactionResponse)
                     .collect(Collectors.toList());
             
             return PagedResponse.of(responses, transactionPage);
@@ -371,8 +379,13 @@ public class TransactionServiceImpl implements TransactionService {
             boolean isDuplicate = checkForDuplicates(transaction);
             verificationResult.put("isDuplicate", isDuplicate);
             
+            // Check membership in the sealed daily Merkle root, once the day has been sealed
+            Map<String, Object> merkleProof = transactionIntegrityService.proveTransaction(transaction);
+            verificationResult.put("merkleProof", merkleProof);
+            boolean merkleValid = Boolean.TRUE.equals(merkleProof.get("valid"));
+            
             // Overall integrity status
-            boolean integrityValid = balanceConsistent && signatureValid && hashValid && !isDuplicate;
+            boolean integrityValid = balanceConsistent && signatureValid && hashValid && merkleValid && !isDuplicate;
             verificationResult.put("integrityValid", integrityValid);
             
             // Add verification timestamp
@@ -388,6 +401,47 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CustomApiResponse verifyWalletSignatures(String walletId) {
+        log.info("Verifying transaction signatures for wallet: {}", walletId);
+        
+        try {
+            Optional<Wallet> walletOpt = resolveWalletByIdOrAccount(walletId);
+            if (walletOpt.isEmpty()) {
+                return CustomApiResponse.error("Wallet not found", "WALLET_NOT_FOUND", List.of("Wallet not found"));
+            }
+            
+            Map<String, Object> result = transactionSignatureService.verifyWalletHistory(walletOpt.get());
+            return CustomApiResponse.success("Transaction signature verification completed", result);
+            
+        } catch (Exception e) {
+            log.error("Error verifying transaction signatures for wallet: {}", walletId, e);
+            return CustomApiResponse.error("Failed to verify transaction signatures: " + e.getMessage(),
+                    "SIGNATURE_VERIFICATION_ERROR", List.of("Failed to verify transaction signatures"));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CustomApiResponse verifyDailyIntegrity(LocalDate businessDate, String currency) {
+        log.info("Verifying daily integrity for {} {}", businessDate, currency);
+        
+        try {
+            Map<String, Object> result = transactionIntegrityService.verifyDay(businessDate, currency.toUpperCase());
+            if (!Boolean.TRUE.equals(result.get("sealed"))) {
+                return CustomApiResponse.error("Day has not been sealed", "DAY_NOT_SEALED",
+                        List.of("No Merkle root for " + businessDate + " " + currency));
+            }
+            return CustomApiResponse.success("Daily integrity verification completed", result);
+            
+        } catch (Exception e) {
+            log.error("Error verifying daily integrity for {} {}", businessDate, currency, e);
+            return CustomApiResponse.error("Failed to verify daily integrity: " + e.getMessage(),
+                    "INTEGRITY_VERIFICATION_ERROR", List.of("Failed to verify daily integrity"));
+        }
+    }
+
     @Override
     public List<TransactionResponse> getPendingTransactions(String walletId) {
         log.info("Retrieving pending transactions for wallet: {}", walletId);
@@ -406,7 +460,7 @@ public class TransactionServiceImpl implements TransactionService {
                     .findByReceiverWalletAndStatusOrderByCreatedAtAsc(wallet, Status.PENDING));
             
             return pendingTransactions.stream()
-                    .map(this::mapToTransactionResponse)
+                    .map(TransactionServiceImpl::mapToTransactionResponse)
                     .collect(Collectors.toList());
             
         } catch (Exception e) {
@@ -433,7 +487,7 @@ public class TransactionServiceImpl implements TransactionService {
                     .findByReceiverWalletAndStatusOrderByCreatedAtAsc(wallet, Status.CANCELLED));
             
             return failedTransactions.stream()
-                    .map(this::mapToTransactionResponse)
+                    .map(TransactionServiceImpl::mapToTransactionResponse)
                     .collect(Collectors.toList());
             
         } catch (Exception e) {
@@ -484,7 +538,7 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
     
-    private TransactionResponse mapToTransactionResponse(Transaction transaction) {
+    static TransactionResponse mapToTransactionResponse(Transaction transaction) {
         TransactionResponse response = new TransactionResponse();
         response.setTransactionId(transaction.getRequestId());
         response.setSenderWalletId(transaction.getSenderWallet() != null ? 
@@ -642,11 +696,12 @@ public class TransactionServiceImpl implements TransactionService {
                 return true; // No signature to verify
             }
             
-            // TODO: Implement actual signature verification logic
-            // This would involve cryptographic verification using the wallet's public key
-            log.info("Transaction signature verification not yet implemented for: {}", 
-                    transaction.getRequestId());
-            return true;
+            if (!SignatureEnvelope.isEnvelope(transaction.getTransactionSignature())) {
+                // Signatures from before the envelope format did not store their timestamp; the
+                // signature is part of the canonical form, which verifyTransactionHash checks
+                return true;
+            }
+            return transactionSignatureService.verifyTransactionSignature(transaction, transaction.getTransactionSignature());
         } catch (Exception e) {
             log.warn("Error verifying transaction signature for: {}", transaction.getRequestId(), e);
             return false;
@@ -659,11 +714,11 @@ public class TransactionServiceImpl implements TransactionService {
                 return true; // No hash to verify
             }
             
-            // TODO: Implement actual hash verification logic
-            // This would involve recalculating the hash and comparing
-            log.info("Transaction hash verification not yet implemented for: {}", 
-                    transaction.getRequestId());
-            return true;
+            boolean valid = transaction.getTransactionHash().equals(TransactionHasher.hashHex(transaction));
+            if (!valid) {
+                log.warn("Stored hash does not match the content of transaction: {}", transaction.getRequestId());
+            }
+            return valid;
         } catch (Exception e) {
             log.warn("Error verifying transaction hash for: {}", transaction.getRequestId(), e);
             return false;
@@ -1,48 +1,82 @@
 package com.boit_droid.wallet.service.impl;
 
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
 import com.boit_droid.wallet.entity.Transaction;
 import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.repository.TransactionRepository;
 import com.boit_droid.wallet.service.TransactionSignatureService;
+import com.boit_droid.wallet.util.SignatureEnvelope;
 import com.boit_droid.wallet.util.SignatureUtil;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Implementation of transaction signature verification service
+ * Implementation of transaction signature verification service.
+ * Transaction and wallet operation signatures are {@link SignatureEnvelope}s keyed by the signing
+ * wallet's salt: the signing time travels with the MAC, so verifying one is a single HMAC. Older
+ * signatures without an envelope did not record their timestamp and cannot be re-checked; the
+ * transaction hash still covers them.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TransactionSignatureServiceImpl implements TransactionSignatureService {
 
+    private static final Duration OPERATION_SIGNATURE_VALIDITY = Duration.ofMinutes(5);
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofSeconds(30);
+    private static final int MAX_REPORTED = 100;
+
     private final SignatureUtil signatureUtil;
-    
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private final TransactionRepository transactionRepository;
+    private final WalletConfigurationProperties.Transaction config;
+    private final TransactionTemplate readOnlyTemplate;
+    private final ForkJoinPool verificationPool;
+
+    public TransactionSignatureServiceImpl(SignatureUtil signatureUtil,
+                                           TransactionRepository transactionRepository,
+                                           WalletConfigurationProperties walletProperties,
+                                           PlatformTransactionManager transactionManager) {
+        this.signatureUtil = signatureUtil;
+        this.transactionRepository = transactionRepository;
+        this.config = walletProperties.getTransaction();
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+
+        int parallelism = config.getIntegrityParallelism() > 0
+            ? config.getIntegrityParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.verificationPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("signature-verify-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void stop() {
+        verificationPool.shutdownNow();
+    }
 
     @Override
     public String generateTransactionSignature(Wallet wallet, Double amount, String recipientWalletId, String transactionType) {
         try {
-            String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-            String signatureData = signatureUtil.generateTransactionSignatureData(
-                wallet.getWalletId(),
-                wallet.getUser().getUserId(),
-                amount.toString(),
-                timestamp
-            );
-            
-            // Include recipient wallet ID for transfer transactions
-            if (recipientWalletId != null && !recipientWalletId.isEmpty()) {
-                signatureData += "|" + recipientWalletId;
-            }
-            
-            // Include transaction type
-            signatureData += "|" + transactionType;
-            
-            String signature = signatureUtil.generateSignature(signatureData, wallet.getSalt());
+            String payload = transactionPayload(wallet, BigDecimal.valueOf(amount), recipientWalletId, transactionType);
+            String signature = SignatureEnvelope.sign(payload, wallet.getSalt(), Instant.now(), signatureUtil).encode();
             
             log.debug("Generated transaction signature for wallet: {} - Type: {}", 
                      wallet.getWalletId(), transactionType);
@@ -62,56 +96,90 @@ public class TransactionSignatureServiceImpl implements TransactionSignatureServ
                 return false;
             }
             
-            Wallet senderWallet = transaction.getSenderWallet();
-            if (senderWallet == null) {
-                log.warn("Sender wallet is null for transaction: {}", transaction.getTransactionId());
+            SignatureEnvelope envelope = SignatureEnvelope.parse(expectedSignature);
+            if (envelope == null) {
+                log.warn("Transaction signature for {} is not a signature envelope", transaction.getRequestId());
                 return false;
             }
             
-            String timestamp = String.valueOf(transaction.getCreatedAt());
-            String signatureData = signatureUtil.generateTransactionSignatureData(
-                senderWallet.getWalletId(),
-                senderWallet.getUser().getUserId(),
-                transaction.getAmount().toString(),
-                timestamp
-            );
-            
-            // Include recipient wallet ID for transfer transactions
-            if (transaction.getReceiverWallet() != null) {
-                signatureData += "|" + transaction.getReceiverWallet().getWalletId();
-            }
-            
-            // Include transaction type
-            signatureData += "|" + transaction.getType().name();
-            
-            boolean isValid = signatureUtil.verifySignature(signatureData, expectedSignature, senderWallet.getSalt());
+            SignedTransaction signed = SignedTransaction.of(transaction, envelope);
+            boolean isValid = signed.verify(signatureUtil);
             
             if (!isValid) {
                 log.warn("Transaction signature verification failed for transaction: {}", 
-                        transaction.getTransactionId());
+                        transaction.getRequestId());
             }
             
             return isValid;
         } catch (Exception e) {
             log.error("Error verifying transaction signature for transaction: {}", 
-                     transaction.getTransactionId(), e);
+                     transaction.getRequestId(), e);
             return false;
         }
     }
 
+    @Override
+    public Map<String, Object> verifyWalletHistory(Wallet wallet) {
+        long startNanos = System.nanoTime();
+        int pageSize = config.getIntegrityPageSize();
+        int checked = 0;
+        int unsigned = 0;
+        int legacy = 0;
+        List<String> invalid = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            long pageAfterId = afterId;
+            List<Transaction> page = readOnlyTemplate.execute(status ->
+                transactionRepository.findSignaturePage(wallet, pageAfterId, PageRequest.of(0, pageSize)));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            // Wallets and users are fetched with the page, so the parallel part touches no lazy state
+            List<SignedTransaction> signed = new ArrayList<>(page.size());
+            for (Transaction transaction : page) {
+                if (transaction.getTransactionSignature() == null) {
+                    unsigned++;
+                    continue;
+                }
+                SignatureEnvelope envelope = SignatureEnvelope.parse(transaction.getTransactionSignature());
+                if (envelope == null) {
+                    legacy++;
+                    continue;
+                }
+                signed.add(SignedTransaction.of(transaction, envelope));
+            }
+            checked += signed.size();
+            invalid.addAll(verificationPool.submit(() -> signed.parallelStream()
+                .filter(transaction -> !transaction.verify(signatureUtil))
+                .map(SignedTransaction::requestId)
+                .toList()).join());
+            afterId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        if (!invalid.isEmpty()) {
+            log.warn("{} of {} transaction signatures failed verification for wallet: {}",
+                invalid.size(), checked, wallet.getWalletId());
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walletId", wallet.getRequestId());
+        result.put("valid", invalid.isEmpty());
+        result.put("checked", checked);
+        result.put("invalid", invalid.size());
+        result.put("unsigned", unsigned);
+        result.put("legacyUnverifiable", legacy);
+        result.put("invalidTransactions", invalid.subList(0, Math.min(MAX_REPORTED, invalid.size())));
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return result;
+    }
+
     @Override
     public String generateWalletOperationSignature(Wallet wallet, String operation, String additionalData) {
         try {
-            String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
-            String signatureData = String.join("|",
-                wallet.getWalletId(),
-                wallet.getUser().getUserId(),
-                operation,
-                additionalData != null ? additionalData : "",
-                timestamp
-            );
-            
-            String signature = signatureUtil.generateSignature(signatureData, wallet.getSalt());
+            String payload = operationPayload(wallet, operation, additionalData);
+            String signature = SignatureEnvelope.sign(payload, wallet.getSalt(), Instant.now(), signatureUtil).encode();
             
             log.debug("Generated wallet operation signature for wallet: {} - Operation: {}", 
                      wallet.getWalletId(), operation);
@@ -132,26 +200,20 @@ public class TransactionSignatureServiceImpl implements TransactionSignatureServ
                 return false;
             }
             
-            // For verification, we need to use a recent timestamp window
-            // In a real implementation, you might store the timestamp with the signature
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Check signatures within a 5-minute window
-            for (int i = 0; i < 5; i++) {
-                String timestamp = now.minusMinutes(i).format(TIMESTAMP_FORMATTER);
-                String signatureData = String.join("|",
-                    wallet.getWalletId(),
-                    wallet.getUser().getUserId(),
-                    operation,
-                    additionalData != null ? additionalData : "",
-                    timestamp
-                );
-                
-                if (signatureUtil.verifySignature(signatureData, providedSignature, wallet.getSalt())) {
-                    log.debug("Wallet operation signature verified for wallet: {} - Operation: {}", 
-                             wallet.getWalletId(), operation);
-                    return true;
-                }
+            SignatureEnvelope envelope = SignatureEnvelope.parse(providedSignature);
+            Instant now = Instant.now();
+            if (envelope == null
+                    || envelope.signedAt().isBefore(now.minus(OPERATION_SIGNATURE_VALIDITY))
+                    || envelope.signedAt().isAfter(now.plus(MAX_CLOCK_SKEW))) {
+                log.warn("Wallet operation signature malformed or outside its validity window for wallet: {} - Operation: {}", 
+                        wallet.getWalletId(), operation);
+                return false;
+            }
+            
+            if (envelope.verify(operationPayload(wallet, operation, additionalData), wallet.getSalt(), signatureUtil)) {
+                log.debug("Wallet operation signature verified for wallet: {} - Operation: {}", 
+                         wallet.getWalletId(), operation);
+                return true;
             }
             
             log.warn("Wallet operation signature verification failed for wallet: {} - Operation: {}", 
@@ -207,4 +269,41 @@ public class TransactionSignatureServiceImpl implements TransactionSignatureServ
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static String transactionPayload(Wallet signer, BigDecimal amount, String recipientWalletId, String transactionType) {
+        return String.join("|",
+            signer.getWalletId(),
+            signer.getUser().getUserId(),
+            amount.setScale(2, RoundingMode.HALF_UP).toPlainString(),
+            recipientWalletId != null ? recipientWalletId : "",
+            transactionType);
+    }
+
+    private static String operationPayload(Wallet wallet, String operation, String additionalData) {
+        return String.join("|",
+            wallet.getWalletId(),
+            wallet.getUser().getUserId(),
+            operation,
+            additionalData != null ? additionalData : "");
+    }
+
+    /**
+     * A stored transaction signature with the payload and key it must verify against
+     */
+    private record SignedTransaction(String requestId, SignatureEnvelope envelope, String payload, String key) {
+
+        static SignedTransaction of(Transaction transaction, SignatureEnvelope envelope) {
+            // Transfers and withdrawals are signed by the sender; top-ups and deposits by the receiving wallet
+            Wallet signer = transaction.getSenderWallet() != null ? transaction.getSenderWallet() : transaction.getReceiverWallet();
+            String recipientWalletId = transaction.getSenderWallet() != null && transaction.getReceiverWallet() != null
+                ? transaction.getReceiverWallet().getWalletId()
+                : null;
+            String payload = transactionPayload(signer, transaction.getAmount(), recipientWalletId, transaction.getType().name());
+            return new SignedTransaction(transaction.getRequestId(), envelope, payload, signer.getSalt());
+        }
+
+        boolean verify(SignatureUtil signatureUtil) {
+            return envelope.verify(payload, key, signatureUtil);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.config.WalletConfigurationProperties.RiskRule;
+import com.boit_droid.wallet.service.TransferRiskService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming transfer risk engine.
+ * Each sender wallet and device keeps its features in primitive ring buffers: transfer count and
+ * amount over 1 minute, 1 hour and 24 hours, a running mean and deviation of transfer amounts and
+ * the hashes of its recent recipients. The configured rules are compiled into parallel arrays once,
+ * so an assessment is a handful of array reads under one short lock per key and no I/O.
+ * Features are fed only by committed transfers; state is per node and starts cold after a restart,
+ * which the WALLET_HISTORY rule turns into an OTP step-up rather than an allow.
+ * An assessment inside a transaction also reserves an in-flight slot on the wallet and device, counted
+ * by the velocity features until the transaction completes, so a burst of parallel transfers cannot all
+ * score against the counts from before the burst.
+ */
+@Slf4j
+@Service
+public class TransferRiskServiceImpl implements TransferRiskService {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final double MIN_AMOUNT_WEIGHT = 0.05; // Running stats follow roughly the last 20 transfers
+    private static final int FEATURE_COUNT = RiskRule.Feature.values().length;
+    private static final long MIN_INLINE_SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final boolean enabled;
+    private final int maxTrackedKeys;
+    private final int recipientMemory;
+
+    // Compiled rule set
+    private final int[] ruleFeatures;
+    private final boolean[] ruleGreaterThan;
+    private final double[] ruleThresholds;
+    private final boolean[] ruleDenies;
+    private final String[] ruleDescriptions;
+
+    private final Map<String, VelocityState> walletStates = new ConcurrentHashMap<>();
+    private final Map<String, VelocityState> deviceStates = new ConcurrentHashMap<>();
+    private final Map<RiskDecision, LongAdder> decisionCounts = new EnumMap<>(RiskDecision.class);
+    private final LongAdder untrackedTransfers = new LongAdder();
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    public TransferRiskServiceImpl(WalletConfigurationProperties walletProperties) {
+        WalletConfigurationProperties.Risk risk = walletProperties.getRisk();
+        this.enabled = risk.isEnabled();
+        this.maxTrackedKeys = risk.getMaxTrackedKeys();
+        this.recipientMemory = risk.getRecipientMemory();
+
+        List<RiskRule> rules = risk.getRules();
+        int size = rules.size();
+        this.ruleFeatures = new int[size];
+        this.ruleGreaterThan = new boolean[size];
+        this.ruleThresholds = new double[size];
+        this.ruleDenies = new boolean[size];
+        this.ruleDescriptions = new String[size];
+        for (int i = 0; i < size; i++) {
+            RiskRule rule = rules.get(i);
+            ruleFeatures[i] = rule.getFeature().ordinal();
+            ruleGreaterThan[i] = rule.getOperator() == RiskRule.Operator.GT;
+            ruleThresholds[i] = rule.getThreshold();
+            ruleDenies[i] = rule.getAction() == RiskRule.Action.DENY;
+            ruleDescriptions[i] = rule.getFeature() + (ruleGreaterThan[i] ? " > " : " < ") + rule.getThreshold();
+        }
+        for (RiskDecision decision : RiskDecision.values()) {
+            decisionCounts.put(decision, new LongAdder());
+        }
+        log.info("Transfer risk engine {} with {} rules", enabled ? "enabled" : "disabled", size);
+    }
+
+    @Override
+    public RiskAssessment assess(String walletId, String deviceId, String recipientWalletId, double amount) {
+        if (!enabled) {
+            return decide(RiskDecision.STEP_UP_OTP, List.of("Risk scoring disabled"));
+        }
+
+        long now = System.currentTimeMillis();
+        long cents = toCents(amount);
+        double[] features = new double[FEATURE_COUNT];
+        features[RiskRule.Feature.AMOUNT.ordinal()] = amount;
+
+        // Without a transaction there is no completion to release a reservation on
+        boolean reserve = TransactionSynchronizationManager.isSynchronizationActive();
+        VelocityState wallet = reserve ? stateFor(walletStates, walletId) : walletStates.get(walletId);
+        if (wallet != null) {
+            wallet.fillWalletFeatures(features, now, cents, amount, recipientHash(recipientWalletId), reserve);
+        } else {
+            VelocityState.fillColdWalletFeatures(features, amount);
+        }
+        VelocityState device = deviceId == null ? null
+            : reserve ? stateFor(deviceStates, deviceId) : deviceStates.get(deviceId);
+        if (device != null) {
+            device.fillVelocity(features, now, cents, RiskRule.Feature.DEVICE_COUNT_1M.ordinal(),
+                RiskRule.Feature.DEVICE_AMOUNT_1M.ordinal(), reserve);
+        } else if (deviceId != null) {
+            VelocityState.fillColdVelocity(features, amount, RiskRule.Feature.DEVICE_COUNT_1M.ordinal(),
+                RiskRule.Feature.DEVICE_AMOUNT_1M.ordinal());
+        }
+        if (reserve && (wallet != null || device != null)) {
+            releaseOnCompletion(wallet, device, cents);
+        }
+
+        List<String> denyReasons = null;
+        List<String> stepUpReasons = null;
+        for (int i = 0; i < ruleFeatures.length; i++) {
+            double value = features[ruleFeatures[i]];
+            boolean fired = ruleGreaterThan[i] ? value > ruleThresholds[i] : value < ruleThresholds[i];
+            if (!fired) {
+                continue;
+            }
+            if (ruleDenies[i]) {
+                denyReasons = add(denyReasons, ruleDescriptions[i]);
+            } else {
+                stepUpReasons = add(stepUpReasons, ruleDescriptions[i]);
+            }
+        }
+
+        if (denyReasons != null) {
+            log.warn("Transfer from wallet {} denied by risk rules: {}", walletId, denyReasons);
+            return decide(RiskDecision.DENY, denyReasons);
+        }
+        if (stepUpReasons != null) {
+            return decide(RiskDecision.STEP_UP_OTP, stepUpReasons);
+        }
+        return decide(RiskDecision.ALLOW, List.of());
+    }
+
+    @Override
+    public void recordTransfer(String walletId, String deviceId, String recipientWalletId, double amount) {
+        // Rolled back transfers must not feed the features
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyTransfer(walletId, deviceId, recipientWalletId, amount);
+                }
+            });
+        } else {
+            applyTransfer(walletId, deviceId, recipientWalletId, amount);
+        }
+    }
+
+    /**
+     * Drop wallets and devices without a transfer in the last 24 hours. Their velocity windows are
+     * already empty; losing the amount history only makes their next transfer score as cold.
+     */
+    @Scheduled(fixedDelayString = "${wallet.risk.sweep-interval-ms:600000}")
+    public void evictIdleState() {
+        long now = System.currentTimeMillis();
+        lastSweep.set(now);
+        long idleBefore = now - DAY_MILLIS;
+        walletStates.values().removeIf(state -> state.lastSeen < idleBefore);
+        deviceStates.values().removeIf(state -> state.lastSeen < idleBefore);
+    }
+
+    public long getDecisionCount(RiskDecision decision) {
+        return decisionCounts.get(decision).sum();
+    }
+
+    public int getTrackedWalletCount() {
+        return walletStates.size();
+    }
+
+    public long getUntrackedTransferCount() {
+        return untrackedTransfers.sum();
+    }
+
+    private static void releaseOnCompletion(VelocityState wallet, VelocityState device, long cents) {
+        // Runs after afterCommit, so a committed transfer is recorded before its reservation goes
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (wallet != null) {
+                    wallet.release(cents);
+                }
+                if (device != null) {
+                    device.release(cents);
+                }
+            }
+        });
+    }
+
+    private void applyTransfer(String walletId, String deviceId, String recipientWalletId, double amount) {
+        try {
+            long now = System.currentTimeMillis();
+            long cents = toCents(amount);
+            VelocityState wallet = stateFor(walletStates, walletId);
+            if (wallet != null) {
+                wallet.record(now, cents, amount, recipientHash(recipientWalletId));
+            }
+            if (deviceId != null) {
+                VelocityState device = stateFor(deviceStates, deviceId);
+                if (device != null) {
+                    device.record(now, cents, amount, 0L);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record transfer for risk features of wallet {}: {}", walletId, e.getMessage());
+        }
+    }
+
+    private VelocityState stateFor(Map<String, VelocityState> states, String key) {
+        VelocityState state = states.get(key);
+        if (state != null) {
+            return state;
+        }
+        if (states.size() >= maxTrackedKeys) {
+            long now = System.currentTimeMillis();
+            long previous = lastSweep.get();
+            if (now - previous >= MIN_INLINE_SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(previous, now)) {
+                evictIdleState();
+            }
+            if (states.size() >= maxTrackedKeys) {
+                // Untracked keys keep scoring as cold
+                untrackedTransfers.increment();
+                return null;
+            }
+        }
+        return states.computeIfAbsent(key, ignored -> new VelocityState(recipientMemory));
+    }
+
+    private RiskAssessment decide(RiskDecision decision, List<String> reasons) {
+        decisionCounts.get(decision).increment();
+        return new RiskAssessment(decision, reasons);
+    }
+
+    private static List<String> add(List<String> reasons, String reason) {
+        List<String> list = reasons != null ? reasons : new ArrayList<>(2);
+        list.add(reason);
+        return list;
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * 64-bit FNV-1a hash, so recent recipients fit in a primitive array
+     */
+    private static long recipientHash(String recipientWalletId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < recipientWalletId.length(); i++) {
+            hash ^= recipientWalletId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0L ? 1L : hash;
+    }
+
+    /**
+     * Transfer counts and amounts per time slot; a slot is reset when the ring wraps onto it
+     */
+    private static final class WindowRing {
+        private final long slotMillis;
+        private final long[] slotIds;
+        private final int[] counts;
+        private final long[] cents;
+        private final int[] newRecipients;
+
+        WindowRing(long slotMillis, int slots) {
+            this.slotMillis = slotMillis;
+            this.slotIds = new long[slots];
+            this.counts = new int[slots];
+            this.cents = new long[slots];
+            this.newRecipients = new int[slots];
+        }
+
+        void add(long now, long amountCents, boolean newRecipient) {
+            long slotId = now / slotMillis;
+            int index = (int) (slotId % slotIds.length);
+            if (slotIds[index] != slotId) {
+                slotIds[index] = slotId;
+                counts[index] = 0;
+                cents[index] = 0;
+                newRecipients[index] = 0;
+            }
+            counts[index]++;
+            cents[index] += amountCents;
+            if (newRecipient) {
+                newRecipients[index]++;
+            }
+        }
+
+        int count(long now) {
+            long oldest = now / slotMillis - slotIds.length;
+            int total = 0;
+            for (int i = 0; i < slotIds.length; i++) {
+                if (slotIds[i] > oldest) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+
+        long cents(long now) {
+            long oldest = now / slotMillis - slotIds.length;
+            long total = 0;
+            for (int i = 0; i < slotIds.length; i++) {
+                if (slotIds[i] > oldest) {
+                    total += cents[i];
+                }
+            }
+            return total;
+        }
+
+        int newRecipients(long now) {
+            long oldest = now / slotMillis - slotIds.length;
+            int total = 0;
+            for (int i = 0; i < slotIds.length; i++) {
+                if (slotIds[i] > oldest) {
+                    total += newRecipients[i];
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Streaming features of one wallet or device
+     */
+    private static final class VelocityState {
+        private final WindowRing minute = new WindowRing(10_000L, 6);
+        private final WindowRing hour = new WindowRing(300_000L, 12);
+        private final WindowRing day = new WindowRing(3_600_000L, 24);
+        private final long[] recipients;
+        private int recipientCursor;
+        private long transfers;
+        private double amountMean;
+        private double amountVariance;
+        private int inFlight;
+        private long inFlightCents;
+        private volatile long lastSeen;
+
+        VelocityState(int recipientMemory) {
+            this.recipients = new long[recipientMemory];
+        }
+
+        synchronized void record(long now, long cents, double amount, long recipient) {
+            boolean newRecipient = recipient != 0L && !knows(recipient);
+            if (newRecipient) {
+                recipients[recipientCursor] = recipient;
+                recipientCursor = (recipientCursor + 1) % recipients.length;
+            }
+            minute.add(now, cents, newRecipient);
+            hour.add(now, cents, newRecipient);
+            day.add(now, cents, newRecipient);
+
+            // Exponentially weighted mean and variance; plain running averages for the first transfers
+            transfers++;
+            double weight = Math.max(1.0 / transfers, MIN_AMOUNT_WEIGHT);
+            double difference = amount - amountMean;
+            double increment = weight * difference;
+            amountMean += increment;
+            amountVariance = (1 - weight) * (amountVariance + difference * increment);
+            lastSeen = now;
+        }
+
+        synchronized void fillWalletFeatures(double[] features, long now, long cents, double amount, long recipient,
+                                             boolean reserve) {
+            fillVelocity(features, now, cents, RiskRule.Feature.WALLET_COUNT_1M.ordinal(),
+                RiskRule.Feature.WALLET_AMOUNT_1M.ordinal(), reserve);
+            boolean newRecipient = !knows(recipient);
+            features[RiskRule.Feature.NEW_RECIPIENT.ordinal()] = newRecipient ? 1 : 0;
+            features[RiskRule.Feature.NEW_RECIPIENT_RATIO.ordinal()] =
+                (double) (day.newRecipients(now) + (newRecipient ? 1 : 0)) / (day.count(now) + 1);
+            features[RiskRule.Feature.WALLET_HISTORY.ordinal()] = transfers;
+            if (transfers >= 2) {
+                // Floor the deviation so a wallet that always sends the same amount is not flagged for cents
+                double deviation = Math.max(Math.sqrt(amountVariance), Math.max(1.0, Math.abs(amountMean) * 0.05));
+                features[RiskRule.Feature.AMOUNT_ZSCORE.ordinal()] = (amount - amountMean) / deviation;
+            }
+        }
+
+        /**
+         * Velocity including transfers still in flight; with reserve, this transfer joins them under the same lock
+         */
+        synchronized void fillVelocity(double[] features, long now, long cents, int countBase, int amountBase,
+                                       boolean reserve) {
+            features[countBase] = minute.count(now) + inFlight + 1;
+            features[countBase + 1] = hour.count(now) + inFlight + 1;
+            features[countBase + 2] = day.count(now) + inFlight + 1;
+            features[amountBase] = (minute.cents(now) + inFlightCents + cents) / 100.0;
+            features[amountBase + 1] = (hour.cents(now) + inFlightCents + cents) / 100.0;
+            features[amountBase + 2] = (day.cents(now) + inFlightCents + cents) / 100.0;
+            if (reserve) {
+                inFlight++;
+                inFlightCents += cents;
+                lastSeen = now;
+            }
+        }
+
+        synchronized void release(long cents) {
+            inFlight--;
+            inFlightCents -= cents;
+        }
+
+        static void fillColdWalletFeatures(double[] features, double amount) {
+            fillColdVelocity(features, amount, RiskRule.Feature.WALLET_COUNT_1M.ordinal(),
+                RiskRule.Feature.WALLET_AMOUNT_1M.ordinal());
+            features[RiskRule.Feature.NEW_RECIPIENT.ordinal()] = 1;
+            features[RiskRule.Feature.NEW_RECIPIENT_RATIO.ordinal()] = 1;
+        }
+
+        static void fillColdVelocity(double[] features, double amount, int countBase, int amountBase) {
+            for (int i = 0; i < 3; i++) {
+                features[countBase + i] = 1;
+                features[amountBase + i] = amount;
+            }
+        }
+
+        private boolean knows(long recipient) {
+            for (long known : recipients) {
+                if (known == recipient) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -8,14 +8,22 @@ import com.boit_droid.wallet.entity.User;
 import com.boit_droid.wallet.entity.Wallet;
 import com.boit_droid.wallet.entity.enums.Status;
 import com.boit_droid.wallet.entity.enums.TransactionType;
+import com.boit_droid.wallet.exception.PinHashingBusyException;
+import com.boit_droid.wallet.exception.WalletException;
+import com.boit_droid.wallet.exception.WalletNotFoundException;
+import com.boit_droid.wallet.exception.WalletStatusException;
 import com.boit_droid.wallet.repository.TransactionRepository;
 import com.boit_droid.wallet.repository.UserRepository;
 import com.boit_droid.wallet.repository.WalletRepository;
 import com.boit_droid.wallet.service.TransactionService;
 import com.boit_droid.wallet.service.TransactionSignatureService;
+import com.boit_droid.wallet.service.PinHashingService;
+import com.boit_droid.wallet.service.QRCodeService;
+import com.boit_droid.wallet.service.TransferRiskService;
 import com.boit_droid.wallet.service.NotificationService;
 import com.boit_droid.wallet.service.OtpService;
 import com.boit_droid.wallet.service.WalletService;
+import com.boit_droid.wallet.util.QRCodeFormat;
 import com.boit_droid.wallet.util.QRCodeUtil;
 import com.boit_droid.wallet.util.SignatureUtil;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +34,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,8 +52,11 @@ public class WalletServiceImpl implements WalletService {
     private final TransactionSignatureService transactionSignatureService;
     private final NotificationService notificationService;
     private final OtpService otpService;
+    private final TransferRiskService transferRiskService;
+    private final PinHashingService pinHashingService;
     private final SignatureUtil signatureUtil;
-    private final QRCodeUtil qrCodeUtil;
+    private final QRCodeService qrCodeService;
+    private final TransactionMetrics transactionMetrics;
 
     @Override
     @Transactional
@@ -89,7 +101,7 @@ public class WalletServiceImpl implements WalletService {
             // Set PIN
             String pinSalt = signatureUtil.generateSalt();
             wallet.setPinSalt(pinSalt);
-            wallet.setPinHash(signatureUtil.hashPin(request.getPin(), pinSalt));
+            wallet.setPinHash(pinHashingService.hashPin(request.getPin(), pinSalt));
             wallet.setPinLastUpdated(Instant.now());
             
             // Set default limits
@@ -107,6 +119,8 @@ public class WalletServiceImpl implements WalletService {
             log.info("Wallet created successfully for user: {} with wallet ID: {}", userId, savedWallet.getRequestId());
             return CustomApiResponse.success("Wallet created successfully", requestId, response);
             
+        } catch (PinHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error creating wallet for user: {} - {}", userId, e.getMessage(), e);
             return CustomApiResponse.error("Failed to create wallet", requestId,
@@ -194,6 +208,8 @@ public class WalletServiceImpl implements WalletService {
                 walletId, oldStatus, newStatus);
             return CustomApiResponse.success("Wallet status updated successfully", requestId, response);
             
+        } catch (PinHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error updating wallet status for wallet ID: {} - {}", walletId, e.getMessage(), e);
             return CustomApiResponse.error("Failed to update wallet status", requestId,
@@ -272,6 +288,8 @@ public class WalletServiceImpl implements WalletService {
             
             return CustomApiResponse.success("Wallet deleted successfully", requestId, responseData);
             
+        } catch (PinHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error deleting wallet with ID: {} - {}", walletId, e.getMessage(), e);
             return CustomApiResponse.error("Failed to delete wallet", requestId,
@@ -283,6 +301,7 @@ public class WalletServiceImpl implements WalletService {
     @Transactional
     public CustomApiResponse topUpWallet(String walletId, TopUpRequest request) {
         String requestId = UUID.randomUUID().toString();
+        TransactionMetrics.Trace trace = transactionMetrics.start("top_up", "MPESA", request.getCurrency());
         
         try {
             log.info("Processing top-up for wallet ID: {} with amount: {} {}", 
@@ -291,31 +310,36 @@ public class WalletServiceImpl implements WalletService {
             Wallet wallet = walletRepository.findByRequestId(walletId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
             
+            trace.phase("wallet_lookup");
+            
             // Check if wallet can transact
             if (!wallet.canTransact()) {
-                return CustomApiResponse.error("Wallet cannot perform transactions", requestId,
+                return trace.finish("WALLET_STATUS_ERROR", CustomApiResponse.error("Wallet cannot perform transactions", requestId,
                     List.of("Wallet status: " + wallet.getStatus() + 
-                           (wallet.isPinLocked() ? ", PIN locked until: " + wallet.getPinLockedUntil() : "")));
+                           (wallet.isPinLocked() ? ", PIN locked until: " + wallet.getPinLockedUntil() : ""))));
             }
             
             // Validate currency match
             if (!wallet.getCurrency().equals(request.getCurrency())) {
-                return CustomApiResponse.error("Currency mismatch", requestId,
+                return trace.finish("CURRENCY_MISMATCH", CustomApiResponse.error("Currency mismatch", requestId,
                     List.of("Wallet currency: " + wallet.getCurrency() + 
-                           ", Request currency: " + request.getCurrency()));
+                           ", Request currency: " + request.getCurrency())));
             }
             
             // Check if M-Pesa transaction ID already exists
-            if (transactionRepository.existsByExternalReference(request.getMpesaTransactionId())) {
-                return CustomApiResponse.error("Duplicate transaction", requestId,
-                    List.of("M-Pesa transaction ID already processed"));
+            boolean duplicate = transactionRepository.existsByExternalReference(request.getMpesaTransactionId());
+            trace.phase("duplicate_check");
+            if (duplicate) {
+                return trace.finish("DUPLICATE_TRANSACTION", CustomApiResponse.error("Duplicate transaction", requestId,
+                    List.of("M-Pesa transaction ID already processed")));
             }
             
             // Simulate M-Pesa integration
             boolean mpesaSuccess = simulateMpesaIntegration(request);
+            trace.phase("provider");
             if (!mpesaSuccess) {
-                return CustomApiResponse.error("M-Pesa transaction failed", requestId,
-                    List.of("External payment provider rejected the transaction"));
+                return trace.finish("PROVIDER_REJECTED", CustomApiResponse.error("M-Pesa transaction failed", requestId,
+                    List.of("External payment provider rejected the transaction")));
             }
             
             BigDecimal topUpAmount = BigDecimal.valueOf(request.getAmount());
@@ -324,9 +348,10 @@ public class WalletServiceImpl implements WalletService {
             
             // Check maximum balance limit
             if (wallet.getMaxBalance() != null && balanceAfter.compareTo(wallet.getMaxBalance()) > 0) {
-                return CustomApiResponse.error("Maximum balance limit exceeded", requestId,
-                    List.of("Maximum allowed balance: " + wallet.getMaxBalance()));
+                return trace.finish("MAX_BALANCE_EXCEEDED", CustomApiResponse.error("Maximum balance limit exceeded", requestId,
+                    List.of("Maximum allowed balance: " + wallet.getMaxBalance())));
             }
+            trace.phase("limit_check");
             
             // Create transaction record
             Transaction transaction = new Transaction();
@@ -368,12 +393,14 @@ public class WalletServiceImpl implements WalletService {
             // Save transaction and wallet
             Transaction savedTransaction = transactionRepository.save(transaction);
             Wallet savedWallet = walletRepository.save(wallet);
+            trace.phase("persistence");
             
             WalletResponse response = mapToWalletResponse(savedWallet);
             
             log.info("Top-up completed successfully for wallet ID: {} with transaction ID: {}", 
                 walletId, savedTransaction.getRequestId());
-            return CustomApiResponse.success("Wallet top-up completed successfully", requestId, response);
+            return trace.finish(TransactionMetrics.SUCCESS,
+                CustomApiResponse.success("Wallet top-up completed successfully", requestId, response));
             
         } catch (Exception e) {
             log.error("Error processing top-up for wallet ID: {} - {}", walletId, e.getMessage(), e);
@@ -398,8 +425,8 @@ public class WalletServiceImpl implements WalletService {
                 log.error("Failed to create audit record for failed top-up: {}", auditException.getMessage());
             }
             
-            return CustomApiResponse.error("Failed to process wallet top-up", requestId,
-                List.of(e.getMessage()));
+            return trace.finish(e instanceof WalletException walletException ? walletException.getErrorCode() : "TOP_UP_FAILED",
+                CustomApiResponse.error("Failed to process wallet top-up", requestId, List.of(e.getMessage())));
         }
     }
 
@@ -407,6 +434,7 @@ public class WalletServiceImpl implements WalletService {
     @Transactional
     public CustomApiResponse transferFunds(String fromWalletId, TransferRequest request) {
         String requestId = UUID.randomUUID().toString();
+        TransactionMetrics.Trace trace = transactionMetrics.start("transfer", "API", request.getCurrency());
         
         try {
             log.info("Processing transfer from wallet ID: {} to wallet ID: {} with amount: {} {}", 
@@ -420,35 +448,52 @@ public class WalletServiceImpl implements WalletService {
             Wallet recipientWallet = walletRepository.findByRequestId(request.getRecipientWalletId())
                 .orElseThrow(() -> new RuntimeException("Recipient wallet not found"));
             
+            trace.phase("wallet_lookup");
+            
             // Validate sender wallet can transact
             if (!senderWallet.canTransact()) {
-                return CustomApiResponse.error("Sender wallet cannot perform transactions", requestId,
+                return trace.finish("WALLET_STATUS_ERROR", CustomApiResponse.error("Sender wallet cannot perform transactions", requestId,
                     List.of("Wallet status: " + senderWallet.getStatus() + 
-                           (senderWallet.isPinLocked() ? ", PIN locked until: " + senderWallet.getPinLockedUntil() : "")));
+                           (senderWallet.isPinLocked() ? ", PIN locked until: " + senderWallet.getPinLockedUntil() : ""))));
             }
             
             // Validate recipient wallet is active
             if (!recipientWallet.isActive()) {
-                return CustomApiResponse.error("Recipient wallet is not active", requestId,
-                    List.of("Recipient wallet status: " + recipientWallet.getStatus()));
+                return trace.finish("RECIPIENT_INACTIVE", CustomApiResponse.error("Recipient wallet is not active", requestId,
+                    List.of("Recipient wallet status: " + recipientWallet.getStatus())));
             }
             
             // Verify sender PIN (supports default '0000' when PIN is not set)
-            if (!verifyPinOrHandleFailure(senderWallet, request.getPin())) {
-                return CustomApiResponse.error("Invalid PIN", requestId,
-                    List.of("PIN verification failed"));
+            boolean pinValid = verifyPinOrHandleFailure(senderWallet, request.getPin());
+            trace.phase("pin_verify");
+            if (!pinValid) {
+                return trace.finish("INVALID_PIN", CustomApiResponse.error("Invalid PIN", requestId,
+                    List.of("PIN verification failed")));
             }
 
-            // OTP verification (step-up)
+            // Risk scoring decides whether the transfer needs an OTP step-up
+            TransferRiskService.RiskAssessment risk = transferRiskService.assess(senderWallet.getWalletId(),
+                request.getDeviceId(), request.getRecipientWalletId(), request.getAmount());
+            if (risk.getDecision() == TransferRiskService.RiskDecision.DENY) {
+                trace.phase("otp");
+                return trace.finish("RISK_DECLINED", CustomApiResponse.error("Transfer declined by risk controls", requestId,
+                    List.of("Transfer velocity or amount exceeds allowed limits, please try again later")));
+            }
+
+            // OTP verification (step-up); an OTP that was supplied is always checked
             String otpPurpose = "TRANSFER:" + senderWallet.getWalletId() + "->" + request.getRecipientWalletId();
-            if (request.getOtp() == null || request.getOtp().isBlank()) {
+            boolean otpSupplied = request.getOtp() != null && !request.getOtp().isBlank();
+            if (risk.getDecision() == TransferRiskService.RiskDecision.STEP_UP_OTP && !otpSupplied) {
                 String code = otpService.requestOtpForWallet(senderWallet.getWalletId(), otpPurpose, senderWallet.getUser().getId().toString());
-                return otpService.createOtpRequiredResponse(requestId, 
-                    "OTP required. Code sent to registered channels.", otpPurpose);
+                trace.phase("otp");
+                return trace.finish("OTP_REQUIRED", otpService.createOtpRequiredResponse(requestId, 
+                    "OTP required. Code sent to registered channels.", otpPurpose));
             }
-            if (!otpService.verifyOtpForWallet(senderWallet.getWalletId(), otpPurpose, request.getOtp())) {
-                return CustomApiResponse.error("Invalid or expired OTP", requestId,
-                    List.of("Please request a new OTP and try again"));
+            boolean otpRejected = otpSupplied && !otpService.verifyOtpForWallet(senderWallet.getWalletId(), otpPurpose, request.getOtp());
+            trace.phase("otp");
+            if (otpRejected) {
+                return trace.finish("INVALID_OTP", CustomApiResponse.error("Invalid or expired OTP", requestId,
+                    List.of("Please request a new OTP and try again")));
             }
             
             // Reset PIN attempts on successful verification
@@ -458,54 +503,56 @@ public class WalletServiceImpl implements WalletService {
             // Validate currency match
             if (!senderWallet.getCurrency().equals(request.getCurrency()) || 
                 !recipientWallet.getCurrency().equals(request.getCurrency())) {
-                return CustomApiResponse.error("Currency mismatch", requestId,
-                    List.of("All wallets must have the same currency for transfer"));
+                return trace.finish("CURRENCY_MISMATCH", CustomApiResponse.error("Currency mismatch", requestId,
+                    List.of("All wallets must have the same currency for transfer")));
             }
             
             // Validate transfer amount
             BigDecimal transferAmount = BigDecimal.valueOf(request.getAmount());
             if (transferAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                return CustomApiResponse.error("Invalid transfer amount", requestId,
-                    List.of("Transfer amount must be greater than zero"));
+                return trace.finish("INVALID_AMOUNT", CustomApiResponse.error("Invalid transfer amount", requestId,
+                    List.of("Transfer amount must be greater than zero")));
             }
             
             // Check sufficient balance
             if (senderWallet.getBalance().compareTo(transferAmount) < 0) {
-                return CustomApiResponse.error("Insufficient funds", requestId,
+                return trace.finish("INSUFFICIENT_FUNDS", CustomApiResponse.error("Insufficient funds", requestId,
                     List.of("Available balance: " + senderWallet.getBalance() + 
-                           ", Required: " + transferAmount));
+                           ", Required: " + transferAmount)));
             }
             
             // Check minimum balance constraint
             BigDecimal senderBalanceAfter = senderWallet.getBalance().subtract(transferAmount);
             if (senderWallet.getMinBalance() != null && 
                 senderBalanceAfter.compareTo(senderWallet.getMinBalance()) < 0) {
-                return CustomApiResponse.error("Minimum balance constraint violated", requestId,
-                    List.of("Minimum balance required: " + senderWallet.getMinBalance()));
+                return trace.finish("MIN_BALANCE_VIOLATED", CustomApiResponse.error("Minimum balance constraint violated", requestId,
+                    List.of("Minimum balance required: " + senderWallet.getMinBalance())));
             }
             
             // Check recipient maximum balance limit
             BigDecimal recipientBalanceAfter = recipientWallet.getBalance().add(transferAmount);
             if (recipientWallet.getMaxBalance() != null && 
                 recipientBalanceAfter.compareTo(recipientWallet.getMaxBalance()) > 0) {
-                return CustomApiResponse.error("Recipient maximum balance limit exceeded", requestId,
-                    List.of("Recipient maximum balance: " + recipientWallet.getMaxBalance()));
+                return trace.finish("MAX_BALANCE_EXCEEDED", CustomApiResponse.error("Recipient maximum balance limit exceeded", requestId,
+                    List.of("Recipient maximum balance: " + recipientWallet.getMaxBalance())));
             }
             
             // Check daily transaction limit
             if (senderWallet.getDailyTransactionLimit() != null) {
                 BigDecimal dailyVolume = calculateDailyTransactionVolume(senderWallet);
                 if (dailyVolume.add(transferAmount).compareTo(senderWallet.getDailyTransactionLimit()) > 0) {
-                    return CustomApiResponse.error("Daily transaction limit exceeded", requestId,
+                    return trace.finish("DAILY_LIMIT_EXCEEDED", CustomApiResponse.error("Daily transaction limit exceeded", requestId,
                         List.of("Daily limit: " + senderWallet.getDailyTransactionLimit() + 
-                               ", Current volume: " + dailyVolume));
+                               ", Current volume: " + dailyVolume)));
                 }
             }
             
+            trace.phase("limit_check");
+            
             // Prevent self-transfer
             if (senderWallet.getId().equals(recipientWallet.getId())) {
-                return CustomApiResponse.error("Cannot transfer to same wallet", requestId,
-                    List.of("Self-transfers are not allowed"));
+                return trace.finish("SELF_TRANSFER", CustomApiResponse.error("Cannot transfer to same wallet", requestId,
+                    List.of("Self-transfers are not allowed")));
             }
             
             // Check for duplicate transactions (same amount, wallets, within 5 minutes)
@@ -513,10 +560,11 @@ public class WalletServiceImpl implements WalletService {
             List<Transaction> duplicates = transactionRepository.findPotentialDuplicates(
                 senderWallet, recipientWallet, transferAmount, 
                 fiveMinutesAgo, Instant.now(), -1L);
+            trace.phase("duplicate_check");
             
             if (!duplicates.isEmpty()) {
-                return CustomApiResponse.error("Potential duplicate transaction detected", requestId,
-                    List.of("Similar transaction found within the last 5 minutes"));
+                return trace.finish("DUPLICATE_TRANSACTION", CustomApiResponse.error("Potential duplicate transaction detected", requestId,
+                    List.of("Similar transaction found within the last 5 minutes")));
             }
             
             // Create transaction record
@@ -547,7 +595,7 @@ public class WalletServiceImpl implements WalletService {
             
             // Generate transaction signature using enhanced signature service
             String transactionSignature = transactionSignatureService.generateTransactionSignature(
-                senderWallet, request.getAmount(), request.getRecipientWalletId(), "TRANSFER");
+                senderWallet, request.getAmount(), recipientWallet.getWalletId(), "TRANSFER");
             transaction.setTransactionSignature(transactionSignature);
             transaction.setVerified(true);
             transaction.setVerifiedAt(Instant.now());
@@ -566,6 +614,9 @@ public class WalletServiceImpl implements WalletService {
             Transaction savedTransaction = transactionRepository.save(transaction);
             Wallet savedSenderWallet = walletRepository.save(senderWallet);
             Wallet savedRecipientWallet = walletRepository.save(recipientWallet);
+            transferRiskService.recordTransfer(senderWallet.getWalletId(), request.getDeviceId(),
+                request.getRecipientWalletId(), request.getAmount());
+            trace.phase("persistence");
             
             // Create response with sender wallet details
             WalletResponse response = mapToWalletResponse(savedSenderWallet);
@@ -578,9 +629,14 @@ public class WalletServiceImpl implements WalletService {
                 savedTransaction.getRequestId(), senderWallet.getWalletId(), "DEBIT", request.getAmount(), request.getCurrency());
             notificationService.sendTransactionNotification(recipientWallet.getUser().getId().toString(),
                 savedTransaction.getRequestId(), recipientWallet.getWalletId(), "CREDIT", request.getAmount(), request.getCurrency());
+            trace.phase("notification");
 
-            return CustomApiResponse.success("Transfer completed successfully", requestId, response);
+            return trace.finish(TransactionMetrics.SUCCESS,
+                CustomApiResponse.success("Transfer completed successfully", requestId, response));
             
+        } catch (PinHashingBusyException e) {
+            // Nothing was attempted, so no failed transfer is recorded; GlobalExceptionHandler answers 503
+            throw trace.finish(e.getErrorCode(), e);
         } catch (Exception e) {
             log.error("Error processing transfer from wallet ID: {} to wallet ID: {} - {}", 
                 fromWalletId, request.getRecipientWalletId(), e.getMessage(), e);
@@ -605,13 +661,13 @@ public class WalletServiceImpl implements WalletService {
                 log.error("Failed to create audit record for failed transfer: {}", auditException.getMessage());
             }
             
-            return CustomApiResponse.error("Failed to process transfer", requestId,
-                List.of(e.getMessage()));
+            return trace.finish(e instanceof WalletException walletException ? walletException.getErrorCode() : "TRANSFER_FAILED",
+                CustomApiResponse.error("Failed to process transfer", requestId, List.of(e.getMessage())));
         }
     }
 
     @Override
-    public CustomApiResponse generateQRCode(String walletId) {
+    public CustomApiResponse generateQRCode(String walletId, QRCodeFormat format) {
         String requestId = UUID.randomUUID().toString();
         
         try {
@@ -625,11 +681,14 @@ public class WalletServiceImpl implements WalletService {
                     List.of("Cannot generate QR code for inactive wallet"));
             }
             
-            String qrCode = qrCodeUtil.generateWalletQRCode(
+            QRCodeService.QRCodeImage image = qrCodeService.walletQRCode(
                 wallet.getRequestId(), 
                 wallet.getAccountNumber(), 
-                wallet.getAccountName()
+                wallet.getAccountName(),
+                QRCodeUtil.DEFAULT_QR_CODE_SIZE,
+                format
             );
+            String qrCode = Base64.getEncoder().encodeToString(image.getContent());
             
             WalletResponse response = mapToWalletResponse(wallet);
             response.setQrCode(qrCode);
@@ -644,6 +703,19 @@ public class WalletServiceImpl implements WalletService {
         }
     }
 
+    @Override
+    public QRCodeService.QRCodeImage getWalletQRCodeImage(String walletId, int size, QRCodeFormat format) {
+        Wallet wallet = walletRepository.findByRequestId(walletId)
+            .orElseThrow(() -> new WalletNotFoundException(walletId));
+        
+        if (!wallet.isActive()) {
+            throw new WalletStatusException("QR code", String.valueOf(wallet.getStatus()));
+        }
+        
+        return qrCodeService.walletQRCode(wallet.getRequestId(), wallet.getAccountNumber(),
+            wallet.getAccountName(), size, format);
+    }
+
     @Override
     @Transactional
     public CustomApiResponse updateWalletPIN(String walletId, PINUpdateRequest request) {
@@ -679,7 +751,7 @@ public class WalletServiceImpl implements WalletService {
             
             // Generate new PIN hash
             String newPinSalt = signatureUtil.generateSalt();
-            String newPinHash = signatureUtil.hashPin(request.getNewPin(), newPinSalt);
+            String newPinHash = pinHashingService.hashPin(request.getNewPin(), newPinSalt);
             
             // Update wallet PIN
             wallet.setPinSalt(newPinSalt);
@@ -694,6 +766,8 @@ public class WalletServiceImpl implements WalletService {
             log.info("PIN updated successfully for wallet ID: {}", walletId);
             return CustomApiResponse.success("PIN updated successfully", requestId, response);
             
+        } catch (PinHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error updating PIN for wallet ID: {} - {}", walletId, e.getMessage(), e);
             return CustomApiResponse.error("Failed to update PIN", requestId,
@@ -704,16 +778,26 @@ public class WalletServiceImpl implements WalletService {
     /**
      * Verify a provided PIN against the wallet's stored PIN, handling attempts/lock and persistence on failure.
      * If the wallet has no PIN set, accepts '2024' as the valid current PIN.
+     * A valid PIN stored in an outdated hash format is rehashed in the current one.
      * @param wallet The wallet being verified
      * @param providedPin The PIN supplied by the user
      * @return true if PIN is valid; false if invalid (after updating attempts/lock and persisting)
+     * @throws PinHashingBusyException if PIN hashing capacity is exhausted; no attempt is counted
      */
     private boolean verifyPinOrHandleFailure(Wallet wallet, String providedPin) {
         try {
             boolean hasExistingPin = wallet.getPinHash() != null && wallet.getPinSalt() != null;
-            boolean valid = hasExistingPin
-                ? signatureUtil.verifyPin(providedPin, wallet.getPinHash(), wallet.getPinSalt())
-                : "2024".equals(providedPin);
+            boolean valid;
+            if (hasExistingPin) {
+                PinHashingService.PinVerification verification =
+                    pinHashingService.verifyPin(providedPin, wallet.getPinHash(), wallet.getPinSalt());
+                valid = verification.isValid();
+                if (verification.getUpgradedHash() != null) {
+                    wallet.setPinHash(verification.getUpgradedHash());
+                }
+            } else {
+                valid = "2024".equals(providedPin);
+            }
 
             if (!valid) {
                 wallet.setPinAttempts(wallet.getPinAttempts() + 1);
@@ -727,6 +811,8 @@ public class WalletServiceImpl implements WalletService {
             wallet.setPinAttempts(0);
             wallet.setPinLockedUntil(null);
             return true;
+        } catch (PinHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("PIN verification error for wallet {}: {}", wallet.getRequestId(), e.getMessage());
             return false;
@@ -815,7 +901,7 @@ public class WalletServiceImpl implements WalletService {
         }
     }
 
-    private WalletResponse mapToWalletResponse(Wallet wallet) {
+    static WalletResponse mapToWalletResponse(Wallet wallet) {
         WalletResponse response = new WalletResponse();
         response.setWalletId(wallet.getRequestId());
         response.setAccountNumber(wallet.getAccountNumber());
@@ -0,0 +1,205 @@
+package com.boit_droid.wallet.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local append-only journal of length-prefixed binary records in memory-mapped segment files.
+ * Every record carries an HMAC over the previous record's HMAC and its own header and payload, so
+ * altering, removing or reordering a record breaks the chain from that point on. A segment is
+ * sealed and trimmed to its used length once the next record no longer fits, and the next segment's
+ * header carries the chain value it continues from, which lets compaction delete whole old segments
+ * while the rest stays verifiable. On open, the last segment is scanned to find the end of the valid
+ * records; a torn record left by a crash is zeroed out.
+ *
+ * Record layout: payload length (int), sequence (long), timestamp millis (long), payload, HMAC (32 bytes).
+ * Appends are serialised; the journal is meant for a single writer thread.
+ */
+@Slf4j
+public final class AuditJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x414A4E4C; // "AJNL"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int MAC_SIZE = 32;
+    static final int RECORD_HEADER_SIZE = 4 + 8 + 8;
+    static final int RECORD_OVERHEAD = RECORD_HEADER_SIZE + MAC_SIZE;
+    static final byte[] GENESIS = new byte[MAC_SIZE];
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Mac mac;
+
+    private Path segmentPath;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private byte[] chain;
+    private boolean dirty;
+
+    public AuditJournal(Path directory, int segmentSize, byte[] key, SignatureUtil signatureUtil) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Segment size " + segmentSize + " is too small");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.mac = signatureUtil.newHmac(key);
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Append one record
+     *
+     * @return the sequence of the record
+     */
+    public synchronized long append(byte[] payload, long timestampMillis) throws IOException {
+        int recordSize = RECORD_OVERHEAD + payload.length;
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (segment.remaining() < recordSize) {
+            roll();
+        }
+        int start = segment.position();
+        long sequence = nextSequence;
+        segment.putInt(payload.length);
+        segment.putLong(sequence);
+        segment.putLong(timestampMillis);
+        segment.put(payload);
+        mac.update(chain);
+        mac.update(segment.slice(start, RECORD_HEADER_SIZE + payload.length));
+        chain = mac.doFinal();
+        segment.put(chain);
+        nextSequence++;
+        dirty = true;
+        return sequence;
+    }
+
+    /**
+     * Flush appended records of the active segment to the storage device
+     */
+    public synchronized void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Delete sealed segments last written before the cutoff, oldest first. The oldest remaining
+     * segment keeps the chain value of the deleted history in its header.
+     *
+     * @return number of segments deleted
+     */
+    public synchronized int compact(long cutoffMillis) throws IOException {
+        int deleted = 0;
+        for (Path path : AuditJournalReader.segments(directory)) {
+            if (path.equals(segmentPath) || Files.getLastModifiedTime(path).toMillis() >= cutoffMillis) {
+                break;
+            }
+            Files.delete(path);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segmentChannel.close();
+            segment = null;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = AuditJournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            nextSequence = 0;
+            chain = GENESIS;
+            openSegment();
+            return;
+        }
+        segmentPath = segments.get(segments.size() - 1);
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = segmentChannel.size();
+        if (size < segmentSize) {
+            // Sealed segments are trimmed; continue in a new one
+            segment = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } else {
+            segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        AuditJournalReader.SegmentHeader header = AuditJournalReader.SegmentHeader.read(segment);
+        if (header == null) {
+            if (size >= HEADER_SIZE && segment.getInt(0) == 0) {
+                // Created but never initialised before a crash
+                segmentChannel.close();
+                Files.delete(segmentPath);
+                recover();
+                return;
+            }
+            throw new IOException(segmentPath + " is not an audit journal segment");
+        }
+        AuditJournalReader.SegmentScan scan = AuditJournalReader.scan(segment, mac, header.anchor(),
+            header.firstSequence(), (sequence, timestampMillis, payload) -> { });
+        nextSequence = scan.nextSequence();
+        chain = scan.chain();
+        if (segment.isReadOnly()) {
+            if (scan.failure() != null) {
+                throw new IOException("Sealed segment " + segmentPath + " fails verification: " + scan.failure());
+            }
+            segmentChannel.close();
+            openSegment();
+            return;
+        }
+        if (scan.failure() != null) {
+            log.warn("Discarding the torn tail of audit journal segment {} at offset {}: {}",
+                segmentPath.getFileName(), scan.position(), scan.failure());
+            for (int i = scan.position(); i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        segment.position(scan.position());
+        log.info("Audit journal recovered at sequence {} in {}", nextSequence, segmentPath.getFileName());
+    }
+
+    private void roll() throws IOException {
+        int used = segment.position();
+        segment.force();
+        // The mapping is not touched past this point, so the unused tail can be cut off
+        segmentChannel.truncate(used);
+        segmentChannel.close();
+        log.debug("Sealed audit journal segment {} at {} bytes", segmentPath.getFileName(), used);
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        segmentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        new AuditJournalReader.SegmentHeader(nextSequence, chain).write(segment);
+        segment.position(HEADER_SIZE);
+        segment.force();
+    }
+}
@@ -0,0 +1,221 @@
+package com.boit_droid.wallet.util;
+
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+
+import javax.crypto.Mac;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Offline reader and verifier for {@link AuditJournal} directories.
+ * Walks every segment in sequence order, recomputes each record's HMAC from the previous one and
+ * reports the first record that does not match. A journal whose oldest segments were compacted
+ * away is verified from the chain value stored in the header of its oldest remaining segment.
+ *
+ * Usage: {@code AuditJournalReader <journal-directory> [--dump]}, with the journal key in the
+ * AUDIT_JOURNAL_KEY environment variable.
+ */
+public final class AuditJournalReader {
+
+    private final Path directory;
+    private final Mac mac;
+
+    public AuditJournalReader(Path directory, byte[] key, SignatureUtil signatureUtil) {
+        this.directory = directory;
+        this.mac = signatureUtil.newHmac(key);
+    }
+
+    /**
+     * Callback for each verified record
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long sequence, long timestampMillis, ByteBuffer payload);
+    }
+
+    /**
+     * Outcome of a verification run
+     */
+    public record Verification(boolean valid, int segments, long records, long firstSequence,
+                               long lastSequence, boolean anchored, String failure) {
+    }
+
+    /**
+     * Verify the whole journal without visiting the records
+     */
+    public Verification verify() throws IOException {
+        return read((sequence, timestampMillis, payload) -> { });
+    }
+
+    /**
+     * Verify the journal, passing each record to the visitor up to the first broken one
+     */
+    public Verification read(RecordVisitor visitor) throws IOException {
+        List<Path> segments = segments(directory);
+        byte[] chain = null;
+        long expectedSequence = 0;
+        long firstSequence = 0;
+        long records = 0;
+        boolean anchored = false;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            ByteBuffer buffer = mapReadOnly(segment);
+            SegmentHeader header = SegmentHeader.read(buffer);
+            if (header == null) {
+                return new Verification(false, i, records, firstSequence, expectedSequence - 1, anchored,
+                    segment.getFileName() + ": not a journal segment");
+            }
+            if (chain == null) {
+                anchored = !MessageDigest.isEqual(header.anchor(), AuditJournal.GENESIS);
+                firstSequence = header.firstSequence();
+            } else if (header.firstSequence() != expectedSequence || !MessageDigest.isEqual(header.anchor(), chain)) {
+                return new Verification(false, i, records, firstSequence, expectedSequence - 1, anchored,
+                    segment.getFileName() + ": does not continue the chain of the previous segment");
+            }
+            SegmentScan scan = scan(buffer, mac, header.anchor(), header.firstSequence(), visitor);
+            records += scan.records();
+            chain = scan.chain();
+            expectedSequence = scan.nextSequence();
+            if (scan.failure() != null) {
+                return new Verification(false, i + 1, records, firstSequence, expectedSequence - 1, anchored,
+                    segment.getFileName() + " at offset " + scan.position() + ": " + scan.failure());
+            }
+        }
+        return new Verification(true, segments.size(), records, firstSequence, expectedSequence - 1, anchored, null);
+    }
+
+    /**
+     * Segment files of a journal directory in sequence order
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(AuditJournal.SEGMENT_PREFIX) && name.endsWith(AuditJournal.SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static ByteBuffer mapReadOnly(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Header written at the start of each segment: first record sequence and the chain value
+     * the first record is linked to
+     */
+    record SegmentHeader(long firstSequence, byte[] anchor) {
+
+        static SegmentHeader read(ByteBuffer buffer) {
+            if (buffer.limit() < AuditJournal.HEADER_SIZE
+                || buffer.getInt(0) != AuditJournal.MAGIC
+                || buffer.getInt(4) != AuditJournal.FORMAT_VERSION) {
+                return null;
+            }
+            byte[] anchor = new byte[AuditJournal.MAC_SIZE];
+            buffer.get(16, anchor);
+            return new SegmentHeader(buffer.getLong(8), anchor);
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putInt(0, AuditJournal.MAGIC);
+            buffer.putInt(4, AuditJournal.FORMAT_VERSION);
+            buffer.putLong(8, firstSequence);
+            buffer.put(16, anchor);
+        }
+    }
+
+    /**
+     * Result of scanning one segment: where valid records end and the chain state at that point
+     */
+    record SegmentScan(int position, long records, long nextSequence, byte[] chain, String failure) {
+    }
+
+    /**
+     * Verify the records of one segment from its header onwards. Scanning stops at the zeroed
+     * tail of a segment, at its end, or at the first record that fails verification.
+     */
+    static SegmentScan scan(ByteBuffer buffer, Mac mac, byte[] anchor, long firstSequence, RecordVisitor visitor) {
+        int position = AuditJournal.HEADER_SIZE;
+        long sequence = firstSequence;
+        long records = 0;
+        byte[] chain = anchor;
+        byte[] expected = new byte[AuditJournal.MAC_SIZE];
+        while (position + AuditJournal.RECORD_OVERHEAD <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + AuditJournal.RECORD_OVERHEAD + length > buffer.limit()) {
+                return new SegmentScan(position, records, sequence, chain, "record length " + length + " is out of bounds");
+            }
+            if (buffer.getLong(position + 4) != sequence) {
+                return new SegmentScan(position, records, sequence, chain, "expected sequence " + sequence
+                    + " but found " + buffer.getLong(position + 4));
+            }
+            int signedEnd = position + AuditJournal.RECORD_HEADER_SIZE + length;
+            mac.update(chain);
+            mac.update(buffer.slice(position, signedEnd - position));
+            byte[] computed = mac.doFinal();
+            buffer.get(signedEnd, expected);
+            if (!MessageDigest.isEqual(computed, expected)) {
+                return new SegmentScan(position, records, sequence, chain, "HMAC mismatch for sequence " + sequence);
+            }
+            visitor.visit(sequence, buffer.getLong(position + 12),
+                buffer.slice(position + AuditJournal.RECORD_HEADER_SIZE, length).asReadOnlyBuffer());
+            chain = computed;
+            sequence++;
+            records++;
+            position = signedEnd + AuditJournal.MAC_SIZE;
+        }
+        return new SegmentScan(position, records, sequence, chain, null);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AuditJournalReader <journal-directory> [--dump]");
+            System.exit(2);
+        }
+        String key = System.getenv("AUDIT_JOURNAL_KEY");
+        if (key == null || key.isBlank()) {
+            System.err.println("AUDIT_JOURNAL_KEY must hold the journal key");
+            System.exit(2);
+        }
+        boolean dump = args.length > 1 && "--dump".equals(args[1]);
+        AuditJournalReader reader = new AuditJournalReader(Paths.get(args[0]),
+            key.getBytes(StandardCharsets.UTF_8), new SignatureUtil());
+        Verification verification = reader.read((sequence, timestampMillis, payload) -> {
+            if (dump) {
+                AuditEvent event = AuditEvent.decode(payload);
+                System.out.println(sequence + "\t" + event.getTimestamp() + "\t" + event.getOperation() + "\t"
+                    + event.getEntityType() + "\t" + event.getEntityId() + "\t" + event.getAuditId() + "\t"
+                    + (event.getChangedFields() != null ? event.getChangedFields() : ""));
+            }
+        });
+        System.out.println((verification.valid() ? "VALID" : "INVALID") + ": " + verification.records() + " records in "
+            + verification.segments() + " segments, sequences " + verification.firstSequence() + ".."
+            + verification.lastSequence() + (verification.anchored() ? " (anchored after compaction)" : ""));
+        if (!verification.valid()) {
+            System.out.println("First failure: " + verification.failure());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.boit_droid.wallet.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * SHA-256 Merkle tree over an ordered list of leaf hashes.
+ * Leaves are paired level by level; an unpaired last node is carried up unchanged rather than
+ * duplicated, so two different leaf lists never produce the same root. Inner nodes hash a 0x01
+ * prefix with both children, which keeps them distinct from leaf hashes (see
+ * {@link TransactionHasher}). The same root results from splitting at the largest power of two
+ * below the leaf count, which lets {@link #root(ForkJoinPool, byte[][])} compute subtrees in parallel.
+ */
+public final class MerkleTree {
+
+    public static final int HASH_SIZE = 32;
+    private static final byte NODE_PREFIX = 0x01;
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private MerkleTree() {
+    }
+
+    /**
+     * Hash of an inner node
+     */
+    public static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+
+    /**
+     * Every level of the tree, leaves first and the single root last
+     */
+    public static List<byte[][]> levels(byte[][] leaves) {
+        if (leaves.length == 0) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf");
+        }
+        List<byte[][]> levels = new ArrayList<>();
+        byte[][] level = leaves;
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                int left = 2 * i;
+                parent[i] = left + 1 < level.length ? node(level[left], level[left + 1]) : level[left];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+        return levels;
+    }
+
+    /**
+     * Root of the tree, computed with fork-join over subtrees
+     */
+    public static byte[] root(ForkJoinPool pool, byte[][] leaves) {
+        if (leaves.length == 0) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf");
+        }
+        return pool.invoke(new SubtreeTask(leaves, 0, leaves.length));
+    }
+
+    /**
+     * Compute count values in parallel, e.g. the leaf hashes of a page of records
+     */
+    public static byte[][] computeAll(ForkJoinPool pool, int count, IntFunction<byte[]> function) {
+        byte[][] results = new byte[count][];
+        if (count > 0) {
+            pool.invoke(new ComputeAction(results, function, 0, count));
+        }
+        return results;
+    }
+
+    /**
+     * Number of nodes on each level for a tree of leafCount leaves
+     */
+    public static int[] levelSizes(int leafCount) {
+        List<Integer> sizes = new ArrayList<>();
+        int size = leafCount;
+        sizes.add(size);
+        while (size > 1) {
+            size = (size + 1) / 2;
+            sizes.add(size);
+        }
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Positions of the sibling nodes a proof for the leaf needs, one per level that has a sibling,
+     * from the leaves upwards; each entry is {level, index}
+     */
+    public static List<int[]> proofPositions(int leafIndex, int leafCount) {
+        int[] sizes = levelSizes(leafCount);
+        List<int[]> positions = new ArrayList<>();
+        int index = leafIndex;
+        for (int level = 0; level < sizes.length - 1; level++) {
+            int sibling = index ^ 1;
+            if (sibling < sizes[level]) {
+                positions.add(new int[]{level, sibling});
+            }
+            index >>= 1;
+        }
+        return positions;
+    }
+
+    /**
+     * Recompute the root from a leaf and its proof, as returned for {@link #proofPositions}
+     */
+    public static byte[] rootFromProof(byte[] leaf, int leafIndex, int leafCount, List<byte[]> siblings) {
+        int[] sizes = levelSizes(leafCount);
+        byte[] hash = leaf;
+        int index = leafIndex;
+        int next = 0;
+        for (int level = 0; level < sizes.length - 1; level++) {
+            int sibling = index ^ 1;
+            if (sibling < sizes[level]) {
+                if (next >= siblings.size()) {
+                    return null;
+                }
+                byte[] other = siblings.get(next++);
+                hash = (index & 1) == 0 ? node(hash, other) : node(other, hash);
+            }
+            index >>= 1;
+        }
+        return next == siblings.size() ? hash : null;
+    }
+
+    private static byte[] sequentialRoot(byte[][] leaves, int from, int to) {
+        int count = to - from;
+        byte[][] level = new byte[count][];
+        System.arraycopy(leaves, from, level, 0, count);
+        while (count > 1) {
+            int parentCount = (count + 1) / 2;
+            for (int i = 0; i < parentCount; i++) {
+                int left = 2 * i;
+                level[i] = left + 1 < count ? node(level[left], level[left + 1]) : level[left];
+            }
+            count = parentCount;
+        }
+        return level[0];
+    }
+
+    private static final class SubtreeTask extends RecursiveTask<byte[]> {
+        private final byte[][] leaves;
+        private final int from;
+        private final int to;
+
+        private SubtreeTask(byte[][] leaves, int from, int to) {
+            this.leaves = leaves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected byte[] compute() {
+            int count = to - from;
+            if (count <= SEQUENTIAL_THRESHOLD) {
+                return sequentialRoot(leaves, from, to);
+            }
+            // Largest power of two below count; the left subtree is then complete
+            int split = Integer.highestOneBit(count - 1);
+            SubtreeTask left = new SubtreeTask(leaves, from, from + split);
+            left.fork();
+            byte[] right = new SubtreeTask(leaves, from + split, to).compute();
+            return node(left.join(), right);
+        }
+    }
+
+    private static final class ComputeAction extends RecursiveAction {
+        private final byte[][] results;
+        private final IntFunction<byte[]> function;
+        private final int from;
+        private final int to;
+
+        private ComputeAction(byte[][] results, IntFunction<byte[]> function, int from, int to) {
+            this.results = results;
+            this.function = function;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 256) {
+                for (int i = from; i < to; i++) {
+                    results[i] = function.apply(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeAction(results, function, from, middle), new ComputeAction(results, function, middle, to));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.boit_droid.wallet.util;
+
+/**
+ * Output formats of wallet QR codes
+ */
+public enum QRCodeFormat {
+
+    PNG("image/png"),
+    SVG("image/svg+xml");
+
+    private final String mediaType;
+
+    QRCodeFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Parse a format name as given in a request, e.g. "png" or "svg"
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static QRCodeFormat fromName(String name) {
+        for (QRCodeFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported QR code format: " + name + " (use png or svg)");
+    }
+}
@@ -0,0 +1,143 @@
+package com.boit_droid.wallet.util;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Renders a QR {@link BitMatrix} without AWT.
+ * PNG output is a 1-bit grayscale image written row by row straight from the matrix: each row is
+ * a filter byte followed by the pixels packed eight to a byte, deflated into a single IDAT chunk.
+ * SVG output draws one path with a rectangle per horizontal run of dark modules, over a white
+ * background, and scales to any size without re-encoding.
+ */
+public final class QRCodeRenderer {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final byte BIT_DEPTH = 1;
+    private static final byte COLOR_TYPE_GRAYSCALE = 0;
+    private static final byte FILTER_NONE = 0;
+
+    private QRCodeRenderer() {
+    }
+
+    /**
+     * Encode the matrix as a PNG, one pixel per matrix cell, set cells black
+     */
+    public static byte[] png(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = BIT_DEPTH;
+        header[9] = COLOR_TYPE_GRAYSCALE;
+        // Compression, filter and interlace methods are all 0
+
+        // Scaled QR matrices repeat each row many times, so a row is only packed when it differs
+        byte[] raw = new byte[height * (rowBytes + 1)];
+        BitArray row = new BitArray(width);
+        BitArray previous = null;
+        for (int y = 0; y < height; y++) {
+            int offset = y * (rowBytes + 1);
+            raw[offset] = FILTER_NONE;
+            row = matrix.getRow(y, row);
+            if (previous != null && row.equals(previous)) {
+                System.arraycopy(raw, offset - rowBytes, raw, offset + 1, rowBytes);
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                // Grayscale 1 is white, so light cells carry the set bit
+                if (!row.get(x)) {
+                    raw[offset + 1 + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+            previous = row.clone();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 8 + 128);
+        out.writeBytes(PNG_SIGNATURE);
+        writeChunk(out, "IHDR", header);
+        writeChunk(out, "IDAT", deflate(raw));
+        writeChunk(out, "IEND", new byte[0]);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode the matrix as an SVG of the given rendered size, one user unit per matrix cell
+     */
+    public static String svg(BitMatrix matrix, int size) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        StringBuilder svg = new StringBuilder(64 + width * height / 2);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+            .append("\" height=\"").append(size)
+            .append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+            .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path d=\"");
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start).append(' ').append(y)
+                    .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    public static byte[] svgBytes(BitMatrix matrix, int size) {
+        return svg(matrix, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] length = new byte[4];
+        writeInt(length, 0, data.length);
+        out.writeBytes(length);
+        out.writeBytes(typeBytes);
+        out.writeBytes(data);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        byte[] checksum = new byte[4];
+        writeInt(checksum, 0, (int) crc.getValue());
+        out.writeBytes(checksum);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
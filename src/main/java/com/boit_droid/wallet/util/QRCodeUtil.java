@@ -8,11 +8,6 @@ import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import org.springframework.stereotype.Component;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,10 +18,11 @@ import java.util.Map;
 @Component
 public class QRCodeUtil {
 
-    private static final int DEFAULT_QR_CODE_SIZE = 300;
-    private static final String IMAGE_FORMAT = "PNG";
-    private static final Color FOREGROUND_COLOR = Color.BLACK;
-    private static final Color BACKGROUND_COLOR = Color.WHITE;
+    public static final int DEFAULT_QR_CODE_SIZE = 300;
+    private static final Map<EncodeHintType, Object> ENCODE_HINTS = Map.of(
+        EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+        EncodeHintType.CHARACTER_SET, "UTF-8",
+        EncodeHintType.MARGIN, 1);
 
     /**
      * Generate QR code for wallet identification
@@ -60,6 +56,39 @@ public class QRCodeUtil {
         return generateQRCodeImage(qrData, size);
     }
 
+    /**
+     * Build the content encoded in a wallet QR code
+     * @param walletId The wallet ID
+     * @param accountNumber The account number
+     * @param accountName The account name
+     * @return QR code content
+     */
+    public String walletQRCodeData(String walletId, String accountNumber, String accountName) {
+        validateInputs(walletId, accountNumber, accountName);
+        return encodeWalletData(walletId, accountNumber, accountName);
+    }
+
+    /**
+     * Render QR code content as an image
+     * @param data The data to encode
+     * @param size The size of the QR code (width and height in pixels)
+     * @param format The image format
+     * @return Image bytes
+     * @throws RuntimeException if QR code generation fails
+     */
+    public byte[] render(String data, int size, QRCodeFormat format) {
+        validateSize(size);
+        try {
+            return switch (format) {
+                case PNG -> QRCodeRenderer.png(encode(data, size));
+                // Vector output is drawn from the unscaled matrix, one unit per module
+                case SVG -> QRCodeRenderer.svgBytes(encode(data, 0), size);
+            };
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to generate QR code: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Generate QR code for payment request
      * @param walletId The wallet ID
@@ -124,55 +153,14 @@ public class QRCodeUtil {
      * @throws RuntimeException if QR code generation fails
      */
     private String generateQRCodeImage(String data, int size) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M);
-            hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.MARGIN, 1);
-
-            BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, size, size, hints);
-            BufferedImage qrImage = createQRImage(bitMatrix);
-            
-            return encodeImageToBase64(qrImage);
-        } catch (WriterException e) {
-            throw new RuntimeException("Failed to generate QR code: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to encode QR code image: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Create BufferedImage from BitMatrix
-     * @param bitMatrix The bit matrix from QR code generation
-     * @return BufferedImage representation of the QR code
-     */
-    private BufferedImage createQRImage(BitMatrix bitMatrix) {
-        int width = bitMatrix.getWidth();
-        int height = bitMatrix.getHeight();
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                image.setRGB(x, y, bitMatrix.get(x, y) ? 
-                           FOREGROUND_COLOR.getRGB() : BACKGROUND_COLOR.getRGB());
-            }
-        }
-        
-        return image;
+        return Base64.getEncoder().encodeToString(render(data, size, QRCodeFormat.PNG));
     }
 
     /**
-     * Encode BufferedImage to Base64 string
-     * @param image The image to encode
-     * @return Base64 encoded image string
-     * @throws IOException if encoding fails
+     * Encode data as a QR matrix scaled to size pixels; size 0 gives one cell per module
      */
-    private String encodeImageToBase64(BufferedImage image) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(image, IMAGE_FORMAT, outputStream);
-        byte[] imageBytes = outputStream.toByteArray();
-        return Base64.getEncoder().encodeToString(imageBytes);
+    private BitMatrix encode(String data, int size) throws WriterException {
+        return new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, size, size, ENCODE_HINTS);
     }
 
     /**
@@ -199,7 +187,7 @@ public class QRCodeUtil {
      * @param size The size to validate
      * @throws IllegalArgumentException if size is invalid
      */
-    private void validateSize(int size) {
+    public void validateSize(int size) {
         if (size < 100 || size > 1000) {
             throw new IllegalArgumentException("QR code size must be between 100 and 1000 pixels");
         }
@@ -0,0 +1,169 @@
+package com.boit_droid.wallet.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * scrypt key derivation (RFC 7914) on top of the JDK's HMAC-SHA256.
+ * Each derivation fills and then reads back in data-dependent order a 128 * r * N byte table,
+ * so guessing a PIN costs memory as well as CPU and cannot be spread cheaply over GPU cores.
+ * With N = 2^14 and r = 8 one derivation uses 16 MiB and takes tens of milliseconds.
+ */
+public final class SCrypt {
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private SCrypt() {
+    }
+
+    /**
+     * Derive a key
+     * @param password The password bytes; must not be empty
+     * @param salt The salt bytes
+     * @param n CPU/memory cost, a power of two greater than 1
+     * @param r Block size
+     * @param p Parallelisation
+     * @param length Length of the derived key in bytes
+     * @return Derived key
+     */
+    public static byte[] derive(byte[] password, byte[] salt, int n, int r, int p, int length) {
+        if (n < 2 || (n & (n - 1)) != 0) {
+            throw new IllegalArgumentException("N must be a power of two greater than 1");
+        }
+        if (r < 1 || p < 1 || (long) r * p >= 1 << 30 || n > Integer.MAX_VALUE / 128 / r) {
+            throw new IllegalArgumentException("Invalid scrypt parameters");
+        }
+        Mac mac;
+        try {
+            mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(password, HMAC_SHA256));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+
+        int blockInts = 32 * r;
+        byte[] b = pbkdf2(mac, salt, p * 128 * r);
+        int[] x = new int[blockInts];
+        int[] v = new int[blockInts * n];
+        int[] scratch = new int[16];
+        for (int i = 0; i < p; i++) {
+            int offset = i * 128 * r;
+            for (int k = 0; k < blockInts; k++) {
+                x[k] = readIntLE(b, offset + k * 4);
+            }
+            roMix(x, v, scratch, n, r);
+            for (int k = 0; k < blockInts; k++) {
+                writeIntLE(b, offset + k * 4, x[k]);
+            }
+        }
+        return pbkdf2(mac, b, length);
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 with a single iteration, as scrypt uses it
+     */
+    private static byte[] pbkdf2(Mac mac, byte[] salt, int length) {
+        byte[] out = new byte[length];
+        byte[] counter = new byte[4];
+        for (int block = 1, offset = 0; offset < length; block++, offset += 32) {
+            counter[0] = (byte) (block >>> 24);
+            counter[1] = (byte) (block >>> 16);
+            counter[2] = (byte) (block >>> 8);
+            counter[3] = (byte) block;
+            mac.update(salt);
+            byte[] t = mac.doFinal(counter);
+            System.arraycopy(t, 0, out, offset, Math.min(32, length - offset));
+        }
+        return out;
+    }
+
+    private static void roMix(int[] x, int[] v, int[] scratch, int n, int r) {
+        int blockInts = 32 * r;
+        int[] y = new int[blockInts];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(x, 0, v, i * blockInts, blockInts);
+            blockMix(x, y, scratch, r);
+        }
+        for (int i = 0; i < n; i++) {
+            // Integerify: the first word of the last 64-byte block picks the table entry
+            int j = x[(2 * r - 1) * 16] & (n - 1);
+            int base = j * blockInts;
+            for (int k = 0; k < blockInts; k++) {
+                x[k] ^= v[base + k];
+            }
+            blockMix(x, y, scratch, r);
+        }
+    }
+
+    /**
+     * BlockMix with Salsa20/8; the result replaces b, with even sub-blocks first and odd ones after
+     */
+    private static void blockMix(int[] b, int[] y, int[] xBlock, int r) {
+        System.arraycopy(b, (2 * r - 1) * 16, xBlock, 0, 16);
+        for (int i = 0; i < 2 * r; i++) {
+            for (int k = 0; k < 16; k++) {
+                xBlock[k] ^= b[i * 16 + k];
+            }
+            salsa208(xBlock);
+            int target = (i % 2 == 0 ? i / 2 : r + i / 2) * 16;
+            System.arraycopy(xBlock, 0, y, target, 16);
+        }
+        System.arraycopy(y, 0, b, 0, 32 * r);
+    }
+
+    private static void salsa208(int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        for (int i = 0; i < 8; i += 2) {
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3; b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11; b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+
+    private static int readIntLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff)
+            | (bytes[offset + 1] & 0xff) << 8
+            | (bytes[offset + 2] & 0xff) << 16
+            | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
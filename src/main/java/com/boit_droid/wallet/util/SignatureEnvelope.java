@@ -0,0 +1,85 @@
+package com.boit_droid.wallet.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Self-describing HMAC signature: {@code v1.<key id>.<epoch millis>.<base64url MAC>}.
+ * The envelope carries everything a verifier needs apart from the key and the signed fields,
+ * so checking it is a single HMAC instead of a search over candidate timestamps. The MAC covers
+ * the version, key id and timestamp as well as the payload, so none of them can be swapped.
+ */
+public record SignatureEnvelope(int version, String keyId, Instant signedAt, byte[] mac) {
+
+    public static final int CURRENT_VERSION = 1;
+    private static final String VERSION_PREFIX = "v";
+    private static final int KEY_ID_BYTES = 4;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Short, stable identifier of a signing key, so a rotated key fails fast instead of by MAC mismatch
+     */
+    public static String keyIdOf(String key, SignatureUtil signatureUtil) {
+        return HexFormat.of().formatHex(signatureUtil.sha256(key.getBytes(StandardCharsets.UTF_8)), 0, KEY_ID_BYTES);
+    }
+
+    /**
+     * Bytes the MAC is computed over: the envelope header followed by the payload
+     */
+    public static byte[] signedBytes(int version, String keyId, Instant signedAt, String payload) {
+        return (VERSION_PREFIX + version + "|" + keyId + "|" + signedAt.toEpochMilli() + "|" + payload)
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sign a payload with the current envelope version
+     */
+    public static SignatureEnvelope sign(String payload, String key, Instant signedAt, SignatureUtil signatureUtil) {
+        String keyId = keyIdOf(key, signatureUtil);
+        byte[] mac = signatureUtil.sign(signedBytes(CURRENT_VERSION, keyId, signedAt, payload), key);
+        return new SignatureEnvelope(CURRENT_VERSION, keyId, signedAt, mac);
+    }
+
+    /**
+     * Check the MAC against a payload and key; one HMAC at most
+     */
+    public boolean verify(String payload, String key, SignatureUtil signatureUtil) {
+        if (version != CURRENT_VERSION || !keyId.equals(keyIdOf(key, signatureUtil))) {
+            return false;
+        }
+        return signatureUtil.verify(signedBytes(version, keyId, signedAt, payload), mac, key);
+    }
+
+    public String encode() {
+        return VERSION_PREFIX + version + "." + keyId + "." + signedAt.toEpochMilli() + "." + ENCODER.encodeToString(mac);
+    }
+
+    public static boolean isEnvelope(String signature) {
+        return signature != null && signature.startsWith(VERSION_PREFIX) && signature.indexOf('.') > 0;
+    }
+
+    /**
+     * Parse an encoded envelope
+     * @return the envelope, or null if the value is not a well-formed envelope
+     */
+    public static SignatureEnvelope parse(String encoded) {
+        if (!isEnvelope(encoded)) {
+            return null;
+        }
+        String[] parts = encoded.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            int version = Integer.parseInt(parts[0].substring(VERSION_PREFIX.length()));
+            Instant signedAt = Instant.ofEpochMilli(Long.parseLong(parts[2]));
+            return new SignatureEnvelope(version, parts[1], signedAt, DECODER.decode(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -9,9 +9,15 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Utility class for cryptographic operations including PIN management and wallet security
+ * Utility class for cryptographic operations including PIN management and wallet security.
+ * Mac and MessageDigest instances are not thread-safe and expensive to look up, so each thread
+ * keeps its own SHA-256 digest and a small LRU cache of HMAC instances already initialised with
+ * a salt; a wallet signed or verified repeatedly reuses its Mac instead of creating a new one.
  */
 @Component
 public class SignatureUtil {
@@ -21,9 +27,21 @@ public class SignatureUtil {
     private static final int SALT_LENGTH = 32; // 256 bits
     private static final int PIN_MIN_LENGTH = 4;
     private static final int PIN_MAX_LENGTH = 6;
+    private static final int HMAC_CACHE_SIZE = 64; // initialised Macs kept per thread
     
     private final SecureRandom secureRandom = new SecureRandom();
 
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(SHA256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final ThreadLocal<LinkedHashMap<String, Mac>> hmacCache =
+        ThreadLocal.withInitial(() -> new LinkedHashMap<>(HMAC_CACHE_SIZE * 2, 0.75f, true));
+
     /**
      * Generate a cryptographically secure random salt
      * @return Base64 encoded salt string
@@ -43,17 +61,93 @@ public class SignatureUtil {
      */
     public String generateSignature(String data, String salt) {
         try {
-            Mac mac = Mac.getInstance(HMAC_SHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(salt.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
-            mac.init(secretKeySpec);
-            
-            byte[] signature = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            byte[] signature = sign(data.getBytes(StandardCharsets.UTF_8), salt);
             return Base64.getEncoder().encodeToString(signature);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate signature", e);
         }
     }
 
+    /**
+     * Compute the raw HMAC-SHA256 of binary data with a salt, using this thread's cached Mac for the salt
+     * @param data The data to sign
+     * @param salt The salt to use for signing
+     * @return 32-byte signature
+     */
+    public byte[] sign(byte[] data, String salt) {
+        return hmacFor(salt).doFinal(data);
+    }
+
+    /**
+     * Verify a raw HMAC-SHA256 signature in constant time
+     * @param data The original data
+     * @param signature The signature to verify
+     * @param salt The salt used for signing
+     * @return true if signature is valid, false otherwise
+     */
+    public boolean verify(byte[] data, byte[] signature, String salt) {
+        return signature != null && MessageDigest.isEqual(sign(data, salt), signature);
+    }
+
+    /**
+     * Compute the SHA-256 hash of the concatenated parts with this thread's digest
+     * @param parts The byte arrays to hash, in order
+     * @return 32-byte hash
+     */
+    public byte[] sha256(byte[]... parts) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        for (byte[] part : parts) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Create an HMAC-SHA256 instance initialised with the given key, for callers that sign
+     * binary data incrementally. The instance is not thread-safe.
+     * @param key The signing key
+     * @return Initialised Mac
+     * @throws RuntimeException if the Mac cannot be created
+     */
+    public Mac newHmac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialise HMAC", e);
+        }
+    }
+
+    /**
+     * This thread's Mac for the salt; on a miss the least recently used Mac is re-keyed
+     * rather than a new instance looked up
+     */
+    private Mac hmacFor(String salt) {
+        LinkedHashMap<String, Mac> cache = hmacCache.get();
+        Mac mac = cache.get(salt);
+        if (mac != null) {
+            return mac;
+        }
+        SecretKeySpec key = new SecretKeySpec(salt.getBytes(StandardCharsets.UTF_8), HMAC_SHA256);
+        try {
+            if (cache.size() >= HMAC_CACHE_SIZE) {
+                Iterator<Map.Entry<String, Mac>> eldest = cache.entrySet().iterator();
+                mac = eldest.next().getValue();
+                eldest.remove();
+                mac.init(key);
+            } else {
+                mac = Mac.getInstance(HMAC_SHA256);
+                mac.init(key);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialise HMAC", e);
+        }
+        cache.put(salt, mac);
+        return mac;
+    }
+
     /**
      * Verify wallet signature
      * @param data The original data
@@ -63,11 +157,7 @@ public class SignatureUtil {
      */
     public boolean verifySignature(String data, String signature, String salt) {
         try {
-            String expectedSignature = generateSignature(data, salt);
-            return MessageDigest.isEqual(
-                signature.getBytes(StandardCharsets.UTF_8),
-                expectedSignature.getBytes(StandardCharsets.UTF_8)
-            );
+            return verify(data.getBytes(StandardCharsets.UTF_8), Base64.getDecoder().decode(signature), salt);
         } catch (Exception e) {
             return false;
         }
@@ -82,14 +172,8 @@ public class SignatureUtil {
      */
     public String hashPin(String pin, String salt) {
         validatePin(pin);
-        try {
-            MessageDigest digest = MessageDigest.getInstance(SHA256);
-            digest.update(salt.getBytes(StandardCharsets.UTF_8));
-            byte[] hash = digest.digest(pin.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to hash PIN", e);
-        }
+        byte[] hash = sha256(salt.getBytes(StandardCharsets.UTF_8), pin.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
 
     /**
@@ -105,11 +189,9 @@ public class SignatureUtil {
                 return false;
             }
             
-            String computedHash = hashPin(pin, salt);
-            return MessageDigest.isEqual(
-                storedHash.getBytes(StandardCharsets.UTF_8),
-                computedHash.getBytes(StandardCharsets.UTF_8)
-            );
+            validatePin(pin);
+            byte[] computedHash = sha256(salt.getBytes(StandardCharsets.UTF_8), pin.getBytes(StandardCharsets.UTF_8));
+            return MessageDigest.isEqual(Base64.getDecoder().decode(storedHash), computedHash);
         } catch (Exception e) {
             return false;
         }
@@ -259,14 +341,9 @@ public class SignatureUtil {
      * @return SHA-256 hash of the fingerprint
      */
     public String generateRequestFingerprint(String requestData, String timestamp, String nonce) {
-        try {
-            String fingerprintData = String.join("|", requestData, timestamp, nonce);
-            MessageDigest digest = MessageDigest.getInstance(SHA256);
-            byte[] hash = digest.digest(fingerprintData.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to generate request fingerprint", e);
-        }
+        String fingerprintData = String.join("|", requestData, timestamp, nonce);
+        byte[] hash = sha256(fingerprintData.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
 
     /**
@@ -0,0 +1,114 @@
+package com.boit_droid.wallet.util;
+
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.Wallet;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Canonical hash of the financial content of a transaction.
+ * The canonical form is a format version followed by length-prefixed UTF-8 fields in a fixed order;
+ * amounts are written at the column scale so the in-memory and the stored value hash alike. The
+ * hash is SHA-256 over a 0x00 prefix and the canonical form, which makes it a leaf of the daily
+ * {@link MerkleTree}. Processing fields that legitimately change after the fact (verification,
+ * retries, approval) are not part of it.
+ */
+public final class TransactionHasher {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final int AMOUNT_SCALE = 2;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private TransactionHasher() {
+    }
+
+    /**
+     * Leaf hash of the transaction
+     */
+    public static byte[] hash(Transaction transaction) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        digest.update(LEAF_PREFIX);
+        return digest.digest(canonicalForm(transaction));
+    }
+
+    /**
+     * Leaf hash of the transaction as lowercase hex, the form stored in transactionHash
+     */
+    public static String hashHex(Transaction transaction) {
+        return HEX.formatHex(hash(transaction));
+    }
+
+    public static String toHex(byte[] hash) {
+        return HEX.formatHex(hash);
+    }
+
+    public static byte[] fromHex(String hex) {
+        return HEX.parseHex(hex);
+    }
+
+    static byte[] canonicalForm(Transaction transaction) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(FORMAT_VERSION);
+        writeField(out, transaction.getRequestId());
+        writeField(out, transaction.getType() != null ? transaction.getType().name() : null);
+        writeField(out, transaction.getStatus() != null ? transaction.getStatus().name() : null);
+        writeField(out, transaction.getCurrency());
+        writeField(out, amount(transaction.getAmount()));
+        writeField(out, amount(transaction.getTransactionFee()));
+        writeField(out, amount(transaction.getExchangeRate()));
+        writeField(out, walletId(transaction.getSenderWallet()));
+        writeField(out, walletId(transaction.getReceiverWallet()));
+        writeField(out, amount(transaction.getSenderBalanceBefore()));
+        writeField(out, amount(transaction.getSenderBalanceAfter()));
+        writeField(out, amount(transaction.getReceiverBalanceBefore()));
+        writeField(out, amount(transaction.getReceiverBalanceAfter()));
+        writeField(out, transaction.getExternalReference());
+        writeField(out, transaction.getParentTransactionId());
+        writeField(out, transaction.getTransactionSignature());
+        writeField(out, transaction.getCreatedAt() != null ? String.valueOf(transaction.getCreatedAt().toEpochMilli()) : null);
+        return out.toByteArray();
+    }
+
+    private static String amount(BigDecimal value) {
+        // Matches the rounding applied when a DECIMAL(19,2) column stores the value
+        return value != null ? value.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).toPlainString() : null;
+    }
+
+    private static String walletId(Wallet wallet) {
+        // getId does not initialise a lazy proxy; the value equals Wallet.getWalletId
+        return wallet != null && wallet.getId() != null ? String.valueOf(wallet.getId()) : null;
+    }
+
+    private static void writeField(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeInt(out, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
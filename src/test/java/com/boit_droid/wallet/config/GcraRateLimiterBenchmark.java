@@ -0,0 +1,74 @@
+package com.boit_droid.wallet.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of the rate limiter decision.
+ * hotKey hammers one client from every thread, which is the worst case for compare-and-set
+ * contention; manyClients spreads requests over a key space larger than the store so the
+ * overflow bucket and idle eviction are exercised as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GcraRateLimiterBenchmark {
+
+    private static final int CLIENTS = 200_000;
+    private static final long PERIOD_MILLIS = 60_000;
+
+    private GcraRateLimiter limiter;
+    private String[] clientKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new GcraRateLimiter(100_000);
+        clientKeys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientKeys[i] = "60:10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public boolean hotKeySingleThread() {
+        return limiter.tryAcquire("60:127.0.0.1", 60, PERIOD_MILLIS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean hotKeyContended() {
+        return limiter.tryAcquire("60:127.0.0.1", 60, PERIOD_MILLIS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean manyClients() {
+        String key = clientKeys[ThreadLocalRandom.current().nextInt(CLIENTS)];
+        return limiter.tryAcquire(key, 60, PERIOD_MILLIS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(GcraRateLimiterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
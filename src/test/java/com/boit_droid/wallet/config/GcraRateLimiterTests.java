@@ -0,0 +1,66 @@
+package com.boit_droid.wallet.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GcraRateLimiterTests {
+
+	@Test
+	void admitsBurstThenSteadyRate() throws Exception {
+		GcraRateLimiter limiter = new GcraRateLimiter(100);
+		int admitted = 0;
+		for (int i = 0; i < 20; i++) {
+			if (limiter.tryAcquire("client", 10, 1000)) {
+				admitted++;
+			}
+		}
+		assertEquals(10, admitted);
+
+		// One emission interval later exactly one more request fits
+		Thread.sleep(110);
+		assertTrue(limiter.tryAcquire("client", 10, 1000));
+		assertFalse(limiter.tryAcquire("client", 10, 1000));
+	}
+
+	@Test
+	void evictsIdleKeys() throws Exception {
+		GcraRateLimiter limiter = new GcraRateLimiter(100);
+		limiter.tryAcquire("client", 10, 100);
+
+		Thread.sleep(150);
+
+		assertEquals(1, limiter.evictIdle());
+		assertEquals(0, limiter.size());
+	}
+
+	@Test
+	void fullKeyStoreLimitsNewKeysPerOverflowKey() {
+		GcraRateLimiter limiter = new GcraRateLimiter(100);
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire("spoofed-" + i, 5, 60000);
+		}
+
+		// A flood of fresh keys from one peer only drains that peer's overflow bucket
+		for (int i = 100; i < 1000; i++) {
+			limiter.tryAcquire("spoofed-" + i, "attacker", 5, 60000, 5);
+		}
+		assertTrue(limiter.tryAcquire("honest-client", "honest-peer", 5, 60000, 5));
+		assertEquals(100, limiter.size());
+		assertEquals(901, limiter.getOverflowCount());
+	}
+
+	@Test
+	void fullKeyStoreWithoutOverflowKeySharesOneBucket() {
+		GcraRateLimiter limiter = new GcraRateLimiter(100);
+		for (int i = 0; i < 1000; i++) {
+			limiter.tryAcquire("k" + i, 5, 60000);
+		}
+
+		assertEquals(100, limiter.size());
+		assertEquals(900, limiter.getOverflowCount());
+		assertEquals(105, limiter.getAllowedCount());
+	}
+}
@@ -0,0 +1,70 @@
+package com.boit_droid.wallet.config;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties.RateLimitRoute;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitRouteTableTests {
+
+	private final RateLimitRouteTable table = new RateLimitRouteTable(
+		new WalletConfigurationProperties().getSecurity().getRateLimitRoutes(), 60, 0);
+
+	@Test
+	void defaultsComeFromApplicationYml() {
+		List<RateLimitRoute> routes = new WalletConfigurationProperties().getSecurity().getRateLimitRoutes();
+
+		assertEquals(7, routes.size());
+		assertEquals("/api/v1/wallet/{walletId}/transfer", routes.get(0).getPattern());
+		assertEquals(RateLimitRoute.KeyStrategy.CLIENT_AND_PATH_VARIABLE, routes.get(0).getKeyStrategy());
+		assertEquals("walletId", routes.get(0).getKeyVariable());
+		assertEquals(RateLimitRoute.KeyStrategy.CLIENT_IP, routes.get(2).getKeyStrategy());
+	}
+
+	@Test
+	void classifiesByMethodAndPattern() {
+		assertEquals(5, table.classify("POST", "/api/v1/wallet/W1/transfer").getLimit());
+		assertEquals(60, table.classify("GET", "/api/v1/wallet/W1/transfer").getLimit());
+		assertEquals(10, table.classify("POST", "/api/v1/user/register").getLimit());
+		assertEquals(60, table.classify("GET", "/api/v1/notifications/users/1").getLimit());
+		assertEquals(60, table.classify("GET", "/").getLimit());
+		assertEquals(60, table.classify("GET", "").getLimit());
+	}
+
+	@Test
+	void keysSensitiveRoutesOnClientAndResource() {
+		String path = "/api/v1/wallet/W1/transfer";
+		RateLimitRouteTable.Policy transfer = table.classify("POST", path);
+
+		assertEquals("r0:walletId=W1@1.2.3.4", transfer.bucketKey(path, "1.2.3.4"));
+		// Another client cannot spend the owner's budget for the same wallet
+		assertNotEquals(transfer.bucketKey(path, "1.2.3.4"), transfer.bucketKey(path, "5.6.7.8"));
+		assertEquals("r5:userId=U9@ip", table.classify("POST", "/api/v1/user/U9/kyc").bucketKey("/api/v1/user/U9/kyc", "ip"));
+	}
+
+	@Test
+	void keysPathVariableRoutesOnResourceOnly() {
+		RateLimitRouteTable routes = new RateLimitRouteTable(List.of(
+			new RateLimitRoute("GET", "/api/v1/wallet/{walletId}/qrcode", 30, RateLimitRoute.KeyStrategy.PATH_VARIABLE, "walletId")), 60, 0);
+		String path = "/api/v1/wallet/W1/qrcode";
+
+		assertEquals("r0:walletId=W1", routes.classify("GET", path).bucketKey(path, "1.2.3.4"));
+	}
+
+	@Test
+	void keysDefaultRouteOnClient() {
+		assertEquals("d:ip", table.classify("GET", "/").bucketKey("/", "ip"));
+	}
+
+	@Test
+	void rejectsKeyVariableMissingFromPattern() {
+		List<RateLimitRoute> routes = List.of(
+			new RateLimitRoute("POST", "/api/v1/wallet/{walletId}/transfer", 5, RateLimitRoute.KeyStrategy.CLIENT_AND_PATH_VARIABLE, "userId"));
+
+		assertThrows(IllegalArgumentException.class, () -> new RateLimitRouteTable(routes, 60, 0));
+	}
+}
@@ -0,0 +1,118 @@
+package com.boit_droid.wallet.config;
+
+import ch.qos.logback.classic.Logger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full filter pass of RateLimitingFilter: client identification, route classification, bucket
+ * key construction and the limiter decision. The open filter raises every limit so requests are
+ * always let through, for a routed path keyed by wallet and an unrouted one keyed by client IP;
+ * rejected sends one client over the default transfer limit and measures the 429 response.
+ * The limiter alone is covered by GcraRateLimiterBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitingFilterBenchmark {
+
+    private static final int CLIENTS = 50_000;
+    private static final int OPEN_LIMIT = 1_000_000_000;
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private RateLimitingFilter openFilter;
+    private RateLimitingFilter defaultFilter;
+
+    @State(Scope.Thread)
+    public static class Requests {
+        private final MockHttpServletRequest transfer = new MockHttpServletRequest("POST", "");
+        private final MockHttpServletRequest balance = new MockHttpServletRequest("GET", "");
+        private final MockHttpServletRequest hotTransfer =
+            new MockHttpServletRequest("POST", "/api/v1/wallet/hot-wallet/transfer");
+
+        MockHttpServletRequest transfer(int client) {
+            transfer.setRequestURI("/api/v1/wallet/wallet-" + client + "/transfer");
+            transfer.setRemoteAddr(address(client));
+            return transfer;
+        }
+
+        MockHttpServletRequest balance(int client) {
+            balance.setRequestURI("/api/v1/wallet/wallet-" + client + "/balance");
+            balance.setRemoteAddr(address(client));
+            return balance;
+        }
+
+        private static String address(int client) {
+            return "10." + (client >> 16) + "." + ((client >> 8) & 0xff) + "." + (client & 0xff);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(RateLimitingFilter.class)).setLevel(ch.qos.logback.classic.Level.ERROR);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        WalletConfigurationProperties open = new WalletConfigurationProperties();
+        open.getSecurity().setRateLimitDefaultLimit(OPEN_LIMIT);
+        open.getSecurity().getRateLimitRoutes().forEach(route -> route.setLimit(OPEN_LIMIT));
+        openFilter = new RateLimitingFilter(open, objectMapper);
+        defaultFilter = new RateLimitingFilter(new WalletConfigurationProperties(), objectMapper);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int routedAllowed(Requests requests) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        openFilter.doFilter(requests.transfer(ThreadLocalRandom.current().nextInt(CLIENTS)), response, CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int unroutedAllowed(Requests requests) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        openFilter.doFilter(requests.balance(ThreadLocalRandom.current().nextInt(CLIENTS)), response, CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int rejected(Requests requests) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        defaultFilter.doFilter(requests.hotTransfer, response, CHAIN);
+        return response.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RateLimitingFilterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
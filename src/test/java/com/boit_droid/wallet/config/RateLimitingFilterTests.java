@@ -0,0 +1,65 @@
+package com.boit_droid.wallet.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitingFilterTests {
+
+	private static final String PROXY = "10.0.0.5";
+
+	@Test
+	void ignoresForwardingHeadersFromUntrustedPeer() {
+		RateLimitingFilter filter = filter(List.of(PROXY));
+		MockHttpServletRequest request = request("203.0.113.7");
+		request.addHeader("X-Forwarded-For", "198.51.100.1");
+		request.addHeader("X-Real-IP", "198.51.100.2");
+
+		assertEquals("203.0.113.7", filter.getClientIdentifier(request));
+	}
+
+	@Test
+	void takesRightMostUntrustedHopFromTrustedProxy() {
+		RateLimitingFilter filter = filter(List.of(PROXY, "10.0.0.6"));
+		MockHttpServletRequest request = request(PROXY);
+		// The client wrote the left-most entry itself; the proxies appended the rest
+		request.addHeader("X-Forwarded-For", "1.2.3.4, 198.51.100.1, 10.0.0.6");
+
+		assertEquals("198.51.100.1", filter.getClientIdentifier(request));
+	}
+
+	@Test
+	void fallsBackToRealIpThenPeerFromTrustedProxy() {
+		RateLimitingFilter filter = filter(List.of(PROXY));
+		MockHttpServletRequest request = request(PROXY);
+		request.addHeader("X-Real-IP", "198.51.100.2");
+
+		assertEquals("198.51.100.2", filter.getClientIdentifier(request));
+		assertEquals(PROXY, filter.getClientIdentifier(request(PROXY)));
+	}
+
+	@Test
+	void trustsNoProxyByDefault() {
+		RateLimitingFilter filter = new RateLimitingFilter(new WalletConfigurationProperties(), new ObjectMapper());
+		MockHttpServletRequest request = request("127.0.0.1");
+		request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+		assertEquals("127.0.0.1", filter.getClientIdentifier(request));
+	}
+
+	private static RateLimitingFilter filter(List<String> trustedProxies) {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getSecurity().setRateLimitTrustedProxies(trustedProxies);
+		return new RateLimitingFilter(properties, new ObjectMapper());
+	}
+
+	private static MockHttpServletRequest request(String remoteAddr) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallet/W1");
+		request.setRemoteAddr(remoteAddr);
+		return request;
+	}
+}
@@ -0,0 +1,120 @@
+package com.boit_droid.wallet.controller;
+
+import com.boit_droid.wallet.dto.request.WalletCreationRequest;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.repository.WalletRepository;
+import com.boit_droid.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * QR code image endpoint over MockMvc
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WalletControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private WalletRepository walletRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void servesQRCodeImageWithEtag() throws Exception {
+		String path = "/api/v1/wallet/" + newWallet().getRequestId() + "/qrcode.png";
+
+		MockHttpServletResponse response = mockMvc.perform(get(path)).andReturn().getResponse();
+
+		assertEquals(200, response.getStatus());
+		assertEquals("image/png", response.getContentType());
+		assertNotNull(response.getHeader("ETag"));
+		assertTrue(response.getHeader("Cache-Control").contains("private"));
+		assertTrue(response.getContentAsByteArray().length > 0);
+
+		MockHttpServletResponse larger = mockMvc.perform(get(path).param("size", "500")).andReturn().getResponse();
+		assertEquals(200, larger.getStatus());
+		assertNotEquals(response.getHeader("ETag"), larger.getHeader("ETag"));
+
+		MockHttpServletResponse svg = mockMvc.perform(get(path.replace(".png", ".svg"))).andReturn().getResponse();
+		assertEquals(200, svg.getStatus());
+		assertTrue(svg.getContentType().startsWith("image/svg+xml"));
+	}
+
+	@Test
+	void answersNotModifiedForMatchingEtag() throws Exception {
+		String path = "/api/v1/wallet/" + newWallet().getRequestId() + "/qrcode.png";
+		String etag = mockMvc.perform(get(path)).andReturn().getResponse().getHeader("ETag");
+
+		MockHttpServletResponse response = mockMvc.perform(get(path).header("If-None-Match", etag)).andReturn().getResponse();
+
+		assertEquals(304, response.getStatus());
+		assertEquals(etag, response.getHeader("ETag"));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void rejectsUnknownWalletAndBadSize() throws Exception {
+		assertEquals(404, mockMvc.perform(get("/api/v1/wallet/missing-wallet/qrcode.png")).andReturn().getResponse().getStatus());
+
+		String path = "/api/v1/wallet/" + newWallet().getRequestId() + "/qrcode.png";
+		assertEquals(400, mockMvc.perform(get(path).param("size", "5")).andReturn().getResponse().getStatus());
+	}
+
+	private Wallet newWallet() {
+		User user = newUser();
+		WalletCreationRequest request = new WalletCreationRequest();
+		request.setAccountName("Main wallet");
+		request.setCurrency("KES");
+		request.setPin("1357");
+		walletService.createWallet(user.getRequestId(), request);
+		return walletRepository.findByUserAndStatus(user, Status.ACTIVE).orElseThrow();
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("qrcode-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("qrcode" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
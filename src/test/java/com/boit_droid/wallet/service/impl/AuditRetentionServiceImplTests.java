@@ -0,0 +1,132 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.AuditTrailRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.AuditRetentionService;
+import com.boit_droid.wallet.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retention against the real audit table, with a chunk size small enough that one sweep spans
+ * several chunks
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"wallet.audit.retention-chunk-size=10",
+	"wallet.audit.retention-chunk-pause-ms=0",
+	"wallet.audit.retention-archive-enabled=true",
+	"wallet.audit.retention-archive-directory=target/audit-archive-test"
+})
+@ActiveProfiles("test")
+class AuditRetentionServiceImplTests {
+
+	@Autowired
+	private AuditRetentionService retentionService;
+
+	@Autowired
+	private AuditTrailRepository auditTrailRepository;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private WalletConfigurationProperties walletProperties;
+
+	@Test
+	void purgesExpiredAndUndatedRowsPastRetention() {
+		String entityId = "retention-" + UUID.randomUUID().toString().substring(0, 8);
+		Instant now = Instant.now();
+		Instant pastRetention = now.minus(Duration.ofDays(walletProperties.getAudit().getAuditRetentionDays() + 1));
+		List<AuditTrail> rows = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			rows.add(row(entityId, "EXPIRED", now.minus(Duration.ofDays(1)), now.minusSeconds(60 - i)));
+		}
+		for (int i = 0; i < 12; i++) {
+			rows.add(row(entityId, "UNDATED_OLD", pastRetention.minusSeconds(i), null));
+		}
+		rows.add(row(entityId, "KEPT", now, now.plus(Duration.ofDays(1))));
+		rows.add(row(entityId, "UNDATED_RECENT", now, null));
+		auditTrailRepository.saveAll(rows);
+
+		Map<String, Long> result = retentionService.runRetention();
+
+		Set<String> remaining = auditTrailRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc("RetentionTest", entityId)
+			.stream().map(AuditTrail::getOperation).collect(Collectors.toSet());
+		assertEquals(Set.of("KEPT", "UNDATED_RECENT"), remaining);
+		assertTrue(result.get("purged") >= 37);
+		assertEquals(result.get("purged"), result.get("archived"));
+		assertTrue(result.get("chunks") >= 5);
+	}
+
+	@Test
+	void bulkNotificationAuditCarriesRetentionExpiry() {
+		User user = newUser();
+
+		notificationService.markAllNotificationsAsRead(user.getId().toString());
+
+		List<AuditTrail> audits = auditTrailRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc("Notification", user.getRequestId());
+		assertEquals(1, audits.size());
+		AuditTrail audit = audits.get(0);
+		assertNotNull(audit.getRetentionExpiryDate());
+		assertEquals(audit.getTimestamp().plus(Duration.ofDays(walletProperties.getAudit().getAuditRetentionDays())),
+			audit.getRetentionExpiryDate());
+	}
+
+	private static AuditTrail row(String entityId, String operation, Instant timestamp, Instant retentionExpiryDate) {
+		AuditTrail audit = new AuditTrail();
+		audit.setAuditId(UUID.randomUUID().toString());
+		audit.setEntityType("RetentionTest");
+		audit.setEntityId(entityId);
+		audit.setOperation(operation);
+		audit.setTimestamp(timestamp);
+		audit.setCreatedAt(timestamp);
+		audit.setRetentionExpiryDate(retentionExpiryDate);
+		return audit;
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("audit-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("audit" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,160 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.repository.AuditTrailBatchInserter;
+import com.boit_droid.wallet.util.SignatureUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditTrailWriterImplTests {
+
+	private static final PlatformTransactionManager NO_TRANSACTIONS = (PlatformTransactionManager) Proxy.newProxyInstance(
+		PlatformTransactionManager.class.getClassLoader(), new Class<?>[] {PlatformTransactionManager.class},
+		(proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+
+	private final RecordingInserter inserter = new RecordingInserter();
+	private AuditTrailWriterImpl writer;
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		if (writer != null) {
+			writer.stop();
+		}
+	}
+
+	@Test
+	void writesRowsWithRetentionExpiry() throws Exception {
+		WalletConfigurationProperties properties = syncProperties();
+		writer = start(properties);
+		AuditEvent event = event("Wallet", false);
+
+		writer.capture(event);
+
+		assertEquals(1, inserter.rows.size());
+		AuditTrail row = inserter.rows.get(0);
+		assertEquals(event.getAuditId(), row.getAuditId());
+		assertEquals("{\"balance\":\"10\"}", row.getNewValues());
+		assertEquals(event.getTimestamp().plus(Duration.ofDays(properties.getAudit().getAuditRetentionDays())),
+			row.getRetentionExpiryDate());
+		assertEquals(1, writer.getWrittenCount());
+	}
+
+	@Test
+	void publishesOnlyCommittedEvents() throws Exception {
+		writer = start(syncProperties());
+
+		TransactionSynchronizationManager.initSynchronization();
+		writer.capture(event("Wallet", false));
+		writer.capture(event("Transaction", true));
+		assertTrue(inserter.rows.isEmpty());
+		List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCommit(committed);
+		assertEquals(2, inserter.rows.size());
+
+		TransactionSynchronizationManager.initSynchronization();
+		writer.capture(event("Wallet", false));
+		TransactionSynchronizationManager.clearSynchronization();
+		assertEquals(2, inserter.rows.size());
+	}
+
+	@Test
+	void countsRowsThatFailAllAttempts() throws Exception {
+		inserter.failing = true;
+		writer = start(syncProperties());
+
+		writer.capture(event("Wallet", false));
+
+		assertEquals(1, writer.getFailedCount());
+		assertEquals(0, writer.getWrittenCount());
+	}
+
+	@Test
+	void journalKeepsOnlyIndexRowsOfFinancialEventsInTable(@TempDir Path journalDirectory) throws Exception {
+		WalletConfigurationProperties properties = syncProperties();
+		properties.getAudit().setJournalEnabled(true);
+		properties.getAudit().setJournalDirectory(journalDirectory.toString());
+		properties.getAudit().setJournalKey("test-key");
+		properties.getAudit().setDatabaseSamplePercent(0);
+		writer = start(properties);
+
+		writer.capture(event("Wallet", false));
+		AuditEvent financial = event("Transaction", true);
+		writer.capture(financial);
+
+		assertEquals(2, writer.getJournaledCount());
+		assertEquals(1, inserter.rows.size());
+		AuditTrail row = inserter.rows.get(0);
+		assertEquals(financial.getAuditId(), row.getAuditId());
+		assertNull(row.getNewValues());
+		assertNotNull(row.getChangedFields());
+	}
+
+	private AuditTrailWriterImpl start(WalletConfigurationProperties properties) throws Exception {
+		AuditTrailWriterImpl started = new AuditTrailWriterImpl(properties, inserter, NO_TRANSACTIONS, new SignatureUtil());
+		started.start();
+		return started;
+	}
+
+	private static WalletConfigurationProperties syncProperties() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getAudit().setWriterMode(WalletConfigurationProperties.Audit.WriterMode.SYNC_ON_COMMIT);
+		return properties;
+	}
+
+	private static AuditEvent event(String entityType, boolean financial) {
+		return AuditEvent.builder()
+			.auditId(UUID.randomUUID().toString())
+			.entityType(entityType)
+			.entityId("1")
+			.operation("UPDATE")
+			.financialData(financial)
+			.transactionAmount(financial ? new BigDecimal("10.00") : null)
+			.timestamp(Instant.now())
+			.newValues("{\"balance\":\"10\"}")
+			.changedFields("balance")
+			.build();
+	}
+
+	private static class RecordingInserter extends AuditTrailBatchInserter {
+		private final List<AuditTrail> rows = new CopyOnWriteArrayList<>();
+		private volatile boolean failing;
+
+		RecordingInserter() {
+			super(null, null);
+		}
+
+		@Override
+		public void insert(List<AuditTrail> batch) {
+			if (failing) {
+				throw new IllegalStateException("database unavailable");
+			}
+			rows.addAll(batch);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+import com.boit_droid.wallet.repository.AuditTrailRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.AuditTrailWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SYNC_ON_COMMIT writes with more committing transactions than the request pool has connections.
+ * Every committer holds its request connection while it waits, so the writer must not need one.
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"spring.datasource.hikari.maximum-pool-size=2",
+	"spring.datasource.hikari.minimum-idle=2",
+	"spring.datasource.hikari.connection-timeout=2000",
+	"wallet.audit.writer-mode=SYNC_ON_COMMIT",
+	"wallet.audit.writer-sync-timeout-ms=5000"
+})
+@ActiveProfiles("test")
+class AuditTrailWriterPoolTests {
+
+	private static final int COMMITTERS = 8;
+
+	@Autowired
+	private AuditTrailWriter auditTrailWriter;
+
+	@Autowired
+	private AuditTrailRepository auditTrailRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void committersOutnumberingPoolAreNotStarved() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		String batch = UUID.randomUUID().toString().substring(0, 8);
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(COMMITTERS);
+		List<Future<Long>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < COMMITTERS; i++) {
+				String entityId = batch + "-" + i;
+				futures.add(executor.submit(() -> {
+					start.await();
+					long started = System.nanoTime();
+					transactionTemplate.executeWithoutResult(status -> {
+						// Hold a request connection through commit, as a real write does
+						userRepository.count();
+						auditTrailWriter.capture(event(entityId));
+					});
+					return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+				}));
+			}
+			start.countDown();
+			for (Future<Long> future : futures) {
+				long elapsedMillis = future.get(60, TimeUnit.SECONDS);
+				assertTrue(elapsedMillis < 2000, "commit waited " + elapsedMillis + " ms for the audit writer");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (int i = 0; i < COMMITTERS; i++) {
+			assertTrue(auditTrailRepository.findFirstByEntityTypeAndEntityIdOrderByTimestampDesc("PoolTest", batch + "-" + i)
+				.isPresent());
+		}
+	}
+
+	private static AuditEvent event(String entityId) {
+		return AuditEvent.builder()
+			.auditId(UUID.randomUUID().toString())
+			.entityType("PoolTest")
+			.entityId(entityId)
+			.operation("UPDATE")
+			.timestamp(Instant.now())
+			.newValues("{\"balance\":\"10\"}")
+			.changedFields("balance")
+			.build();
+	}
+}
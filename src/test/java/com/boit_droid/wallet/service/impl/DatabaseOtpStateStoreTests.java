@@ -0,0 +1,83 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.entity.OtpRateCounter;
+import com.boit_droid.wallet.repository.OtpCodeRepository;
+import com.boit_droid.wallet.repository.OtpRateCounterRepository;
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.RateCounterStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the store contract against the shared tables. Tests run outside a test transaction so
+ * concurrent attempts see each other's commits, as they would on separate nodes.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseOtpStateStoreTests extends OtpStateStoreContractTests {
+
+	@Autowired
+	private OtpCodeRepository otpCodeRepository;
+
+	@Autowired
+	private OtpRateCounterRepository otpRateCounterRepository;
+
+	private DatabaseOtpStore otpStore;
+	private DatabaseRateCounterStore rateCounterStore;
+
+	@BeforeEach
+	void setUp() {
+		otpCodeRepository.deleteAll();
+		otpRateCounterRepository.deleteAll();
+		otpStore = new DatabaseOtpStore(otpCodeRepository, 60000, 1000);
+		rateCounterStore = new DatabaseRateCounterStore(otpRateCounterRepository);
+	}
+
+	@Test
+	void sizeIsRecountedByCleanupOnly() throws Exception {
+		otpStore.put("user-1", "123456", 60000);
+		otpStore.put("user-2", "654321", 60000);
+		otpStore.put("user-3", "111111", 1);
+		assertEquals(0, otpStore.size());
+
+		Thread.sleep(5);
+		otpStore.cleanExpired();
+
+		assertEquals(2, otpStore.size());
+		assertEquals(1, otpStore.getExpiredCount());
+	}
+
+	@Test
+	void laggingClockNeverMovesCounterBack() {
+		long window = 60000;
+		long laterStart = System.currentTimeMillis() / window * window + window;
+		otpRateCounterRepository.saveAndFlush(new OtpRateCounter("OTP_USER:lagging", laterStart, 5,
+			Instant.ofEpochMilli(laterStart + window)));
+
+		assertEquals(6, rateCounterStore.increment("OTP_USER:lagging", window));
+
+		OtpRateCounter counter = otpRateCounterRepository.findById("OTP_USER:lagging").orElseThrow();
+		assertEquals(laterStart, counter.getWindowStart());
+		assertEquals(6, counter.getHitCount());
+	}
+
+	@Override
+	protected OtpStore otpStore() {
+		return otpStore;
+	}
+
+	@Override
+	protected RateCounterStore rateCounterStore() {
+		return rateCounterStore;
+	}
+}
@@ -0,0 +1,69 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.support.InProcessSmtpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailBatchDispatcherTests {
+
+	@Test
+	void sendsQueuedMessagesOverSharedSessions() throws Exception {
+		try (InProcessSmtpServer server = new InProcessSmtpServer(50)) {
+			WalletConfigurationProperties properties = new WalletConfigurationProperties();
+			properties.getNotification().setEmailBatchSize(20);
+			properties.getNotification().setEmailMaxConcurrentSessions(2);
+
+			EmailBatchDispatcher dispatcher = new EmailBatchDispatcher(server.createMailSender(), properties);
+			dispatcher.start();
+			try {
+				List<CompletableFuture<Boolean>> results = new ArrayList<>();
+				for (int i = 0; i < 60; i++) {
+					results.add(dispatcher.submit(message("user" + i + "@example.com", "Message " + i)));
+				}
+				for (CompletableFuture<Boolean> result : results) {
+					assertTrue(result.get(10, TimeUnit.SECONDS));
+				}
+			} finally {
+				dispatcher.stop();
+			}
+
+			assertEquals(60, server.getReceivedMessages().size());
+			assertTrue(server.getConnectionCount() < 60,
+					"expected shared sessions but saw " + server.getConnectionCount() + " connections");
+		}
+	}
+
+	@Test
+	void reportsFailureWhenServerIsUnreachable() throws Exception {
+		InProcessSmtpServer server = new InProcessSmtpServer();
+		server.close();
+
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		EmailBatchDispatcher dispatcher = new EmailBatchDispatcher(server.createMailSender(), properties);
+		dispatcher.start();
+		try {
+			assertFalse(dispatcher.submit(message("user@example.com", "Unreachable")).get(10, TimeUnit.SECONDS));
+		} finally {
+			dispatcher.stop();
+		}
+	}
+
+	private static SimpleMailMessage message(String to, String text) {
+		SimpleMailMessage message = new SimpleMailMessage();
+		message.setFrom("wallet@example.com");
+		message.setTo(to);
+		message.setSubject("Test");
+		message.setText(text);
+		return message;
+	}
+}
@@ -0,0 +1,66 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GmailEmailServiceImplTests {
+
+	@AfterEach
+	void clearInterrupt() {
+		Thread.interrupted();
+	}
+
+	@Test
+	void keepsInterruptWhenWaitingForBatchedDelivery() {
+		GmailEmailServiceImpl service = serviceWaitingOn(new CompletableFuture<>());
+
+		Thread.currentThread().interrupt();
+		assertFalse(service.sendNotificationEmail(user(), "Subject", "Body", "request-1"));
+		assertTrue(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	void reportsTimeoutAsFailedDelivery() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getNotification().setEmailSendTimeoutMs(10);
+		GmailEmailServiceImpl service = new GmailEmailServiceImpl(null, dispatcher(properties, new CompletableFuture<>()), properties);
+
+		assertFalse(service.sendNotificationEmail(user(), "Subject", "Body", "request-2"));
+		assertFalse(Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	void reportsAcceptedDelivery() {
+		GmailEmailServiceImpl service = serviceWaitingOn(CompletableFuture.completedFuture(true));
+
+		assertTrue(service.sendNotificationEmail(user(), "Subject", "Body", "request-3"));
+	}
+
+	private static GmailEmailServiceImpl serviceWaitingOn(CompletableFuture<Boolean> result) {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		return new GmailEmailServiceImpl(null, dispatcher(properties, result), properties);
+	}
+
+	private static EmailBatchDispatcher dispatcher(WalletConfigurationProperties properties, CompletableFuture<Boolean> result) {
+		return new EmailBatchDispatcher(null, properties) {
+			@Override
+			public CompletableFuture<Boolean> submit(SimpleMailMessage message) {
+				return result;
+			}
+		};
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setEmail("user@example.com");
+		return user;
+	}
+}
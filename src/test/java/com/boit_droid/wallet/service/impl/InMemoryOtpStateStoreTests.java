@@ -0,0 +1,34 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.RateCounterStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+class InMemoryOtpStateStoreTests extends OtpStateStoreContractTests {
+
+	private TimerWheelOtpStore otpStore;
+	private InMemoryRateCounterStore rateCounterStore;
+
+	@BeforeEach
+	void setUp() {
+		otpStore = new TimerWheelOtpStore(10, 16);
+		otpStore.start();
+		rateCounterStore = new InMemoryRateCounterStore();
+	}
+
+	@AfterEach
+	void tearDown() {
+		otpStore.stop();
+	}
+
+	@Override
+	protected OtpStore otpStore() {
+		return otpStore;
+	}
+
+	@Override
+	protected RateCounterStore rateCounterStore() {
+		return rateCounterStore;
+	}
+}
@@ -0,0 +1,194 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.entity.NotificationCounter;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.enums.NotificationType;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.NotificationCounterRepository;
+import com.boit_droid.wallet.repository.NotificationRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.NotificationCounterService;
+import com.boit_droid.wallet.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counters against the notifications table they summarize. Runs outside a test transaction so
+ * concurrent writers and readers see each other's commits.
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1"
+})
+@ActiveProfiles("test")
+class NotificationCounterServiceImplTests {
+
+	@Autowired
+	private NotificationCounterService counterService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private NotificationCounterRepository counterRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void countsWritesRacingFirstMaterialization() throws Exception {
+		User user = newUser();
+		String userId = user.getId().toString();
+		int writers = 8;
+		int perWriter = 5;
+
+		ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < writers; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < perWriter; j++) {
+						notificationService.sendKYCNotification(userId, "VERIFIED", "kyc update " + j);
+					}
+					return null;
+				}));
+			}
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < perWriter; j++) {
+					counterService.getCounts(user.getId());
+				}
+				return null;
+			}));
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(tableTotal(user.getId()), storedTotal(user.getId()));
+		assertEquals((long) writers * perWriter, storedTotal(user.getId()));
+	}
+
+	@Test
+	void firstNotificationLocksUserBeforeInsert() throws Exception {
+		User user = newUser();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		CountDownLatch locked = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Long> first = executor.submit(() -> transactionTemplate.execute(status -> {
+				counterService.prepareCreate(user.getId());
+				locked.countDown();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return System.nanoTime();
+			}));
+			Future<Long> second = executor.submit(() -> {
+				locked.await();
+				return transactionTemplate.execute(status -> {
+					userRepository.findByIdForUpdate(user.getId());
+					return System.nanoTime();
+				});
+			});
+
+			// The second locker only gets the user row once the first transaction is done with it
+			assertTrue(second.get(10, TimeUnit.SECONDS) >= first.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		notificationService.sendKYCNotification(user.getId().toString(), "VERIFIED", "kyc update");
+		assertEquals(1L, storedTotal(user.getId()));
+	}
+
+	@Test
+	void reconciliationRepairsDriftedCounters() {
+		User user = newUser();
+		notificationService.sendSecurityNotification(user.getId().toString(), "LOGIN", "new device");
+		notificationService.sendSecurityNotification(user.getId().toString(), "LOGIN", "new device");
+		assertEquals(2L, counterService.getCounts(user.getId()).get("total"));
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+			counterRepository.applyDelta(user.getId(), NotificationType.SECURITY, 5, 3));
+		assertEquals(7L, storedTotal(user.getId()));
+
+		Map<String, Long> result = counterService.reconcileCounts();
+
+		assertTrue(result.get("checked") >= 1);
+		assertTrue(result.get("repaired") >= 1);
+		assertEquals(2L, storedTotal(user.getId()));
+		assertEquals(2L, counterService.getCounts(user.getId()).get("unread"));
+	}
+
+	@Test
+	void rebuildMaterializesUserWithoutCounters() {
+		User user = newUser();
+
+		Map<String, Long> counts = counterService.rebuildCounts(user.getId());
+
+		assertEquals(0L, counts.get("total"));
+		assertEquals(NotificationType.values().length, counterRepository.findByUserId(user.getId()).size());
+	}
+
+	private long storedTotal(Long userId) {
+		return counterRepository.findByUserId(userId).stream().mapToLong(NotificationCounter::getTotalCount).sum();
+	}
+
+	private long tableTotal(Long userId) {
+		return notificationRepository.countByTypeForUser(userId).stream()
+			.mapToLong(row -> ((Number) row[1]).longValue()).sum();
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("counter-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("counter" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,186 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.entity.Notification;
+import com.boit_droid.wallet.entity.NotificationArchive;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.NotificationArchiveRepository;
+import com.boit_droid.wallet.repository.NotificationRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.NotificationCounterService;
+import com.boit_droid.wallet.service.NotificationRetentionService;
+import com.boit_droid.wallet.service.NotificationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retention against the real tables, with a chunk size small enough that one sweep spans
+ * several chunks
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"wallet.notification.retention-chunk-size=2"
+})
+@ActiveProfiles("test")
+class NotificationRetentionServiceImplTests {
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private NotificationRetentionService retentionService;
+
+	@Autowired
+	private NotificationCounterService counterService;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private NotificationArchiveRepository archiveRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void archivesDueNotificationsAndKeepsCountsInStep() throws Exception {
+		User user = newUser();
+		for (int i = 0; i < 7; i++) {
+			notificationService.sendKYCNotification(user.getId().toString(), "VERIFIED", "update " + i);
+		}
+		List<Long> ids = notificationIds(user);
+		awaitDeliveryAttempts(user);
+		assertEquals(7L, counterService.getCounts(user.getId()).get("total"));
+
+		Instant now = Instant.now();
+		transactionTemplate.executeWithoutResult(status -> {
+			// Read and past the read retention
+			update("n.createdAt = :t, n.isRead = true", ids.subList(0, 3), now.minus(Duration.ofDays(40)));
+			// Unread and past the unread retention
+			update("n.createdAt = :t", ids.subList(3, 4), now.minus(Duration.ofDays(100)));
+			// Unread but only past the read retention, so it stays
+			update("n.createdAt = :t", ids.subList(4, 5), now.minus(Duration.ofDays(40)));
+			// Expired
+			update("n.expiredAt = :t", ids.subList(5, 6), now.minusSeconds(5));
+		});
+		counterService.rebuildCounts(user.getId());
+
+		Map<String, Long> result = retentionService.runRetention();
+
+		assertTrue(result.get("archived") >= 5);
+		assertEquals(List.of(ids.get(4), ids.get(6)), notificationIds(user));
+		Map<Long, String> reasons = archiveRepository.findAll().stream()
+			.filter(archive -> archive.getUserId().equals(user.getId()))
+			.collect(Collectors.toMap(NotificationArchive::getOriginalId, NotificationArchive::getArchiveReason));
+		assertEquals(Set.of(ids.get(0), ids.get(1), ids.get(2), ids.get(3), ids.get(5)), reasons.keySet());
+		assertEquals("READ_RETENTION", reasons.get(ids.get(0)));
+		assertEquals("UNREAD_RETENTION", reasons.get(ids.get(3)));
+		assertEquals("EXPIRED", reasons.get(ids.get(5)));
+
+		Map<String, Long> counts = counterService.getCounts(user.getId());
+		assertEquals(2L, counts.get("total"));
+		assertEquals(counts, counterService.rebuildCounts(user.getId()));
+	}
+
+	@Test
+	void purgesArchivedRowsPastArchiveRetention() throws Exception {
+		User user = newUser();
+		notificationService.sendKYCNotification(user.getId().toString(), "VERIFIED", "old");
+		List<Long> ids = notificationIds(user);
+		awaitDeliveryAttempts(user);
+		transactionTemplate.executeWithoutResult(status ->
+			update("n.expiredAt = :t", ids, Instant.now().minusSeconds(5)));
+		retentionService.runRetention();
+		assertTrue(archivedOriginalIds(user).contains(ids.get(0)));
+
+		transactionTemplate.executeWithoutResult(status ->
+			entityManager.createQuery("UPDATE NotificationArchive a SET a.archivedAt = :t WHERE a.userId = :userId")
+				.setParameter("t", Instant.now().minus(Duration.ofDays(400)))
+				.setParameter("userId", user.getId())
+				.executeUpdate());
+
+		Map<String, Long> result = retentionService.runRetention();
+
+		assertTrue(result.get("purged") >= 1);
+		assertTrue(archivedOriginalIds(user).isEmpty());
+	}
+
+	/**
+	 * Delivery saves the notification again in the background; wait for it so it cannot overwrite
+	 * the state a test sets up
+	 */
+	private void awaitDeliveryAttempts(User user) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (notificationRepository.findAll().stream()
+				.anyMatch(n -> n.getUser().getId().equals(user.getId()) && n.getStatus() == Status.PENDING)) {
+			assertTrue(System.currentTimeMillis() < deadline, "Notification delivery did not finish");
+			Thread.sleep(50);
+		}
+	}
+
+	private void update(String assignments, List<Long> ids, Instant value) {
+		entityManager.createQuery("UPDATE Notification n SET " + assignments + " WHERE n.id IN :ids")
+			.setParameter("t", value)
+			.setParameter("ids", ids)
+			.executeUpdate();
+	}
+
+	private List<Long> notificationIds(User user) {
+		return notificationRepository.findAll().stream()
+			.filter(notification -> notification.getUser().getId().equals(user.getId()))
+			.map(Notification::getId)
+			.sorted(Comparator.naturalOrder())
+			.toList();
+	}
+
+	private List<Long> archivedOriginalIds(User user) {
+		return archiveRepository.findAll().stream()
+			.filter(archive -> archive.getUserId().equals(user.getId()))
+			.map(NotificationArchive::getOriginalId)
+			.toList();
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("retention-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("retention" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,165 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stream limits against a standalone service, and the event flow through the real endpoint
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"wallet.notification.stream-heartbeat-seconds=1"
+})
+@ActiveProfiles("test")
+class NotificationStreamServiceImplTests {
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void rejectsStreamsBeyondPerUserLimit() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getNotification().setStreamMaxConnectionsPerUser(2);
+		NotificationStreamServiceImpl streams = new NotificationStreamServiceImpl(properties);
+		streams.start();
+		try {
+			streams.subscribe(1L, Map.of());
+			streams.subscribe(1L, Map.of());
+
+			assertThrows(IllegalStateException.class, () -> streams.subscribe(1L, Map.of()));
+			streams.subscribe(2L, Map.of());
+			assertEquals(3, streams.getConnectionCount());
+			assertTrue(streams.hasSubscribers(2L));
+		} finally {
+			streams.stop();
+		}
+	}
+
+	@Test
+	void rejectsStreamsBeyondGlobalLimit() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getNotification().setStreamMaxConnections(1);
+		NotificationStreamServiceImpl streams = new NotificationStreamServiceImpl(properties);
+		streams.start();
+		try {
+			streams.subscribe(1L, Map.of());
+
+			assertThrows(IllegalStateException.class, () -> streams.subscribe(2L, Map.of()));
+			assertEquals(1, streams.getConnectionCount());
+		} finally {
+			streams.stop();
+		}
+	}
+
+	@Test
+	void streamsCountsAndNewNotifications() throws Exception {
+		User user = newUser();
+		String userId = user.getId().toString();
+
+		HttpURLConnection connection = open("/api/v1/notifications/users/" + userId + "/stream");
+		connection.setReadTimeout(10000);
+		assertEquals(200, connection.getResponseCode());
+		assertTrue(connection.getContentType().startsWith("text/event-stream"));
+
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+			List<String> first = readEvent(reader);
+			assertTrue(first.contains("event:counts"), first.toString());
+
+			notificationService.sendKYCNotification(userId, "VERIFIED", "Your KYC was approved");
+
+			List<String> events = new ArrayList<>();
+			while (!events.contains("event:notification")) {
+				events.addAll(readEvent(reader));
+			}
+			assertTrue(events.stream().anyMatch(line -> line.startsWith("data:") && line.contains("Your KYC was approved")),
+				events.toString());
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	@Test
+	void rejectsStreamForUnknownUser() throws Exception {
+		HttpURLConnection connection = open("/api/v1/notifications/users/999999999/stream");
+		try {
+			assertEquals(404, connection.getResponseCode());
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private HttpURLConnection open(String path) throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+		connection.setRequestProperty("Accept", "text/event-stream");
+		return connection;
+	}
+
+	/**
+	 * Lines of the next event, or of the next heartbeat comment
+	 */
+	private static List<String> readEvent(BufferedReader reader) throws Exception {
+		List<String> lines = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				if (!lines.isEmpty()) {
+					break;
+				}
+				continue;
+			}
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("stream-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("stream" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,134 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.audit.AuditTrail;
+import com.boit_droid.wallet.repository.AuditTrailBatchInserter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OtpAuditBatchWriterTests {
+
+	private static final PlatformTransactionManager NO_TRANSACTIONS = (PlatformTransactionManager) Proxy.newProxyInstance(
+		PlatformTransactionManager.class.getClassLoader(), new Class<?>[] {PlatformTransactionManager.class},
+		(proxy, method, args) -> "getTransaction".equals(method.getName()) ? new SimpleTransactionStatus() : null);
+
+	private final RecordingInserter inserter = new RecordingInserter();
+	private final WalletConfigurationProperties properties = new WalletConfigurationProperties();
+
+	@Test
+	void writesSubmittedRowWithMetadataAndExpiry() throws Exception {
+		OtpAuditBatchWriter writer = writer();
+		writer.start();
+		AuditTrail audit = audit("Code sent");
+
+		writer.submit(audit, new HashMap<>(Map.of("purpose", "TRANSFER")));
+		awaitWritten(writer, 1);
+		writer.stop();
+
+		AuditTrail row = inserter.rows.get(0);
+		assertEquals("{\"purpose\":\"TRANSFER\"}", row.getAdditionalMetadata());
+		assertEquals(audit.getTimestamp().plus(Duration.ofDays(properties.getAudit().getAuditRetentionDays())),
+			row.getRetentionExpiryDate());
+	}
+
+	@Test
+	void collapsesRepeatedFailuresIntoOneRow() {
+		OtpAuditBatchWriter writer = writer();
+		writer.start();
+		AuditTrail first = audit("Invalid OTP");
+		for (int i = 0; i < 4; i++) {
+			writer.submitAggregated("u1|1.2.3.4|INVALID", i == 0 ? first : audit("Invalid OTP"), new HashMap<>());
+		}
+		writer.submitAggregated("u2|1.2.3.4|INVALID", audit("Invalid OTP"), new HashMap<>());
+		assertEquals(2, writer.getAggregateCount());
+
+		// Stopping closes every open window
+		writer.stop();
+
+		assertEquals(2, inserter.rows.size());
+		assertEquals(3, writer.getCollapsedCount());
+		AuditTrail collapsed = inserter.rows.stream()
+			.filter(row -> row.getChangeDescription().endsWith("(4 occurrences)"))
+			.findFirst().orElseThrow();
+		assertEquals(first.getTimestamp(), collapsed.getTimestamp());
+		assertTrue(collapsed.getAdditionalMetadata().contains("\"occurrences\":4"));
+	}
+
+	@Test
+	void writesBeyondAggregateLimitIndividually() {
+		properties.getAudit().setOtpMaxAggregates(2);
+		OtpAuditBatchWriter writer = writer();
+		writer.start();
+		for (int i = 0; i < 3; i++) {
+			writer.submitAggregated("key" + i, audit("Invalid OTP"), new HashMap<>());
+		}
+
+		assertEquals(2, writer.getAggregateCount());
+		writer.stop();
+		assertEquals(3, inserter.rows.size());
+	}
+
+	@Test
+	void dropsRowsWhenBufferIsFull() {
+		properties.getAudit().setOtpBufferSize(64);
+		// Not started, so nothing drains the buffer
+		OtpAuditBatchWriter writer = writer();
+		for (int i = 0; i < 70; i++) {
+			writer.submit(audit("Code sent"), new HashMap<>());
+		}
+
+		assertEquals(64, writer.getQueueDepth());
+		assertEquals(6, writer.getDroppedCount());
+	}
+
+	private OtpAuditBatchWriter writer() {
+		return new OtpAuditBatchWriter(inserter, NO_TRANSACTIONS, new ObjectMapper(), properties);
+	}
+
+	private static void awaitWritten(OtpAuditBatchWriter writer, long rows) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (writer.getWrittenCount() < rows) {
+			assertTrue(System.currentTimeMillis() < deadline, "OTP audit rows were not written");
+			Thread.sleep(10);
+		}
+	}
+
+	private static AuditTrail audit(String description) {
+		AuditTrail audit = new AuditTrail();
+		audit.setAuditId(UUID.randomUUID().toString());
+		audit.setEntityType("OTP");
+		audit.setEntityId("u1");
+		audit.setOperation("OTP_VERIFICATION");
+		audit.setChangeDescription(description);
+		audit.setTimestamp(Instant.now());
+		audit.setCreatedAt(Instant.now());
+		return audit;
+	}
+
+	private static class RecordingInserter extends AuditTrailBatchInserter {
+		private final List<AuditTrail> rows = new CopyOnWriteArrayList<>();
+
+		RecordingInserter() {
+			super(null, null);
+		}
+
+		@Override
+		public void insert(List<AuditTrail> batch) {
+			rows.addAll(batch);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.boit_droid.wallet.service.impl;
+
+import ch.qos.logback.classic.Logger;
+import com.boit_droid.wallet.service.NotificationService;
+import com.boit_droid.wallet.service.OtpAuditService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP issue and verify through OtpServiceImpl over the in-memory timer wheel and rate counters.
+ * Notification delivery and audit writing are replaced by no-ops, and the service's per-code info
+ * logging is turned off, so the numbers cover code generation and state handling only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtpServiceBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final String PURPOSE = "TRANSFER";
+
+    private TimerWheelOtpStore otpStore;
+    private OtpServiceImpl otpService;
+    private String[] userIds;
+    private String[] clientIps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(OtpServiceImpl.class)).setLevel(ch.qos.logback.classic.Level.WARN);
+        otpStore = new TimerWheelOtpStore(1000, 512);
+        otpStore.start();
+        otpService = new OtpServiceImpl(noOp(NotificationService.class), noOp(OtpAuditService.class),
+            otpStore, new InMemoryRateCounterStore());
+        userIds = new String[USERS];
+        clientIps = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = "USR-" + i;
+            clientIps[i] = "10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        otpStore.stop();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String issue() {
+        return otpService.requestOtpForUser(userIds[ThreadLocalRandom.current().nextInt(USERS)], PURPOSE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean issueAndVerify() {
+        int user = ThreadLocalRandom.current().nextInt(USERS);
+        String code = otpService.requestOtpForUser(userIds[user], PURPOSE);
+        return otpService.verifyOtpWithSecurity(userIds[user], PURPOSE, code, clientIps[user], "REQ-1");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean rateLimitCheck() {
+        int user = ThreadLocalRandom.current().nextInt(USERS);
+        return otpService.isRateLimited(userIds[user], clientIps[user]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T noOp(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(OtpServiceBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.OtpStore.VerifyOutcome;
+import com.boit_droid.wallet.service.RateCounterStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Behaviour every OTP state backend must share, so nodes can switch backends without
+ * changing what users see.
+ */
+abstract class OtpStateStoreContractTests {
+
+	private static final long TTL_MILLIS = 60000;
+
+	protected abstract OtpStore otpStore();
+
+	protected abstract RateCounterStore rateCounterStore();
+
+	@Test
+	void verifiesCodeOnlyOnce() {
+		otpStore().put("USER:1|TRANSFER", "123456", TTL_MILLIS);
+
+		OtpStore.VerifyResult first = otpStore().verify("USER:1|TRANSFER", "123456", 3);
+		assertEquals(VerifyOutcome.VERIFIED, first.getOutcome());
+		assertEquals(1, first.getAttempts());
+		assertEquals(VerifyOutcome.NOT_FOUND, otpStore().verify("USER:1|TRANSFER", "123456", 3).getOutcome());
+	}
+
+	@Test
+	void countsAttemptsAndInvalidatesAfterMaximum() {
+		otpStore().put("USER:2|TRANSFER", "123456", TTL_MILLIS);
+
+		OtpStore.VerifyResult first = otpStore().verify("USER:2|TRANSFER", "000000", 2);
+		assertEquals(VerifyOutcome.INVALID, first.getOutcome());
+		assertEquals(1, first.getAttempts());
+		assertEquals(VerifyOutcome.INVALID, otpStore().verify("USER:2|TRANSFER", "000000", 2).getOutcome());
+
+		OtpStore.VerifyResult exhausted = otpStore().verify("USER:2|TRANSFER", "123456", 2);
+		assertEquals(VerifyOutcome.MAX_ATTEMPTS_EXCEEDED, exhausted.getOutcome());
+		assertEquals(3, exhausted.getAttempts());
+		assertEquals(VerifyOutcome.NOT_FOUND, otpStore().verify("USER:2|TRANSFER", "123456", 2).getOutcome());
+	}
+
+	@Test
+	void reissuingReplacesCodeAndResetsAttempts() {
+		otpStore().put("USER:3|KYC", "111111", TTL_MILLIS);
+		assertEquals(VerifyOutcome.INVALID, otpStore().verify("USER:3|KYC", "000000", 3).getOutcome());
+
+		otpStore().put("USER:3|KYC", "222222", TTL_MILLIS);
+		assertEquals(VerifyOutcome.INVALID, otpStore().verify("USER:3|KYC", "111111", 3).getOutcome());
+		OtpStore.VerifyResult result = otpStore().verify("USER:3|KYC", "222222", 3);
+		assertEquals(VerifyOutcome.VERIFIED, result.getOutcome());
+		assertEquals(2, result.getAttempts());
+	}
+
+	@Test
+	void rejectsExpiredCode() throws Exception {
+		otpStore().put("USER:4|KYC", "123456", 50);
+		Thread.sleep(100);
+
+		// Background expiry may already have removed the code
+		VerifyOutcome outcome = otpStore().verify("USER:4|KYC", "123456", 3).getOutcome();
+		assertTrue(outcome == VerifyOutcome.EXPIRED || outcome == VerifyOutcome.NOT_FOUND, "unexpected " + outcome);
+		assertEquals(VerifyOutcome.NOT_FOUND, otpStore().verify("USER:4|KYC", "123456", 3).getOutcome());
+		assertEquals(1, otpStore().getExpiredCount());
+	}
+
+	@Test
+	void removesCode() {
+		otpStore().put("USER:5|KYC", "123456", TTL_MILLIS);
+
+		assertTrue(otpStore().remove("USER:5|KYC"));
+		assertEquals(VerifyOutcome.NOT_FOUND, otpStore().verify("USER:5|KYC", "123456", 3).getOutcome());
+	}
+
+	@Test
+	void concurrentVerificationsConsumeCodeOnce() throws Exception {
+		otpStore().put("USER:6|TRANSFER", "123456", TTL_MILLIS);
+
+		List<VerifyOutcome> outcomes = runConcurrently(8,
+			() -> otpStore().verify("USER:6|TRANSFER", "123456", 100).getOutcome());
+
+		assertEquals(1, outcomes.stream().filter(outcome -> outcome == VerifyOutcome.VERIFIED).count());
+	}
+
+	@Test
+	void countsHitsPerWindow() {
+		assertEquals(0, rateCounterStore().getCount("OTP_USER:7", 3600000));
+
+		assertEquals(1, rateCounterStore().increment("OTP_USER:7", 3600000));
+		assertEquals(2, rateCounterStore().increment("OTP_USER:7", 3600000));
+		assertEquals(2, rateCounterStore().getCount("OTP_USER:7", 3600000));
+		assertEquals(0, rateCounterStore().getCount("OTP_USER:8", 3600000));
+	}
+
+	@Test
+	void restartsCountInNewWindow() throws Exception {
+		rateCounterStore().increment("OTP_IP:10.0.0.1", 50);
+		Thread.sleep(120);
+
+		assertEquals(0, rateCounterStore().getCount("OTP_IP:10.0.0.1", 50));
+		assertEquals(1, rateCounterStore().increment("OTP_IP:10.0.0.1", 50));
+	}
+
+	@Test
+	void concurrentIncrementsAreNotLost() throws Exception {
+		runConcurrently(8, () -> rateCounterStore().increment("OTP_IP:10.0.0.2", 3600000));
+
+		assertEquals(8, rateCounterStore().getCount("OTP_IP:10.0.0.2", 3600000));
+	}
+
+	private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get(30, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
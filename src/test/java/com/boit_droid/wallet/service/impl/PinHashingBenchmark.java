@@ -0,0 +1,80 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.PinHashingService;
+import com.boit_droid.wallet.util.SignatureUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PIN hashing cost at the configured scrypt parameters, including the hand-off to the pin-hash
+ * pool. verifyLegacy checks an original SHA-256 hash, which also produces the scrypt rehash, so
+ * it is roughly what the first login after the upgrade costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PinHashingBenchmark {
+
+    private static final String PIN = "2580";
+
+    private PinHashingServiceImpl pinHashingService;
+    private String salt;
+    private String scryptHash;
+    private String legacyHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SignatureUtil signatureUtil = new SignatureUtil();
+        pinHashingService = new PinHashingServiceImpl(signatureUtil, new WalletConfigurationProperties(),
+            new SimpleMeterRegistry());
+        salt = signatureUtil.generateSalt();
+        scryptHash = pinHashingService.hashPin(PIN, salt);
+        legacyHash = signatureUtil.hashPin(PIN, salt);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pinHashingService.stop();
+    }
+
+    @Benchmark
+    public String hash() {
+        return pinHashingService.hashPin(PIN, salt);
+    }
+
+    @Benchmark
+    public PinHashingService.PinVerification verifyScrypt() {
+        return pinHashingService.verifyPin(PIN, scryptHash, salt);
+    }
+
+    @Benchmark
+    public PinHashingService.PinVerification verifyLegacy() {
+        return pinHashingService.verifyPin(PIN, legacyHash, salt);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PinHashingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.exception.PinHashingBusyException;
+import com.boit_droid.wallet.service.PinHashingService.PinVerification;
+import com.boit_droid.wallet.util.SignatureUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PinHashingServiceImplTests {
+
+	private static final String SALT = "pin-salt";
+	private static final String HASH = Base64.getEncoder().withoutPadding().encodeToString(new byte[32]);
+
+	private final SignatureUtil signatureUtil = new SignatureUtil();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private PinHashingServiceImpl pinHashing;
+
+	@AfterEach
+	void tearDown() {
+		if (pinHashing != null) {
+			pinHashing.stop();
+		}
+	}
+
+	@Test
+	void hashesInScryptFormatAndVerifies() {
+		pinHashing = service(4);
+
+		String stored = pinHashing.hashPin("1357", SALT);
+
+		assertTrue(stored.startsWith("$scrypt$ln=4,r=8,p=1$"));
+		PinVerification valid = pinHashing.verifyPin("1357", stored, SALT);
+		assertTrue(valid.isValid());
+		assertNull(valid.getUpgradedHash());
+		assertFalse(pinHashing.verifyPin("7531", stored, SALT).isValid());
+		assertFalse(pinHashing.verifyPin("1357", stored, "other-salt").isValid());
+	}
+
+	@Test
+	void upgradesLegacyHashOnlyWhenPinIsValid() {
+		pinHashing = service(4);
+		String legacy = signatureUtil.hashPin("1357", SALT);
+
+		assertNull(pinHashing.verifyPin("7531", legacy, SALT).getUpgradedHash());
+		PinVerification verification = pinHashing.verifyPin("1357", legacy, SALT);
+
+		assertTrue(verification.isValid());
+		assertTrue(verification.getUpgradedHash().startsWith("$scrypt$ln=4,"));
+		assertTrue(pinHashing.verifyPin("1357", verification.getUpgradedHash(), SALT).isValid());
+		assertEquals(1, meterRegistry.get("wallet.pin.hash.upgraded").counter().count());
+	}
+
+	@Test
+	void upgradesWeakerScryptParameters() {
+		pinHashing = service(4);
+		String weak = pinHashing.hashPin("1357", SALT);
+		pinHashing.stop();
+		pinHashing = service(5);
+
+		PinVerification verification = pinHashing.verifyPin("1357", weak, SALT);
+
+		assertTrue(verification.isValid());
+		assertTrue(verification.getUpgradedHash().startsWith("$scrypt$ln=5,"));
+	}
+
+	@Test
+	void rejectsStoredHashesOutsideParameterBounds() {
+		pinHashing = service(4);
+
+		// ln=24,r=32 and ln=21,r=8 would need 64 GiB and 2 GiB; ln=20,r=16 passes each limit alone but needs 2 GiB
+		for (String parameters : new String[] {"ln=24,r=32,p=16", "ln=21,r=8,p=1", "ln=4,r=17,p=1", "ln=20,r=16,p=1",
+				"ln=0,r=8,p=1", "ln=4,r=0,p=1", "ln=4,r=8,p=17", "ln=4,r=8,p=0", "ln=4,r=8", "ln=4,r=8,p=1,x=1",
+				"ln=4,r=8,p=one"}) {
+			assertFalse(pinHashing.verifyPin("1357", "$scrypt$" + parameters + "$" + HASH, SALT).isValid(), parameters);
+		}
+		assertFalse(pinHashing.verifyPin("1357", "$scrypt$ln=4,r=8,p=1", SALT).isValid());
+		assertFalse(pinHashing.verifyPin("1357", "$scrypt$ln=4,r=8,p=1$not*base64", SALT).isValid());
+	}
+
+	@Test
+	void refusesConfiguredParametersItCouldNotVerify() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getSecurity().setPinHashCostLog2(20);
+		properties.getSecurity().setPinHashBlockSize(16);
+
+		assertThrows(IllegalStateException.class, () -> new PinHashingServiceImpl(signatureUtil, properties, meterRegistry));
+	}
+
+	@Test
+	void rejectsHashesThatOutlastTheTimeout() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getSecurity().setPinHashTimeoutMs(100);
+		pinHashing = new PinHashingServiceImpl(signatureUtil, properties, meterRegistry);
+
+		assertThrows(PinHashingBusyException.class,
+			() -> pinHashing.verifyPin("1357", "$scrypt$ln=15,r=8,p=16$" + HASH, SALT));
+		assertEquals(1, meterRegistry.get("wallet.pin.hash.rejected").tag("reason", "timeout").counter().count());
+	}
+
+	private PinHashingServiceImpl service(int costLog2) {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getSecurity().setPinHashCostLog2(costLog2);
+		return new PinHashingServiceImpl(signatureUtil, properties, meterRegistry);
+	}
+}
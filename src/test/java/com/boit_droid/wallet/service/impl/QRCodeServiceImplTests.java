@@ -0,0 +1,88 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.QRCodeService.QRCodeImage;
+import com.boit_droid.wallet.util.QRCodeFormat;
+import com.boit_droid.wallet.util.QRCodeUtil;
+import com.boit_droid.wallet.util.SignatureUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QRCodeServiceImplTests {
+
+	private final WalletConfigurationProperties properties = new WalletConfigurationProperties();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void servesRepeatedRequestsFromCache() {
+		QRCodeServiceImpl qrCodes = service();
+
+		QRCodeImage first = qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG);
+		QRCodeImage second = qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG);
+
+		assertSame(first, second);
+		assertEquals(QRCodeFormat.PNG, first.getFormat());
+		assertEquals(1, counter("hit"));
+		assertEquals(1, counter("miss"));
+		assertEquals(first.getContent().length, meterRegistry.get("wallet.qrcode.cache.bytes").gauge().value());
+	}
+
+	@Test
+	void changedContentSizeOrFormatGetsNewEtag() {
+		QRCodeServiceImpl qrCodes = service();
+		String etag = qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG).getEtag();
+
+		assertNotEquals(etag, qrCodes.walletQRCode("W1", "ACC1", "Renamed wallet", 300, QRCodeFormat.PNG).getEtag());
+		assertNotEquals(etag, qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 400, QRCodeFormat.PNG).getEtag());
+		assertNotEquals(etag, qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.SVG).getEtag());
+		assertEquals(etag, service().walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG).getEtag());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntries() {
+		properties.getQrCode().setCacheMaxEntries(2);
+		QRCodeServiceImpl qrCodes = service();
+		QRCodeImage first = qrCodes.walletQRCode("W1", "ACC1", "One", 300, QRCodeFormat.PNG);
+		qrCodes.walletQRCode("W2", "ACC2", "Two", 300, QRCodeFormat.PNG);
+		qrCodes.walletQRCode("W1", "ACC1", "One", 300, QRCodeFormat.PNG);
+		qrCodes.walletQRCode("W3", "ACC3", "Three", 300, QRCodeFormat.PNG);
+
+		assertEquals(2, meterRegistry.get("wallet.qrcode.cache.entries").gauge().value());
+		assertSame(first, qrCodes.walletQRCode("W1", "ACC1", "One", 300, QRCodeFormat.PNG));
+		qrCodes.walletQRCode("W2", "ACC2", "Two", 300, QRCodeFormat.PNG);
+		assertEquals(4, counter("miss"));
+	}
+
+	@Test
+	void cachesNothingWhenDisabled() {
+		properties.getQrCode().setCacheMaxEntries(0);
+		QRCodeServiceImpl qrCodes = service();
+
+		qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG);
+		qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 300, QRCodeFormat.PNG);
+
+		assertEquals(2, counter("miss"));
+		assertEquals(0, meterRegistry.get("wallet.qrcode.cache.entries").gauge().value());
+	}
+
+	@Test
+	void rejectsSizeOutsideRange() {
+		QRCodeServiceImpl qrCodes = service();
+
+		assertThrows(IllegalArgumentException.class, () -> qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 5, QRCodeFormat.PNG));
+		assertThrows(IllegalArgumentException.class, () -> qrCodes.walletQRCode("W1", "ACC1", "Main wallet", 5000, QRCodeFormat.PNG));
+	}
+
+	private QRCodeServiceImpl service() {
+		return new QRCodeServiceImpl(new QRCodeUtil(), new SignatureUtil(), properties, meterRegistry);
+	}
+
+	private double counter(String result) {
+		return meterRegistry.get("wallet.qrcode.cache").tag("result", result).counter().count();
+	}
+}
@@ -0,0 +1,145 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.dto.response.CustomApiResponse;
+import com.boit_droid.wallet.dto.response.PagedResponse;
+import com.boit_droid.wallet.dto.response.TransactionResponse;
+import com.boit_droid.wallet.dto.response.WalletResponse;
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.entity.enums.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response assembly for the two most requested reads: a wallet, and a page of its statement.
+ * map* converts entities to DTOs, serialize* writes an already mapped response through an
+ * ObjectMapper configured the way Spring Boot configures the MVC one, and the page* benchmarks
+ * do both for a statement page of the given size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Wallet wallet;
+    private List<Transaction> transactions;
+    private CustomApiResponse<WalletResponse> walletResponse;
+    private CustomApiResponse<PagedResponse<TransactionResponse>> pageResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Instant now = Instant.now();
+        wallet = wallet("7f1c2e9a-3b4d-4e5f-8a6b-1c2d3e4f5a6b", "ACC0012345678901", "Mama Mboga Groceries", now);
+        Wallet counterparty = wallet("0c9d8e7f-6a5b-4c3d-2e1f-0a9b8c7d6e5f", "ACC0098765432109", "Juma Electronics", now);
+
+        transactions = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setRequestId("TXN-" + (100_000 + i));
+            transaction.setSenderWallet(i % 3 == 0 ? null : wallet);
+            transaction.setReceiverWallet(i % 3 == 0 ? wallet : counterparty);
+            transaction.setAmount(new BigDecimal("1250.00").add(BigDecimal.valueOf(i)));
+            transaction.setCurrency("KES");
+            transaction.setType(i % 3 == 0 ? TransactionType.TOP_UP : TransactionType.TRANSFER);
+            transaction.setStatus(Status.ACTIVE);
+            transaction.setDescription("Payment for order " + i);
+            transaction.setExternalReference(i % 3 == 0 ? "MPESA" + i : null);
+            transaction.setCreatedAt(now.minusSeconds(i * 60L));
+            transactions.add(transaction);
+        }
+
+        walletResponse = CustomApiResponse.success("Wallet retrieved successfully", "REQ-1", mapWallet());
+        pageResponse = CustomApiResponse.success("Transactions retrieved successfully", "REQ-2", mapPage());
+    }
+
+    @Benchmark
+    public WalletResponse mapWallet() {
+        return WalletServiceImpl.mapToWalletResponse(wallet);
+    }
+
+    @Benchmark
+    public TransactionResponse mapTransaction() {
+        return TransactionServiceImpl.mapToTransactionResponse(transactions.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeWallet() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(walletResponse);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+
+    @Benchmark
+    public byte[] walletEndToEnd() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+            CustomApiResponse.success("Wallet retrieved successfully", "REQ-1", mapWallet()));
+    }
+
+    @Benchmark
+    public byte[] pageEndToEnd() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+            CustomApiResponse.success("Transactions retrieved successfully", "REQ-2", mapPage()));
+    }
+
+    private PagedResponse<TransactionResponse> mapPage() {
+        List<TransactionResponse> content = transactions.stream()
+            .map(TransactionServiceImpl::mapToTransactionResponse)
+            .toList();
+        return PagedResponse.of(content, new PageImpl<>(content, PageRequest.of(0, pageSize), 500));
+    }
+
+    private static Wallet wallet(String requestId, String accountNumber, String accountName, Instant createdAt) {
+        Wallet wallet = new Wallet();
+        wallet.setRequestId(requestId);
+        wallet.setAccountNumber(accountNumber);
+        wallet.setAccountName(accountName);
+        wallet.setBalance(new BigDecimal("48250.75"));
+        wallet.setCurrency("KES");
+        wallet.setStatus(Status.ACTIVE);
+        wallet.setCreatedAt(createdAt.minusSeconds(86_400));
+        wallet.setUpdatedAt(createdAt);
+        return wallet;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ResponseMappingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
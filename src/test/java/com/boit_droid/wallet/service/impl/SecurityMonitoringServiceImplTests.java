@@ -0,0 +1,96 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.OtpAuditService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SecurityMonitoringServiceImplTests {
+
+	private static final OtpAuditService NO_AUDIT = (OtpAuditService) Proxy.newProxyInstance(
+		OtpAuditService.class.getClassLoader(), new Class<?>[] {OtpAuditService.class}, (proxy, method, args) -> null);
+
+	private SecurityMonitoringServiceImpl monitoring;
+	private Instant now;
+
+	@BeforeEach
+	void setUp() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getSecurity().setMonitoringMaxEntries(100);
+		monitoring = new SecurityMonitoringServiceImpl(null, NO_AUDIT, properties);
+		now = Instant.now();
+	}
+
+	@Test
+	void detectsBruteForceOnlyInsideWindow() {
+		for (int i = 0; i < 4; i++) {
+			failedVerification("user", "ip", now.minusSeconds(100 + i * 40));
+		}
+		assertFalse(monitoring.detectBruteForcePattern("user", "ip", 300));
+
+		// Outside the window, so still below the threshold
+		failedVerification("user", "ip", now.minusSeconds(600));
+		assertFalse(monitoring.detectBruteForcePattern("user", "ip", 300));
+
+		failedVerification("user", "ip", now);
+		assertTrue(monitoring.detectBruteForcePattern("user", "ip", 300));
+		assertFalse(monitoring.detectBruteForcePattern("user", "ip", 30));
+	}
+
+	@Test
+	void detectsFailuresFromManyAddresses() {
+		failedVerification("user", "ip1", now);
+		failedVerification("user", "ip2", now);
+		monitoring.recordSecurityEvent("user", "ip3", "OTP_VERIFICATION", true, now);
+		assertFalse(monitoring.detectDistributedAttackPattern("user", 300));
+
+		failedVerification("user", "ip3", now);
+		assertTrue(monitoring.detectDistributedAttackPattern("user", 300));
+	}
+
+	@Test
+	void detectsManyUsersFromOneAddress() {
+		for (int i = 0; i < 9; i++) {
+			monitoring.recordSecurityEvent("user" + i, "ip", "OTP_GENERATION", true, now);
+		}
+		assertFalse(monitoring.detectAccountEnumerationPattern("ip", 300));
+
+		monitoring.recordSecurityEvent("user9", "ip", "OTP_GENERATION", true, now);
+		assertTrue(monitoring.detectAccountEnumerationPattern("ip", 300));
+	}
+
+	@Test
+	void stopsIndexingNewKeysWhenFull() {
+		for (int i = 0; i < 300; i++) {
+			monitoring.recordSecurityEvent("user" + i, "ip" + i, "OTP_GENERATION", true, now);
+		}
+
+		assertTrue(monitoring.getUntrackedEventCount() > 0);
+	}
+
+	@Test
+	void evictionMakesRoomForNewKeys() {
+		for (int i = 0; i < 100; i++) {
+			monitoring.recordSecurityEvent("idle" + i, "idle-ip" + i, "OTP_GENERATION", true, now.minusSeconds(7200));
+		}
+		assertEquals(0, monitoring.getUntrackedEventCount());
+
+		monitoring.evictIdleEntries();
+		for (int i = 0; i < 100; i++) {
+			monitoring.recordSecurityEvent("user" + i, "ip" + i, "OTP_GENERATION", true, now);
+		}
+
+		assertEquals(0, monitoring.getUntrackedEventCount());
+	}
+
+	private void failedVerification(String userId, String clientIp, Instant timestamp) {
+		monitoring.recordSecurityEvent(userId, clientIp, "OTP_VERIFICATION", false, timestamp);
+	}
+}
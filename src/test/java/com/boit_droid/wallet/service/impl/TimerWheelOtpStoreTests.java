@@ -0,0 +1,56 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.OtpStore.VerifyOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Wheel-specific expiry; the behaviour shared with other stores is in InMemoryOtpStateStoreTests
+ */
+class TimerWheelOtpStoreTests {
+
+	@Test
+	void createsBeanFromConfiguration() {
+		new ApplicationContextRunner()
+			.withBean(WalletConfigurationProperties.class)
+			.withBean(TimerWheelOtpStore.class)
+			.run(context -> assertInstanceOf(TimerWheelOtpStore.class, context.getBean(OtpStore.class)));
+	}
+
+	@Test
+	void advanceExpiresOnlyDueCodes() throws Exception {
+		TimerWheelOtpStore store = new TimerWheelOtpStore(10, 16);
+		store.put("due", "123456", 50);
+		store.put("next-rotation", "111111", 1000);
+		store.put("later", "222222", 10000);
+
+		Thread.sleep(200);
+		store.advance(System.currentTimeMillis());
+
+		assertEquals(2, store.size());
+		assertEquals(1, store.getExpiredCount());
+		assertEquals(VerifyOutcome.NOT_FOUND, store.verify("due", "123456", 3).getOutcome());
+		assertEquals(VerifyOutcome.VERIFIED, store.verify("next-rotation", "111111", 3).getOutcome());
+	}
+
+	@Test
+	void codeBeyondOneRotationExpiresAtItsDeadline() throws Exception {
+		// 16 slots of 10 ms: a 250 ms code passes its slot once before it is due
+		TimerWheelOtpStore store = new TimerWheelOtpStore(10, 16);
+		store.put("code", "123456", 250);
+
+		Thread.sleep(180);
+		store.advance(System.currentTimeMillis());
+		assertEquals(1, store.size());
+
+		Thread.sleep(120);
+		store.advance(System.currentTimeMillis());
+		assertEquals(0, store.size());
+		assertEquals(1, store.getExpiredCount());
+	}
+}
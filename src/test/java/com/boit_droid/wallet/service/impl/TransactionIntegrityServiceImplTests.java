@@ -0,0 +1,161 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.dto.request.WalletCreationRequest;
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.entity.enums.TransactionType;
+import com.boit_droid.wallet.repository.TransactionRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.repository.WalletRepository;
+import com.boit_droid.wallet.service.TransactionIntegrityService;
+import com.boit_droid.wallet.service.WalletService;
+import com.boit_droid.wallet.util.TransactionHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sealing and verification against the real tables, with a page size small enough that one day
+ * spans several pages
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"wallet.transaction.integrity-page-size=100"
+})
+@ActiveProfiles("test")
+class TransactionIntegrityServiceImplTests {
+
+	// ISO 4217 code reserved for testing, so no other test's transactions share the sealed day
+	private static final String CURRENCY = "XTS";
+	private static final int TRANSACTIONS = 257;
+
+	@Autowired
+	private TransactionIntegrityService integrityService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private WalletRepository walletRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void sealsClosedDayAndLocatesTamperedTransaction() {
+		LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(2);
+		List<Transaction> transactions = transactionsOn(day);
+
+		assertTrue(integrityService.sealClosedDays() >= 1);
+		assertEquals(0, integrityService.sealClosedDays());
+
+		Map<String, Object> verification = integrityService.verifyDay(day, CURRENCY);
+		assertEquals(true, verification.get("valid"));
+		assertEquals(TRANSACTIONS, verification.get("leafCount"));
+		Map<String, Object> proof = integrityService.proveTransaction(reload(transactions.get(200)));
+		assertEquals(true, proof.get("sealed"));
+		assertEquals(true, proof.get("valid"));
+
+		Transaction tampered = transactions.get(42);
+		jdbcTemplate.update("UPDATE transactions SET amount = amount + 1 WHERE id = ?", tampered.getId());
+
+		verification = integrityService.verifyDay(day, CURRENCY);
+		assertEquals(false, verification.get("valid"));
+		assertEquals(List.of(tampered.getRequestId()), verification.get("modifiedTransactions"));
+		assertFalse((Boolean) integrityService.proveTransaction(reload(tampered)).get("valid"));
+		assertEquals(true, integrityService.proveTransaction(reload(transactions.get(43))).get("valid"));
+	}
+
+	@Test
+	void reportsUnsealedDay() {
+		Map<String, Object> verification = integrityService.verifyDay(LocalDate.now(ZoneOffset.UTC), CURRENCY);
+
+		assertEquals(false, verification.get("sealed"));
+		assertEquals(false, verification.get("valid"));
+	}
+
+	/**
+	 * Transactions moved back to the given day, with stored hashes recomputed as if written then
+	 */
+	private List<Transaction> transactionsOn(LocalDate day) {
+		Wallet wallet = newWallet();
+		List<Transaction> transactions = new ArrayList<>();
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			Transaction transaction = new Transaction();
+			transaction.setRequestId(UUID.randomUUID().toString());
+			transaction.setAmount(new BigDecimal("10.05").add(BigDecimal.valueOf(i)));
+			transaction.setCurrency(CURRENCY);
+			transaction.setType(TransactionType.TOP_UP);
+			transaction.setStatus(Status.ACTIVE);
+			transaction.setReceiverWallet(wallet);
+			transactions.add(transaction);
+		}
+		transactions = transactionRepository.saveAll(transactions);
+		Timestamp createdAt = Timestamp.from(day.atTime(12, 0).toInstant(ZoneOffset.UTC));
+		List<Transaction> moved = new ArrayList<>(transactions.size());
+		for (Transaction transaction : transactions) {
+			jdbcTemplate.update("UPDATE transactions SET createdAt = ? WHERE id = ?", createdAt, transaction.getId());
+			Transaction reloaded = reload(transaction);
+			jdbcTemplate.update("UPDATE transactions SET transactionHash = ? WHERE id = ?",
+				TransactionHasher.hashHex(reloaded), transaction.getId());
+			moved.add(reloaded);
+		}
+		return moved;
+	}
+
+	private Transaction reload(Transaction transaction) {
+		return transactionRepository.findById(transaction.getId()).orElseThrow();
+	}
+
+	private Wallet newWallet() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("integrity-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("integrity" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		user = userRepository.save(user);
+		WalletCreationRequest request = new WalletCreationRequest();
+		request.setAccountName("Main wallet");
+		request.setCurrency("KES");
+		request.setPin("1357");
+		walletService.createWallet(user.getRequestId(), request);
+		return walletRepository.findByUserAndStatus(user, Status.ACTIVE).orElseThrow();
+	}
+}
@@ -0,0 +1,79 @@
+package com.boit_droid.wallet.service.impl;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TransactionMetricsTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final TransactionMetrics transactionMetrics = new TransactionMetrics(meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void recordsAtOnceOutsideTransaction() {
+		String response = "done";
+
+		assertSame(response, transactionMetrics.start("transfer", "API", "KES").finish(TransactionMetrics.SUCCESS, response));
+
+		assertEquals(1, requests(TransactionMetrics.SUCCESS).count());
+	}
+
+	@Test
+	void recordsSuccessOnlyAfterCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		transactionMetrics.start("transfer", "API", "KES").finish(TransactionMetrics.SUCCESS, "done");
+		assertNull(meterRegistry.find("wallet.transaction.request").timer());
+
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertEquals(1, requests(TransactionMetrics.SUCCESS).count());
+	}
+
+	@Test
+	void countsRolledBackSuccessAsCommitFailed() {
+		TransactionSynchronizationManager.initSynchronization();
+		transactionMetrics.start("transfer", "API", "KES").finish(TransactionMetrics.SUCCESS, "done");
+
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertEquals(1, requests(TransactionMetrics.COMMIT_FAILED).count());
+		assertNull(meterRegistry.find("wallet.transaction.request").tag("outcome", TransactionMetrics.SUCCESS).timer());
+	}
+
+	@Test
+	void keepsRejectionCodeOnRollback() {
+		TransactionSynchronizationManager.initSynchronization();
+		transactionMetrics.start("transfer", "API", "KES").finish("INSUFFICIENT_FUNDS", "rejected");
+
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertEquals(1, requests("INSUFFICIENT_FUNDS").count());
+	}
+
+	private void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+	}
+
+	private Timer requests(String outcome) {
+		return meterRegistry.get("wallet.transaction.request").tags("operation", "transfer", "outcome", outcome).timer();
+	}
+}
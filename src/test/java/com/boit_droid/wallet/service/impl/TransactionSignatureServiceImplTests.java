@@ -0,0 +1,78 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.entity.Transaction;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.entity.enums.TransactionType;
+import com.boit_droid.wallet.util.SignatureEnvelope;
+import com.boit_droid.wallet.util.SignatureUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionSignatureServiceImplTests {
+
+	private final SignatureUtil signatureUtil = new SignatureUtil();
+	private final TransactionSignatureServiceImpl signatures =
+		new TransactionSignatureServiceImpl(signatureUtil, null, new WalletConfigurationProperties(), null);
+
+	@AfterEach
+	void tearDown() {
+		signatures.stop();
+	}
+
+	@Test
+	void verifiesTransferSignedBySender() {
+		Wallet sender = wallet(1L, "sender-salt");
+		Wallet recipient = wallet(2L, "recipient-salt");
+		String signature = signatures.generateTransactionSignature(sender, 100.0, recipient.getWalletId(), "TRANSFER");
+		Transaction transaction = transaction(sender, recipient, "100.00");
+
+		assertTrue(signatures.verifyTransactionSignature(transaction, signature));
+		assertFalse(signatures.verifyTransactionSignature(transaction(sender, recipient, "101.00"), signature));
+		assertFalse(signatures.verifyTransactionSignature(transaction(sender, wallet(3L, "other-salt"), "100.00"), signature));
+		assertFalse(signatures.verifyTransactionSignature(transaction, "3f2a9c"));
+	}
+
+	@Test
+	void verifiesOperationSignatureWithinItsWindow() {
+		Wallet wallet = wallet(1L, "wallet-salt");
+		String signature = signatures.generateWalletOperationSignature(wallet, "CLOSE", "reason");
+
+		assertTrue(signatures.verifyWalletOperationSignature(wallet, "CLOSE", "reason", signature));
+		assertFalse(signatures.verifyWalletOperationSignature(wallet, "CLOSE", "other reason", signature));
+		assertFalse(signatures.verifyWalletOperationSignature(wallet, "FREEZE", "reason", signature));
+		assertFalse(signatures.verifyWalletOperationSignature(wallet, "CLOSE", "reason", "abc"));
+
+		String stale = SignatureEnvelope.sign("1|1|CLOSE|reason", "wallet-salt", Instant.now().minus(Duration.ofDays(1)),
+			signatureUtil).encode();
+		assertFalse(signatures.verifyWalletOperationSignature(wallet, "CLOSE", "reason", stale));
+	}
+
+	private static Transaction transaction(Wallet sender, Wallet recipient, String amount) {
+		Transaction transaction = new Transaction();
+		transaction.setRequestId("tx-1");
+		transaction.setSenderWallet(sender);
+		transaction.setReceiverWallet(recipient);
+		transaction.setAmount(new BigDecimal(amount));
+		transaction.setType(TransactionType.TRANSFER);
+		return transaction;
+	}
+
+	private static Wallet wallet(Long id, String salt) {
+		User user = new User();
+		user.setId(id);
+		Wallet wallet = new Wallet();
+		wallet.setId(id);
+		wallet.setUser(user);
+		wallet.setSalt(salt);
+		return wallet;
+	}
+}
@@ -0,0 +1,140 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.config.WalletConfigurationProperties;
+import com.boit_droid.wallet.service.TransferRiskService.RiskAssessment;
+import com.boit_droid.wallet.service.TransferRiskService.RiskDecision;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransferRiskServiceImplTests {
+
+	private final TransferRiskServiceImpl risk = new TransferRiskServiceImpl(new WalletConfigurationProperties());
+
+	@Test
+	void stepsUpColdWallet() {
+		RiskAssessment assessment = risk.assess("W1", "d1", "R1", 100);
+
+		assertEquals(RiskDecision.STEP_UP_OTP, assessment.getDecision());
+		assertFalse(assessment.getReasons().isEmpty());
+	}
+
+	@Test
+	void allowsUsualTransferToKnownRecipient() {
+		for (int i = 0; i < 3; i++) {
+			risk.recordTransfer("W1", "d1", "R1", 100 + i);
+		}
+
+		RiskAssessment assessment = risk.assess("W1", "d1", "R1", 101);
+
+		assertEquals(RiskDecision.ALLOW, assessment.getDecision());
+		assertTrue(assessment.getReasons().isEmpty());
+		assertEquals(1, risk.getTrackedWalletCount());
+	}
+
+	@Test
+	void stepsUpUnusualAmount() {
+		for (int i = 0; i < 3; i++) {
+			risk.recordTransfer("W1", "d1", "R1", 100 + i);
+		}
+
+		assertEquals(RiskDecision.STEP_UP_OTP, risk.assess("W1", "d1", "R1", 5000).getDecision());
+	}
+
+	@Test
+	void deniesMinuteVelocity() {
+		for (int i = 0; i < 11; i++) {
+			risk.recordTransfer("W1", "d1", "R1", 100);
+		}
+
+		assertEquals(RiskDecision.DENY, risk.assess("W1", "d1", "R1", 100).getDecision());
+		assertEquals(1, risk.getDecisionCount(RiskDecision.DENY));
+	}
+
+	@Test
+	void deniesParallelBurstBeforeAnyCommit() throws Exception {
+		List<RiskDecision> decisions = burst(15, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertEquals(5, decisions.stream().filter(decision -> decision == RiskDecision.DENY).count());
+		// Rolled back transfers give their slots back
+		assertEquals(RiskDecision.STEP_UP_OTP, risk.assess("W1", "d1", "R1", 100).getDecision());
+	}
+
+	@Test
+	void keepsCommittedBurstInVelocity() throws Exception {
+		burst(11, TransactionSynchronization.STATUS_COMMITTED);
+
+		assertEquals(RiskDecision.DENY, risk.assess("W1", "d1", "R1", 100).getDecision());
+	}
+
+	@Test
+	void stepsUpEverythingWhenDisabled() {
+		WalletConfigurationProperties properties = new WalletConfigurationProperties();
+		properties.getRisk().setEnabled(false);
+		TransferRiskServiceImpl disabled = new TransferRiskServiceImpl(properties);
+		for (int i = 0; i < 3; i++) {
+			disabled.recordTransfer("W1", "d1", "R1", 100);
+		}
+
+		assertEquals(RiskDecision.STEP_UP_OTP, disabled.assess("W1", "d1", "R1", 100).getDecision());
+	}
+
+	/**
+	 * Assess transfers from one wallet on parallel transactions that all stay open until every one is scored
+	 */
+	private List<RiskDecision> burst(int transfers, int status) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(transfers);
+		CountDownLatch assessed = new CountDownLatch(transfers);
+		CountDownLatch complete = new CountDownLatch(1);
+		try {
+			List<Future<RiskDecision>> futures = new ArrayList<>();
+			for (int i = 0; i < transfers; i++) {
+				String deviceId = "d" + i;
+				futures.add(executor.submit(() -> {
+					TransactionSynchronizationManager.initSynchronization();
+					try {
+						RiskDecision decision = risk.assess("W1", deviceId, "R1", 100).getDecision();
+						if (status == TransactionSynchronization.STATUS_COMMITTED) {
+							risk.recordTransfer("W1", deviceId, "R1", 100);
+						}
+						assessed.countDown();
+						complete.await();
+						List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+						TransactionSynchronizationManager.clearSynchronization();
+						if (status == TransactionSynchronization.STATUS_COMMITTED) {
+							TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+						}
+						TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+						return decision;
+					} finally {
+						if (TransactionSynchronizationManager.isSynchronizationActive()) {
+							TransactionSynchronizationManager.clearSynchronization();
+						}
+					}
+				}));
+			}
+			assertTrue(assessed.await(10, TimeUnit.SECONDS));
+			complete.countDown();
+			List<RiskDecision> decisions = new ArrayList<>();
+			for (Future<RiskDecision> future : futures) {
+				decisions.add(future.get(10, TimeUnit.SECONDS));
+			}
+			return decisions;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.boit_droid.wallet.service.impl;
+
+import com.boit_droid.wallet.dto.request.PINUpdateRequest;
+import com.boit_droid.wallet.dto.request.TransferRequest;
+import com.boit_droid.wallet.dto.request.WalletCreationRequest;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.Wallet;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.exception.PinHashingBusyException;
+import com.boit_droid.wallet.repository.TransactionRepository;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.repository.WalletRepository;
+import com.boit_droid.wallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Wallet operations against the real tables
+ */
+@SpringBootTest(properties = {
+	"app.notification.email.enabled=false",
+	"app.notification.sms.enabled=false",
+	"app.notification.push.enabled=false",
+	"wallet.notification.retry-delay-ms=1000",
+	"wallet.security.lockout-duration-seconds=300",
+	"wallet.transaction.min-transfer-amount=1",
+	"wallet.security.pin-hash-timeout-ms=200"
+})
+@ActiveProfiles("test")
+class WalletServiceImplTests {
+
+	// Valid stored parameters that take well over the hash timeout to verify
+	private static final String SLOW_PIN_HASH = "$scrypt$ln=15,r=8,p=16$"
+		+ Base64.getEncoder().withoutPadding().encodeToString(new byte[32]);
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private WalletRepository walletRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void busyPinHashingReachesCallerWithoutFailedTransfer() {
+		Wallet sender = slowPinWallet();
+		Wallet recipient = newWallet();
+		TransferRequest request = new TransferRequest();
+		request.setRecipientWalletId(recipient.getRequestId());
+		request.setAmount(100.0);
+		request.setCurrency("KES");
+		request.setPin("1357");
+		request.setDeviceId("device-1");
+
+		assertThrows(PinHashingBusyException.class, () -> walletService.transferFunds(sender.getRequestId(), request));
+
+		assertTrue(transactionRepository.findBySenderWalletOrderByCreatedAtDesc(sender).isEmpty());
+		assertEquals(0, walletRepository.findById(sender.getId()).orElseThrow().getPinAttempts());
+	}
+
+	@Test
+	void busyPinHashingReachesCallerOfPinUpdate() {
+		Wallet wallet = slowPinWallet();
+		PINUpdateRequest request = new PINUpdateRequest();
+		request.setCurrentPin("1357");
+		request.setNewPin("2468");
+		request.setConfirmPin("2468");
+
+		assertThrows(PinHashingBusyException.class, () -> walletService.updateWalletPIN(wallet.getRequestId(), request));
+	}
+
+	private Wallet slowPinWallet() {
+		Wallet wallet = newWallet();
+		wallet.setPinHash(SLOW_PIN_HASH);
+		return walletRepository.save(wallet);
+	}
+
+	private Wallet newWallet() {
+		User user = newUser();
+		WalletCreationRequest request = new WalletCreationRequest();
+		request.setAccountName("Main wallet");
+		request.setCurrency("KES");
+		request.setPin("1357");
+		walletService.createWallet(user.getRequestId(), request);
+		return walletRepository.findByUserAndStatus(user, Status.ACTIVE).orElseThrow();
+	}
+
+	private User newUser() {
+		String suffix = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000L, 100_000_000L));
+		User user = new User();
+		user.setRequestId("wallet-" + suffix);
+		user.setFirstName("Test");
+		user.setLastName("User");
+		user.setMobile("07" + suffix);
+		user.setIdNumber("ID" + suffix);
+		user.setEmail("wallet" + suffix + "@example.com");
+		user.setPassword("password123");
+		user.setStatus(Status.ACTIVE);
+		user.setKycStatus("PENDING");
+		user.setLocale("en");
+		user.setCountryCode("254");
+		return userRepository.save(user);
+	}
+}
@@ -0,0 +1,116 @@
+package com.boit_droid.wallet.support.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts of one endpoint over the measured part of a run.
+ * Latencies are recorded in nanoseconds from the time the operation was scheduled to start, not
+ * from when it was sent, so time spent queued behind a slow server is counted (no coordinated
+ * omission). Recording is lock-free; the interval histogram is drained by the reporting thread.
+ */
+final class EndpointStats {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram total = new Histogram(3);
+    private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(latencyNanos);
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * The request did not get a response: connection error or timeout
+     */
+    void failed(long latencyNanos) {
+        recorder.recordValue(latencyNanos);
+        failures.increment();
+    }
+
+    /**
+     * The operation was due but max-in-flight requests were already outstanding
+     */
+    void dropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Move the latencies recorded since the last call into the run total
+     * @return the interval just drained
+     */
+    synchronized Histogram drainInterval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    synchronized void printSummary(PrintStream out, double measuredSeconds) {
+        long count = total.getTotalCount();
+        if (count == 0 && dropped.sum() == 0) {
+            return;
+        }
+        out.printf("%-22s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", name, count, count / measuredSeconds,
+            millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)),
+            millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+            millis(total.getMaxValue()), outcomes());
+    }
+
+    static void printHeader(PrintStream out) {
+        out.printf("%-22s %8s %9s %9s %9s %9s %9s %9s  %s%n", "endpoint", "count", "ops/s",
+            "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+    }
+
+    /**
+     * Write the full percentile distribution in HdrHistogram's .hgrm format, in milliseconds
+     */
+    synchronized void writeDistribution(Path directory) throws IOException {
+        if (total.getTotalCount() == 0) {
+            return;
+        }
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9]+", "-") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            total.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private String outcomes() {
+        StringBuilder outcomes = new StringBuilder();
+        new TreeMap<>(Map.copyOf(statuses)).forEach((status, count) ->
+            outcomes.append(status).append('=').append(count.sum()).append(' '));
+        if (failures.sum() > 0) {
+            outcomes.append("failed=").append(failures.sum()).append(' ');
+        }
+        if (dropped.sum() > 0) {
+            outcomes.append("dropped=").append(dropped.sum());
+        }
+        return outcomes.toString().trim();
+    }
+
+    static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
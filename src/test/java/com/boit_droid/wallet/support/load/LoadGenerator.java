@@ -0,0 +1,445 @@
+package com.boit_droid.wallet.support.load;
+
+import com.boit_droid.wallet.WalletApplication;
+import com.boit_droid.wallet.dto.request.WalletCreationRequest;
+import com.boit_droid.wallet.dto.response.CustomApiResponse;
+import com.boit_droid.wallet.dto.response.WalletResponse;
+import com.boit_droid.wallet.entity.User;
+import com.boit_droid.wallet.entity.enums.Status;
+import com.boit_droid.wallet.repository.UserRepository;
+import com.boit_droid.wallet.repository.WalletRepository;
+import com.boit_droid.wallet.service.OtpService;
+import com.boit_droid.wallet.service.WalletService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic workload generator for the wallet API.
+ * Boots the application on a random port (H2 test profile by default, or any profile and
+ * datasource given on the command line), seeds users and funded wallets, then sends an open-loop
+ * mix of transfers, top-ups, balance polls, history, statements and notification reads through the
+ * real HTTP stack. Each simulated user sends from its own X-Forwarded-For address, and loopback is
+ * trusted as a proxy, so per-client rate limits apply as they would in production.
+ *
+ * Run with {@code ./mvnw -Pload verify -Dload.args="--load.rate=100 --load.duration=120"}; see
+ * {@link LoadOptions} for the options. With --load.otp=bypass (the default) transfers that step up
+ * to an OTP are completed with the code captured by {@link LoadTestOtpService}; with
+ * --load.otp=deliver the real OtpService is used and step-ups end at the 202.
+ */
+public final class LoadGenerator {
+
+    private static final String API = "/api/v1";
+    private static final String PIN = "1357";
+    private static final String CURRENCY = "KES";
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("500000.00");
+    private static final int SEED_BATCH = 200;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Set as system properties: above the profile's own files, below anything on the command line.
+    // The test profile's debug logging and short retry and lockout settings are not meant for a long run.
+    private static final Map<String, String> LOAD_PROPERTIES = Map.ofEntries(
+        Map.entry("server.port", "0"),
+        Map.entry("spring.devtools.restart.enabled", "false"),
+        Map.entry("app.notification.sms.enabled", "false"),
+        Map.entry("app.notification.email.enabled", "false"),
+        Map.entry("app.notification.push.enabled", "false"),
+        Map.entry("wallet.notification.retry-delay-ms", "1000"),
+        Map.entry("wallet.security.lockout-duration-seconds", "300"),
+        Map.entry("wallet.security.pin-hash-cost-log2", "10"),
+        Map.entry("wallet.transaction.min-transfer-amount", "1"),
+        Map.entry("wallet.security.rate-limit-trusted-proxies", "127.0.0.1,0:0:0:0:0:0:0:1"),
+        Map.entry("logging.level.root", "WARN"),
+        Map.entry("logging.level.com.boit_droid.wallet", "WARN"),
+        Map.entry("logging.level.com.boit_droid.wallet.config", "WARN"),
+        Map.entry("logging.level.com.boit_droid.wallet.controller", "WARN"),
+        Map.entry("logging.level.com.boit_droid.wallet.service", "WARN"),
+        Map.entry("logging.level.org.springframework.web", "WARN"),
+        Map.entry("logging.level.org.springframework.transaction", "WARN"),
+        Map.entry("logging.level.org.hibernate.SQL", "WARN"),
+        Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN"));
+
+    private final LoadOptions options;
+    private final ConfigurableApplicationContext context;
+    private final ObjectMapper objectMapper;
+    private final LoadTestOtpService otpService;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final AtomicLong topUpSequence = new AtomicLong();
+
+    private HttpClient http;
+    private String baseUrl;
+    private String[] walletIds;
+    private String[] userIds;
+    private String[] mobiles;
+
+    private final EndpointStats transfer;
+    private final EndpointStats transferOtp;
+    private final EndpointStats transferEndToEnd;
+
+    private LoadGenerator(LoadOptions options, ConfigurableApplicationContext context) {
+        this.options = options;
+        this.context = context;
+        this.objectMapper = context.getBean(ObjectMapper.class);
+        OtpService primaryOtpService = context.getBean(OtpService.class);
+        this.otpService = primaryOtpService instanceof LoadTestOtpService bypass ? bypass : null;
+
+        for (Workload.Op op : Workload.Op.values()) {
+            stats.put(op.name(), new EndpointStats(endpointName(op)));
+        }
+        this.transfer = stats.get(Workload.Op.TRANSFER.name());
+        this.transferOtp = new EndpointStats("POST transfer +otp");
+        this.transferEndToEnd = new EndpointStats("transfer end-to-end");
+        stats.put("TRANSFER_OTP", transferOtp);
+        stats.put("TRANSFER_END_TO_END", transferEndToEnd);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> springArgs = new ArrayList<>();
+        LoadOptions options = LoadOptions.parse(args, springArgs);
+
+        // Replaces application.yml's active profile instead of adding to it, so dev's MySQL is not picked up
+        System.setProperty("spring.profiles.active", options.getProfile());
+        LOAD_PROPERTIES.forEach((name, value) -> {
+            if (System.getProperty(name) == null) {
+                System.setProperty(name, value);
+            }
+        });
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(WalletApplication.class);
+        if (options.isOtpBypass()) {
+            builder.initializers(context -> ((GenericApplicationContext) context)
+                .registerBean(LoadTestOtpService.class, definition -> definition.setPrimary(true)));
+        }
+
+        int exitCode = 0;
+        try (ConfigurableApplicationContext context = builder.run(springArgs.toArray(String[]::new))) {
+            new LoadGenerator(options, context).run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    private void run() throws IOException, InterruptedException {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + API;
+
+        long seedStart = System.nanoTime();
+        seed();
+        System.out.printf("Seeded %d users and wallets (%d merchants) in %.1f s%n", options.getUsers(),
+            options.getMerchants(), (System.nanoTime() - seedStart) / 1e9);
+
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2), runnable -> {
+                Thread thread = new Thread(runnable, "load-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        http = HttpClient.newBuilder()
+            .executor(httpExecutor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        System.out.printf("Driving %s at %.1f ops/s: %d s warm-up, %d s measured, otp=%s, seed=%d%n",
+            options.getReplay() != null ? "replay of " + options.getReplay() : "generated load",
+            options.getRate(), options.getWarmupSeconds(), options.getDurationSeconds(),
+            otpService != null ? "bypass" : "deliver", options.getSeed());
+        double measuredSeconds;
+        try (Workload workload = Workload.open(options)) {
+            measuredSeconds = drive(workload);
+        } finally {
+            httpExecutor.shutdownNow();
+        }
+        report(measuredSeconds);
+    }
+
+    /**
+     * Create the users directly and their wallets through WalletService, then fund every wallet
+     */
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        WalletRepository walletRepository = context.getBean(WalletRepository.class);
+        WalletService walletService = context.getBean(WalletService.class);
+
+        int users = options.getUsers();
+        walletIds = new String[users];
+        userIds = new String[users];
+        mobiles = new String[users];
+        // Unique per run, so repeated runs against a persistent database do not collide
+        String run = String.format("%03d", System.currentTimeMillis() / 1000 % 1000);
+
+        for (int from = 0; from < users; from += SEED_BATCH) {
+            List<User> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(users, from + SEED_BATCH); i++) {
+                batch.add(newUser(i, run, i < options.getMerchants()));
+            }
+            List<User> saved = userRepository.saveAll(batch);
+            for (int j = 0; j < saved.size(); j++) {
+                int index = from + j;
+                User user = saved.get(j);
+                userIds[index] = user.getId().toString();
+                mobiles[index] = user.getMobile();
+                walletIds[index] = createWallet(walletService, user, index < options.getMerchants());
+                walletRepository.findByRequestId(walletIds[index]).ifPresent(wallet -> {
+                    wallet.setBalance(OPENING_BALANCE);
+                    walletRepository.save(wallet);
+                });
+            }
+        }
+    }
+
+    private static User newUser(int index, String run, boolean merchant) {
+        User user = new User();
+        user.setRequestId(UUID.randomUUID().toString());
+        user.setFirstName(merchant ? "Merchant" : "Customer");
+        user.setLastName("Load");
+        user.setMobile("2547" + run + String.format("%07d", index));
+        user.setIdNumber("LD" + run + String.format("%07d", index));
+        user.setEmail("load-" + run + "-" + index + "@example.com");
+        user.setPassword("load-test-password");
+        user.setStatus(Status.ACTIVE);
+        user.setKycStatus("VERIFIED");
+        user.setLocale("en");
+        user.setCountryCode("254");
+        return user;
+    }
+
+    private static String createWallet(WalletService walletService, User user, boolean merchant) {
+        WalletCreationRequest request = new WalletCreationRequest();
+        request.setAccountName((merchant ? "Merchant " : "Customer ") + user.getMobile());
+        request.setCurrency(CURRENCY);
+        request.setPin(PIN);
+        CustomApiResponse response = walletService.createWallet(user.getRequestId(), request);
+        if (!response.getSuccess() || !(response.getData() instanceof WalletResponse wallet)) {
+            throw new IllegalStateException("Could not seed wallet for user " + user.getRequestId() + ": "
+                + response.getMessage() + " " + response.getErrors());
+        }
+        return wallet.getWalletId();
+    }
+
+    /**
+     * Send every scheduled operation at its start time, whether or not earlier ones have completed
+     * @return the length of the measured part of the schedule, in seconds
+     */
+    private double drive(Workload workload) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        AtomicInteger completed = new AtomicInteger();
+        long warmupNanos = TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, options.getReportIntervalSeconds()));
+        long start = System.nanoTime();
+        long nextReport = start + intervalNanos;
+        long lastOffset = warmupNanos;
+
+        Workload.Operation operation;
+        while ((operation = workload.next()) != null) {
+            long intended = start + operation.offsetNanos();
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                if (now >= nextReport) {
+                    printProgress(now - start, inFlight, completed.getAndSet(0), intervalNanos);
+                    nextReport += intervalNanos;
+                }
+                LockSupport.parkNanos(Math.min(intended, nextReport) - now);
+            }
+            lastOffset = operation.offsetNanos();
+
+            boolean measured = operation.offsetNanos() >= warmupNanos;
+            EndpointStats endpoint = stats.get(operation.op().name());
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    endpoint.dropped();
+                }
+                continue;
+            }
+            execute(operation, intended, measured).whenComplete((ignored, error) -> {
+                completed.incrementAndGet();
+                inFlight.release();
+            });
+        }
+
+        if (!inFlight.tryAcquire(options.getMaxInFlight(), REQUEST_TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS)) {
+            System.out.println("Gave up waiting for " + (options.getMaxInFlight() - inFlight.availablePermits())
+                + " outstanding requests");
+        }
+        return Math.max(1e-9, (lastOffset - warmupNanos) / 1e9);
+    }
+
+    private CompletableFuture<?> execute(Workload.Operation operation, long intended, boolean measured) {
+        int actor = operation.actor();
+        String walletId = walletIds[actor];
+        EndpointStats endpoint = stats.get(operation.op().name());
+        LocalDate today = LocalDate.now();
+        return switch (operation.op()) {
+            case BALANCE -> send(endpoint, get("/wallet/" + walletId + "/balance", actor), intended, measured);
+            case HISTORY -> send(endpoint, get("/transactions/wallets/" + walletId + "/history?page=0&size=20", actor),
+                intended, measured);
+            case STATEMENT -> send(endpoint, get("/wallet/" + walletId + "/statement?startDate=" + today.minusDays(30)
+                + "&endDate=" + today + "&page=0&size=20", actor), intended, measured);
+            case NOTIFICATIONS -> send(endpoint, get("/notifications/users/" + userIds[actor] + "?page=0&size=20", actor),
+                intended, measured);
+            case TOP_UP -> {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("amount", amount(operation.amountCents()));
+                body.put("currency", CURRENCY);
+                body.put("phoneNumber", mobiles[actor]);
+                body.put("mpesaTransactionId", String.format("LOADMP%010d", topUpSequence.incrementAndGet()));
+                yield send(endpoint, post("/wallet/" + walletId + "/topup", body, actor), intended, measured);
+            }
+            case TRANSFER -> transfer(operation, intended, measured);
+        };
+    }
+
+    /**
+     * A transfer, completed with the captured OTP when risk scoring steps it up
+     */
+    private CompletableFuture<?> transfer(Workload.Operation operation, long intended, boolean measured) {
+        int sender = operation.actor();
+        String path = "/wallet/" + walletIds[sender] + "/transfer";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("recipientWalletId", walletIds[operation.target()]);
+        body.put("amount", amount(operation.amountCents()));
+        body.put("currency", CURRENCY);
+        body.put("description", "Load test transfer");
+        body.put("pin", PIN);
+        body.put("deviceId", "load-device-" + sender);
+
+        int[] finalStatus = new int[1];
+        return send(transfer, post(path, body, sender), intended, measured)
+            .thenCompose(response -> {
+                finalStatus[0] = response.statusCode();
+                String code = response.statusCode() == 202 && otpService != null
+                    ? otpService.takeCode(purpose(response)) : null;
+                if (code == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                body.put("otp", code);
+                return send(transferOtp, post(path, body, sender), System.nanoTime(), measured)
+                    .thenAccept(confirmation -> finalStatus[0] = confirmation.statusCode());
+            })
+            .whenComplete((ignored, error) -> {
+                if (!measured) {
+                    return;
+                }
+                long latency = System.nanoTime() - intended;
+                if (error != null) {
+                    transferEndToEnd.failed(latency);
+                } else {
+                    transferEndToEnd.record(latency, finalStatus[0]);
+                }
+            });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(EndpointStats endpoint, HttpRequest request,
+                                                         long startNanos, boolean measured) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                if (!measured) {
+                    return;
+                }
+                long latency = System.nanoTime() - startNanos;
+                if (error != null) {
+                    endpoint.failed(latency);
+                } else {
+                    endpoint.record(latency, response.statusCode());
+                }
+            });
+    }
+
+    private HttpRequest get(String path, int actor) {
+        return request(path, actor).GET().build();
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body, int actor) {
+        try {
+            return request(path, actor)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, int actor) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("X-Forwarded-For", "10." + (actor >> 16 & 0xff) + "." + (actor >> 8 & 0xff) + "." + (actor & 0xff));
+    }
+
+    private String purpose(HttpResponse<byte[]> response) {
+        try {
+            return objectMapper.readTree(response.body()).path("data").path("purpose").asText(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void printProgress(long elapsedNanos, Semaphore inFlight, int completed, long intervalNanos) {
+        StringBuilder line = new StringBuilder(String.format("[%4d s] %6.1f ops/s, %d in flight",
+            TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), completed / (intervalNanos / 1e9),
+            options.getMaxInFlight() - inFlight.availablePermits()));
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram interval = endpoint.drainInterval();
+            if (interval.getTotalCount() > 0) {
+                line.append(String.format(" | %s p99 %.1f ms", endpoint.getName(),
+                    EndpointStats.millis(interval.getValueAtPercentile(99))));
+            }
+        }
+        System.out.println(line);
+    }
+
+    private void report(double measuredSeconds) throws IOException {
+        Files.createDirectories(options.getOutput());
+        System.out.printf("%nMeasured %.1f s%n", measuredSeconds);
+        EndpointStats.printHeader(System.out);
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.drainInterval();
+            endpoint.printSummary(System.out, measuredSeconds);
+            endpoint.writeDistribution(options.getOutput());
+        }
+        System.out.println("Percentile distributions (.hgrm) written to " + options.getOutput().toAbsolutePath());
+    }
+
+    private static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static String endpointName(Workload.Op op) {
+        return switch (op) {
+            case TRANSFER -> "POST transfer";
+            case TOP_UP -> "POST topup";
+            case BALANCE -> "GET balance";
+            case HISTORY -> "GET history";
+            case STATEMENT -> "GET statement";
+            case NOTIFICATIONS -> "GET notifications";
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.boit_droid.wallet.support.load;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options of a load run, given as {@code --load.<name>=<value>} arguments.
+ * Every other argument is handed to Spring unchanged, so datasource and wallet.* settings can be
+ * overridden on the same command line.
+ */
+final class LoadOptions {
+
+    private static final String PREFIX = "--load.";
+
+    private String profile = "test";
+    private int users = 500;
+    private double merchantFraction = 0.02;
+    private double merchantShare = 0.7;
+    private double skew = 1.1;
+    private double rate = 50;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int maxInFlight = 256;
+    private boolean poisson = true;
+    private boolean otpBypass = true;
+    private long seed = 42;
+    private int reportIntervalSeconds = 10;
+    private Path output = Path.of("target", "load");
+    private Path record;
+    private Path replay;
+    private final Map<Workload.Op, Integer> mix = new EnumMap<>(Map.of(
+        Workload.Op.TRANSFER, 20,
+        Workload.Op.TOP_UP, 5,
+        Workload.Op.BALANCE, 35,
+        Workload.Op.HISTORY, 15,
+        Workload.Op.STATEMENT, 5,
+        Workload.Op.NOTIFICATIONS, 20));
+
+    private LoadOptions() {
+    }
+
+    /**
+     * Parse the load options out of the arguments, adding everything else to springArgs
+     */
+    static LoadOptions parse(String[] args, List<String> springArgs) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith(PREFIX)) {
+                springArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected " + PREFIX + "<name>=<value> but got " + arg);
+            }
+            options.set(arg.substring(PREFIX.length(), separator), arg.substring(separator + 1));
+        }
+        if (options.users < 2) {
+            throw new IllegalArgumentException("At least two users are needed for transfers");
+        }
+        if (options.merchantFraction < 0 || options.merchantFraction >= 1
+            || options.merchantShare < 0 || options.merchantShare > 1) {
+            throw new IllegalArgumentException("merchant-fraction must be in [0, 1) and merchant-share in [0, 1]");
+        }
+        if (options.rate <= 0 || options.maxInFlight < 1) {
+            throw new IllegalArgumentException("rate and max-in-flight must be positive");
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "profile" -> profile = value;
+            case "users" -> users = Integer.parseInt(value);
+            case "merchant-fraction" -> merchantFraction = Double.parseDouble(value);
+            case "merchant-share" -> merchantShare = Double.parseDouble(value);
+            case "skew" -> skew = Double.parseDouble(value);
+            case "rate" -> rate = Double.parseDouble(value);
+            case "warmup" -> warmupSeconds = Integer.parseInt(value);
+            case "duration" -> durationSeconds = Integer.parseInt(value);
+            case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+            case "arrivals" -> poisson = switch (value) {
+                case "poisson" -> true;
+                case "uniform" -> false;
+                default -> throw new IllegalArgumentException("arrivals must be poisson or uniform");
+            };
+            case "otp" -> otpBypass = switch (value) {
+                case "bypass" -> true;
+                case "deliver" -> false;
+                default -> throw new IllegalArgumentException("otp must be bypass or deliver");
+            };
+            case "seed" -> seed = Long.parseLong(value);
+            case "report-interval" -> reportIntervalSeconds = Integer.parseInt(value);
+            case "output" -> output = Path.of(value);
+            case "record" -> record = Path.of(value);
+            case "replay" -> replay = Path.of(value);
+            case "mix" -> parseMix(value);
+            default -> throw new IllegalArgumentException("Unknown load option: " + name);
+        }
+    }
+
+    // e.g. transfer:20,top_up:5,balance:35 ; operations left out get no traffic
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("mix entries must be <operation>:<weight>");
+            }
+            mix.put(Workload.Op.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs at least one positive weight");
+        }
+    }
+
+    String getProfile() {
+        return profile;
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    int getMerchants() {
+        return (int) Math.round(users * merchantFraction);
+    }
+
+    double getMerchantShare() {
+        return merchantShare;
+    }
+
+    double getSkew() {
+        return skew;
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    boolean isPoisson() {
+        return poisson;
+    }
+
+    boolean isOtpBypass() {
+        return otpBypass;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    Path getRecord() {
+        return record;
+    }
+
+    Path getReplay() {
+        return replay;
+    }
+
+    Map<Workload.Op, Integer> getMix() {
+        return mix;
+    }
+}
@@ -0,0 +1,93 @@
+package com.boit_droid.wallet.support.load;
+
+import com.boit_droid.wallet.dto.response.CustomApiResponse;
+import com.boit_droid.wallet.dto.response.OtpRequiredResponse;
+import com.boit_droid.wallet.service.NotificationService;
+import com.boit_droid.wallet.service.OtpAuditService;
+import com.boit_droid.wallet.service.OtpService;
+import com.boit_droid.wallet.service.OtpStore;
+import com.boit_droid.wallet.service.RateCounterStore;
+import com.boit_droid.wallet.service.impl.OtpServiceImpl;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OtpService for load runs: codes are issued, stored and verified exactly as in production, but
+ * nothing is delivered. Each issued code is kept by purpose so the load generator can complete
+ * the step-up the way a user reading the SMS would. Registered as the primary OtpService only
+ * when the generator runs with --load.otp=bypass.
+ */
+class LoadTestOtpService implements OtpService {
+
+    private static final NotificationService NO_DELIVERY = (NotificationService) Proxy.newProxyInstance(
+        NotificationService.class.getClassLoader(), new Class<?>[] {NotificationService.class},
+        (proxy, method, args) -> null);
+
+    private final OtpService delegate;
+    private final Map<String, String> issued = new ConcurrentHashMap<>();
+
+    LoadTestOtpService(OtpAuditService otpAuditService, OtpStore otpStore, RateCounterStore rateCounterStore) {
+        this.delegate = new OtpServiceImpl(NO_DELIVERY, otpAuditService, otpStore, rateCounterStore);
+    }
+
+    /**
+     * Remove and return the last code issued for a purpose
+     * @return the code, or null if none is outstanding
+     */
+    String takeCode(String purpose) {
+        return issued.remove(purpose);
+    }
+
+    @Override
+    public String requestOtpForWallet(String walletId, String purpose, String userId) {
+        String code = delegate.requestOtpForWallet(walletId, purpose, userId);
+        issued.put(purpose, code);
+        return code;
+    }
+
+    @Override
+    public boolean verifyOtpForWallet(String walletId, String purpose, String otpCode) {
+        return delegate.verifyOtpForWallet(walletId, purpose, otpCode);
+    }
+
+    @Override
+    public String requestOtpForUser(String userId, String purpose) {
+        String code = delegate.requestOtpForUser(userId, purpose);
+        issued.put(purpose, code);
+        return code;
+    }
+
+    @Override
+    public boolean verifyOtpForUser(String userId, String purpose, String otpCode) {
+        return delegate.verifyOtpForUser(userId, purpose, otpCode);
+    }
+
+    @Override
+    public CustomApiResponse<OtpRequiredResponse> createOtpRequiredResponse(String requestId, String message, String purpose) {
+        return delegate.createOtpRequiredResponse(requestId, message, purpose);
+    }
+
+    @Override
+    public String requestOtpWithSecurity(String userId, String purpose, String clientIp, String requestId) {
+        String code = delegate.requestOtpWithSecurity(userId, purpose, clientIp, requestId);
+        issued.put(purpose, code);
+        return code;
+    }
+
+    @Override
+    public boolean verifyOtpWithSecurity(String userId, String purpose, String otpCode, String clientIp, String requestId) {
+        return delegate.verifyOtpWithSecurity(userId, purpose, otpCode, clientIp, requestId);
+    }
+
+    @Override
+    public boolean isRateLimited(String userId, String clientIp) {
+        return delegate.isRateLimited(userId, clientIp);
+    }
+
+    @Override
+    public boolean isSuspiciousActivity(String userId, String clientIp) {
+        return delegate.isSuspiciousActivity(userId, clientIp);
+    }
+}
@@ -0,0 +1,187 @@
+package com.boit_droid.wallet.support.load;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open-loop schedule of operations against a seeded population.
+ * Users 0 to merchants - 1 are merchants; the rest are consumers. Transfers go from a consumer
+ * to a merchant with probability merchant-share, picked by a Zipf distribution with exponent
+ * skew so a few merchants are hot, and otherwise to another consumer. Reads follow the same split,
+ * since busy merchants poll their balance and history the most.
+ *
+ * A generated schedule is fully determined by the seed, and can also be written to a trace file
+ * of {@code offsetMicros,op,actor,target,amountCents} lines and replayed later.
+ */
+final class Workload implements Closeable {
+
+    enum Op {
+        TRANSFER, TOP_UP, BALANCE, HISTORY, STATEMENT, NOTIFICATIONS
+    }
+
+    record Operation(long offsetNanos, Op op, int actor, int target, long amountCents) {
+    }
+
+    private final BufferedReader replay;
+    private final BufferedWriter record;
+    private final int users;
+
+    // Generated schedules only
+    private final SplittableRandom random;
+    private final LoadOptions options;
+    private final Op[] ops;
+    private final double[] opCdf;
+    private final double[] merchantCdf;
+    private final long endNanos;
+    private long offsetNanos;
+
+    private Workload(LoadOptions options, BufferedReader replay, BufferedWriter record) {
+        this.options = options;
+        this.replay = replay;
+        this.record = record;
+        this.users = options.getUsers();
+        this.random = new SplittableRandom(options.getSeed());
+        this.endNanos = TimeUnit.SECONDS.toNanos(options.getWarmupSeconds() + options.getDurationSeconds());
+
+        Map<Op, Integer> mix = options.getMix();
+        this.ops = mix.keySet().toArray(Op[]::new);
+        this.opCdf = cumulative(Arrays.stream(ops).mapToDouble(op -> mix.get(op)).toArray());
+
+        double[] weights = new double[options.getMerchants()];
+        for (int rank = 0; rank < weights.length; rank++) {
+            weights[rank] = 1 / Math.pow(rank + 1, options.getSkew());
+        }
+        this.merchantCdf = cumulative(weights);
+    }
+
+    static Workload open(LoadOptions options) throws IOException {
+        BufferedReader replay = options.getReplay() != null ? Files.newBufferedReader(options.getReplay()) : null;
+        BufferedWriter record = null;
+        if (options.getRecord() != null) {
+            Path parent = options.getRecord().toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            record = Files.newBufferedWriter(options.getRecord());
+        }
+        return new Workload(options, replay, record);
+    }
+
+    /**
+     * @return the next operation, or null once the schedule is over
+     */
+    Operation next() {
+        Operation operation = replay != null ? read() : generate();
+        if (operation != null && record != null) {
+            write(operation);
+        }
+        return operation;
+    }
+
+    private Operation generate() {
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        offsetNanos += options.isPoisson()
+            ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos)
+            : (long) meanGapNanos;
+        if (offsetNanos >= endNanos) {
+            return null;
+        }
+
+        Op op = ops[pick(opCdf, random.nextDouble())];
+        return switch (op) {
+            case TRANSFER -> {
+                int sender = consumer();
+                int recipient = merchantCdf.length > 0 && random.nextDouble() < options.getMerchantShare()
+                    ? merchant() : otherConsumer(sender);
+                yield new Operation(offsetNanos, op, sender, recipient, random.nextLong(1_000, 500_000));
+            }
+            case TOP_UP -> new Operation(offsetNanos, op, consumer(), -1, random.nextLong(1_000, 200_000));
+            default -> new Operation(offsetNanos, op,
+                merchantCdf.length > 0 && random.nextDouble() < options.getMerchantShare() ? merchant() : random.nextInt(users),
+                -1, 0);
+        };
+    }
+
+    private int merchant() {
+        return pick(merchantCdf, random.nextDouble());
+    }
+
+    private int consumer() {
+        return merchantCdf.length + random.nextInt(users - merchantCdf.length);
+    }
+
+    private int otherConsumer(int sender) {
+        if (users - merchantCdf.length < 2) {
+            return sender == 0 ? 1 : 0;
+        }
+        int recipient = consumer();
+        while (recipient == sender) {
+            recipient = consumer();
+        }
+        return recipient;
+    }
+
+    private Operation read() {
+        try {
+            String line = replay.readLine();
+            if (line == null || line.isBlank()) {
+                return null;
+            }
+            String[] fields = line.split(",");
+            Operation operation = new Operation(TimeUnit.MICROSECONDS.toNanos(Long.parseLong(fields[0])),
+                Op.valueOf(fields[1]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Long.parseLong(fields[4]));
+            if (operation.actor() >= users || operation.target() >= users) {
+                throw new IllegalArgumentException("Trace refers to user " + Math.max(operation.actor(), operation.target())
+                    + " but only " + users + " are seeded; replay with the same --load.users");
+            }
+            return operation;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Operation operation) {
+        try {
+            record.write(TimeUnit.NANOSECONDS.toMicros(operation.offsetNanos()) + "," + operation.op() + ","
+                + operation.actor() + "," + operation.target() + "," + operation.amountCents());
+            record.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (replay != null) {
+            replay.close();
+        }
+        if (record != null) {
+            record.close();
+        }
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cdf[i] = total;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, double value) {
+        int index = Arrays.binarySearch(cdf, value);
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.boit_droid.wallet.util;
+
+import com.boit_droid.wallet.entity.audit.AuditEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditJournalTests {
+
+	private static final byte[] KEY = "journal-key".getBytes(StandardCharsets.UTF_8);
+	private static final int SEGMENT_SIZE = 64 * 1024;
+	private static final int RECORDS = 1000;
+
+	private final SignatureUtil signatureUtil = new SignatureUtil();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackRecordsAcrossSegmentsAndReopen() throws IOException {
+		appendEvents(RECORDS);
+		try (AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, KEY, signatureUtil)) {
+			assertEquals(RECORDS, journal.getNextSequence());
+			journal.append(event("last").encode(), System.currentTimeMillis());
+		}
+
+		List<String> auditIds = new ArrayList<>();
+		AuditJournalReader.Verification verification = new AuditJournalReader(directory, KEY, signatureUtil)
+			.read((sequence, timestampMillis, payload) -> auditIds.add(AuditEvent.decode(payload).getAuditId()));
+
+		assertTrue(verification.valid(), verification.failure());
+		assertTrue(verification.segments() > 1);
+		assertEquals(RECORDS + 1, verification.records());
+		assertEquals(RECORDS + 1, auditIds.size());
+		assertEquals("id0", auditIds.get(0));
+		assertEquals("last", auditIds.get(RECORDS));
+	}
+
+	@Test
+	void detectsAlteredRecord() throws IOException {
+		appendEvents(RECORDS);
+		List<Path> segments = segments();
+		try (RandomAccessFile file = new RandomAccessFile(segments.get(1).toFile(), "rw")) {
+			file.seek(300);
+			int value = file.read();
+			file.seek(300);
+			file.write(value ^ 1);
+		}
+
+		AuditJournalReader.Verification verification = new AuditJournalReader(directory, KEY, signatureUtil).verify();
+
+		assertFalse(verification.valid());
+		assertNotNull(verification.failure());
+	}
+
+	@Test
+	void rejectsWrongKey() throws IOException {
+		appendEvents(10);
+
+		byte[] wrongKey = "other-key".getBytes(StandardCharsets.UTF_8);
+		assertFalse(new AuditJournalReader(directory, wrongKey, signatureUtil).verify().valid());
+	}
+
+	@Test
+	void compactedJournalStaysVerifiable() throws IOException {
+		appendEvents(RECORDS);
+		int before = segments().size();
+		try (AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, KEY, signatureUtil)) {
+			assertEquals(before - 1, journal.compact(Long.MAX_VALUE));
+		}
+
+		AuditJournalReader.Verification verification = new AuditJournalReader(directory, KEY, signatureUtil).verify();
+
+		assertTrue(verification.valid(), verification.failure());
+		assertTrue(verification.anchored());
+		assertEquals(1, verification.segments());
+		assertEquals(RECORDS - 1, verification.lastSequence());
+	}
+
+	private void appendEvents(int count) throws IOException {
+		try (AuditJournal journal = new AuditJournal(directory, SEGMENT_SIZE, KEY, signatureUtil)) {
+			for (int i = 0; i < count; i++) {
+				journal.append(event("id" + i).encode(), System.currentTimeMillis());
+			}
+		}
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	private static AuditEvent event(String auditId) {
+		return AuditEvent.builder()
+			.auditId(auditId)
+			.entityType("Wallet")
+			.entityId("W1")
+			.operation("UPDATE")
+			.timestamp(Instant.now())
+			.changedFields("[\"balance\"]")
+			.oldValues("{\"balance\":1}")
+			.newValues("{\"balance\":2}")
+			.build();
+	}
+}
@@ -0,0 +1,86 @@
+package com.boit_droid.wallet.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerkleTreeTests {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+	@AfterAll
+	static void shutdown() {
+		POOL.shutdown();
+	}
+
+	@Test
+	void parallelRootMatchesLevelByLevelRoot() {
+		for (int count : new int[] {1, 2, 3, 5, 8, 17, 100, 4096, 4097, 10001}) {
+			byte[][] leaves = leaves(count);
+			List<byte[][]> levels = MerkleTree.levels(leaves);
+
+			assertArrayEquals(levels.get(levels.size() - 1)[0], MerkleTree.root(POOL, leaves), "leaves: " + count);
+		}
+	}
+
+	@Test
+	void proofsRebuildTheRoot() {
+		for (int count : new int[] {1, 2, 7, 16, 33, 1000}) {
+			byte[][] leaves = leaves(count);
+			List<byte[][]> levels = MerkleTree.levels(leaves);
+			byte[] root = levels.get(levels.size() - 1)[0];
+
+			for (int index = 0; index < count; index += Math.max(1, count / 50)) {
+				assertArrayEquals(root, MerkleTree.rootFromProof(leaves[index], index, count, siblings(levels, index, count)),
+					"leaf " + index + " of " + count);
+			}
+		}
+	}
+
+	@Test
+	void rejectsProofsThatDoNotFitTheLeaf() {
+		byte[][] leaves = leaves(9);
+		List<byte[][]> levels = MerkleTree.levels(leaves);
+		byte[] root = levels.get(levels.size() - 1)[0];
+		List<byte[]> proof = siblings(levels, 3, 9);
+
+		assertFalse(Arrays.equals(root, MerkleTree.rootFromProof(leaves[4], 3, 9, proof)));
+		assertNull(MerkleTree.rootFromProof(leaves[3], 3, 9, proof.subList(0, proof.size() - 1)));
+		assertThrows(IllegalArgumentException.class, () -> MerkleTree.levels(new byte[0][]));
+	}
+
+	@Test
+	void doesNotDuplicateUnpairedLeaves() {
+		byte[][] three = leaves(3);
+		byte[][] four = {three[0], three[1], three[2], three[2]};
+
+		assertFalse(Arrays.equals(MerkleTree.root(POOL, three), MerkleTree.root(POOL, four)));
+	}
+
+	private static List<byte[]> siblings(List<byte[][]> levels, int index, int count) {
+		List<byte[]> siblings = new ArrayList<>();
+		for (int[] position : MerkleTree.proofPositions(index, count)) {
+			siblings.add(levels.get(position[0])[position[1]]);
+		}
+		return siblings;
+	}
+
+	private static byte[][] leaves(int count) {
+		Random random = new Random(count);
+		byte[][] leaves = new byte[count][MerkleTree.HASH_SIZE];
+		for (byte[] leaf : leaves) {
+			random.nextBytes(leaf);
+		}
+		return leaves;
+	}
+}
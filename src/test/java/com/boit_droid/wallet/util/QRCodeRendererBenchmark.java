@@ -0,0 +1,117 @@
+package com.boit_droid.wallet.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing one wallet QR image, as a merchant onboarding batch does tens of thousands of
+ * times. legacyPng is the previous path: a TYPE_INT_RGB BufferedImage filled with one setRGB per
+ * pixel, then ImageIO. png and svg are QRCodeUtil's current output. The render* variants start from
+ * an encoded matrix and measure the image writer alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QRCodeRendererBenchmark {
+
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(
+        EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+        EncodeHintType.CHARACTER_SET, "UTF-8",
+        EncodeHintType.MARGIN, 1);
+
+    @Param({"300", "1000"})
+    private int size;
+
+    private QRCodeUtil qrCodeUtil;
+    private String data;
+    private BitMatrix scaled;
+    private BitMatrix modules;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WriterException {
+        ImageIO.setUseCache(false);
+        qrCodeUtil = new QRCodeUtil();
+        data = qrCodeUtil.walletQRCodeData("7f1c2e9a-3b4d-4e5f-8a6b-1c2d3e4f5a6b", "ACC0012345678901", "Mama Mboga Groceries");
+        scaled = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, size, size, HINTS);
+        modules = new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, 0, 0, HINTS);
+    }
+
+    @Benchmark
+    public byte[] legacyPng() throws Exception {
+        return legacyImage(new QRCodeWriter().encode(data, BarcodeFormat.QR_CODE, size, size, HINTS));
+    }
+
+    @Benchmark
+    public byte[] png() {
+        return qrCodeUtil.render(data, size, QRCodeFormat.PNG);
+    }
+
+    @Benchmark
+    public byte[] svg() {
+        return qrCodeUtil.render(data, size, QRCodeFormat.SVG);
+    }
+
+    @Benchmark
+    public byte[] renderLegacyPng() throws IOException {
+        return legacyImage(scaled);
+    }
+
+    @Benchmark
+    public byte[] renderPng() {
+        return QRCodeRenderer.png(scaled);
+    }
+
+    @Benchmark
+    public String renderSvg() {
+        return QRCodeRenderer.svg(modules, size);
+    }
+
+    private static byte[] legacyImage(BitMatrix matrix) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(QRCodeRendererBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
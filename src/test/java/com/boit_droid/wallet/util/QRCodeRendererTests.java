@@ -0,0 +1,63 @@
+package com.boit_droid.wallet.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QRCodeRendererTests {
+
+	private static final String CONTENT = "WALLET:abc|ACCOUNT:123|NAME:Jane";
+	private static final Pattern RUN = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v1h-\\3z");
+
+	@Test
+	void pngMatchesMatrixPixelForPixel() throws Exception {
+		for (int size : new int[] {0, 100, 123, 300, 1000}) {
+			BitMatrix matrix = encode(size);
+
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(QRCodeRenderer.png(matrix)));
+
+			assertEquals(matrix.getWidth(), image.getWidth());
+			assertEquals(matrix.getHeight(), image.getHeight());
+			for (int y = 0; y < matrix.getHeight(); y++) {
+				for (int x = 0; x < matrix.getWidth(); x++) {
+					boolean black = (image.getRGB(x, y) & 0xffffff) == 0;
+					assertEquals(matrix.get(x, y), black, "size " + size + " pixel " + x + "," + y);
+				}
+			}
+		}
+	}
+
+	@Test
+	void svgCoversExactlyTheDarkModules() throws Exception {
+		BitMatrix matrix = encode(0);
+
+		String svg = QRCodeRenderer.svg(matrix, 300);
+
+		assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"300\" height=\"300\" viewBox=\"0 0 "
+			+ matrix.getWidth() + " " + matrix.getHeight() + "\""));
+		assertTrue(svg.endsWith("</svg>"));
+		BitMatrix drawn = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+		Matcher run = RUN.matcher(svg);
+		while (run.find()) {
+			drawn.setRegion(Integer.parseInt(run.group(1)), Integer.parseInt(run.group(2)), Integer.parseInt(run.group(3)), 1);
+		}
+		assertEquals(matrix, drawn);
+	}
+
+	private static BitMatrix encode(int size) throws WriterException {
+		return new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, size, size, Map.of(EncodeHintType.MARGIN, 1));
+	}
+}
@@ -0,0 +1,44 @@
+package com.boit_droid.wallet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SCryptTests {
+
+	// RFC 7914 section 12; the first vector uses an empty password, which HMAC keys cannot be
+
+	@Test
+	void matchesRfc7914ParallelVector() {
+		byte[] expected = HexFormat.of().parseHex(
+			"fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162"
+				+ "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640");
+
+		assertArrayEquals(expected, derive("password", "NaCl", 1024, 8, 16));
+	}
+
+	@Test
+	void matchesRfc7914MemoryHardVector() {
+		byte[] expected = HexFormat.of().parseHex(
+			"7023bdcb3afd7348461c06cd81fd38ebfda8fbba904f8e3ea9b543f6545da1f2"
+				+ "d5432955613f0fcf62d49705242a9af9e61e85dc0d651e40dfcf017b45575887");
+
+		assertArrayEquals(expected, derive("pleaseletmein", "SodiumChloride", 16384, 8, 1));
+	}
+
+	@Test
+	void rejectsInvalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> derive("pin", "salt", 1000, 8, 1));
+		assertThrows(IllegalArgumentException.class, () -> derive("pin", "salt", 1, 8, 1));
+		assertThrows(IllegalArgumentException.class, () -> derive("pin", "salt", 1024, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> derive("pin", "salt", 1024, 8, 0));
+	}
+
+	private static byte[] derive(String password, String salt, int n, int r, int p) {
+		return SCrypt.derive(password.getBytes(StandardCharsets.UTF_8), salt.getBytes(StandardCharsets.UTF_8), n, r, p, 64);
+	}
+}
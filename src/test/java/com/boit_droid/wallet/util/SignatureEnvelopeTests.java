@@ -0,0 +1,59 @@
+package com.boit_droid.wallet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignatureEnvelopeTests {
+
+	private static final String KEY = "wallet-salt";
+	private static final String PAYLOAD = "1|7|100.00|2|TRANSFER";
+
+	private final SignatureUtil signatureUtil = new SignatureUtil();
+	private final Instant signedAt = Instant.ofEpochMilli(1_700_000_000_123L);
+
+	@Test
+	void encodedEnvelopeParsesAndVerifies() {
+		SignatureEnvelope envelope = SignatureEnvelope.sign(PAYLOAD, KEY, signedAt, signatureUtil);
+		String encoded = envelope.encode();
+
+		SignatureEnvelope parsed = SignatureEnvelope.parse(encoded);
+
+		assertTrue(encoded.startsWith("v1." + SignatureEnvelope.keyIdOf(KEY, signatureUtil) + ".1700000000123."));
+		assertEquals(envelope.keyId(), parsed.keyId());
+		assertEquals(signedAt, parsed.signedAt());
+		assertArrayEquals(envelope.mac(), parsed.mac());
+		assertTrue(parsed.verify(PAYLOAD, KEY, signatureUtil));
+	}
+
+	@Test
+	void rejectsChangedPayloadKeyOrHeader() {
+		SignatureEnvelope envelope = SignatureEnvelope.sign(PAYLOAD, KEY, signedAt, signatureUtil);
+
+		assertFalse(envelope.verify("1|7|100.01|2|TRANSFER", KEY, signatureUtil));
+		assertFalse(envelope.verify(PAYLOAD, "other-salt", signatureUtil));
+		// The MAC covers the header, so moving the timestamp or version breaks it
+		assertFalse(new SignatureEnvelope(1, envelope.keyId(), signedAt.plusMillis(1), envelope.mac())
+			.verify(PAYLOAD, KEY, signatureUtil));
+		assertFalse(new SignatureEnvelope(2, envelope.keyId(), signedAt, envelope.mac())
+			.verify(PAYLOAD, KEY, signatureUtil));
+	}
+
+	@Test
+	void parsesOnlyWellFormedEnvelopes() {
+		String encoded = SignatureEnvelope.sign(PAYLOAD, KEY, signedAt, signatureUtil).encode();
+
+		assertNull(SignatureEnvelope.parse(null));
+		assertNull(SignatureEnvelope.parse("3f2a9c"));
+		assertNull(SignatureEnvelope.parse(encoded + ".extra"));
+		assertNull(SignatureEnvelope.parse(encoded.replace(".1700000000123.", ".soon.")));
+		assertNull(SignatureEnvelope.parse(encoded.substring(0, encoded.lastIndexOf('.') + 1) + "not base64!"));
+		assertNull(SignatureEnvelope.parse("vX" + encoded.substring(2)));
+	}
+}
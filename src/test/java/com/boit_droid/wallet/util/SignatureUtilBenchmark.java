@@ -0,0 +1,118 @@
+package com.boit_droid.wallet.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and hashing cost of SignatureUtil against the previous implementation, which looked up
+ * a new Mac or MessageDigest on every call. hotWallet signs with one salt, as a busy wallet does;
+ * manyWallets picks from more salts than the per-thread Mac cache holds, so most calls re-key an
+ * evicted Mac. The raw variant signs bytes without the String and Base64 conversions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureUtilBenchmark {
+
+    private static final int WALLETS = 10_000;
+
+    private SignatureUtil signatureUtil;
+    private String[] salts;
+    private String data;
+    private byte[] dataBytes;
+    private String pinSalt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        signatureUtil = new SignatureUtil();
+        salts = new String[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            salts[i] = signatureUtil.generateSalt();
+        }
+        data = signatureUtil.generateTransactionSignatureData("WAL-0001", "USR-0001", "1250.00", "2024-01-01T10:00:00")
+            + "|WAL-0002|TRANSFER";
+        dataBytes = data.getBytes(StandardCharsets.UTF_8);
+        pinSalt = signatureUtil.generateSalt();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hotWalletLegacy() throws Exception {
+        return legacySignature(data, salts[0]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hotWalletCached() {
+        return signatureUtil.generateSignature(data, salts[0]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] hotWalletRaw() {
+        return signatureUtil.sign(dataBytes, salts[0]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String manyWalletsLegacy() throws Exception {
+        return legacySignature(data, salts[ThreadLocalRandom.current().nextInt(WALLETS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String manyWalletsCached() {
+        return signatureUtil.generateSignature(data, salts[ThreadLocalRandom.current().nextInt(WALLETS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hashPinLegacy() throws Exception {
+        signatureUtil.validatePin("2580");
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(pinSalt.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest.digest("2580".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String hashPinCached() {
+        return signatureUtil.hashPin("2580", pinSalt);
+    }
+
+    private static String legacySignature(String data, String salt) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(salt.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SignatureUtilBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}